@@ -1,3 +1,5 @@
+-- Solo se ejecuta al crear el volumen de datos. Las bases de datos existentes las actualiza la
+-- aplicación al arrancar con backend/src/main/resources/db/upgrade-mariadb.sql.
 DROP DATABASE IF EXISTS inventario;
 
 CREATE DATABASE IF NOT EXISTS inventario
@@ -10,7 +12,10 @@ CREATE TABLE IF NOT EXISTS categorias (
     nombre VARCHAR(255) NOT NULL UNIQUE,
     descripcion VARCHAR(255),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Versión para el bloqueo optimista (ETag / If-Match); cada UPDATE la incrementa
+    version INT UNSIGNED NOT NULL DEFAULT 0,
+    INDEX idx_categorias_updated_at (updated_at, id_categoria)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
 
 CREATE TABLE IF NOT EXISTS productos (
@@ -18,12 +23,54 @@ CREATE TABLE IF NOT EXISTS productos (
     nombre VARCHAR(255) NOT NULL UNIQUE,
     stock_actual INT UNSIGNED NOT NULL,
     stock_minimo INT UNSIGNED NOT NULL CHECK (stock_minimo >= 1),
+    -- Unidades que faltan para llegar al mínimo (> 0 si el producto está bajo stock).
+    -- Columna generada e indexada para que la consulta de bajo stock no recorra toda la tabla.
+    -- Se convierte a SIGNED porque la resta de dos UNSIGNED da error si es negativa.
+    deficit INT AS (CAST(stock_minimo AS SIGNED) - CAST(stock_actual AS SIGNED)) STORED,
     id_categoria INT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Versión para el bloqueo optimista (ETag / If-Match); cada UPDATE la incrementa
+    version INT UNSIGNED NOT NULL DEFAULT 0,
+    INDEX idx_productos_updated_at (updated_at, id_producto),
+    INDEX idx_productos_deficit (deficit),
     FOREIGN KEY (id_categoria) REFERENCES categorias(id_categoria) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
 
+-- Registro de movimientos de stock: solo se añaden filas, una por cada cambio de stock_actual.
+-- El historial de un producto por fechas se lee del índice (id_producto, ts) sin tocar productos.
+-- La compactación agrupa los movimientos antiguos en snapshots_stock y los borra.
+CREATE TABLE IF NOT EXISTS movimientos_stock (
+    id_movimiento INT AUTO_INCREMENT PRIMARY KEY,
+    id_producto INT NOT NULL,
+    delta INT NOT NULL,
+    motivo VARCHAR(255),
+    ts TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_movimientos_stock_producto_ts (id_producto, ts),
+    -- Salidas por día para la previsión: el rango de fechas se lee solo del índice
+    INDEX idx_movimientos_stock_ts (ts, id_producto, delta),
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+
+-- Movimientos compactados de cada producto: suma de sus variaciones, cuántos eran y la fecha del último
+CREATE TABLE IF NOT EXISTS snapshots_stock (
+    id_producto INT PRIMARY KEY,
+    saldo INT NOT NULL,
+    movimientos INT UNSIGNED NOT NULL,
+    hasta TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+
+-- Unidades que la escritura diferida asíncrona ha reservado para salidas ya confirmadas al cliente
+-- y aún no escritas, por instancia de la aplicación. El resto de escrituras no pueden tomarlas.
+CREATE TABLE IF NOT EXISTS reservas_stock (
+    id_producto INT NOT NULL,
+    instancia VARCHAR(64) NOT NULL,
+    unidades INT NOT NULL,
+    PRIMARY KEY (id_producto, instancia),
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+
 INSERT INTO categorias (nombre, descripcion) VALUES
 ('Medicamento', 'Fármacos y medicamentos de uso clínico'),
 ('Fungible', 'Material de un solo uso o de reposición frecuente'),
@@ -61,3 +108,7 @@ INSERT INTO productos (nombre, stock_actual, stock_minimo, id_categoria) VALUES
 ('Collarín cervical 4 posiciones', 10, 5, (SELECT id_categoria FROM categorias WHERE nombre = 'Inmovilización')),
 ('Collarín cervical short', 8, 4, (SELECT id_categoria FROM categorias WHERE nombre = 'Inmovilización')),
 ('Collarín cervical no-neck', 5, 3, (SELECT id_categoria FROM categorias WHERE nombre = 'Inmovilización'));
+
+-- El stock inicial es el primer movimiento de cada producto
+INSERT INTO movimientos_stock (id_producto, delta, motivo)
+SELECT id_producto, stock_actual, 'Inventario inicial' FROM productos;
@@ -0,0 +1,75 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import birt.smoreno.inventarioAPI.InventarioAPIApplication;
+
+/**
+ * Arranque de la aplicación sin servidor web sobre una base de datos H2 en
+ * memoria en modo MariaDB (perfil {@code benchmark}), con un inventario
+ * sintético de tamaño fijo.
+ */
+final class BenchmarkDatabase {
+
+	/** Número de categorías generadas. */
+	static final int CATEGORIES = 20;
+	/** Número de productos generados. */
+	static final int PRODUCTS = 10_000;
+
+	private BenchmarkDatabase() {
+	}
+
+	/**
+	 * Arrancar el contexto de Spring y cargar el inventario de prueba
+	 *
+	 * @param args Argumentos de la aplicación, por ejemplo {@code --clave=valor}
+	 *             para sustituir una propiedad
+	 * @return Contexto de la aplicación; debe cerrarse al terminar
+	 */
+	static ConfigurableApplicationContext start(String... args) {
+		// DevTools reinicia la aplicación en otro classloader si no se desactiva
+		// antes de arrancar
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		SpringApplication application = new SpringApplicationBuilder(InventarioAPIApplication.class)
+				.web(WebApplicationType.NONE).profiles("benchmark").build();
+		ConfigurableApplicationContext context = application.run(args);
+		seed(context.getBean(JdbcTemplate.class));
+		return context;
+	}
+
+	/**
+	 * Nombre del producto generado con el ID indicado
+	 */
+	static String productName(int id) {
+		return String.format("Producto %05d", id);
+	}
+
+	/**
+	 * Insertar las categorías y los productos. Uno de cada veinte productos queda
+	 * por debajo de su stock mínimo.
+	 */
+	private static void seed(JdbcTemplate jdbcTemplate) {
+		List<Object[]> categories = new ArrayList<>(CATEGORIES);
+		for (int i = 1; i <= CATEGORIES; i++) {
+			categories.add(new Object[] { "Categoría " + i, "Descripción de la categoría " + i });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO categorias (nombre, descripcion) VALUES (?, ?)", categories);
+
+		List<Object[]> products = new ArrayList<>(PRODUCTS);
+		for (int i = 1; i <= PRODUCTS; i++) {
+			int minStock = 10 + i % 40;
+			int stock = i % 20 == 0 ? minStock / 2 : minStock * 3;
+			products.add(new Object[] { productName(i), stock, minStock, 1 + i % CATEGORIES });
+		}
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO productos (nombre, stock_actual, stock_minimo, id_categoria) VALUES (?, ?, ?, ?)",
+				products);
+	}
+}
@@ -0,0 +1,67 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.entities.CategoryEntity;
+import birt.smoreno.inventarioAPI.entities.ProductEntity;
+import birt.smoreno.inventarioAPI.mappers.CategoryMapper;
+import birt.smoreno.inventarioAPI.mappers.ProductMapper;
+
+/**
+ * Rendimiento y memoria asignada por la conversión de entidades a DTOs de
+ * respuesta. Con {@code -prof gc} JMH añade {@code gc.alloc.rate.norm} (bytes
+ * por operación) al resultado.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark {
+
+	private ProductMapper productMapper;
+	private CategoryMapper categoryMapper;
+	private ProductEntity product;
+	private CategoryEntity category;
+
+	@Setup
+	public void setup() {
+		// toResponseDTO no utiliza el servicio de categorías
+		productMapper = new ProductMapper(null);
+		categoryMapper = new CategoryMapper();
+		LocalDateTime now = LocalDateTime.now();
+		category = new CategoryEntity(2, "Fungible", "Material de un solo uso o de reposición frecuente", now, now,
+				0, null);
+		product = new ProductEntity(1, "Gasas", 30, 25, -5, now, now, 0, category);
+	}
+
+	@Benchmark
+	public ProductResponseDTO productToResponseDTO() {
+		return productMapper.toResponseDTO(product);
+	}
+
+	@Benchmark
+	public ProductResponseDTO productToExpandedResponseDTO() {
+		return productMapper.toExpandedResponseDTO(product);
+	}
+
+	@Benchmark
+	public CategoryResponseDTO categoryToResponseDTO() {
+		return categoryMapper.toResponseDTO(category);
+	}
+}
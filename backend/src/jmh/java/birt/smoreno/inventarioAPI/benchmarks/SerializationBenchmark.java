@@ -0,0 +1,82 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+
+/**
+ * Serialización JSON de un listado de productos con el envoltorio
+ * {@link ApiResponseDTO}, con y sin la categoría expandida. El
+ * {@link ObjectMapper} se configura como el de Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	private int size;
+
+	@Param({ "false", "true" })
+	private boolean expandCategory;
+
+	private ObjectMapper objectMapper;
+	private ApiResponseDTO<List<ProductResponseDTO>> response;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		CategoryResponseDTO category = new CategoryResponseDTO(2, "Fungible",
+				"Material de un solo uso o de reposición frecuente");
+		List<ProductResponseDTO> products = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			products.add(new ProductResponseDTO(i, "Producto " + i, i % 50, 25, 2, expandCategory ? category : null));
+		}
+		response = new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+				"Productos obtenidos correctamente", products, CursorPagination.encode(size, null));
+	}
+
+	/**
+	 * Serialización a un {@code byte[]}, como cuando se calcula la longitud del
+	 * cuerpo antes de enviarlo.
+	 */
+	@Benchmark
+	public byte[] writeValueAsBytes() throws IOException {
+		return objectMapper.writeValueAsBytes(response);
+	}
+
+	/**
+	 * Serialización directa a un flujo, sin el coste de copiar el resultado.
+	 */
+	@Benchmark
+	public void writeToStream() throws IOException {
+		objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+	}
+}
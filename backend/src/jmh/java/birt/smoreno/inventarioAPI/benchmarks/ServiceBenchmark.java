@@ -0,0 +1,177 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductSearchResultDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.dto.VersionedDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.services.CategoryService;
+import birt.smoreno.inventarioAPI.services.ProductSearchService;
+import birt.smoreno.inventarioAPI.services.ProductService;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import birt.smoreno.inventarioAPI.utils.StatementCounter;
+
+/**
+ * Métodos de {@link ProductService} y {@link CategoryService} que sirven las
+ * rutas más usadas, sobre H2 en memoria en modo MariaDB con
+ * {@value BenchmarkDatabase#PRODUCTS} productos. Mide la capa de servicio
+ * completa (transacción, consultas, Hibernate, caché y mappers) sin HTTP.
+ * <p>
+ * Además del tiempo, cada método publica las sentencias SQL ejecutadas
+ * ({@code sqlStatements}) y las llamadas medidas ({@code calls}); su cociente
+ * son las sentencias por operación. Con {@code -prof gc}, la memoria asignada
+ * por operación aparece en {@code gc.alloc.rate.norm}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ServiceBenchmark {
+
+	// Cursor del producto central en el orden por nombre
+	private static final String MIDDLE_NAME_CURSOR = CursorPagination.encode(BenchmarkDatabase.PRODUCTS / 2,
+			BenchmarkDatabase.productName(BenchmarkDatabase.PRODUCTS / 2));
+
+	private ConfigurableApplicationContext context;
+	private ProductService productService;
+	private CategoryService categoryService;
+	private ProductSearchService productSearchService;
+	private JdbcTemplate jdbcTemplate;
+	private int nextId;
+	private int delta = -1;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = BenchmarkDatabase.start();
+		productService = context.getBean(ProductService.class);
+		categoryService = context.getBean(CategoryService.class);
+		productSearchService = context.getBean(ProductSearchService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		// El índice se construye al arrancar, antes de que se carguen los productos
+		productSearchService.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Sentencias SQL ejecutadas, contadas con {@link StatementCounter} en el hilo
+	 * del benchmark. Un lote JDBC cuenta como una sentencia.
+	 * <p>
+	 * JMH suma estos contadores entre iteraciones, por lo que se publican totales
+	 * y no la media por operación.
+	 * </p>
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Statements {
+
+		private StatementCounter counter;
+
+		/** Sentencias SQL ejecutadas en la iteración. */
+		public long sqlStatements;
+		/** Llamadas medidas en la iteración. */
+		public long calls;
+
+		@Setup(Level.Iteration)
+		public void reset(ServiceBenchmark benchmark) {
+			counter = benchmark.context.getBean(StatementCounter.class);
+			counter.reset();
+			sqlStatements = 0;
+			calls = 0;
+		}
+
+		@TearDown(Level.Invocation)
+		public void count() {
+			sqlStatements += counter.count();
+			counter.reset();
+			calls++;
+		}
+	}
+
+	/** ID de producto distinto en cada llamada, para no medir siempre la misma fila. */
+	private int nextProductId() {
+		nextId = nextId % BenchmarkDatabase.PRODUCTS + 1;
+		return nextId;
+	}
+
+	@Benchmark
+	public CursorPageDTO<ProductResponseDTO> getAllProductsFirstPage(Statements statements) throws CustomException {
+		return productService.getAllProducts(null, 100, SortField.ID, false);
+	}
+
+	@Benchmark
+	public CursorPageDTO<ProductResponseDTO> getAllProductsByNameExpanded(Statements statements)
+			throws CustomException {
+		return productService.getAllProducts(MIDDLE_NAME_CURSOR, 100, SortField.NOMBRE, true);
+	}
+
+	@Benchmark
+	public VersionedDTO<ProductResponseDTO> getProductById(Statements statements) throws CustomException {
+		return productService.getProductById(nextProductId());
+	}
+
+	@Benchmark
+	public List<ProductResponseDTO> getProductsUnderStock(Statements statements) {
+		return productService.getProductsUnderStock(false);
+	}
+
+	@Benchmark
+	public StockMovementResponseDTO applyStockMovement(Statements statements) throws CustomException {
+		// Una entrada en un producto nuevo y a continuación una salida en el mismo,
+		// para que el stock no varíe a lo largo de la medición
+		delta = -delta;
+		int id = delta > 0 ? nextProductId() : nextId;
+		return productService.applyStockMovement(id, delta, null);
+	}
+
+	@Benchmark
+	public CursorPageDTO<CategoryResponseDTO> getAllCategories(Statements statements) throws CustomException {
+		return categoryService.getAllCategories(null, null, SortField.ID);
+	}
+
+	@Benchmark
+	public Optional<VersionedDTO<CategoryResponseDTO>> getCategoryById(Statements statements) {
+		return categoryService.getCategoryById(1 + nextId++ % BenchmarkDatabase.CATEGORIES);
+	}
+
+	@Benchmark
+	public List<ProductSearchResultDTO> searchProducts(Statements statements) throws CustomException {
+		return productSearchService.search("producto 042", 10);
+	}
+
+	/** Referencia: la misma búsqueda con {@code LIKE '%x%'}, que recorre la tabla. */
+	@Benchmark
+	public List<String> searchProductsWithLike(Statements statements) {
+		return jdbcTemplate.queryForList("SELECT nombre FROM productos WHERE LOWER(nombre) LIKE ? LIMIT 10",
+				String.class, "%producto 042%");
+	}
+}
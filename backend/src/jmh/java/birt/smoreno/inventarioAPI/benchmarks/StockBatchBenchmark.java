@@ -0,0 +1,87 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.services.ProductService;
+
+/**
+ * Un cierre de turno de {@code size} movimientos sobre productos distintos,
+ * aplicado como {@code size} llamadas a
+ * {@link ProductService#applyStockMovement} (una transacción cada una, como
+ * {@code size} peticiones a {@code POST /api/products/{id}/movements}) o como
+ * una llamada a {@link ProductService#applyStockMovements} (un lote JDBC en una
+ * transacción, como {@code POST /api/products/movements:batch}).
+ * <p>
+ * Se mide el tiempo de aplicar el turno completo. Sobre H2 en memoria no hay
+ * red, por lo que la diferencia con MariaDB, donde cada sentencia y cada commit
+ * suman un viaje de ida y vuelta, será mayor.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockBatchBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	@Param({ "single", "batch" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+	private ProductService productService;
+	private List<StockBatchItemDTO> items;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = BenchmarkDatabase.start();
+		productService = context.getBean(ProductService.class);
+		// Entradas de una unidad, que nunca se rechazan por falta de stock
+		items = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			items.add(new StockBatchItemDTO(i * (BenchmarkDatabase.PRODUCTS / size), 1, "Cierre de turno"));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int applyShift() throws CustomException {
+		if (mode.equals("batch")) {
+			StockBatchResponseDTO result = productService.applyStockMovements(items);
+			return result.aplicados();
+		}
+		int applied = 0;
+		for (StockBatchItemDTO item : items) {
+			productService.applyStockMovement(item.getId_producto(), item.getDelta(), item.getReason());
+			applied++;
+		}
+		return applied;
+	}
+}
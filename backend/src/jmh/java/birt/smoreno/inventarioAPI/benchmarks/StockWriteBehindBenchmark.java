@@ -0,0 +1,108 @@
+package birt.smoreno.inventarioAPI.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.services.ProductService;
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService;
+
+/**
+ * Salidas de stock concurrentes sobre unos pocos productos, como en un
+ * simulacro con cientos de terminales dispensando el mismo material.
+ * <p>
+ * Con {@code mode=direct} cada salida es un {@code UPDATE} condicional en su
+ * propia transacción ({@link ProductService#applyStockMovement}) y los hilos
+ * esperan al bloqueo de la fila del producto. En los otros modos se reservan
+ * en memoria ({@link StockWriteBehindService}) y se escriben como un
+ * {@code UPDATE} neto por producto cada {@value #FLUSH_INTERVAL}: con
+ * {@code async} se responde al conceder unidades ya reservadas en la base de
+ * datos, que se piden de {@code lease-size} en {@code lease-size} (el ritmo lo
+ * marca la escritura del registro de movimientos) y con {@code sync}, tras el
+ * commit del volcado, igual
+ * que en {@code direct}. La columna {@code version} de los productos cuenta los
+ * {@code UPDATE} ejecutados y se imprime tras cada iteración.
+ * </p>
+ * <p>
+ * Se mide el total de salidas por milisegundo entre todos los hilos: en modo
+ * {@code async}, los hilos que alcanzan el máximo de salidas pendientes esperan
+ * un volcado entero, y la media por hilo de {@code AverageTime} lo exageraría.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockWriteBehindBenchmark {
+
+	/** Productos que reciben todas las salidas. */
+	static final int HOT_PRODUCTS = 4;
+	/** Intervalo de volcado en modo diferido. */
+	static final String FLUSH_INTERVAL = "20ms";
+
+	// Stock suficiente para toda la medición
+	private static final int INITIAL_STOCK = 1_000_000_000;
+
+	@Param({ "direct", "async", "sync" })
+	public String mode;
+
+	private boolean writeBehind;
+	private ConfigurableApplicationContext context;
+	private ProductService productService;
+	private StockWriteBehindService stockWriteBehindService;
+	private JdbcTemplate jdbcTemplate;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		writeBehind = !mode.equals("direct");
+		context = BenchmarkDatabase.start("--" + StockWriteBehindService.ENABLED + "=" + writeBehind,
+				"--" + StockWriteBehindService.FLUSH_INTERVAL + "=" + FLUSH_INTERVAL,
+				"--" + StockWriteBehindService.DURABILITY + "=" + (writeBehind ? mode : "async"));
+		productService = context.getBean(ProductService.class);
+		stockWriteBehindService = context.getBean(StockWriteBehindService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("UPDATE productos SET stock_actual = ? WHERE id_producto <= ?", INITIAL_STOCK,
+				HOT_PRODUCTS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		// Al cerrar el contexto se vuelca lo pendiente
+		context.close();
+	}
+
+	@TearDown(Level.Iteration)
+	public void printUpdates() {
+		Integer updates = jdbcTemplate.queryForObject("SELECT SUM(version) FROM productos WHERE id_producto <= ?",
+				Integer.class, HOT_PRODUCTS);
+		System.out.println("UPDATE sobre los productos: " + updates);
+	}
+
+	@Benchmark
+	public StockMovementResponseDTO decrementHotProduct() throws CustomException {
+		int id = 1 + ThreadLocalRandom.current().nextInt(HOT_PRODUCTS);
+		return writeBehind ? stockWriteBehindService.decrement(id, -1, null)
+				: productService.applyStockMovement(id, -1, null);
+	}
+}
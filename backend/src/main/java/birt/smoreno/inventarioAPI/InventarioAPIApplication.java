@@ -1,9 +1,27 @@
 package birt.smoreno.inventarioAPI;
 
 import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
 
-@SpringBootApplication
+/**
+ * Aplicación de la pila servlet (Spring MVC y JPA).
+ * <p>
+ * Equivale a {@code @SpringBootApplication}, salvo que no escanea el paquete
+ * {@code reactive}: con el perfil de Maven {@code reactive} ese paquete también
+ * está en el classpath y tiene su propia aplicación.
+ * </p>
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(excludeFilters = { @Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+		@Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+		@Filter(type = FilterType.REGEX, pattern = "birt\\.smoreno\\.inventarioAPI\\.reactive\\..*") })
 public class InventarioAPIApplication {
 
 	public static void main(String[] args) {
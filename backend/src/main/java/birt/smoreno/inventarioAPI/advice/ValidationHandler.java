@@ -3,18 +3,29 @@ package birt.smoreno.inventarioAPI.advice;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
 import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.MetricsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
 
 /**
  * {@code ValidationHandler} se encarga de interceptar y gestionar las
@@ -32,12 +43,23 @@ import birt.smoreno.inventarioAPI.utils.AppConstants;
  * formato JSON usando {@link ApiResponseDTO}.
  * </p>
  *
+ * <p>
+ * Cada petición rechazada se cuenta por ruta en la métrica
+ * {@link MetricsConfig#VALIDATION_FAILURES}.
+ * </p>
+ *
  * @see ResponseEntityExceptionHandler
  * @see ApiResponseDTO
  */
 @ControllerAdvice
 public class ValidationHandler extends ResponseEntityExceptionHandler {
 
+	private final MeterRegistry meterRegistry;
+
+	public ValidationHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	/**
 	 * Maneja las excepciones lanzadas cuando un argumento anotado con
 	 * {@code @Valid} no cumple con las restricciones de validación definidas.
@@ -53,6 +75,7 @@ public class ValidationHandler extends ResponseEntityExceptionHandler {
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(@NonNull MethodArgumentNotValidException exception,
 			@NonNull HttpHeaders headers, @NonNull HttpStatusCode status, @NonNull WebRequest request) {
 
+		countValidationFailure(request);
 		Map<String, String> errors = new HashMap<>();
 
 		exception.getBindingResult().getFieldErrors().forEach(error -> {
@@ -66,4 +89,89 @@ public class ValidationHandler extends ResponseEntityExceptionHandler {
 
 		return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
 	}
+
+	/**
+	 * Maneja las excepciones de validación de parámetros del método del
+	 * controlador que no son un único objeto {@code @Valid}, como las listas
+	 * validadas elemento a elemento ({@code List<@Valid ...>}) o las restricciones
+	 * aplicadas directamente sobre un parámetro.
+	 * <p>
+	 * Los errores de cada elemento de una lista se identifican con su posición,
+	 * por ejemplo {@code items[3].delta}.
+	 * </p>
+	 *
+	 * @param exception excepción lanzada por errores de validación.
+	 * @param headers   cabeceras HTTP asociadas a la respuesta.
+	 * @param status    estado HTTP correspondiente.
+	 * @param request   información adicional sobre la solicitud web.
+	 * @return {@link ResponseEntity} con un cuerpo estandarizado que contiene los
+	 *         errores de validación.
+	 */
+	@Override
+	protected ResponseEntity<Object> handleHandlerMethodValidationException(
+			@NonNull HandlerMethodValidationException exception, @NonNull HttpHeaders headers,
+			@NonNull HttpStatusCode status, @NonNull WebRequest request) {
+
+		countValidationFailure(request);
+		Map<String, String> errors = new HashMap<>();
+
+		exception.getParameterValidationResults().forEach(result -> {
+			String parameterName = result.getMethodParameter().getParameterName();
+			if (result.getContainerIndex() != null) {
+				parameterName += "[" + result.getContainerIndex() + "]";
+			}
+
+			if (result instanceof ParameterErrors parameterErrors) {
+				for (FieldError error : parameterErrors.getFieldErrors()) {
+					errors.put(parameterName + "." + error.getField(), error.getDefaultMessage());
+				}
+			} else {
+				for (MessageSourceResolvable error : result.getResolvableErrors()) {
+					errors.put(parameterName, error.getDefaultMessage());
+				}
+			}
+		});
+
+		ApiResponseDTO<Object> apiResponse = new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
+				HttpStatus.BAD_REQUEST.value(), "Error de validación", errors);
+
+		return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Maneja las excepciones de validación de los campos de un cambio parcial
+	 * ({@code PATCH}), que se validan uno a uno en lugar de con {@code @Valid}.
+	 *
+	 * @param exception excepción lanzada por errores de validación.
+	 * @param request   información adicional sobre la solicitud web.
+	 * @return {@link ResponseEntity} con un cuerpo estandarizado que contiene los
+	 *         errores de validación.
+	 */
+	@ExceptionHandler(ConstraintViolationException.class)
+	protected ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException exception,
+			WebRequest request) {
+
+		countValidationFailure(request);
+		Map<String, String> errors = new HashMap<>();
+
+		exception.getConstraintViolations()
+				.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+
+		ApiResponseDTO<Object> apiResponse = new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
+				HttpStatus.BAD_REQUEST.value(), "Error de validación", errors);
+
+		return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Contar una petición rechazada por validación
+	 * 
+	 * @param request información de la solicitud web, con la ruta resuelta.
+	 */
+	private void countValidationFailure(WebRequest request) {
+		Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+		Counter.builder(MetricsConfig.VALIDATION_FAILURES).description("Peticiones rechazadas por validación")
+				.tag("uri", uri != null ? uri.toString() : "UNKNOWN").register(meterRegistry).increment();
+	}
 }
@@ -0,0 +1,46 @@
+package birt.smoreno.inventarioAPI.controllers;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CacheStatsDTO;
+import birt.smoreno.inventarioAPI.services.CacheStatsService;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+
+/**
+ * {@code CacheController} es un controlador REST que expone las estadísticas
+ * de las cachés en memoria de la aplicación.
+ * <ul>
+ * <li>{@link #getCacheStats()}: Obtiene aciertos, fallos y desalojos de cada
+ * caché.</li>
+ * </ul>
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("/api/cache")
+public class CacheController {
+
+	private final CacheStatsService cacheStatsService;
+
+	public CacheController(CacheStatsService cacheStatsService) {
+		this.cacheStatsService = cacheStatsService;
+	}
+
+	/**
+	 * Obtiene las estadísticas de todas las cachés.
+	 * 
+	 * @return ResponseEntity de {@link ApiResponseDTO} con las estadísticas.
+	 */
+	@GetMapping("/stats")
+	public ResponseEntity<ApiResponseDTO<List<CacheStatsDTO>>> getCacheStats() {
+		return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+				"Estadísticas de caché obtenidas correctamente", cacheStatsService.getCacheStats()));
+	}
+}
@@ -1,28 +1,51 @@
 package birt.smoreno.inventarioAPI.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
 import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
 import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategorySummaryDTO;
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.ImportResultDTO;
+import birt.smoreno.inventarioAPI.dto.VersionedDTO;
 import birt.smoreno.inventarioAPI.entities.CategoryEntity;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
 import birt.smoreno.inventarioAPI.mappers.CategoryMapper;
 import birt.smoreno.inventarioAPI.services.CategoryService;
+import birt.smoreno.inventarioAPI.services.ImportService;
+import birt.smoreno.inventarioAPI.services.TableVersionService;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
 import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.IfMatch;
+import birt.smoreno.inventarioAPI.utils.MergePatch;
+import birt.smoreno.inventarioAPI.utils.SortField;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 /**
  * {@code CategoryController} es un controlador REST que gestiona las
@@ -31,13 +54,21 @@ import jakarta.validation.Valid;
  * Proporciona endpoints para crear, leer, actualizar y eliminar categorías.
  * </p>
  * <ul>
- * <li>{@link #getAllCategories()}: Obtiene todas las categorías.</li>
- * <li>{@link #getCategoryById(int)}: Obtiene una categoría por su ID.</li>
+ * <li>{@link #getAllCategories(String, Integer, String, WebRequest)}:
+ * Obtiene una página de categorías.</li>
+ * <li>{@link #getCategoryById(int, WebRequest)}: Obtiene una categoría por su
+ * ID.</li>
+ * <li>{@link #getCategorySummary(WebRequest)}: Obtiene los totales de
+ * inventario de cada categoría.</li>
  * <li>{@link #createCategory(CategoryRequestDTO)}: Crea una nueva
  * categoría.</li>
- * <li>{@link #updateCategory(int, CategoryRequestDTO)}: Actualiza una categoría
+ * <li>{@link #updateCategory(int, CategoryRequestDTO, String)}: Actualiza una categoría
  * existente.</li>
- * <li>{@link #deleteCategory(int)}: Elimina una categoría por su ID.</li>
+ * <li>{@link #patchCategory(int, ObjectNode, String)}: Modifica solo algunos
+ * campos de una categoría.</li>
+ * <li>{@link #deleteCategory(int, String)}: Elimina una categoría por su ID.</li>
+ * <li>{@link #importCategories(InputStream)}: Importa categorías desde un
+ * CSV.</li>
  * </ul>
  */
 @RestController
@@ -47,42 +78,111 @@ public class CategoryController {
 
 	private final CategoryService categoryService;
 	private final CategoryMapper categoryMapper;
+	private final TableVersionService tableVersionService;
+	private final ImportService importService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
 
-	public CategoryController(CategoryService categoryService, CategoryMapper categoryMapper) {
+	public CategoryController(CategoryService categoryService, CategoryMapper categoryMapper,
+			TableVersionService tableVersionService, ImportService importService, ObjectMapper objectMapper,
+			Validator validator) {
 		this.categoryService = categoryService;
 		this.categoryMapper = categoryMapper;
+		this.tableVersionService = tableVersionService;
+		this.importService = importService;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
 	}
 
 	// CRUD básico: Create, Read, Update, Delete
 
 	/**
-	 * Obtiene todas las categorías.
+	 * Obtiene una página de categorías mediante paginación por cursor.
+	 * <p>
+	 * La respuesta lleva un ETag; si el cliente lo envía en
+	 * {@code If-None-Match} y no ha habido cambios, se responde
+	 * {@code 304 Not Modified}.
+	 * </p>
 	 * 
-	 * @return ResponseEntity de {@link ApiResponseDTO} con la lista de categorías.
+	 * @param after   cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit   tamaño de página (opcional, máximo
+	 *                {@link AppConstants#MAX_PAGE_SIZE}).
+	 * @param sort    criterio de ordenación: {@code id}, {@code nombre} o
+	 *                {@code updated_at} (opcional).
+	 * @param request petición, para comprobar {@code If-None-Match}.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con la lista de categorías y
+	 *         el cursor de la página siguiente.
 	 */
 	@GetMapping
-	public ResponseEntity<ApiResponseDTO<List<CategoryResponseDTO>>> getAllCategories() {
-		// Obtener todas las categorías
-		List<CategoryResponseDTO> categories = categoryService.getAllCategories();
-		// Devolver la lista de categorías con el estado 200 (OK)
-		return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-				"Categorías obtenidas correctamente", categories));
+	public ResponseEntity<ApiResponseDTO<List<CategoryResponseDTO>>> getAllCategories(
+			@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String sort, WebRequest request) {
+		try {
+			SortField sortField = SortField.fromParam(sort);
+
+			// Responder 304 (NOT MODIFIED) si el cliente ya tiene esta versión
+			String etag = tableVersionService.etag(Table.CATEGORIAS);
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			// Obtener la página de categorías
+			CursorPageDTO<CategoryResponseDTO> page = categoryService.getAllCategories(after, limit, sortField);
+			// Devolver la lista de categorías con el estado 200 (OK)
+			return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+					HttpStatus.OK.value(), "Categorías obtenidas correctamente", page.items(), page.nextCursor()));
+		} catch (CustomException e) {
+			// Devolver un estado 400 (BAD REQUEST) si el criterio de ordenación no es válido
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Obtiene los totales de inventario de cada categoría para el panel de
+	 * control: número de productos, unidades en stock, productos bajo mínimo y
+	 * peor déficit. Admite {@code If-None-Match}; el ETag cambia con cualquier
+	 * escritura en productos o categorías.
+	 * 
+	 * @param request petición, para comprobar {@code If-None-Match}.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con un
+	 *         {@link CategorySummaryDTO} por categoría.
+	 */
+	@GetMapping("/summary")
+	public ResponseEntity<ApiResponseDTO<List<CategorySummaryDTO>>> getCategorySummary(WebRequest request) {
+		// Responder 304 (NOT MODIFIED) si el cliente ya tiene esta versión
+		String etag = tableVersionService.etag(Table.PRODUCTOS, Table.CATEGORIAS);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		List<CategorySummaryDTO> summary = categoryService.getCategorySummary();
+		return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+				HttpStatus.OK.value(), "Resumen de categorías obtenido correctamente", summary));
 	}
 
 	/**
-	 * Obtiene una categoría por su ID.
+	 * Obtiene una categoría por su ID. Admite {@code If-None-Match} igual que el
+	 * listado.
 	 * 
-	 * @param id int ID de la categoría a buscar.
+	 * @param id      int ID de la categoría a buscar.
+	 * @param request petición, para comprobar {@code If-None-Match}.
 	 * @return ResponseEntity de {@link ApiResponseDTO} con la categoría encontrada.
 	 */
 	@GetMapping("/{id}")
-	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> getCategoryById(@PathVariable int id) {
+	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> getCategoryById(@PathVariable int id,
+			WebRequest request) {
 		// Obtener la categoría por su ID
-		Optional<CategoryResponseDTO> category = categoryService.getCategoryById(id);
+		Optional<VersionedDTO<CategoryResponseDTO>> category = categoryService.getCategoryById(id);
 		if (category.isPresent()) {
+			// Responder 304 (NOT MODIFIED) si el cliente ya tiene esta versión
+			String etag = IfMatch.etag(category.get().version());
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
 			// Devolver la categoría encontrada con el estado 200 (OK)
-			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-					"Categoría encontrada", category.get()));
+			return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+					HttpStatus.OK.value(), "Categoría encontrada", category.get().data()));
 		} else {
 			// Devolver un estado 404 (NOT FOUND) si no se encuentra la categoría
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
@@ -108,45 +208,127 @@ public class CategoryController {
 				HttpStatus.CREATED.value(), "Categoría creada correctamente", createdCategory));
 	}
 
+	/**
+	 * Importa categorías desde un fichero CSV enviado como cuerpo de la petición
+	 * ({@code Content-Type: text/csv}).
+	 * <p>
+	 * El fichero se procesa como flujo, sin cargarlo entero en memoria, y las filas
+	 * válidas se insertan por lotes. Las filas no válidas se rechazan y se
+	 * detallan en la respuesta. Columnas: {@code nombre} y
+	 * {@code descripcion}.
+	 * </p>
+	 * 
+	 * @param csv contenido del fichero CSV en UTF-8.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el número de filas
+	 *         importadas y rechazadas.
+	 * @throws IOException si falla la lectura del cuerpo de la petición.
+	 */
+	@PostMapping(path = "/import", consumes = AppConstants.TEXT_CSV_VALUE)
+	public ResponseEntity<ApiResponseDTO<ImportResultDTO>> importCategories(InputStream csv) throws IOException {
+		try {
+			ImportResultDTO result = importService.importCategories(csv);
+			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+					result.importados() + " categorías importadas, " + result.rechazados() + " rechazadas", result));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
 	/**
 	 * Actualiza una categoría existente.
 	 * 
-	 * @param id     int ID de la categoría a actualizar.
-	 * @param {@link CategoryRequestDTO} DTO con los datos de la categoría a
-	 *               actualizar.
-	 * @return
+	 * @param id      int ID de la categoría a actualizar.
+	 * @param {@link  CategoryRequestDTO} DTO con los datos de la categoría a
+	 *                actualizar.
+	 * @param ifMatch versión leída por el cliente (opcional); si la categoría ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con la categoría
+	 *         actualizada y su nueva versión en el {@code ETag}.
 	 */
 	@PutMapping("/{id}")
 	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> updateCategory(@Valid @PathVariable int id,
-			@RequestBody CategoryRequestDTO categoryRequest) {
+			@RequestBody CategoryRequestDTO categoryRequest,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		// Convertir CategoryRequestDTO a CategoryEntity
 		CategoryEntity category = categoryMapper.toEntity(categoryRequest);
-		// Actualizar la categoría
-		Optional<CategoryResponseDTO> updatedCategory = categoryService.updateCategory(id, category);
+		try {
+			// Actualizar la categoría
+			Optional<VersionedDTO<CategoryResponseDTO>> updatedCategory = categoryService.updateCategory(id,
+					category, IfMatch.parse(ifMatch));
 
-		if (updatedCategory.isPresent()) {
-			// Devolver la categoría actualizada con el estado 200 (OK)
-			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-					"Categoría actualizada correctamente", updatedCategory.get()));
-		} else {
-			// Devolver un estado 404 (NOT FOUND) si no se encuentra la categoría
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
-					HttpStatus.NOT_FOUND.value(), "Categoría no encontrada", null));
+			if (updatedCategory.isPresent()) {
+				// Devolver la categoría actualizada con el estado 200 (OK)
+				return ResponseEntity.ok().eTag(IfMatch.etag(updatedCategory.get().version()))
+						.body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+								"Categoría actualizada correctamente", updatedCategory.get().data()));
+			} else {
+				// Devolver un estado 404 (NOT FOUND) si no se encuentra la categoría
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseDTO<>(
+						AppConstants.STATUS_ERROR, HttpStatus.NOT_FOUND.value(), "Categoría no encontrada", null));
+			}
+		} catch (CustomException e) {
+			// La categoría ha cambiado desde que la leyó el cliente
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Modifica solo los campos enviados de una categoría.
+	 * 
+	 * <p>
+	 * El cuerpo es un JSON Merge Patch ({@code application/merge-patch+json}):
+	 * {@code {"descripcion": null}} quita la descripción sin tocar el nombre.
+	 * Solo se validan los campos enviados.
+	 * </p>
+	 * 
+	 * @param id      int ID de la categoría a modificar.
+	 * @param patch   campos a modificar y sus nuevos valores.
+	 * @param ifMatch versión leída por el cliente (opcional); si la categoría ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con la categoría
+	 *         modificada y su nueva versión en el {@code ETag}.
+	 */
+	@PatchMapping(path = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> patchCategory(@PathVariable int id,
+			@RequestBody ObjectNode patch,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		try {
+			MergePatch<CategoryRequestDTO> changes = MergePatch.read(patch, CategoryRequestDTO.class, objectMapper);
+			changes.validate(validator);
+			Optional<VersionedDTO<CategoryResponseDTO>> updatedCategory = categoryService.patchCategory(id, changes,
+					IfMatch.parse(ifMatch));
+
+			if (updatedCategory.isPresent()) {
+				return ResponseEntity.ok().eTag(IfMatch.etag(updatedCategory.get().version()))
+						.body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+								"Categoría actualizada correctamente", updatedCategory.get().data()));
+			} else {
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseDTO<>(
+						AppConstants.STATUS_ERROR, HttpStatus.NOT_FOUND.value(), "Categoría no encontrada", null));
+			}
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
 		}
 	}
 
 	/**
 	 * Elimina una categoría por su ID.
 	 * 
-	 * @param id int ID de la categoría a eliminar.
+	 * @param id      int ID de la categoría a eliminar.
+	 * @param ifMatch versión leída por el cliente (opcional); si la categoría ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
 	 * @return ResponseEntity de {@link ApiResponseDTO} con la categoría eliminada.
 	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> deleteCategory(@PathVariable int id) {
+	public ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> deleteCategory(@PathVariable int id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
 		try {
 			// Eliminar la categoría por su ID
-			Optional<CategoryResponseDTO> deletedCategory = categoryService.deleteCategory(id);
+			Optional<CategoryResponseDTO> deletedCategory = categoryService.deleteCategory(id, IfMatch.parse(ifMatch));
 
 			if (deletedCategory.isPresent()) {
 				// Devolver la categoría eliminada con el estado 200 (OK)
@@ -162,6 +344,10 @@ public class CategoryController {
 			// Manejo del caso: la categoría tiene productos asociados
 			return ResponseEntity.status(HttpStatus.CONFLICT).body(
 					new ApiResponseDTO<>(AppConstants.STATUS_ERROR, HttpStatus.CONFLICT.value(), e.getMessage(), null));
+		} catch (CustomException e) {
+			// La categoría ha cambiado desde que la leyó el cliente
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
 		}
 
 	}
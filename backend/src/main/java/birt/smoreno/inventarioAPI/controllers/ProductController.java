@@ -1,28 +1,71 @@
 package birt.smoreno.inventarioAPI.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.ImportResultDTO;
+import birt.smoreno.inventarioAPI.dto.LowStockEventDTO;
 import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
 import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductSearchResultDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockForecastDTO;
+import birt.smoreno.inventarioAPI.dto.StockHistoryDTO;
+import birt.smoreno.inventarioAPI.dto.StockLedgerEntryDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementRequestDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.dto.VersionedDTO;
 import birt.smoreno.inventarioAPI.entities.ProductEntity;
 import birt.smoreno.inventarioAPI.exceptions.CustomException;
 import birt.smoreno.inventarioAPI.mappers.ProductMapper;
+import birt.smoreno.inventarioAPI.services.ImportService;
+import birt.smoreno.inventarioAPI.services.LowStockNotifier;
+import birt.smoreno.inventarioAPI.services.ProductExportService;
+import birt.smoreno.inventarioAPI.services.ProductSearchService;
 import birt.smoreno.inventarioAPI.services.ProductService;
+import birt.smoreno.inventarioAPI.services.StockForecastService;
+import birt.smoreno.inventarioAPI.services.StockLedgerService;
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService;
+import birt.smoreno.inventarioAPI.services.TableVersionService;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
 import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.ExportFormat;
+import birt.smoreno.inventarioAPI.utils.IfMatch;
+import birt.smoreno.inventarioAPI.utils.MergePatch;
+import birt.smoreno.inventarioAPI.utils.SortField;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 
 /**
  * {@code ProductController} es un controlador REST que gestiona las operaciones
@@ -32,14 +75,33 @@ import jakarta.validation.Valid;
  * obtener todos los productos que están por debajo de su mínimo.
  * </p>
  * <ul>
- * <li>{@link #getAllProducts()}: Obtiene todos los productos.</li>
- * <li>{@link #getProductById(Long)}: Obtiene un producto por su ID.</li>
+ * <li>{@link #getAllProducts(String, Integer, String, String, WebRequest)}:
+ * Obtiene una página de productos.</li>
+ * <li>{@link #getProductById(int, WebRequest)}: Obtiene un producto por su ID.</li>
  * <li>{@link #createProduct(ProductRequestDTO)}: Crea un nuevo producto.</li>
- * <li>{@link #updateProduct(Long, ProductRequestDTO)}: Actualiza un producto
- * existente.</li>
- * <li>{@link #deleteProduct(Long)}: Elimina un producto por su ID.</li>
- * <li>{@link #getProductsUnderStock()}: Obtiene los productos cuyo stock está
- * por debajo del mínimo.</li>
+ * <li>{@link #updateProduct(int, ProductRequestDTO, String)}: Actualiza un
+ * producto existente.</li>
+ * <li>{@link #patchProduct(int, ObjectNode, String)}: Modifica solo algunos
+ * campos de un producto.</li>
+ * <li>{@link #deleteProduct(int, String)}: Elimina un producto por su ID.</li>
+ * <li>{@link #getProductsUnderStock(String, WebRequest)}: Obtiene los
+ * productos cuyo stock está por debajo del mínimo.</li>
+ * <li>{@link #searchProducts(String, Integer)}: Busca productos por
+ * nombre.</li>
+ * <li>{@link #getStockForecast(Integer)}: Obtiene los productos que se
+ * quedarán sin stock en los próximos días.</li>
+ * <li>{@link #exportProducts(String)}: Exporta todo el inventario en NDJSON o
+ * CSV.</li>
+ * <li>{@link #importProducts(InputStream)}: Importa productos desde un
+ * CSV.</li>
+ * <li>{@link #streamLowStockEvents()}: Notifica en tiempo real los cambios de
+ * estado de bajo stock.</li>
+ * <li>{@link #createStockMovement(int, StockMovementRequestDTO)}: Registra un
+ * movimiento de stock de un producto.</li>
+ * <li>{@link #getStockMovements(int, Instant, Instant, String, Integer)}:
+ * Obtiene el historial de movimientos de stock de un producto.</li>
+ * <li>{@link #createStockMovements(List)}: Registra varios movimientos de stock
+ * en lote.</li>
  * </ul>
  */
 @RestController
@@ -49,38 +111,110 @@ public class ProductController {
 
 	private final ProductService productService;
 	private final ProductMapper productMapper;
+	private final LowStockNotifier lowStockNotifier;
+	private final TableVersionService tableVersionService;
+	private final ProductExportService productExportService;
+	private final ImportService importService;
+	private final ProductSearchService productSearchService;
+	private final StockLedgerService stockLedgerService;
+	private final StockWriteBehindService stockWriteBehindService;
+	private final StockForecastService stockForecastService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
 
-	public ProductController(ProductService productService, ProductMapper productMapper) {
+	public ProductController(ProductService productService, ProductMapper productMapper,
+			LowStockNotifier lowStockNotifier, TableVersionService tableVersionService,
+			ProductExportService productExportService, ImportService importService,
+			ProductSearchService productSearchService, StockLedgerService stockLedgerService,
+			StockWriteBehindService stockWriteBehindService, StockForecastService stockForecastService,
+			ObjectMapper objectMapper, Validator validator) {
 		this.productService = productService;
 		this.productMapper = productMapper;
+		this.lowStockNotifier = lowStockNotifier;
+		this.tableVersionService = tableVersionService;
+		this.productExportService = productExportService;
+		this.importService = importService;
+		this.productSearchService = productSearchService;
+		this.stockLedgerService = stockLedgerService;
+		this.stockForecastService = stockForecastService;
+		this.stockWriteBehindService = stockWriteBehindService;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
 	}
 
 	// CRUD básico: Create, Read, Update, Delete
 
 	/**
-	 * Obtiene todos los productos.
+	 * Obtiene una página de productos mediante paginación por cursor.
+	 * <p>
+	 * Sin parámetros devuelve la primera página ordenada por ID con el tamaño por
+	 * defecto. Para pedir la siguiente se envía como {@code after} el
+	 * {@code nextCursor} de la respuesta anterior.
+	 * </p>
+	 * <p>
+	 * La respuesta lleva un ETag; si el cliente lo envía en
+	 * {@code If-None-Match} y no ha habido cambios, se responde
+	 * {@code 304 Not Modified} sin consultar la base de datos.
+	 * </p>
 	 * 
-	 * @return ResponseEntity de {@link ApiResponseDTO} con la lista de productos.
+	 * @param after   cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit   tamaño de página (opcional, máximo
+	 *                {@link AppConstants#MAX_PAGE_SIZE}).
+	 * @param sort    criterio de ordenación: {@code id}, {@code nombre} o
+	 *                {@code updated_at} (opcional).
+	 * @param expand  {@code category} para incluir los datos de la categoría en
+	 *                cada producto (opcional).
+	 * @param request petición, para comprobar {@code If-None-Match}.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con la lista de productos y
+	 *         el cursor de la página siguiente.
 	 */
 	@GetMapping
-	public ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>> getAllProducts() {
-		List<ProductResponseDTO> products = productService.getAllProducts();
-		return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-				"Productos obtenidos correctamente", products));
+	public ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>> getAllProducts(
+			@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String sort, @RequestParam(required = false) String expand,
+			WebRequest request) {
+		try {
+			SortField sortField = SortField.fromParam(sort);
+			boolean expandCategory = isCategoryExpanded(expand);
+
+			String etag = listEtag(expandCategory);
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			CursorPageDTO<ProductResponseDTO> page = productService.getAllProducts(after, limit, sortField,
+					expandCategory);
+			return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+					HttpStatus.OK.value(), "Productos obtenidos correctamente", page.items(), page.nextCursor()));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
 	}
 
 	/**
 	 * Obtiene un producto por su ID.
 	 * 
-	 * @param id int ID del producto a buscar.
+	 * <p>
+	 * El {@code ETag} es la versión del producto, que se puede enviar en
+	 * {@code If-None-Match} para recibir 304 o en {@code If-Match} al modificarlo.
+	 * </p>
+	 * 
+	 * @param id      int ID del producto a buscar.
+	 * @param request petición, para comprobar {@code If-None-Match}.
 	 * @return ResponseEntity de {@link ApiResponseDTO} con el producto encontrado.
 	 */
 	@GetMapping("/{id}")
-	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> getProductById(@PathVariable int id) {
+	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> getProductById(@PathVariable int id,
+			WebRequest request) {
 		try {
-			ProductResponseDTO product = productService.getProductById(id);
-			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-					"Producto encontrado", product));
+			VersionedDTO<ProductResponseDTO> product = productService.getProductById(id);
+			String etag = IfMatch.etag(product.version(), product.pendingStock());
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+			return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+					HttpStatus.OK.value(), "Producto encontrado", product.data()));
 		} catch (CustomException e) {
 			return ResponseEntity.status(e.getHttpStatusCode())
 					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
@@ -109,19 +243,59 @@ public class ProductController {
 	/**
 	 * Actualiza un producto existente.
 	 * 
-	 * @param id     int ID del producto a actualizar.
-	 * @param {@link ProductRequestDTO} objeto que contiene los datos del producto a
-	 *               actualizar.
-	 * @return
+	 * @param id      int ID del producto a actualizar.
+	 * @param {@link  ProductRequestDTO} objeto que contiene los datos del producto
+	 *                a actualizar.
+	 * @param ifMatch versión leída por el cliente (opcional); si el producto ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el producto
+	 *         actualizado y su nueva versión en el {@code ETag}.
 	 */
 	@PutMapping("/{id}")
 	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> updateProduct(@PathVariable int id,
-			@Valid @RequestBody ProductRequestDTO productDTO) {
+			@Valid @RequestBody ProductRequestDTO productDTO,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		try {
 			ProductEntity product = productMapper.toEntity(productDTO);
-			ProductResponseDTO updatedProduct = productService.updateProduct(id, product);
-			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-					"Producto actualizado correctamente", updatedProduct));
+			VersionedDTO<ProductResponseDTO> updatedProduct = productService.updateProduct(id, product,
+					IfMatch.parse(ifMatch));
+			return ResponseEntity.ok().eTag(IfMatch.etag(updatedProduct.version(), updatedProduct.pendingStock()))
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+							"Producto actualizado correctamente", updatedProduct.data()));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Modifica solo los campos enviados de un producto.
+	 * 
+	 * <p>
+	 * El cuerpo es un JSON Merge Patch ({@code application/merge-patch+json}):
+	 * por ejemplo, {@code {"stock_minimo": 8}} cambia el mínimo sin enviar el
+	 * resto del producto. Solo se validan los campos enviados.
+	 * </p>
+	 * 
+	 * @param id      int ID del producto a modificar.
+	 * @param patch   campos a modificar y sus nuevos valores.
+	 * @param ifMatch versión leída por el cliente (opcional); si el producto ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el producto
+	 *         modificado y su nueva versión en el {@code ETag}.
+	 */
+	@PatchMapping(path = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> patchProduct(@PathVariable int id,
+			@RequestBody ObjectNode patch,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		try {
+			MergePatch<ProductRequestDTO> changes = MergePatch.read(patch, ProductRequestDTO.class, objectMapper);
+			changes.validate(validator);
+			VersionedDTO<ProductResponseDTO> updatedProduct = productService.patchProduct(id, changes,
+					IfMatch.parse(ifMatch));
+			return ResponseEntity.ok().eTag(IfMatch.etag(updatedProduct.version(), updatedProduct.pendingStock()))
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+							"Producto actualizado correctamente", updatedProduct.data()));
 		} catch (CustomException e) {
 			return ResponseEntity.status(e.getHttpStatusCode())
 					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
@@ -131,13 +305,16 @@ public class ProductController {
 	/**
 	 * Elimina un producto por su ID.
 	 * 
-	 * @param id int ID del producto a eliminar.
+	 * @param id      int ID del producto a eliminar.
+	 * @param ifMatch versión leída por el cliente (opcional); si el producto ha
+	 *                cambiado se responde 412 (PRECONDITION FAILED).
 	 * @return ResponseEntity de {@link ApiResponseDTO} con el producto eliminado.
 	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> deleteProduct(@PathVariable int id) {
+	public ResponseEntity<ApiResponseDTO<ProductResponseDTO>> deleteProduct(@PathVariable int id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		try {
-			ProductResponseDTO deletedProduct = productService.deleteProduct(id);
+			ProductResponseDTO deletedProduct = productService.deleteProduct(id, IfMatch.parse(ifMatch));
 			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
 					"Producto eliminado correctamente", deletedProduct));
 		} catch (CustomException e) {
@@ -149,13 +326,292 @@ public class ProductController {
 	/**
 	 * Obtiene los productos cuyo stock está por debajo del mínimo.
 	 * 
+	 * @param expand  {@code category} para incluir los datos de la categoría en
+	 *                cada producto (opcional).
+	 * @param request petición, para comprobar {@code If-None-Match}.
 	 * @return ResponseEntity de {@link ApiResponseDTO} con la lista de productos
 	 *         que están por debajo del stock mínimo.
 	 */
 	@GetMapping("/min")
-	public ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>> getProductsUnderStock() {
-		List<ProductResponseDTO> productsUnderStock = productService.getProductsUnderStock();
+	public ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>> getProductsUnderStock(
+			@RequestParam(required = false) String expand, WebRequest request) {
+		try {
+			boolean expandCategory = isCategoryExpanded(expand);
+
+			String etag = listEtag(expandCategory);
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			List<ProductResponseDTO> productsUnderStock = productService.getProductsUnderStock(expandCategory);
+			return ResponseEntity.ok().eTag(etag).body(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+					HttpStatus.OK.value(), "Productos que están por debajo de su stock mínimo establecido",
+					productsUnderStock));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Busca productos por nombre, sin distinguir mayúsculas ni tildes.
+	 * <p>
+	 * Cada palabra de {@code q} debe aparecer en el nombre: las de tres o más
+	 * letras en cualquier posición y las más cortas al principio de una palabra.
+	 * Se responde desde un índice en memoria ({@link ProductSearchService}), sin
+	 * consultar la base de datos, con los resultados más relevantes primero.
+	 * </p>
+	 * 
+	 * @param q     texto a buscar.
+	 * @param limit número máximo de resultados (opcional, por defecto
+	 *              {@link AppConstants#DEFAULT_SEARCH_LIMIT} y como máximo
+	 *              {@link AppConstants#MAX_SEARCH_LIMIT}).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con los productos
+	 *         encontrados, o 503 si el índice todavía se está construyendo.
+	 */
+	@GetMapping("/search")
+	public ResponseEntity<ApiResponseDTO<List<ProductSearchResultDTO>>> searchProducts(@RequestParam String q,
+			@RequestParam(required = false) Integer limit) {
+		if (q.isBlank()) {
+			return ResponseEntity.badRequest().body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
+					HttpStatus.BAD_REQUEST.value(), "El texto de búsqueda es obligatorio", null));
+		}
+		int maxResults = limit == null || limit < 1 ? AppConstants.DEFAULT_SEARCH_LIMIT
+				: Math.min(limit, AppConstants.MAX_SEARCH_LIMIT);
+
+		try {
+			List<ProductSearchResultDTO> results = productSearchService.search(q, maxResults);
+			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+					results.size() + " productos encontrados", results));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Obtiene los productos que, al ritmo de consumo reciente, quedarán por debajo
+	 * de su stock mínimo o sin stock en los próximos días.
+	 * <p>
+	 * El consumo diario de cada producto se estima en memoria
+	 * ({@link StockForecastService}) a partir de sus salidas de stock; solo se
+	 * consulta la base de datos para el stock de los productos con consumo.
+	 * </p>
+	 * 
+	 * @param horizonDays días que abarca la previsión (opcional, por defecto
+	 *                    {@link AppConstants#DEFAULT_FORECAST_HORIZON_DAYS} y
+	 *                    como máximo
+	 *                    {@link AppConstants#MAX_FORECAST_HORIZON_DAYS}).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con la previsión de cada
+	 *         producto, del que antes se agotará al que más tardará.
+	 */
+	@GetMapping("/forecast")
+	public ResponseEntity<ApiResponseDTO<List<StockForecastDTO>>> getStockForecast(
+			@RequestParam(required = false) Integer horizonDays) {
+		int horizon = horizonDays != null ? horizonDays : AppConstants.DEFAULT_FORECAST_HORIZON_DAYS;
+		if (horizon < 1 || horizon > AppConstants.MAX_FORECAST_HORIZON_DAYS) {
+			return ResponseEntity.badRequest()
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, HttpStatus.BAD_REQUEST.value(),
+							"horizonDays debe estar entre 1 y " + AppConstants.MAX_FORECAST_HORIZON_DAYS, null));
+		}
+
+		List<StockForecastDTO> forecast = stockForecastService.forecast(horizon, stockWriteBehindService::pendingStock);
+		return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+				forecast.size() + " productos se quedarán sin stock o bajo mínimo en " + horizon + " días",
+				forecast));
+	}
+
+	/**
+	 * Abre un flujo Server-Sent Events con los cambios de estado de bajo stock.
+	 * <p>
+	 * Se envía un evento {@code low-stock} con un {@link LowStockEventDTO} cada
+	 * vez que un producto pasa a estar por debajo de su mínimo o deja de estarlo.
+	 * Sustituye al sondeo periódico de {@code /min}: entre cambios la conexión
+	 * permanece abierta sin coste.
+	 * </p>
+	 * 
+	 * @return {@link SseEmitter} asociado a la conexión.
+	 */
+	@GetMapping(path = "/min/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamLowStockEvents() {
+		return lowStockNotifier.subscribe();
+	}
+
+	/**
+	 * Exporta todo el inventario, ordenado por ID, para procesos de informes.
+	 * <p>
+	 * Las filas se escriben a medida que se leen de la base de datos, sin
+	 * envoltorio {@link ApiResponseDTO}: NDJSON (un {@link ProductResponseDTO} por
+	 * línea) o CSV con cabecera. El tamaño del inventario no afecta a la memoria
+	 * del servidor.
+	 * </p>
+	 * 
+	 * @param format {@code ndjson} (por defecto) o {@code csv}.
+	 * @return ResponseEntity con el cuerpo de la exportación, o con un
+	 *         {@link ApiResponseDTO} de error si el formato no es válido.
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String format) {
+		try {
+			ExportFormat exportFormat = ExportFormat.fromParam(format);
+			StreamingResponseBody body = out -> productExportService.exportProducts(exportFormat, out);
+			return ResponseEntity.ok().contentType(exportFormat.getMediaType())
+					.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+							.filename("productos." + exportFormat.getExtension()).build().toString())
+					.body(body);
+		} catch (CustomException e) {
+			// Spring solo admite un StreamingResponseBody en este método, así que el
+			// error se serializa a mano
+			ApiResponseDTO<Void> error = new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(),
+					e.getMessage(), null);
+			return ResponseEntity.status(e.getHttpStatusCode()).contentType(MediaType.APPLICATION_JSON)
+					.body(out -> objectMapper.writeValue(out, error));
+		}
+	}
+
+	/**
+	 * Importa productos desde un fichero CSV enviado como cuerpo de la petición
+	 * ({@code Content-Type: text/csv}).
+	 * <p>
+	 * El fichero se procesa como flujo, sin cargarlo entero en memoria, y las filas
+	 * válidas se insertan por lotes. Las filas no válidas se rechazan y se
+	 * detallan en la respuesta. Columnas: {@code nombre},
+	 * {@code stock_actual}, {@code stock_minimo} y {@code categoria} (nombre) o
+	 * {@code id_categoria}.
+	 * </p>
+	 * 
+	 * @param csv contenido del fichero CSV en UTF-8.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el número de filas
+	 *         importadas y rechazadas.
+	 * @throws IOException si falla la lectura del cuerpo de la petición.
+	 */
+	@PostMapping(path = "/import", consumes = AppConstants.TEXT_CSV_VALUE)
+	public ResponseEntity<ApiResponseDTO<ImportResultDTO>> importProducts(InputStream csv) throws IOException {
+		try {
+			ImportResultDTO result = importService.importProducts(csv);
+			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+					result.importados() + " productos importados, " + result.rechazados() + " rechazados", result));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Registra un movimiento de stock (entrada o salida) de un producto.
+	 * <p>
+	 * A diferencia de actualizar el producto completo con PUT, el movimiento se
+	 * aplica de forma atómica en la base de datos y no se pierden actualizaciones
+	 * cuando varios clientes dispensan el mismo producto a la vez.
+	 * </p>
+	 * <p>
+	 * Con {@code inventario.stock.write-behind.enabled}, las salidas se reservan en
+	 * memoria y se escriben agrupadas ({@link StockWriteBehindService}).
+	 * </p>
+	 * 
+	 * @param id       int ID del producto.
+	 * @param movement {@link StockMovementRequestDTO} con la variación y el motivo.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el stock resultante y si
+	 *         está por debajo del mínimo.
+	 */
+	@PostMapping("/{id}/movements")
+	public ResponseEntity<ApiResponseDTO<StockMovementResponseDTO>> createStockMovement(@PathVariable int id,
+			@Valid @RequestBody StockMovementRequestDTO movement) {
+		try {
+			// Las salidas en modo diferido no abren transacción ni bloquean la fila
+			StockMovementResponseDTO stockLevel = stockWriteBehindService.accepts(movement.getDelta())
+					? stockWriteBehindService.decrement(id, movement.getDelta(), movement.getReason())
+					: productService.applyStockMovement(id, movement.getDelta(), movement.getReason());
+			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+					"Movimiento de stock registrado correctamente", stockLevel));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Obtiene el historial de movimientos de stock de un producto entre dos
+	 * fechas, del más antiguo al más reciente, mediante paginación por cursor.
+	 * <p>
+	 * Los movimientos anteriores al periodo de retención se han compactado: la
+	 * respuesta incluye su suma en {@code compactado}.
+	 * </p>
+	 * 
+	 * @param id    int ID del producto.
+	 * @param from  fecha inicial ISO-8601, incluida (opcional).
+	 * @param to    fecha final ISO-8601, excluida (opcional).
+	 * @param after cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit tamaño de página (opcional, máximo
+	 *              {@link AppConstants#MAX_PAGE_SIZE}).
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el historial y el
+	 *         cursor de la página siguiente.
+	 */
+	@GetMapping("/{id}/movements")
+	public ResponseEntity<ApiResponseDTO<StockHistoryDTO>> getStockMovements(@PathVariable int id,
+			@RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to,
+			@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+		try {
+			CursorPageDTO<StockLedgerEntryDTO> page = stockLedgerService.getMovements(id, from, to, after, limit);
+			StockHistoryDTO history = new StockHistoryDTO(id, stockLedgerService.getSnapshot(id), page.items());
+			return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+					"Movimientos de stock obtenidos correctamente", history, page.nextCursor()));
+		} catch (CustomException e) {
+			return ResponseEntity.status(e.getHttpStatusCode())
+					.body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR, e.getHttpStatusCode(), e.getMessage(), null));
+		}
+	}
+
+	/**
+	 * Registra varios movimientos de stock en una sola petición y transacción.
+	 * <p>
+	 * Pensado para el cierre de turno, cuando se envían cientos de salidas a la
+	 * vez. Los movimientos que dejarían el stock negativo se rechazan y se
+	 * devuelven en la respuesta junto al resultado del resto.
+	 * </p>
+	 * 
+	 * @param items lista de {@link StockBatchItemDTO} con el producto y la
+	 *              variación de cada movimiento.
+	 * @return ResponseEntity de {@link ApiResponseDTO} con el resultado de cada
+	 *         movimiento.
+	 */
+	@PostMapping("/movements:batch")
+	public ResponseEntity<ApiResponseDTO<StockBatchResponseDTO>> createStockMovements(
+			@RequestBody @NotEmpty(message = "El lote no puede estar vacío") @Size(max = AppConstants.MAX_BATCH_SIZE, message = "El lote supera el número máximo de movimientos") List<@Valid StockBatchItemDTO> items) {
+		StockBatchResponseDTO result = productService.applyStockMovements(items);
 		return ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
-				"Productos que están por debajo de su stock mínimo establecido", productsUnderStock));
+				result.aplicados() + " movimientos aplicados, " + result.rechazados() + " rechazados", result));
+	}
+
+	/**
+	 * Calcula el ETag de un listado de productos. Si se incluye la categoría, la
+	 * respuesta depende también de la tabla de categorías. El stock listado
+	 * descuenta las salidas pendientes de escribir, que no cambian la versión de
+	 * la tabla, así que se añade su generación.
+	 * 
+	 * @param expandCategory {@code true} si se ha pedido expandir la categoría.
+	 * @return ETag del listado.
+	 */
+	private String listEtag(boolean expandCategory) {
+		String etag = expandCategory ? tableVersionService.etag(Table.PRODUCTOS, Table.CATEGORIAS)
+				: tableVersionService.etag(Table.PRODUCTOS);
+		return etag.substring(0, etag.length() - 1) + '-' + stockWriteBehindService.generation() + '"';
+	}
+
+	/**
+	 * Interpreta el parámetro {@code expand} de los listados.
+	 * 
+	 * @param expand valor recibido; solo se admite {@code category}.
+	 * @return {@code true} si se ha pedido expandir la categoría.
+	 * @throws CustomException si el valor no es válido.
+	 */
+	private boolean isCategoryExpanded(String expand) throws CustomException {
+		if (expand == null || expand.isBlank()) {
+			return false;
+		}
+		if (AppConstants.EXPAND_CATEGORY.equalsIgnoreCase(expand)) {
+			return true;
+		}
+		throw new CustomException("Valor de expand no válido: " + expand, HttpStatus.BAD_REQUEST.value());
 	}
 }
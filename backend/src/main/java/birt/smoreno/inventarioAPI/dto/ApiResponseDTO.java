@@ -1,5 +1,7 @@
 package birt.smoreno.inventarioAPI.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * {@code ApiResponseDTO} es una clase que representa la estructura de respuesta general para la API
  * <p>
@@ -7,7 +9,11 @@ package birt.smoreno.inventarioAPI.dto;
  * El campo {@code data} es genérico y puede contener cualquier tipo de dato que represente el resultado de la operación.
  * Usualmente, se usa para devolver un objeto o una lista de objetos, como productos o categorías.
  * </p>
- * 
+ * <p>
+ * En los listados paginados se añade además {@code nextCursor}, un cursor opaco que apunta al último elemento
+ * devuelto y que el cliente debe enviar como parámetro {@code after} para obtener la página siguiente. Si no hay más páginas no se serializa.
+ * </p>
+ *
  * @param <T> Tipo de dato que se incluye en el campo {@code data}. Este tipo puede ser cualquier entidad o colección
  *            de entidades, como por ejemplo un producto o una lista de productos, dependiendo del contexto de la respuesta.
  */
@@ -15,6 +21,14 @@ public record ApiResponseDTO<T> (
     String status,
     int code,
     String message,
-    T data
-){}
+    T data,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String nextCursor
+){
+    /**
+     * Crea una respuesta sin cursor de paginación.
+     */
+    public ApiResponseDTO(String status, int code, String message, T data) {
+        this(status, code, message, data, null);
+    }
+}
 
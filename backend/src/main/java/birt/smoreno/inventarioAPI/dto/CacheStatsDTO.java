@@ -0,0 +1,21 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code CacheStatsDTO} es una clase que representa las estadísticas de uso de
+ * una caché.
+ *
+ * @param nombre    Nombre de la caché.
+ * @param entradas  Número aproximado de entradas almacenadas.
+ * @param aciertos  Número de lecturas servidas desde la caché.
+ * @param fallos    Número de lecturas que han tenido que ir a la base de datos.
+ * @param tasa      Proporción de aciertos sobre el total de lecturas (0 a 1).
+ * @param desalojos Número de entradas expulsadas por tamaño o caducidad.
+ */
+public record CacheStatsDTO(
+        String nombre,
+        long entradas,
+        long aciertos,
+        long fallos,
+        double tasa,
+        long desalojos) {
+}
@@ -0,0 +1,22 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code CategorySummaryDTO} es una clase que representa los totales de
+ * inventario de una categoría, para el panel de control.
+ *
+ * @param id           Identificador único de la categoría.
+ * @param nombre       Nombre de la categoría.
+ * @param productos    Número de productos de la categoría.
+ * @param unidades     Suma del stock actual de sus productos.
+ * @param bajo_minimo  Número de productos por debajo de su stock mínimo.
+ * @param peor_deficit Mayor número de unidades que le faltan a un producto
+ *                     para llegar a su mínimo (0 si ninguno está bajo stock).
+ */
+public record CategorySummaryDTO(
+        int id,
+        String nombre,
+        long productos,
+        long unidades,
+        long bajo_minimo,
+        int peor_deficit) {
+}
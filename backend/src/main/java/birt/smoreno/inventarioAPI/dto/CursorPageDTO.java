@@ -0,0 +1,21 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.List;
+
+/**
+ * {@code CursorPageDTO} representa una página de resultados obtenida mediante
+ * paginación por cursor (keyset).
+ * <p>
+ * Contiene los elementos de la página y el cursor de la siguiente, que apunta al
+ * último elemento devuelto, o {@code null} si no quedan más resultados.
+ * </p>
+ *
+ * @param <T>        Tipo de los elementos de la página.
+ * @param items      Elementos de la página.
+ * @param nextCursor Cursor opaco a enviar como {@code after} para pedir la
+ *                   página siguiente, o {@code null} si es la última.
+ */
+public record CursorPageDTO<T>(
+        List<T> items,
+        String nextCursor) {
+}
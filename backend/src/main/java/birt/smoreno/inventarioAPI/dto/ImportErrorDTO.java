@@ -0,0 +1,17 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.Map;
+
+/**
+ * {@code ImportErrorDTO} es una clase que representa una fila rechazada en una
+ * importación CSV.
+ *
+ * @param fila    Número de fila en el fichero, contando la cabecera como fila
+ *                1 (coincide con la numeración de una hoja de cálculo).
+ * @param errores Mensaje de error por cada columna no válida, con el mismo
+ *                formato que los errores de validación de la API.
+ */
+public record ImportErrorDTO(
+        int fila,
+        Map<String, String> errores) {
+}
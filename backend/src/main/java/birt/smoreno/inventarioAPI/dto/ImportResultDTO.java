@@ -0,0 +1,18 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.List;
+
+/**
+ * {@code ImportResultDTO} es una clase que representa el resultado de una
+ * importación CSV.
+ *
+ * @param importados Número de filas insertadas.
+ * @param rechazados Número de filas rechazadas.
+ * @param errores    Detalle de las filas rechazadas, en orden; como máximo las
+ *                   primeras {@code MAX_IMPORT_ERRORS}.
+ */
+public record ImportResultDTO(
+        int importados,
+        int rechazados,
+        List<ImportErrorDTO> errores) {
+}
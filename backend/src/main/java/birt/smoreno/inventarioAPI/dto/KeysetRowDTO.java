@@ -0,0 +1,22 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code KeysetRowDTO} acompaña una fila de un listado ordenado por fecha de
+ * modificación con esa fecha, que no forma parte de la respuesta pero hace
+ * falta para construir el cursor de la página siguiente.
+ * <p>
+ * Se construye en las consultas JPQL con un {@code new} anidado
+ * ({@code SELECT new KeysetRowDTO(new ProductResponseDTO(...), p.updatedAt)}),
+ * que Hibernate admite.
+ * </p>
+ *
+ * @param <T>        Tipo de la fila.
+ * @param item       Fila del listado.
+ * @param updated_at Fecha de última modificación de la fila.
+ */
+public record KeysetRowDTO<T>(
+        T item,
+        LocalDateTime updated_at) {
+}
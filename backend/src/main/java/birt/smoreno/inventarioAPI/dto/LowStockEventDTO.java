@@ -0,0 +1,23 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code LowStockEventDTO} es una clase que representa un cambio de estado de
+ * un producto respecto a su stock mínimo.
+ * <p>
+ * Se emite solo cuando un producto entra en la lista de productos bajo mínimo
+ * ({@code bajo_minimo = true}) o sale de ella ({@code bajo_minimo = false}),
+ * bien porque se ha repuesto o porque se ha eliminado.
+ * </p>
+ *
+ * @param id           Identificador del producto.
+ * @param stock_actual Stock actual del producto.
+ * @param stock_minimo Stock mínimo del producto.
+ * @param bajo_minimo  {@code true} si el producto ha pasado a estar por debajo
+ *                     del mínimo; {@code false} si ha dejado de estarlo.
+ */
+public record LowStockEventDTO(
+        int id,
+        int stock_actual,
+        int stock_minimo,
+        boolean bajo_minimo) {
+}
@@ -1,5 +1,7 @@
 package birt.smoreno.inventarioAPI.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * {@code ProductResponseDTO} es una clase que representa la estructura de respuesta para un producto
  * <p>
@@ -7,17 +9,40 @@ package birt.smoreno.inventarioAPI.dto;
  * {@code stock_minimo} y {@code id_categoria}. Estas propiedades representan los atributos de un producto
  * en el sistema.
  * </p>
+ * <p>
+ * Cuando el cliente lo solicita con {@code expand=category}, se incluye además la categoría completa en
+ * {@code categoria}, evitando una petición adicional por producto. En caso contrario no se serializa.
+ * </p>
  *
  * @param id           Identificador único del producto.
  * @param nombre       Nombre del producto.
  * @param stock_actual Cantidad actual de unidades disponibles del producto.
  * @param stock_minimo Cantidad mínima de unidades que deben estar disponibles del producto.
  * @param id_categoria Identificador de la categoría a la que pertenece el producto.
+ * @param categoria    Datos de la categoría del producto, solo si se ha pedido expandirla.
  */
 public record ProductResponseDTO(
         int id,
         String nombre,
         int stock_actual,
         int stock_minimo,
-        int id_categoria) {
+        int id_categoria,
+        @JsonInclude(JsonInclude.Include.NON_NULL) CategoryResponseDTO categoria) {
+
+    /**
+     * Crea la respuesta de un producto sin los datos de su categoría.
+     */
+    public ProductResponseDTO(int id, String nombre, int stock_actual, int stock_minimo, int id_categoria) {
+        this(id, nombre, stock_actual, stock_minimo, id_categoria, null);
+    }
+
+    /**
+     * Crea la respuesta de un producto con su categoría a partir de columnas sueltas, para construirla
+     * directamente en una consulta JPQL ({@code SELECT new}), que no admite un {@code new} anidado.
+     */
+    public ProductResponseDTO(int id, String nombre, int stock_actual, int stock_minimo, int id_categoria,
+            String categoria_nombre, String categoria_descripcion) {
+        this(id, nombre, stock_actual, stock_minimo, id_categoria,
+                new CategoryResponseDTO(id_categoria, categoria_nombre, categoria_descripcion));
+    }
 }
@@ -0,0 +1,19 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code ProductSearchResultDTO} es una clase que representa un producto
+ * encontrado por la búsqueda por nombre.
+ * <p>
+ * Solo incluye los datos del índice de búsqueda, que se responde sin consultar
+ * la base de datos; el stock se obtiene con {@code GET /api/products/{id}}.
+ * </p>
+ *
+ * @param id           Identificador único del producto.
+ * @param nombre       Nombre del producto.
+ * @param id_categoria Identificador de la categoría a la que pertenece el producto.
+ */
+public record ProductSearchResultDTO(
+        int id,
+        String nombre,
+        int id_categoria) {
+}
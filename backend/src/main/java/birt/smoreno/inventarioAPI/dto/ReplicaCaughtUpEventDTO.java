@@ -0,0 +1,29 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.Set;
+
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
+
+/**
+ * {@code ReplicaCaughtUpEventDTO} indica que la réplica de lectura ya debería
+ * reflejar un cambio confirmado en una tabla.
+ * <p>
+ * Se emite una ventana de lectura de las propias escrituras después de cada
+ * commit, solo si hay réplica. Mientras tanto, otros clientes pueden haber
+ * leído de la réplica los datos anteriores y haberlos guardado en las cachés;
+ * al recibirlo se vuelven a invalidar.
+ * </p>
+ * <p>
+ * Si se conocen las filas modificadas, solo se invalidan sus entradas; si no,
+ * las de toda la tabla.
+ * </p>
+ *
+ * @param table       Tabla modificada.
+ * @param ids         IDs de las filas modificadas, o {@code null} si no se
+ *                    conocen.
+ * @param categoryIds Solo en {@link Table#PRODUCTOS}: IDs de las categorías
+ *                    cuya lista de productos ha cambiado (altas, bajas y
+ *                    cambios de categoría), o {@code null} si no se conocen.
+ */
+public record ReplicaCaughtUpEventDTO(Table table, Set<Integer> ids, Set<Integer> categoryIds) {
+}
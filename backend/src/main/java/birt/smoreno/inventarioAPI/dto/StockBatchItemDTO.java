@@ -0,0 +1,40 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.NotZero;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code StockBatchItemDTO} es una clase que representa un elemento de una
+ * solicitud de movimientos de stock en lote.
+ * <p>
+ * Esta clase contiene tres propiedades: {@code id_producto}, el producto sobre
+ * el que se aplica el movimiento, {@code delta}, la variación de unidades, y
+ * {@code reason}, el motivo del movimiento (opcional).
+ * </p>
+ *
+ * @param id_producto Identificador del producto.
+ * @param delta       Variación de unidades del stock actual.
+ * @param reason      Motivo del movimiento.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class StockBatchItemDTO {
+	@NotNull(message = "El producto es obligatorio")
+	@Min(value = 1, message = "El producto debe ser mayor que cero")
+	Integer id_producto;
+	@NotNull(message = "La variación de stock es obligatoria")
+	@NotZero(message = "La variación de stock no puede ser cero")
+	@Min(value = -AppConstants.MAX_STOCK_DELTA, message = "La variación de stock no puede ser menor que -1000000")
+	@Max(value = AppConstants.MAX_STOCK_DELTA, message = "La variación de stock no puede ser mayor que 1000000")
+	Integer delta;
+	@Size(max = 255, message = "El motivo no puede superar los 255 caracteres")
+	String reason;
+}
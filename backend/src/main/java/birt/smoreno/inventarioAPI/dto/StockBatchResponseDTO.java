@@ -0,0 +1,18 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.List;
+
+/**
+ * {@code StockBatchResponseDTO} es una clase que representa el resultado de
+ * una solicitud de movimientos de stock en lote.
+ *
+ * @param aplicados  Número de movimientos aplicados.
+ * @param rechazados Número de movimientos rechazados.
+ * @param resultados Resultado de cada movimiento, en el mismo orden que la
+ *                   solicitud.
+ */
+public record StockBatchResponseDTO(
+        int aplicados,
+        int rechazados,
+        List<StockBatchResultDTO> resultados) {
+}
@@ -0,0 +1,32 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * {@code StockBatchResultDTO} es una clase que representa el resultado de un
+ * movimiento dentro de un lote.
+ * <p>
+ * Si el movimiento se ha aplicado, {@code error} no se serializa; si se ha
+ * rechazado, indica el motivo. {@code stock_actual} y {@code bajo_minimo}
+ * reflejan el estado del producto justo después de este movimiento (o, si se
+ * ha rechazado, el que tenía en ese punto del lote).
+ * </p>
+ *
+ * @param id_producto  Identificador del producto.
+ * @param delta        Variación solicitada.
+ * @param aplicado     {@code true} si el movimiento se ha aplicado.
+ * @param stock_actual Stock del producto tras el movimiento, o {@code null} si
+ *                     no existe.
+ * @param bajo_minimo  {@code true} si el producto queda por debajo del mínimo
+ *                     tras el movimiento.
+ * @param error        Motivo del rechazo, si lo hay.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockBatchResultDTO(
+        int id_producto,
+        int delta,
+        boolean aplicado,
+        Integer stock_actual,
+        Boolean bajo_minimo,
+        String error) {
+}
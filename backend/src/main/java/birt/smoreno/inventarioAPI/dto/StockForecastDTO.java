@@ -0,0 +1,29 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code StockForecastDTO} es una clase que representa la previsión de stock de
+ * un producto.
+ * <p>
+ * Los días se calculan dividiendo el stock por el consumo diario estimado, y se
+ * redondean a un decimal.
+ * </p>
+ *
+ * @param id                 Identificador del producto.
+ * @param nombre             Nombre del producto.
+ * @param stock_actual       Stock actual del producto.
+ * @param stock_minimo       Stock mínimo del producto.
+ * @param consumo_diario     Unidades que salen al día, según el historial
+ *                           reciente de movimientos.
+ * @param dias_hasta_minimo  Días hasta quedar por debajo del mínimo; 0 si ya lo
+ *                           está.
+ * @param dias_hasta_agotar  Días hasta quedarse sin stock.
+ */
+public record StockForecastDTO(
+        int id,
+        String nombre,
+        int stock_actual,
+        int stock_minimo,
+        double consumo_diario,
+        double dias_hasta_minimo,
+        double dias_hasta_agotar) {
+}
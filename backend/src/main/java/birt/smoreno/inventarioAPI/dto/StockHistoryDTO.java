@@ -0,0 +1,22 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.util.List;
+
+/**
+ * {@code StockHistoryDTO} es una clase que representa una página del historial
+ * de movimientos de stock de un producto.
+ * <p>
+ * Los movimientos anteriores a {@code compactado.hasta} ya no se guardan uno a
+ * uno: solo se conoce su suma.
+ * </p>
+ *
+ * @param id_producto Identificador del producto.
+ * @param compactado  Movimientos compactados, o {@code null} si no hay.
+ * @param movimientos Movimientos del intervalo pedido, del más antiguo al más
+ *                    reciente.
+ */
+public record StockHistoryDTO(
+        int id_producto,
+        StockSnapshotDTO compactado,
+        List<StockLedgerEntryDTO> movimientos) {
+}
@@ -0,0 +1,19 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.time.Instant;
+
+/**
+ * {@code StockLedgerEntryDTO} es una clase que representa un movimiento del
+ * registro de stock de un producto.
+ *
+ * @param id     Identificador del movimiento.
+ * @param delta  Variación de unidades del stock actual.
+ * @param motivo Motivo del movimiento, si se indicó.
+ * @param fecha  Momento en que se registró el movimiento.
+ */
+public record StockLedgerEntryDTO(
+        int id,
+        int delta,
+        String motivo,
+        Instant fecha) {
+}
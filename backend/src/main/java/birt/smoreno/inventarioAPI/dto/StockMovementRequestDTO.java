@@ -0,0 +1,37 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.NotZero;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code StockMovementRequestDTO} es una clase que representa la estructura de
+ * datos para la solicitud de un movimiento de stock de un producto.
+ * <p>
+ * Esta clase contiene dos propiedades: {@code delta}, la variación de unidades
+ * (negativa para una salida, positiva para una entrada, nunca cero ni mayor que
+ * {@link AppConstants#MAX_STOCK_DELTA} en valor absoluto), y {@code reason}, el
+ * motivo del movimiento.
+ * </p>
+ *
+ * @param delta  Variación de unidades del stock actual.
+ * @param reason Motivo del movimiento.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class StockMovementRequestDTO {
+	@NotNull(message = "La variación de stock es obligatoria")
+	@NotZero(message = "La variación de stock no puede ser cero")
+	@Min(value = -AppConstants.MAX_STOCK_DELTA, message = "La variación de stock no puede ser menor que -1000000")
+	@Max(value = AppConstants.MAX_STOCK_DELTA, message = "La variación de stock no puede ser mayor que 1000000")
+	Integer delta;
+	@Size(max = 255, message = "El motivo no puede superar los 255 caracteres")
+	String reason;
+}
@@ -0,0 +1,29 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code StockMovementResponseDTO} es una clase que representa el resultado de
+ * un movimiento de stock.
+ * <p>
+ * Contiene el stock resultante del producto y si ha quedado por debajo de su
+ * mínimo, de modo que el cliente no necesita volver a pedir el producto.
+ * </p>
+ *
+ * @param id           Identificador del producto.
+ * @param stock_actual Stock actual tras el movimiento.
+ * @param stock_minimo Stock mínimo del producto.
+ * @param bajo_minimo  {@code true} si el stock actual es inferior al mínimo.
+ */
+public record StockMovementResponseDTO(
+        int id,
+        int stock_actual,
+        int stock_minimo,
+        boolean bajo_minimo) {
+
+    /**
+     * Crea el resultado calculando si el producto está por debajo del mínimo. Se
+     * utiliza como expresión constructora en las consultas JPQL.
+     */
+    public StockMovementResponseDTO(int id, int stock_actual, int stock_minimo) {
+        this(id, stock_actual, stock_minimo, stock_actual < stock_minimo);
+    }
+}
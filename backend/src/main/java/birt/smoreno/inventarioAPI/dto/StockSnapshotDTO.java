@@ -0,0 +1,17 @@
+package birt.smoreno.inventarioAPI.dto;
+
+import java.time.Instant;
+
+/**
+ * {@code StockSnapshotDTO} es una clase que representa los movimientos
+ * antiguos de un producto que la compactación ha agrupado en uno solo.
+ *
+ * @param saldo       Suma de las variaciones compactadas.
+ * @param movimientos Número de movimientos compactados.
+ * @param hasta       Fecha del último movimiento compactado.
+ */
+public record StockSnapshotDTO(
+        int saldo,
+        int movimientos,
+        Instant hasta) {
+}
@@ -0,0 +1,24 @@
+package birt.smoreno.inventarioAPI.dto;
+
+/**
+ * {@code VersionedDTO} es una clase que acompaña los datos de un recurso con
+ * su versión de bloqueo optimista, que el controlador envía como ETag.
+ *
+ * @param <T>          Tipo de los datos del recurso.
+ * @param data         Datos del recurso.
+ * @param version      Versión de la fila en la base de datos.
+ * @param pendingStock Salidas de stock incluidas en los datos que aún no se han
+ *                     escrito en la fila (0 o negativo).
+ */
+public record VersionedDTO<T>(
+        T data,
+        int version,
+        int pendingStock) {
+
+    /**
+     * Crea la respuesta de un recurso sin cambios pendientes de escribir.
+     */
+    public VersionedDTO(T data, int version) {
+        this(data, version, 0);
+    }
+}
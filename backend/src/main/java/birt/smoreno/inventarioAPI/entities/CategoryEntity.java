@@ -3,18 +3,26 @@ package birt.smoreno.inventarioAPI.entities;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * {@code CategoryEntity} es una clase que representa la entidad de categoría en
@@ -24,8 +32,20 @@ import lombok.NoArgsConstructor;
  * {@code nombre}, {@code descripcion}, {@code createdAt} y {@code updatedAt}.
  * Estas propiedades representan los atributos de una categoría en el sistema.
  * </p>
+ * <p>
+ * La entidad y su colección de productos se guardan en la caché de segundo
+ * nivel de Hibernate ({@code READ_WRITE}), de modo que {@code findById} no
+ * consulta la base de datos mientras la categoría no cambie.
+ * </p>
+ * <p>
+ * Con {@code @DynamicUpdate}, los UPDATE solo incluyen las columnas
+ * modificadas.
+ * </p>
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.CATEGORY_REGION)
 @Table(name = "categorias")
 @Data
 @NoArgsConstructor
@@ -51,7 +71,17 @@ public class CategoryEntity {
 	@UpdateTimestamp
 	private LocalDateTime updatedAt;
 
-	// Relaciones. Una categoria tiene muchos productos
+	// Versión para el bloqueo optimista: Hibernate la incrementa en cada UPDATE y
+	// lo condiciona a que no haya cambiado desde la lectura. Se expone como ETag
+	@Version
+	@Column(name = "version", nullable = false)
+	private int version;
+
+	// Relaciones. Una categoria tiene muchos productos. Perezosa, como toda
+	// colección: fuera de toString, equals y hashCode
 	@OneToMany(mappedBy = "category")
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.CATEGORY_PRODUCTS_REGION)
 	private List<ProductEntity> products;
 }
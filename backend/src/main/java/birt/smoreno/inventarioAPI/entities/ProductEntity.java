@@ -2,19 +2,30 @@ package birt.smoreno.inventarioAPI.entities;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * {@code ProductEntity} es una clase que representa la entidad de producto en
@@ -25,8 +36,30 @@ import lombok.NoArgsConstructor;
  * {@code id_categoria}. Estas propiedades representan los atributos de un
  * producto en el sistema.
  * </p>
+ * <p>
+ * {@code deficit} es una columna generada por la base de datos a partir del
+ * stock actual y el mínimo; se mapea solo para poder consultarla, y la entidad
+ * recalcula su copia al guardarse.
+ * </p>
+ * <p>
+ * La entidad se guarda en la caché de segundo nivel de Hibernate
+ * ({@code READ_WRITE}). Las escrituras que no pasan por Hibernate (lotes JDBC)
+ * invalidan sus entradas con {@code SecondLevelCacheService}.
+ * </p>
+ * <p>
+ * {@code version} protege las modificaciones concurrentes sin bloquear la fila:
+ * una escritura basada en una versión anterior falla en lugar de sobrescribir
+ * la otra. Los movimientos de stock por JDBC también la incrementan.
+ * </p>
+ * <p>
+ * Con {@code @DynamicUpdate}, los UPDATE solo incluyen las columnas
+ * modificadas, de modo que un {@code PATCH} de un campo no reescribe el resto.
+ * </p>
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PRODUCT_REGION)
 @Table(name = "productos")
 @Data
 @NoArgsConstructor
@@ -47,6 +80,13 @@ public class ProductEntity {
 	@Column(name = "stock_minimo", nullable = false)
 	private int minStock;
 
+	// Columna generada en la base de datos (stock_minimo - stock_actual) e
+	// indexada; solo lectura desde la aplicación. Se recalcula al guardar para que
+	// la entidad y la caché no guarden un valor antiguo (releerla con @Generated
+	// convierte un UPDATE con versión antigua en un error en vez de en un 412)
+	@Column(name = "deficit", insertable = false, updatable = false)
+	private int deficit;
+
 	@Column(name = "created_at", nullable = false, updatable = false)
 	@CreationTimestamp
 	private LocalDateTime createdAt;
@@ -55,8 +95,28 @@ public class ProductEntity {
 	@UpdateTimestamp
 	private LocalDateTime updatedAt;
 
+	// Versión para el bloqueo optimista: Hibernate la incrementa en cada UPDATE y
+	// lo condiciona a que no haya cambiado desde la lectura. Se expone como ETag
+	@Version
+	@Column(name = "version", nullable = false)
+	private int version;
+
 	// Relaciones. Muchos productos pertenecen a una categoria
-	@ManyToOne
+	// LAZY: para devolver solo el id_categoria basta con el proxy, sin consultar
+	// la categoría. Los listados que la necesitan la cargan con JOIN FETCH.
+	// Fuera de toString, equals y hashCode, que si no inicializarían el proxy
+	@ManyToOne(fetch = FetchType.LAZY)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	@JoinColumn(name = "id_categoria", nullable = false)
 	private CategoryEntity category;
+
+	/**
+	 * Calcular {@code deficit} igual que la base de datos
+	 */
+	@PrePersist
+	@PreUpdate
+	void computeDeficit() {
+		deficit = minStock - currentStock;
+	}
 }
@@ -38,6 +38,7 @@ public class CategoryMapper {
 				categoryRequest.getNombre(), categoryRequest.getDescripcion(), null, // createdAt se asigna
 																						// automáticamente
 				null, // updatedAt se asigna automáticamente
+				0, // version la gestiona Hibernate
 				null // products se asigna automáticamente
 		);
 	}
@@ -2,11 +2,12 @@ package birt.smoreno.inventarioAPI.mappers;
 
 import org.springframework.stereotype.Component;
 
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
 import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
 import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
 import birt.smoreno.inventarioAPI.entities.CategoryEntity;
 import birt.smoreno.inventarioAPI.entities.ProductEntity;
-import birt.smoreno.inventarioAPI.repositories.CategoryRepository;
+import birt.smoreno.inventarioAPI.services.CategoryService;
 
 /**
  * {@code ProductMapper} es una clase que se encarga de realizar el mapeo entre
@@ -25,14 +26,14 @@ import birt.smoreno.inventarioAPI.repositories.CategoryRepository;
 @Component
 public class ProductMapper {
 
-	// Instanciar el repositorio de categorías para ser utilizado en los métodos de
-	// la clase
-	private final CategoryRepository categoryRepository;
+	// Instanciar el servicio de categorías para ser utilizado en los métodos de
+	// la clase. Resuelve las categorías a través de su caché
+	private final CategoryService categoryService;
 
-	// Constructor que inyecta el repositorio de categorías
+	// Constructor que inyecta el servicio de categorías
 	// Se podría usar @Autowired, pero está desaconsejado.
-	public ProductMapper(CategoryRepository categoryRepository) {
-		this.categoryRepository = categoryRepository;
+	public ProductMapper(CategoryService categoryService) {
+		this.categoryService = categoryService;
 	}
 
 	/**
@@ -43,16 +44,34 @@ public class ProductMapper {
 	 */
 	public ProductEntity toEntity(ProductRequestDTO productRequestDTO) {
 
-		CategoryEntity category = categoryRepository.findById(productRequestDTO.getId_categoria())
-				.orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
+		CategoryEntity category = toCategory(productRequestDTO.getId_categoria());
 
 		return new ProductEntity(0, // ID se asigna automáticamente
 				productRequestDTO.getNombre(), productRequestDTO.getStock_actual(), productRequestDTO.getStock_minimo(),
+				0, // deficit lo calcula la base de datos
 				null, // createdAt se asigna automáticamente
 				null, // updatedAt se asigna automáticamente
+				0, // version la gestiona Hibernate
 				category);
 	}
 
+	/**
+	 * Obtener la categoría a la que se asigna un producto
+	 * <p>
+	 * La existencia se comprueba con la categoría en caché, que es un DTO
+	 * inmutable; la entidad es una referencia sin cargar, propia de cada petición.
+	 * </p>
+	 * 
+	 * @param categoryId ID de la categoría
+	 * @return {@link CategoryEntity} de referencia
+	 */
+	public CategoryEntity toCategory(int categoryId) {
+		if (categoryService.getCategoryById(categoryId).isEmpty()) {
+			throw new RuntimeException("Categoría no encontrada");
+		}
+		return categoryService.getCategoryReference(categoryId);
+	}
+
 	/**
 	 * Convertir Entity a ResponseDTO
 	 * 
@@ -63,4 +82,21 @@ public class ProductMapper {
 		return new ProductResponseDTO(productEntity.getId(), productEntity.getName(), productEntity.getCurrentStock(),
 				productEntity.getMinStock(), productEntity.getCategory().getId());
 	}
+
+	/**
+	 * Convertir Entity a ResponseDTO incluyendo los datos de la categoría.
+	 * <p>
+	 * La categoría debe venir ya cargada en la misma consulta (JOIN FETCH); de lo
+	 * contrario se provocaría una consulta adicional por producto.
+	 * </p>
+	 * 
+	 * @param {@link ProductEntity}
+	 * @return {@link ProductResponseDTO} con {@code categoria}
+	 */
+	public ProductResponseDTO toExpandedResponseDTO(ProductEntity productEntity) {
+		CategoryEntity category = productEntity.getCategory();
+		return new ProductResponseDTO(productEntity.getId(), productEntity.getName(), productEntity.getCurrentStock(),
+				productEntity.getMinStock(), category.getId(),
+				new CategoryResponseDTO(category.getId(), category.getName(), category.getDescription()));
+	}
 }
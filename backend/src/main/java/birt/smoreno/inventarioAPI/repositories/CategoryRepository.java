@@ -1,8 +1,18 @@
 package birt.smoreno.inventarioAPI.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategorySummaryDTO;
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
 import birt.smoreno.inventarioAPI.entities.CategoryEntity;
 
 /**
@@ -20,9 +30,117 @@ import birt.smoreno.inventarioAPI.entities.CategoryEntity;
  * implementar la lógica de negocio relacionada con las categorías de productos
  * u otros elementos en la aplicación.
  * </p>
- * 
+ * <p>
+ * Los listados se paginan por cursor (keyset) y se leen directamente como
+ * {@link CategoryResponseDTO}, igual que en {@link ProductRepository}.
+ * </p>
+ * <p>
+ * Las operaciones en lote sobre JDBC se declaran en
+ * {@link CategoryRepositoryCustom}.
+ * </p>
+ *
  * @see {@link JpaRepository}
  */
 @Repository
-public interface CategoryRepository extends JpaRepository<CategoryEntity, Integer> {
+public interface CategoryRepository extends JpaRepository<CategoryEntity, Integer>, CategoryRepositoryCustom {
+
+	/** Selección de una categoría como {@link CategoryResponseDTO}. */
+	String CATEGORY_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.CategoryResponseDTO(c.id, c.name, c.description)
+			FROM CategoryEntity c""";
+
+	/**
+	 * Selección de una categoría con su fecha de modificación, para los listados
+	 * ordenados por ella.
+	 */
+	String CATEGORY_KEYSET_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.KeysetRowDTO(
+			    new birt.smoreno.inventarioAPI.dto.CategoryResponseDTO(c.id, c.name, c.description), c.updatedAt)
+			FROM CategoryEntity c""";
+
+	/**
+	 * Obtiene, de entre los nombres indicados, los que ya usa alguna categoría. La
+	 * comparación sigue la intercalación de la columna.
+	 * 
+	 * @param names Nombres a comprobar.
+	 * @return Nombres ya existentes, tal como están guardados.
+	 */
+	@Query("SELECT c.name FROM CategoryEntity c WHERE c.name IN :names")
+	List<String> findExistingNames(@Param("names") Collection<String> names);
+
+	/**
+	 * Página de categorías ordenadas por ID a partir de un cursor. Con
+	 * {@code after = 0} devuelve la primera página.
+	 *
+	 * @param after ID de la última categoría de la página anterior.
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return Lista de {@link CategoryResponseDTO}.
+	 */
+	@Query(CATEGORY_ROW + " WHERE c.id > :after ORDER BY c.id ASC")
+	List<CategoryResponseDTO> findPageById(@Param("after") int after, Limit limit);
+
+	/**
+	 * Primera página de categorías ordenadas por nombre.
+	 *
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return Lista de {@link CategoryResponseDTO}.
+	 */
+	@Query(CATEGORY_ROW + " ORDER BY c.name ASC, c.id ASC")
+	List<CategoryResponseDTO> findFirstPageByName(Limit limit);
+
+	/**
+	 * Página de categorías ordenadas por nombre que siguen al cursor. El cursor
+	 * lleva el nombre, de modo que no hace falta leer la fila a la que apunta.
+	 *
+	 * @param afterName Nombre de la última categoría de la página anterior.
+	 * @param after     ID de la última categoría de la página anterior.
+	 * @param limit     Número máximo de categorías a devolver.
+	 * @return Lista de {@link CategoryResponseDTO}.
+	 */
+	@Query(CATEGORY_ROW + """
+			 WHERE c.name > :afterName OR (c.name = :afterName AND c.id > :after)
+			ORDER BY c.name ASC, c.id ASC""")
+	List<CategoryResponseDTO> findPageByName(@Param("afterName") String afterName, @Param("after") int after,
+			Limit limit);
+
+	/**
+	 * Primera página de categorías ordenadas por fecha de modificación.
+	 *
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return Lista de {@link KeysetRowDTO} con cada categoría y su fecha.
+	 */
+	@Query(CATEGORY_KEYSET_ROW + " ORDER BY c.updatedAt ASC, c.id ASC")
+	List<KeysetRowDTO<CategoryResponseDTO>> findFirstPageByUpdatedAt(Limit limit);
+
+	/**
+	 * Página de categorías ordenadas por fecha de modificación que siguen al
+	 * cursor.
+	 *
+	 * @param afterUpdatedAt Fecha de la última categoría de la página anterior.
+	 * @param after          ID de la última categoría de la página anterior.
+	 * @param limit          Número máximo de categorías a devolver.
+	 * @return Lista de {@link KeysetRowDTO} con cada categoría y su fecha.
+	 */
+	@Query(CATEGORY_KEYSET_ROW + """
+			 WHERE c.updatedAt > :afterUpdatedAt OR (c.updatedAt = :afterUpdatedAt AND c.id > :after)
+			ORDER BY c.updatedAt ASC, c.id ASC""")
+	List<KeysetRowDTO<CategoryResponseDTO>> findPageByUpdatedAt(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+			@Param("after") int after, Limit limit);
+
+	/**
+	 * Totales de inventario de todas las categorías, agrupados por categoría en
+	 * una sola consulta. Las categorías sin productos aparecen con los totales a
+	 * cero.
+	 *
+	 * @return Lista de {@link CategorySummaryDTO} ordenada por ID.
+	 */
+	@Query("""
+			SELECT new birt.smoreno.inventarioAPI.dto.CategorySummaryDTO(c.id, c.name, COUNT(p.id),
+			       COALESCE(SUM(p.currentStock), 0L),
+			       COALESCE(SUM(CASE WHEN p.deficit > 0 THEN 1L ELSE 0L END), 0L),
+			       COALESCE(MAX(CASE WHEN p.deficit > 0 THEN p.deficit ELSE 0 END), 0))
+			FROM CategoryEntity c LEFT JOIN c.products p
+			GROUP BY c.id, c.name
+			ORDER BY c.id ASC""")
+	List<CategorySummaryDTO> findSummary();
 }
@@ -0,0 +1,22 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.util.List;
+
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+
+/**
+ * {@code CategoryRepositoryCustom} declara las operaciones de
+ * {@link CategoryRepository} que se implementan directamente sobre JDBC en
+ * {@link CategoryRepositoryCustomImpl}.
+ */
+public interface CategoryRepositoryCustom {
+
+	/**
+	 * Inserta una lista de categorías en un único lote JDBC, sin pasar por el
+	 * contexto de persistencia.
+	 *
+	 * @param categories Categorías ya validadas.
+	 * @return Filas insertadas por cada categoría.
+	 */
+	int[] insertCategories(List<CategoryRequestDTO> categories);
+}
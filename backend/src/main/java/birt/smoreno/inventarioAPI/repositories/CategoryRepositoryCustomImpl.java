@@ -0,0 +1,46 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+
+/**
+ * {@code CategoryRepositoryCustomImpl} implementa
+ * {@link CategoryRepositoryCustom} con {@link JdbcTemplate}, igual que
+ * {@link ProductRepositoryCustomImpl}.
+ */
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+
+	private static final String INSERT_CATEGORY_SQL = "INSERT INTO categorias"
+			+ " (nombre, descripcion, created_at, updated_at)"
+			+ " VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public CategoryRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public int[] insertCategories(List<CategoryRequestDTO> categories) {
+		return jdbcTemplate.batchUpdate(INSERT_CATEGORY_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				CategoryRequestDTO category = categories.get(i);
+				ps.setString(1, category.getNombre());
+				ps.setString(2, category.getDescripcion());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return categories.size();
+			}
+		});
+	}
+}
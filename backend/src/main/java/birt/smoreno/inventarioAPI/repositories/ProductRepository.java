@@ -1,13 +1,23 @@
 package birt.smoreno.inventarioAPI.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
 import birt.smoreno.inventarioAPI.entities.ProductEntity;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import jakarta.persistence.QueryHint;
 
 /**
  * {@code ProductRepository} es una interfaz que extiende {@link JpaRepository}
@@ -24,44 +34,169 @@ import birt.smoreno.inventarioAPI.entities.ProductEntity;
  * mínimo, lo cual puede ser útil para mantener un control sobre los productos
  * con bajo inventario.
  * </p>
- * * @see {@link JpaRepository}
+ * <p>
+ * Los listados se paginan por cursor (keyset): cada página continúa a partir
+ * del último producto devuelto buscando sobre un índice, en lugar de usar
+ * {@code OFFSET}, que obliga a recorrer y descartar todas las filas anteriores.
+ * La consulta de cada criterio de ordenación se compone en
+ * {@link ProductRepositoryCustom#findPage}.
+ * </p>
+ * <p>
+ * Los listados se leen directamente como {@link ProductResponseDTO}
+ * ({@code SELECT new}), sin entidades gestionadas ni copias para detectar
+ * cambios. Sin la categoría expandida basta la columna {@code id_categoria} de
+ * la propia fila; con ella, la categoría se une en la misma consulta, de modo
+ * que un listado cuesta siempre una sola consulta.
+ * </p>
+ * <p>
+ * Las operaciones en lote sobre JDBC se declaran en
+ * {@link ProductRepositoryCustom}.
+ * </p>
+ *
+ * @see JpaRepository
  */
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Integer> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Integer>, ProductRepositoryCustom {
+
+	/** Selección de un producto como {@link ProductResponseDTO}, sin la categoría. */
+	String PRODUCT_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.ProductResponseDTO(
+			    p.id, p.name, p.currentStock, p.minStock, p.category.id)
+			FROM ProductEntity p""";
+
+	/** Selección de un producto como {@link ProductResponseDTO} con su categoría. */
+	String EXPANDED_PRODUCT_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.ProductResponseDTO(
+			    p.id, p.name, p.currentStock, p.minStock, c.id, c.name, c.description)
+			FROM ProductEntity p JOIN p.category c""";
+
+	/**
+	 * Selección de un producto con su fecha de modificación, para los listados
+	 * paginados por cursor.
+	 */
+	String PRODUCT_KEYSET_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.KeysetRowDTO(
+			    new birt.smoreno.inventarioAPI.dto.ProductResponseDTO(
+			        p.id, p.name, p.currentStock, p.minStock, p.category.id),
+			    p.updatedAt)
+			FROM ProductEntity p""";
+
+	/**
+	 * Selección de un producto con su categoría y su fecha de modificación, para
+	 * los listados paginados por cursor.
+	 */
+	String EXPANDED_PRODUCT_KEYSET_ROW = """
+			SELECT new birt.smoreno.inventarioAPI.dto.KeysetRowDTO(
+			    new birt.smoreno.inventarioAPI.dto.ProductResponseDTO(
+			        p.id, p.name, p.currentStock, p.minStock, c.id, c.name, c.description),
+			    p.updatedAt)
+			FROM ProductEntity p JOIN p.category c""";
+
+	/** Productos con déficit positivo, de mayor a menor déficit. */
+	String UNDER_STOCK = " WHERE p.deficit > 0 ORDER BY p.deficit DESC, p.id ASC";
 
 	/**
 	 * Consulta personalizada para obtener productos cuyo stock actual es inferior
 	 * al stock mínimo establecido.
 	 * <p>
 	 * Esta consulta utiliza JPQL (Java Persistence Query Language) para seleccionar
-	 * todos los productos de la entidad {@link ProductEntity} donde el stock actual
-	 * es menor que el stock mínimo.
+	 * todos los productos de la entidad {@link ProductEntity} con déficit positivo,
+	 * es decir, cuyo stock actual es menor que el stock mínimo. Los resultados se
+	 * ordenan de mayor a menor déficit.
 	 * </p>
-	 * 
+	 *
+	 * <p>
+	 * {@code deficit} es una columna generada e indexada, por lo que MariaDB
+	 * resuelve la consulta recorriendo solo la parte del índice con déficit
+	 * positivo. Comparar directamente {@code stock_actual < stock_minimo} obliga a
+	 * leer la tabla completa, ya que ningún índice puede comparar dos columnas.
+	 * </p>
+	 *
 	 * <p>
-	 * La misma consulta en SQL nativo sería: <code>
-	 * &#064;Query(value = "SELECT * FROM products WHERE stock_actual < stock_minimo", nativeQuery = true);
-	 * </code>
+	 * El resultado se guarda en la caché de consultas de Hibernate, en la región
+	 * {@link CacheConfig#PRODUCTS_UNDER_STOCK_REGION}. Se invalida cuando
+	 * Hibernate modifica la tabla {@code productos} y, tras las escrituras JDBC,
+	 * con {@code SecondLevelCacheService}.
 	 * </p>
 	 * 
-	 * @return Lista de {@link ProductEntity} con stock bajo.
+	 * @return Lista de {@link ProductResponseDTO} con stock bajo.
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCTS_UNDER_STOCK_REGION) })
+	@Query(PRODUCT_ROW + UNDER_STOCK)
+	List<ProductResponseDTO> findProductUnderStock();
+
+	/**
+	 * Igual que {@link #findProductUnderStock()}, incluyendo la categoría de cada
+	 * producto en la misma consulta.
+	 * 
+	 * @return Lista de {@link ProductResponseDTO} con stock bajo y su
+	 *         {@code categoria}.
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCTS_UNDER_STOCK_REGION) })
+	@Query(EXPANDED_PRODUCT_ROW + UNDER_STOCK)
+	List<ProductResponseDTO> findExpandedProductUnderStock();
+
+	/**
+	 * Obtiene el nivel de stock de un producto como proyección, sin cargar la
+	 * entidad ni su categoría.
+	 * 
+	 * @param id ID del producto.
+	 * @return {@link StockMovementResponseDTO} con el stock actual y mínimo, o
+	 *         vacío si el producto no existe.
+	 */
+	@Query("""
+			SELECT new birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO(p.id, p.currentStock, p.minStock)
+			FROM ProductEntity p WHERE p.id = :id""")
+	Optional<StockMovementResponseDTO> findStockLevel(@Param("id") int id);
+
+	/**
+	 * Obtiene el nivel de stock de varios productos como proyección, en una sola
+	 * consulta.
+	 * 
+	 * @param ids IDs de los productos.
+	 * @return Lista de {@link StockMovementResponseDTO} de los productos que
+	 *         existen.
+	 */
+	@Query("""
+			SELECT new birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO(p.id, p.currentStock, p.minStock)
+			FROM ProductEntity p WHERE p.id IN :ids""")
+	List<StockMovementResponseDTO> findStockLevels(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Obtiene varios productos como proyección, en una sola consulta.
+	 * 
+	 * @param ids IDs de los productos.
+	 * @return Lista de {@link ProductResponseDTO} de los productos que existen.
+	 */
+	@Query(PRODUCT_ROW + " WHERE p.id IN :ids")
+	List<ProductResponseDTO> findRowsByIds(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Obtiene, de entre los nombres indicados, los que ya usa algún producto. La
+	 * comparación sigue la intercalación de la columna.
+	 * 
+	 * @param names Nombres a comprobar.
+	 * @return Nombres ya existentes, tal como están guardados.
 	 */
-	@Query(value = "SELECT p FROM ProductEntity p WHERE p.currentStock < p.minStock")
-	List<ProductEntity> findProductUnderStock();
+	@Query("SELECT p.name FROM ProductEntity p WHERE p.name IN :names")
+	List<String> findExistingNames(@Param("names") Collection<String> names);
 
 	/**
-	 * Consulta personalizada para contar el número de productos asociados a una
-	 * categoría específica.
+	 * Recorre todos los productos ordenados por ID con un cursor de solo avance.
 	 * <p>
-	 * Esta consulta utiliza JPQL para contar el número de productos en la entidad
-	 * {@link ProductEntity} que pertenecen a una categoría dada, identificada por
-	 * su ID.
+	 * El driver lee las filas en bloques de {@link AppConstants#EXPORT_FETCH_SIZE}
+	 * en lugar de cargar el resultado completo, y Hibernate no guarda copia de las
+	 * entidades para detectar cambios. La categoría no se carga: basta su ID, que
+	 * está en la propia fila. El {@link Stream} debe consumirse dentro de una
+	 * transacción y cerrarse al terminar.
 	 * </p>
 	 * 
-	 * @param categoryId ID de la categoría para la cual se desea contar los
-	 *                   productos.
-	 * @return Número de productos asociados a la categoría especificada.
+	 * @return {@link Stream} de {@link ProductEntity}.
 	 */
-	@Query("SELECT COUNT(p) FROM ProductEntity p WHERE p.category.id = :categoryId")
-	int countByCategoryId(@Param("categoryId") int categoryId);
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + AppConstants.EXPORT_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT p FROM ProductEntity p ORDER BY p.id ASC")
+	Stream<ProductEntity> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,110 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.SortField;
+
+/**
+ * {@code ProductRepositoryCustom} declara las operaciones de
+ * {@link ProductRepository} que no se pueden expresar como consultas de Spring
+ * Data y se implementan directamente sobre JDBC, o componiendo la consulta
+ * JPQL, en {@link ProductRepositoryCustomImpl}.
+ */
+public interface ProductRepositoryCustom {
+
+	/**
+	 * Página de productos en un orden a partir de un cursor, con una única
+	 * consulta JPQL que busca (seek) sobre el índice del orden.
+	 * <p>
+	 * Cada criterio ordena por su clave y desempata por ID. La página siguiente
+	 * empieza tras la clave y el ID del cursor
+	 * ({@code clave > :clave OR (clave = :clave AND id > :id)}), que bastan para
+	 * continuar aunque el producto del cursor se haya eliminado.
+	 * </p>
+	 *
+	 * @param sort           Criterio de ordenación.
+	 * @param cursor         Posición del último producto de la página anterior,
+	 *                       o {@code null} para la primera página. Su clave es
+	 *                       del tipo del criterio ({@link SortField#keyParser()}).
+	 * @param expandCategory {@code true} para unir la categoría en la misma
+	 *                       consulta.
+	 * @param limit          Número máximo de productos a devolver.
+	 * @return Lista de {@link KeysetRowDTO} con cada producto y su fecha de
+	 *         modificación.
+	 */
+	List<KeysetRowDTO<ProductResponseDTO>> findPage(SortField sort, Cursor<?> cursor, boolean expandCategory,
+			Limit limit);
+
+	/**
+	 * Aplica una variación de stock de forma atómica con un único
+	 * {@code UPDATE} condicional, sin cargar la entidad.
+	 * <p>
+	 * La condición impide que el stock quede por debajo de las unidades
+	 * reservadas en {@code reservas_stock} por la escritura diferida, y por tanto
+	 * negativo. Se expresa como {@code stock_actual >= -delta + reservado} en
+	 * lugar de {@code stock_actual + delta >= reservado} porque
+	 * {@code stock_actual} es {@code UNSIGNED} y MariaDB daría error de rango al
+	 * evaluar una suma negativa. La subconsulta de un {@code UPDATE} lee con
+	 * bloqueo, así que ve las reservas confirmadas.
+	 * </p>
+	 * <p>
+	 * Se ejecuta con JDBC y no como {@code UPDATE} JPQL porque Hibernate vaciaría
+	 * entera la región de productos de la caché de segundo nivel en cada
+	 * movimiento. Quien la llama debe invalidar solo el producto modificado.
+	 * </p>
+	 *
+	 * @param id    ID del producto.
+	 * @param delta Variación de unidades (negativa para una salida).
+	 * @return Número de filas actualizadas: 0 si el producto no existe o el stock
+	 *         no cubriría lo reservado.
+	 */
+	int applyStockDelta(int id, int delta);
+
+	/**
+	 * Aplica una lista de variaciones de stock en un único lote JDBC.
+	 * <p>
+	 * Cada elemento se ejecuta con el mismo {@code UPDATE} condicional que
+	 * {@link #applyStockDelta(int, int)}, de modo que ningún producto queda con
+	 * stock por debajo de lo reservado.
+	 * </p>
+	 *
+	 * @param items Movimientos a aplicar, en orden.
+	 * @return Filas actualizadas por cada movimiento: 1 si se ha aplicado, 0 si el
+	 *         producto no existe o el stock no cubriría lo reservado.
+	 */
+	int[] applyStockDeltas(List<StockBatchItemDTO> items);
+
+	/**
+	 * Aplica en un único lote JDBC salidas de stock que la escritura diferida ya
+	 * había reservado en {@code reservas_stock}.
+	 * <p>
+	 * Las unidades reservadas no cuentan contra estas salidas: solo se comprueba
+	 * que el stock no quede negativo. Quien la llama descuenta después la reserva.
+	 * </p>
+	 *
+	 * @param items Salidas netas a aplicar, en orden.
+	 * @return Filas actualizadas por cada salida: 1 si se ha aplicado, 0 si el
+	 *         producto no existe o el stock quedaría negativo.
+	 */
+	int[] applyLeasedStockDeltas(List<StockBatchItemDTO> items);
+
+	/**
+	 * Inserta una lista de productos en un único lote JDBC, sin pasar por el
+	 * contexto de persistencia.
+	 * <p>
+	 * Hibernate no puede agrupar en lotes los {@code INSERT} de entidades con ID
+	 * {@code IDENTITY}, porque necesita leer el ID generado de cada fila.
+	 * </p>
+	 *
+	 * @param products Productos ya validados, con la categoría resuelta.
+	 * @return Filas insertadas por cada producto.
+	 */
+	int[] insertProducts(List<ProductRequestDTO> products);
+}
@@ -0,0 +1,161 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * {@code ProductRepositoryCustomImpl} implementa {@link ProductRepositoryCustom}
+ * con {@link JdbcTemplate}.
+ * <p>
+ * Las sentencias se envían como un lote JDBC sobre la conexión de la
+ * transacción JPA en curso. El driver de MariaDB las envía encadenadas
+ * (pipelining) sin esperar la respuesta de cada una, y sigue devolviendo el
+ * número de filas afectadas por cada sentencia.
+ * </p>
+ * <p>
+ * Estas escrituras no pasan por Hibernate: la caché de segundo nivel se
+ * invalida desde los servicios con {@code SecondLevelCacheService}.
+ * </p>
+ * <p>
+ * Las páginas de los listados se leen con JPQL, componiendo la consulta de cada
+ * criterio de ordenación a partir de las selecciones de
+ * {@link ProductRepository}.
+ * </p>
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+	// UPDATE condicional: no se aplica si el stock quedaría por debajo de las
+	// unidades reservadas por la escritura diferida. Incrementa la versión para que
+	// una modificación basada en el stock anterior falle
+	private static final String APPLY_STOCK_DELTA_SQL = "UPDATE productos"
+			+ " SET stock_actual = stock_actual + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP"
+			+ " WHERE id_producto = ? AND stock_actual >= ?"
+			+ " + (SELECT COALESCE(SUM(r.unidades), 0) FROM reservas_stock r WHERE r.id_producto = ?)";
+
+	// Salidas ya reservadas: solo se comprueba que el stock no quede negativo
+	private static final String APPLY_LEASED_STOCK_DELTA_SQL = "UPDATE productos"
+			+ " SET stock_actual = stock_actual + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP"
+			+ " WHERE id_producto = ? AND stock_actual >= ?";
+
+	private static final String INSERT_PRODUCT_SQL = "INSERT INTO productos"
+			+ " (nombre, stock_actual, stock_minimo, id_categoria, created_at, updated_at)"
+			+ " VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EntityManager entityManager;
+
+	public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<KeysetRowDTO<ProductResponseDTO>> findPage(SortField sort, Cursor<?> cursor, boolean expandCategory,
+			Limit limit) {
+		String key = sortKey(sort);
+		StringBuilder jpql = new StringBuilder(
+				expandCategory ? ProductRepository.EXPANDED_PRODUCT_KEYSET_ROW : ProductRepository.PRODUCT_KEYSET_ROW);
+		if (cursor != null) {
+			jpql.append(key == null ? " WHERE p.id > :after"
+					: " WHERE " + key + " > :afterKey OR (" + key + " = :afterKey AND p.id > :after)");
+		}
+		jpql.append(" ORDER BY ").append(key == null ? "" : key + " ASC, ").append("p.id ASC");
+
+		TypedQuery<?> query = entityManager.createQuery(jpql.toString(), KeysetRowDTO.class)
+				.setMaxResults(limit.max());
+		if (cursor != null) {
+			query.setParameter("after", cursor.id());
+			if (key != null) {
+				query.setParameter("afterKey", cursor.key());
+			}
+		}
+		return (List<KeysetRowDTO<ProductResponseDTO>>) query.getResultList();
+	}
+
+	/**
+	 * Atributo por el que ordena un criterio, antes del ID
+	 *
+	 * @return Ruta JPQL del atributo, o {@code null} en el orden por ID
+	 */
+	private static String sortKey(SortField sort) {
+		return switch (sort) {
+		case ID -> null;
+		// Índice UNIQUE de nombre
+		case NOMBRE -> "p.name";
+		// Índice (updated_at, id_producto)
+		case UPDATED_AT -> "p.updatedAt";
+		};
+	}
+
+	@Override
+	public int applyStockDelta(int id, int delta) {
+		return jdbcTemplate.update(APPLY_STOCK_DELTA_SQL, delta, id, -delta, id);
+	}
+
+	@Override
+	public int[] applyStockDeltas(List<StockBatchItemDTO> items) {
+		return applyStockDeltas(items, false);
+	}
+
+	@Override
+	public int[] applyLeasedStockDeltas(List<StockBatchItemDTO> items) {
+		return applyStockDeltas(items, true);
+	}
+
+	private int[] applyStockDeltas(List<StockBatchItemDTO> items, boolean leased) {
+		String sql = leased ? APPLY_LEASED_STOCK_DELTA_SQL : APPLY_STOCK_DELTA_SQL;
+		return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				StockBatchItemDTO item = items.get(i);
+				ps.setInt(1, item.getDelta());
+				ps.setInt(2, item.getId_producto());
+				ps.setInt(3, -item.getDelta());
+				if (!leased) {
+					ps.setInt(4, item.getId_producto());
+				}
+			}
+
+			@Override
+			public int getBatchSize() {
+				return items.size();
+			}
+		});
+	}
+
+	@Override
+	public int[] insertProducts(List<ProductRequestDTO> products) {
+		return jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ProductRequestDTO product = products.get(i);
+				ps.setString(1, product.getNombre());
+				ps.setInt(2, product.getStock_actual());
+				ps.setInt(3, product.getStock_minimo());
+				ps.setInt(4, product.getId_categoria());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return products.size();
+			}
+		});
+	}
+}
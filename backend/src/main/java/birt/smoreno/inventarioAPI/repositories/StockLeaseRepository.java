@@ -0,0 +1,143 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@code StockLeaseRepository} accede a las reservas de stock
+ * ({@code reservas_stock}) de la escritura diferida asíncrona con
+ * {@link JdbcTemplate}.
+ * <p>
+ * Cada instancia de la aplicación reserva unidades de un producto antes de
+ * confirmar salidas que aún no ha escrito, y las descuenta de su reserva al
+ * escribirlas. El resto de escrituras de stock no pueden dejar el producto por
+ * debajo de lo reservado, así que una salida confirmada siempre cabe al
+ * volcarla.
+ * </p>
+ * <p>
+ * Las reservas solo crecen con la fila del producto bloqueada, igual que la
+ * bloquean los {@code UPDATE} de stock, de modo que el stock y lo reservado se
+ * leen siempre confirmados y en el mismo orden.
+ * </p>
+ */
+@Repository
+public class StockLeaseRepository {
+
+	private static final String LOCK_PRODUCT_SQL = "SELECT stock_actual, stock_minimo FROM productos"
+			+ " WHERE id_producto = ? FOR UPDATE";
+
+	// Lectura con bloqueo, que ve las reservas confirmadas aunque la transacción
+	// ya haya leído antes. H2 no admite FOR UPDATE con SUM, así que se suma aquí
+	private static final String RESERVED_SQL = "SELECT unidades FROM reservas_stock WHERE id_producto = ? FOR UPDATE";
+
+	private static final String ADD_SQL = "UPDATE reservas_stock SET unidades = unidades + ?"
+			+ " WHERE id_producto = ? AND instancia = ?";
+
+	private static final String INSERT_SQL = "INSERT INTO reservas_stock (id_producto, instancia, unidades)"
+			+ " VALUES (?, ?, ?)";
+
+	private static final String DELETE_EMPTY_SQL = "DELETE FROM reservas_stock WHERE instancia = ? AND unidades <= 0";
+
+	private static final String DELETE_INSTANCE_SQL = "DELETE FROM reservas_stock WHERE instancia = ?";
+
+	/**
+	 * Resultado de una reserva.
+	 *
+	 * @param stock    Stock del producto en la base de datos
+	 * @param minStock Stock mínimo del producto
+	 * @param free     Unidades que no tenía reservadas ninguna instancia antes de
+	 *                 esta reserva
+	 * @param granted  Unidades reservadas, 0 si no había bastantes
+	 */
+	public record Grant(int stock, int minStock, int free, int granted) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public StockLeaseRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Reservar unidades de un producto para una instancia. Bloquea la fila del
+	 * producto hasta el final de la transacción.
+	 *
+	 * @param productId ID del producto
+	 * @param instance  Identificador de la instancia
+	 * @param needed    Unidades que hacen falta como mínimo
+	 * @param wanted    Unidades que se reservan si quedan libres, al menos
+	 *                  {@code needed}
+	 * @return Unidades reservadas, o vacío si el producto no existe
+	 */
+	public Optional<Grant> grant(int productId, String instance, int needed, int wanted) {
+		List<int[]> product = jdbcTemplate.query(LOCK_PRODUCT_SQL,
+				(rs, rowNum) -> new int[] { rs.getInt(1), rs.getInt(2) }, productId);
+		if (product.isEmpty()) {
+			return Optional.empty();
+		}
+		int stock = product.get(0)[0];
+		int free = stock - reserved(productId);
+		int granted = free < needed ? 0 : Math.min(wanted, free);
+		if (granted > 0 && jdbcTemplate.update(ADD_SQL, granted, productId, instance) == 0) {
+			jdbcTemplate.update(INSERT_SQL, productId, instance, granted);
+		}
+		return Optional.of(new Grant(stock, product.get(0)[1], free, granted));
+	}
+
+	/**
+	 * Obtener las unidades reservadas de un producto por todas las instancias.
+	 * Bloquea las reservas leídas hasta el final de la transacción.
+	 *
+	 * @param productId ID del producto
+	 * @return Unidades reservadas
+	 */
+	public int reserved(int productId) {
+		return jdbcTemplate.queryForList(RESERVED_SQL, Integer.class, productId).stream().mapToInt(Integer::intValue)
+				.sum();
+	}
+
+	/**
+	 * Descontar unidades de las reservas de una instancia, en un único lote JDBC,
+	 * y borrar las que quedan vacías
+	 *
+	 * @param unitsByProduct Unidades a descontar de cada producto, ordenadas por ID
+	 * @param instance       Identificador de la instancia
+	 */
+	public void subtract(Map<Integer, Integer> unitsByProduct, String instance) {
+		if (unitsByProduct.isEmpty()) {
+			return;
+		}
+		List<Map.Entry<Integer, Integer>> entries = List.copyOf(unitsByProduct.entrySet());
+		jdbcTemplate.batchUpdate(ADD_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setInt(1, -entries.get(i).getValue());
+				ps.setInt(2, entries.get(i).getKey());
+				ps.setString(3, instance);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return entries.size();
+			}
+		});
+		jdbcTemplate.update(DELETE_EMPTY_SQL, instance);
+	}
+
+	/**
+	 * Borrar todas las reservas de una instancia
+	 *
+	 * @param instance Identificador de la instancia
+	 */
+	public void deleteByInstance(String instance) {
+		jdbcTemplate.update(DELETE_INSTANCE_SQL, instance);
+	}
+}
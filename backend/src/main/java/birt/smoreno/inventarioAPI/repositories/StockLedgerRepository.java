@@ -0,0 +1,241 @@
+package birt.smoreno.inventarioAPI.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import birt.smoreno.inventarioAPI.dto.StockLedgerEntryDTO;
+import birt.smoreno.inventarioAPI.dto.StockSnapshotDTO;
+
+/**
+ * {@code StockLedgerRepository} accede al registro de movimientos de stock
+ * ({@code movimientos_stock}) y a sus movimientos compactados
+ * ({@code snapshots_stock}) con {@link JdbcTemplate}.
+ * <p>
+ * El registro no tiene entidad JPA: solo se insertan filas, en lotes JDBC que
+ * Hibernate no podría formar con IDs {@code IDENTITY}, y se leen por rangos del
+ * índice {@code (id_producto, ts)}. Las sentencias usan la conexión de la
+ * transacción en curso, de modo que cada movimiento se confirma junto con el
+ * cambio de stock que registra.
+ * </p>
+ */
+@Repository
+public class StockLedgerRepository {
+
+	private static final String INSERT_MOVEMENT_SQL = "INSERT INTO movimientos_stock (id_producto, delta, motivo)"
+			+ " VALUES (?, ?, ?)";
+
+	// El ID del producto se busca por su nombre, que es único: así no hace falta
+	// leer los IDs generados al insertar los productos
+	private static final String INSERT_BY_NAME_SQL = "INSERT INTO movimientos_stock (id_producto, delta, motivo)"
+			+ " SELECT id_producto, ?, ? FROM productos WHERE nombre = ?";
+
+	// Sigue el orden del índice (id_producto, ts), que incluye la clave primaria:
+	// no hace falta ordenar las filas
+	private static final String FIND_MOVEMENTS_SQL = "SELECT id_movimiento, delta, motivo, ts"
+			+ " FROM movimientos_stock WHERE id_producto = ? AND ts >= ? AND ts < ? AND id_movimiento > ?"
+			+ " ORDER BY ts, id_movimiento LIMIT ?";
+
+	private static final String FIND_SNAPSHOT_SQL = "SELECT saldo, movimientos, hasta FROM snapshots_stock"
+			+ " WHERE id_producto = ?";
+
+	// Una fila por producto y día, en orden cronológico para cada producto
+	private static final String FIND_DAILY_OUTFLOWS_SQL = "SELECT id_producto, CAST(ts AS DATE) AS dia, -SUM(delta) AS unidades"
+			+ " FROM movimientos_stock WHERE ts >= ? AND ts < ? AND delta < 0"
+			+ " GROUP BY id_producto, CAST(ts AS DATE) ORDER BY id_producto, dia";
+
+	private static final String FIND_OLDEST_SQL = "SELECT id_movimiento, ts FROM movimientos_stock"
+			+ " ORDER BY id_movimiento LIMIT ?";
+
+	private static final String FOLD_MOVEMENTS_SQL = "INSERT INTO snapshots_stock (id_producto, saldo, movimientos, hasta)"
+			+ " SELECT id_producto, SUM(delta), COUNT(*), MAX(ts) FROM movimientos_stock"
+			+ " WHERE id_movimiento BETWEEN ? AND ? GROUP BY id_producto"
+			+ " ON DUPLICATE KEY UPDATE saldo = saldo + VALUES(saldo),"
+			+ " movimientos = movimientos + VALUES(movimientos), hasta = GREATEST(hasta, VALUES(hasta))";
+
+	private static final String DELETE_MOVEMENTS_SQL = "DELETE FROM movimientos_stock"
+			+ " WHERE id_movimiento BETWEEN ? AND ?";
+
+	/**
+	 * Unidades que han salido de un producto en un día.
+	 *
+	 * @param productId ID del producto.
+	 * @param day       Día, según la zona horaria de la base de datos.
+	 * @param units     Suma de las salidas del día, en positivo.
+	 */
+	public record DailyOutflow(int productId, LocalDate day, int units) {
+	}
+
+	/**
+	 * Movimiento pendiente de registrar.
+	 *
+	 * @param productId ID del producto.
+	 * @param delta     Variación de unidades aplicada.
+	 * @param reason    Motivo del movimiento, o {@code null}.
+	 */
+	public record Movement(int productId, int delta, String reason) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public StockLedgerRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Registrar movimientos en un único lote JDBC. La fecha la pone la base de
+	 * datos.
+	 *
+	 * @param movements Movimientos aplicados, en orden.
+	 */
+	public void insert(List<Movement> movements) {
+		if (movements.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Movement movement = movements.get(i);
+				ps.setInt(1, movement.productId());
+				ps.setInt(2, movement.delta());
+				ps.setString(3, movement.reason());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return movements.size();
+			}
+		});
+	}
+
+	/**
+	 * Registrar el stock inicial de productos recién insertados en un único lote
+	 * JDBC, identificándolos por su nombre.
+	 *
+	 * @param stockByName Stock inicial de cada producto, por nombre; solo se
+	 *                    incluyen los que tienen stock.
+	 * @param reason      Motivo de los movimientos.
+	 */
+	public void insertByName(Map<String, Integer> stockByName, String reason) {
+		if (stockByName.isEmpty()) {
+			return;
+		}
+		List<Map.Entry<String, Integer>> entries = List.copyOf(stockByName.entrySet());
+		jdbcTemplate.batchUpdate(INSERT_BY_NAME_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setInt(1, entries.get(i).getValue());
+				ps.setString(2, reason);
+				ps.setString(3, entries.get(i).getKey());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return entries.size();
+			}
+		});
+	}
+
+	/**
+	 * Obtener los movimientos de un producto en un intervalo, del más antiguo al
+	 * más reciente.
+	 * <p>
+	 * Los movimientos de un producto se insertan con su fila de {@code productos}
+	 * bloqueada, así que el orden de sus IDs coincide con el de sus fechas y el ID
+	 * sirve de cursor.
+	 * </p>
+	 *
+	 * @param productId ID del producto.
+	 * @param from      Inicio del intervalo (incluido).
+	 * @param to        Fin del intervalo (excluido).
+	 * @param after     ID del último movimiento ya devuelto, o 0.
+	 * @param limit     Número máximo de filas.
+	 * @return Movimientos encontrados.
+	 */
+	public List<StockLedgerEntryDTO> findMovements(int productId, Instant from, Instant to, int after, int limit) {
+		return jdbcTemplate.query(FIND_MOVEMENTS_SQL,
+				(rs, rowNum) -> new StockLedgerEntryDTO(rs.getInt("id_movimiento"), rs.getInt("delta"),
+						rs.getString("motivo"), rs.getTimestamp("ts").toInstant()),
+				productId, Timestamp.from(from), Timestamp.from(to), after, limit);
+	}
+
+	/**
+	 * Obtener los movimientos compactados de un producto.
+	 *
+	 * @param productId ID del producto.
+	 * @return {@link StockSnapshotDTO}, o vacío si no se ha compactado ninguno.
+	 */
+	public Optional<StockSnapshotDTO> findSnapshot(int productId) {
+		return jdbcTemplate.query(FIND_SNAPSHOT_SQL, (rs, rowNum) -> new StockSnapshotDTO(rs.getInt("saldo"),
+				rs.getInt("movimientos"), rs.getTimestamp("hasta").toInstant()), productId).stream().findFirst();
+	}
+
+	/**
+	 * Recorrer las salidas de stock de un intervalo sumadas por producto y día.
+	 * <p>
+	 * Las filas se entregan a medida que se leen, de modo que no se cargan todas
+	 * en memoria: su número está acotado por los productos con salidas y los días
+	 * del intervalo, no por los movimientos. La consulta recorre solo el tramo del
+	 * intervalo en el índice {@code (ts, id_producto, delta)}, sin leer la tabla.
+	 * </p>
+	 *
+	 * @param from     Inicio del intervalo (incluido).
+	 * @param to       Fin del intervalo (excluido).
+	 * @param consumer Recibe las salidas de cada producto por orden de día.
+	 */
+	public void forEachDailyOutflow(Instant from, Instant to, Consumer<DailyOutflow> consumer) {
+		jdbcTemplate.query(FIND_DAILY_OUTFLOWS_SQL,
+				(RowCallbackHandler) rs -> consumer.accept(new DailyOutflow(rs.getInt("id_producto"),
+						rs.getDate("dia").toLocalDate(), rs.getInt("unidades"))),
+				Timestamp.from(from), Timestamp.from(to));
+	}
+
+	/**
+	 * Compactar los movimientos más antiguos anteriores a una fecha.
+	 * <p>
+	 * Recorre el registro por clave primaria y se detiene en el primer movimiento
+	 * posterior a {@code before}, de modo que lo compactado es siempre un prefijo
+	 * del registro y la lectura no recorre los movimientos recientes. Suma cada
+	 * producto en {@code snapshots_stock} y borra las filas en la misma
+	 * transacción.
+	 * </p>
+	 *
+	 * @param before    Fecha límite: se compactan los movimientos anteriores.
+	 * @param chunkSize Número máximo de movimientos a compactar.
+	 * @return Movimientos compactados; menos de {@code chunkSize} si no quedan
+	 *         más.
+	 */
+	public int compactOldest(Instant before, int chunkSize) {
+		List<Integer> ids = jdbcTemplate.query(FIND_OLDEST_SQL, (ResultSet rs) -> {
+			List<Integer> old = new ArrayList<>();
+			while (rs.next() && rs.getTimestamp("ts").toInstant().isBefore(before)) {
+				old.add(rs.getInt("id_movimiento"));
+			}
+			return old;
+		}, chunkSize);
+		if (ids.isEmpty()) {
+			return 0;
+		}
+
+		int first = ids.get(0);
+		int last = ids.get(ids.size() - 1);
+		jdbcTemplate.update(FOLD_MOVEMENTS_SQL, first, last);
+		jdbcTemplate.update(DELETE_MOVEMENTS_SQL, first, last);
+		return ids.size();
+	}
+}
@@ -0,0 +1,57 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import birt.smoreno.inventarioAPI.dto.CacheStatsDTO;
+
+/**
+ * {@code CacheStatsService} es una clase de servicio que obtiene las
+ * estadísticas de las cachés Caffeine de la aplicación (aciertos, fallos y
+ * desalojos).
+ * <p>
+ * Incluye tanto las cachés de Spring como las regiones de la caché de segundo
+ * nivel de Hibernate, que también son cachés Caffeine detrás de JCache. Las de
+ * Spring se leen a través de su decorador transaccional ({@code CacheConfig}).
+ * </p>
+ */
+@Service
+public class CacheStatsService {
+
+	private final CacheManager cacheManager;
+	private final javax.cache.CacheManager hibernateCacheManager;
+
+	public CacheStatsService(CacheManager cacheManager, javax.cache.CacheManager hibernateCacheManager) {
+		this.cacheManager = cacheManager;
+		this.hibernateCacheManager = hibernateCacheManager;
+	}
+
+	/**
+	 * Obtener las estadísticas de todas las cachés
+	 * 
+	 * @return Lista de {@link CacheStatsDTO}, una por caché
+	 */
+	public List<CacheStatsDTO> getCacheStats() {
+		Stream<CacheStatsDTO> springCaches = cacheManager.getCacheNames().stream().sorted()
+				.map(cacheManager::getCache).filter(cache -> cache.getNativeCache() instanceof Cache)
+				.map(cache -> toStats(cache.getName(), (Cache<?, ?>) cache.getNativeCache()));
+		// Regiones de segundo nivel de Hibernate
+		Stream<CacheStatsDTO> hibernateRegions = StreamSupport
+				.stream(hibernateCacheManager.getCacheNames().spliterator(), false).sorted()
+				.map(name -> toStats(name, hibernateCacheManager.getCache(name).unwrap(Cache.class)));
+		return Stream.concat(springCaches, hibernateRegions).toList();
+	}
+
+	private CacheStatsDTO toStats(String name, Cache<?, ?> nativeCache) {
+		CacheStats stats = nativeCache.stats();
+		return new CacheStatsDTO(name, nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+				stats.hitRate(), stats.evictionCount());
+	}
+}
@@ -1,15 +1,42 @@
 package birt.smoreno.inventarioAPI.services;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
 import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategorySummaryDTO;
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.ReplicaCaughtUpEventDTO;
+import birt.smoreno.inventarioAPI.dto.VersionedDTO;
 import birt.smoreno.inventarioAPI.entities.CategoryEntity;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
 import birt.smoreno.inventarioAPI.mappers.CategoryMapper;
+import birt.smoreno.inventarioAPI.mappers.ProductMapper;
 import birt.smoreno.inventarioAPI.repositories.CategoryRepository;
-import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.IfMatch;
+import birt.smoreno.inventarioAPI.utils.MergePatch;
+import birt.smoreno.inventarioAPI.utils.SortField;
 
 /**
  * {@code CategoryService} es una clase de servicio que gestiona la lógica de
@@ -33,47 +60,111 @@ import birt.smoreno.inventarioAPI.repositories.ProductRepository;
  * manejados correctamente antes de ser enviados a la base de datos o al
  * cliente.
  * </p>
+ * <p>
+ * Las lecturas se sirven desde una caché en memoria ({@link CacheConfig}), ya
+ * que las categorías apenas cambian. Las operaciones de escritura invalidan
+ * solo las entradas de la categoría afectada y las páginas del listado.
+ * </p>
+ * <p>
+ * El resumen por categoría ({@link #getCategorySummary()}) depende también de
+ * los productos. Se guarda en caché con la versión de ambas tablas como clave
+ * ({@link TableVersionService}), de modo que cualquier escritura de
+ * {@code ProductService}, {@code CategoryService} o {@code ImportService} lo
+ * invalida al confirmarse, sin tener que anotar cada una. Esas versiones son
+ * locales a la instancia: las escrituras de otras instancias o directas en la
+ * base de datos solo se ven al caducar la entrada
+ * ({@code spring.cache.caffeine.spec}). Por eso el resumen no se usa para
+ * decidir ninguna escritura.
+ * </p>
+ * <p>
+ * Las modificaciones y bajas usan bloqueo optimista, igual que en
+ * {@code ProductService}: fallan si otra petición ha cambiado la categoría
+ * desde que se leyó, o si no tiene la versión indicada en {@link IfMatch}.
+ * </p>
  * 
  */
 @Service
 public class CategoryService {
 
+	// Mensaje al intentar eliminar una categoría con productos
+	private static final String CATEGORY_IN_USE = "No se puede eliminar la categoría porque tiene productos asociados.";
+
 	// Instanciar el repositorio de categorías para ser utilizado en los métodos de
 	// la clase
 	private final CategoryRepository categoryRepository;
 
-	// Instanciar el repositorio de productos para ser utilizado en los métodos de
-	// la clase
-	private final ProductRepository productRepository;
-
 	// Instanciar el mapper para convertir entre entidades y DTOs
 	private final CategoryMapper categoryMapper;
 
+	// Versión de la tabla de categorías, para los ETag de las respuestas GET
+	private final TableVersionService tableVersionService;
+
+	// Resúmenes por categoría, por versión de las tablas de productos y categorías
+	private final Cache summaryCache;
+
 	/**
 	 * Constructor que inyecta el repositorio de categorías y el mapper Se podría
 	 * usar @Autowired, pero está desaconsejado.
 	 * 
 	 * @param categoryRepository Repositorio de categorías
 	 * 
-	 * @param categoryMapper     Mapper para convertir entre entidades y DTOs
+	 * @param categoryMapper      Mapper para convertir entre entidades y DTOs
+	 * @param tableVersionService Registro de cambios para los ETag
+	 * @param cacheManager        Cachés de la aplicación
 	 */
-	public CategoryService(CategoryRepository categoryRepository, ProductRepository productRespository,
-			CategoryMapper categoryMapper) {
+	public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+			TableVersionService tableVersionService, CacheManager cacheManager) {
 		this.categoryRepository = categoryRepository;
-		this.productRepository = productRespository;
 		this.categoryMapper = categoryMapper;
+		this.tableVersionService = tableVersionService;
+		this.summaryCache = cacheManager.getCache(CacheConfig.CATEGORY_SUMMARY);
 	}
 
 	/**
-	 * Obtener todas las categorías
+	 * Obtener una página de categorías mediante paginación por cursor
+	 * 
+	 * @param after Cursor de la página anterior ({@code nextCursor}), o
+	 *              {@code null} para la primera página
+	 * @param limit Tamaño de página solicitado (se limita a
+	 *              {@link AppConstants#MAX_PAGE_SIZE})
+	 * @param sort  Criterio de ordenación
 	 * 
-	 * @return Lista de {@link CategoryResponseDTO} con todas las categorías
+	 * @return {@link CursorPageDTO} con los {@link CategoryResponseDTO} de la
+	 *         página y el cursor de la siguiente
+	 * @throws CustomException si el cursor no es válido para el orden pedido (400)
 	 */
-	public List<CategoryResponseDTO> getAllCategories() {
-		List<CategoryEntity> categories = categoryRepository.findAll();
-		return categories.stream().map(categoryMapper::toResponseDTO) // Convertir cada CategoryEntity a
-																		// CategoryResponseDTO
-				.toList();
+	@Cacheable(CacheConfig.CATEGORY_PAGES)
+	@Transactional(readOnly = true)
+	public CursorPageDTO<CategoryResponseDTO> getAllCategories(String after, Integer limit, SortField sort)
+			throws CustomException {
+		int pageSize = CursorPagination.pageSize(limit);
+		Limit queryLimit = CursorPagination.queryLimit(pageSize);
+
+		// Las categorías se leen directamente como CategoryResponseDTO
+		return switch (sort) {
+		case NOMBRE -> {
+			Cursor<String> cursor = CursorPagination.decode(after, Function.identity());
+			List<CategoryResponseDTO> categories = cursor == null ? categoryRepository.findFirstPageByName(queryLimit)
+					: categoryRepository.findPageByName(cursor.key(), cursor.id(), queryLimit);
+			yield CursorPagination.page(categories, pageSize,
+					category -> CursorPagination.encode(category.id(), category.nombre()), Function.identity());
+		}
+		case UPDATED_AT -> {
+			Cursor<LocalDateTime> cursor = CursorPagination.decode(after, LocalDateTime::parse);
+			List<KeysetRowDTO<CategoryResponseDTO>> rows = cursor == null
+					? categoryRepository.findFirstPageByUpdatedAt(queryLimit)
+					: categoryRepository.findPageByUpdatedAt(cursor.key(), cursor.id(), queryLimit);
+			yield CursorPagination.page(rows, pageSize,
+					row -> CursorPagination.encode(row.item().id(), row.updated_at()), KeysetRowDTO::item);
+		}
+		case ID -> {
+			Cursor<?> cursor = CursorPagination.decode(after, null);
+			List<CategoryResponseDTO> categories = categoryRepository.findPageById(cursor == null ? 0 : cursor.id(),
+					queryLimit);
+			yield CursorPagination.page(categories, pageSize,
+					category -> CursorPagination.encode(category.id(), null), Function.identity());
+		}
+		};
 	}
 
 	/**
@@ -81,11 +172,46 @@ public class CategoryService {
 	 * 
 	 * @param id ID de la categoría a buscar
 	 * 
-	 * @return {@link Optional<CategoryResponseDTO>} con la categoría encontrada o
-	 *         vacío si no se encuentra
+	 * @return {@link Optional<VersionedDTO>} con la categoría encontrada y su
+	 *         versión, o vacío si no se encuentra
+	 */
+	@Cacheable(cacheNames = CacheConfig.CATEGORIES, unless = "#result == null")
+	@Transactional(readOnly = true)
+	public Optional<VersionedDTO<CategoryResponseDTO>> getCategoryById(int id) {
+		return categoryRepository.findById(id)
+				.map(category -> new VersionedDTO<>(categoryMapper.toResponseDTO(category), category.getVersion()));
+	}
+
+	/**
+	 * Obtener una referencia a una categoría para asignarla a un producto
+	 * <p>
+	 * Devuelve un proxy de Hibernate con solo el ID, que no consulta la base de
+	 * datos. La existencia de la categoría debe comprobarse antes con
+	 * {@link #getCategoryById(int)}, que se sirve desde la caché.
+	 * </p>
+	 * 
+	 * @param id ID de la categoría
+	 * 
+	 * @return {@link CategoryEntity} sin cargar, asociada al contexto de
+	 *         persistencia actual
 	 */
-	public Optional<CategoryResponseDTO> getCategoryById(int id) {
-		return categoryRepository.findById(id).map(categoryMapper::toResponseDTO);
+	public CategoryEntity getCategoryReference(int id) {
+		return categoryRepository.getReferenceById(id);
+	}
+
+	/**
+	 * Obtener los totales de inventario de cada categoría: número de productos,
+	 * unidades en stock, productos bajo mínimo y peor déficit
+	 * <p>
+	 * Se calculan con una sola consulta agrupada y se reutilizan hasta la
+	 * siguiente escritura en productos o categorías.
+	 * </p>
+	 * 
+	 * @return Lista de {@link CategorySummaryDTO} ordenada por ID de categoría
+	 */
+	public List<CategorySummaryDTO> getCategorySummary() {
+		String version = tableVersionService.etag(Table.PRODUCTOS, Table.CATEGORIAS);
+		return summaryCache.get(version, categoryRepository::findSummary);
 	}
 
 	/**
@@ -95,8 +221,10 @@ public class CategoryService {
 	 * 
 	 * @return {@link CategoryResponseDTO} con la categoría creada
 	 */
+	@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true)
 	public CategoryResponseDTO createCategory(CategoryEntity category) {
 		CategoryEntity createdCategory = categoryRepository.save(category);
+		tableVersionService.markChanged(Table.CATEGORIAS, List.of(createdCategory.getId()));
 		return categoryMapper.toResponseDTO(createdCategory);
 	}
 
@@ -105,39 +233,149 @@ public class CategoryService {
 	 * 
 	 * @param id       ID de la categoría a actualizar
 	 * @param category Nueva categoría con los datos actualizados
+	 * @param ifMatch  Versiones sobre las que el cliente acepta el cambio
 	 * 
-	 * @return {@link Optional<CategoryResponseDTO>} con la categoría actualizada o
-	 *         vacío si no se encuentra
+	 * @return {@link Optional<VersionedDTO>} con la categoría actualizada y su
+	 *         nueva versión, o vacío si no se encuentra
+	 * @throws CustomException si su versión no es la esperada (412) o la ha
+	 *                         modificado otra petición a la vez (409)
 	 */
-	public Optional<CategoryResponseDTO> updateCategory(int id, CategoryEntity category) {
-		if (categoryRepository.existsById(id)) {
-			category.setId(id);
-			CategoryEntity updatedCategory = categoryRepository.save(category);
-			return Optional.of(categoryMapper.toResponseDTO(updatedCategory));
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true) })
+	@Transactional(rollbackFor = CustomException.class)
+	public Optional<VersionedDTO<CategoryResponseDTO>> updateCategory(int id, CategoryEntity category,
+			IfMatch ifMatch) throws CustomException {
+		Optional<CategoryEntity> found = findForUpdate(id, ifMatch);
+		if (found.isEmpty()) {
+			return Optional.empty();
+		}
+		CategoryEntity current = found.get();
+		current.setName(category.getName());
+		current.setDescription(category.getDescription());
+		return Optional.of(saveChanges(current, ifMatch));
+	}
+
+	/**
+	 * Modificar solo los campos enviados de una categoría (JSON Merge Patch)
+	 * 
+	 * @param id      ID de la categoría a modificar
+	 * @param patch   Campos enviados y sus valores, ya validados
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * 
+	 * @return {@link Optional<VersionedDTO>} con la categoría modificada y su
+	 *         nueva versión, o vacío si no se encuentra
+	 * @throws CustomException si su versión no es la esperada (412) o la ha
+	 *                         modificado otra petición a la vez (409)
+	 */
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true) })
+	@Transactional(rollbackFor = CustomException.class)
+	public Optional<VersionedDTO<CategoryResponseDTO>> patchCategory(int id, MergePatch<CategoryRequestDTO> patch,
+			IfMatch ifMatch) throws CustomException {
+		Optional<CategoryEntity> found = findForUpdate(id, ifMatch);
+		if (found.isEmpty()) {
+			return Optional.empty();
+		}
+		CategoryEntity current = found.get();
+		if (patch.has("nombre")) {
+			current.setName(patch.values().getNombre());
+		}
+		if (patch.has("descripcion")) {
+			current.setDescription(patch.values().getDescripcion());
+		}
+		return Optional.of(saveChanges(current, ifMatch));
+	}
+
+	/**
+	 * Obtener la categoría que se va a modificar y comprobar su versión
+	 * 
+	 * @param id      ID de la categoría
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link Optional<CategoryEntity>} gestionada por el contexto de
+	 *         persistencia, o vacío si no se encuentra
+	 * @throws CustomException si su versión no es la esperada (412)
+	 */
+	private Optional<CategoryEntity> findForUpdate(int id, IfMatch ifMatch) throws CustomException {
+		// La categoría se obtiene de la caché de segundo nivel y se modifica en lugar
+		// de comprobar que existe y fusionar una copia, que son dos lecturas más
+		Optional<CategoryEntity> found = categoryRepository.findById(id);
+		if (found.isPresent()) {
+			ifMatch.require(found.get().getVersion());
+		}
+		return found;
+	}
+
+	/**
+	 * Guardar los cambios de una categoría
+	 * 
+	 * @param current Categoría modificada
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link VersionedDTO} con la categoría y su nueva versión
+	 * @throws CustomException si la ha modificado otra petición a la vez
+	 */
+	private VersionedDTO<CategoryResponseDTO> saveChanges(CategoryEntity current, IfMatch ifMatch)
+			throws CustomException {
+		CategoryEntity updatedCategory;
+		try {
+			updatedCategory = categoryRepository.saveAndFlush(current);
+		} catch (ObjectOptimisticLockingFailureException e) {
+			throw ifMatch.conflict();
 		}
-		return Optional.empty();
+		tableVersionService.markChanged(Table.CATEGORIAS, List.of(updatedCategory.getId()));
+		return new VersionedDTO<>(categoryMapper.toResponseDTO(updatedCategory), updatedCategory.getVersion());
 	}
 
 	/**
 	 * Eliminar una categoría por su ID
+	 * <p>
+	 * No se cuentan antes sus productos, ni con una consulta ni con el resumen en
+	 * caché ({@link #getCategorySummary()}): la clave foránea rechaza la baja si
+	 * tiene alguno, sin viaje extra a la base de datos, y el resumen puede no
+	 * reflejar escrituras de otras instancias.
+	 * </p>
 	 * 
-	 * @param id ID de la categoría a eliminar
+	 * @param id      ID de la categoría a eliminar
+	 * @param ifMatch Versiones sobre las que el cliente acepta la baja
 	 * 
 	 * @return {@link Optional<CategoryResponseDTO>} con la categoría eliminada o
 	 *         vacío si no se encuentra
+	 * @throws CustomException si su versión no es la esperada (412) o la ha
+	 *                         modificado otra petición a la vez (409)
 	 */
-	public Optional<CategoryResponseDTO> deleteCategory(int id) {
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true) })
+	@Transactional(rollbackFor = CustomException.class)
+	public Optional<CategoryResponseDTO> deleteCategory(int id, IfMatch ifMatch) throws CustomException {
 		Optional<CategoryEntity> deletedCategory = categoryRepository.findById(id);
 		if (deletedCategory.isEmpty()) {
 			return Optional.empty();
 		}
+		ifMatch.require(deletedCategory.get().getVersion());
 
-		int productCount = productRepository.countByCategoryId(id);
-		if (productCount > 0) {
-			throw new IllegalStateException("No se puede eliminar la categoría porque tiene productos asociados.");
+		// La clave foránea de los productos impide la baja si tiene alguno
+		try {
+			categoryRepository.delete(deletedCategory.get());
+			categoryRepository.flush();
+		} catch (DataIntegrityViolationException e) {
+			throw new IllegalStateException(CATEGORY_IN_USE, e);
+		} catch (ObjectOptimisticLockingFailureException e) {
+			throw ifMatch.conflict();
 		}
-
-		categoryRepository.deleteById(id);
+		tableVersionService.markChanged(Table.CATEGORIAS, List.of(id));
 		return Optional.of(categoryMapper.toResponseDTO(deletedCategory.get()));
 	}
+
+	/**
+	 * Vaciar las cachés de categorías cuando la réplica ya refleja un cambio.
+	 * Mientras tanto, una lectura desde la réplica puede haber guardado la
+	 * versión anterior.
+	 *
+	 * @param event {@link ReplicaCaughtUpEventDTO}
+	 */
+	@EventListener(condition = "#event.table().name() == 'CATEGORIAS'")
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+			@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true) })
+	public void onReplicaCaughtUp(ReplicaCaughtUpEventDTO event) {
+		// Las cachés se vacían con las anotaciones
+	}
 }
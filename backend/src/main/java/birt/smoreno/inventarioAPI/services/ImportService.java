@@ -0,0 +1,404 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ImportErrorDTO;
+import birt.smoreno.inventarioAPI.dto.ImportResultDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.entities.CategoryEntity;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.CategoryRepository;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import birt.smoreno.inventarioAPI.utils.CsvReader;
+import birt.smoreno.inventarioAPI.utils.SpanishCollation;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * {@code ImportService} gestiona la carga masiva de productos y categorías a
+ * partir de un fichero CSV.
+ * <p>
+ * El fichero se lee como flujo, registro a registro, y se procesa en lotes de
+ * {@link AppConstants#IMPORT_BATCH_SIZE} filas: cada fila se valida con las
+ * mismas restricciones que el DTO de la API correspondiente, los nombres
+ * duplicados del lote se comprueban con una sola consulta y las filas válidas se
+ * insertan en un lote JDBC. Las filas no válidas se rechazan sin afectar al
+ * resto y se detallan en la respuesta.
+ * </p>
+ * <p>
+ * Toda la importación se ejecuta en una transacción. Si el fichero está mal
+ * formado (por ejemplo, unas comillas sin cerrar) se deshace por completo.
+ * </p>
+ */
+@Service
+public class ImportService {
+
+	// Motivo del movimiento con el stock inicial de un producto importado
+	private static final String LEDGER_REASON_IMPORTED = "Importación del producto";
+
+	private final ProductRepository productRepository;
+	private final CategoryRepository categoryRepository;
+	private final TableVersionService tableVersionService;
+	private final SecondLevelCacheService secondLevelCacheService;
+	private final ProductSearchService productSearchService;
+	private final StockLedgerRepository stockLedgerRepository;
+	private final Validator validator;
+
+	/**
+	 * Constructor que inyecta las dependencias del servicio
+	 * 
+	 * @param productRepository   Repositorio de productos
+	 * @param categoryRepository  Repositorio de categorías
+	 * @param tableVersionService Registro de cambios para los ETag
+	 * @param secondLevelCacheService Invalidación de la caché de segundo nivel
+	 * @param productSearchService Índice de búsqueda de productos
+	 * @param stockLedgerRepository Registro de movimientos de stock
+	 * @param validator           Validador de Bean Validation de la aplicación
+	 */
+	public ImportService(ProductRepository productRepository, CategoryRepository categoryRepository,
+			TableVersionService tableVersionService, SecondLevelCacheService secondLevelCacheService,
+			ProductSearchService productSearchService, StockLedgerRepository stockLedgerRepository,
+			Validator validator) {
+		this.productRepository = productRepository;
+		this.categoryRepository = categoryRepository;
+		this.tableVersionService = tableVersionService;
+		this.secondLevelCacheService = secondLevelCacheService;
+		this.productSearchService = productSearchService;
+		this.stockLedgerRepository = stockLedgerRepository;
+		this.validator = validator;
+	}
+
+	/**
+	 * Importar productos desde un CSV
+	 * <p>
+	 * Columnas obligatorias: {@code nombre}, {@code stock_actual},
+	 * {@code stock_minimo} y, para la categoría, {@code categoria} (nombre) o
+	 * {@code id_categoria}. Se admite por tanto el CSV de la exportación. Las
+	 * categorías se cargan con una única consulta al empezar. Tras cada lote de
+	 * productos se envía otro con su stock inicial al registro de movimientos.
+	 * </p>
+	 * 
+	 * @param in Contenido del fichero CSV en UTF-8
+	 * @return {@link ImportResultDTO} con el resultado de la importación
+	 * @throws IOException     si falla la lectura del fichero
+	 * @throws CustomException si el fichero no tiene las columnas necesarias o
+	 *                         está mal formado
+	 */
+	@Transactional(rollbackFor = { IOException.class, CustomException.class })
+	public ImportResultDTO importProducts(InputStream in) throws IOException, CustomException {
+		// Los productos importados se indexan tras el commit; hay que registrarlo antes
+		// de insertarlos
+		productSearchService.productsImported();
+		Map<String, Integer> categoryIds = new HashMap<>();
+		Set<Integer> knownIds = new HashSet<>();
+		for (CategoryEntity category : categoryRepository.findAll()) {
+			categoryIds.put(SpanishCollation.key(category.getName()), category.getId());
+			knownIds.add(category.getId());
+		}
+
+		ImportResultDTO result = new CsvImport<ProductRequestDTO>("Ya existe un producto con este nombre", "nombre",
+				"stock_actual", "stock_minimo") {
+
+			private boolean byName;
+
+			@Override
+			void checkColumns() throws CustomException {
+				byName = columns.containsKey("categoria");
+				if (!byName) {
+					requireColumn("id_categoria");
+				}
+			}
+
+			@Override
+			ProductRequestDTO parse(List<String> record, Map<String, String> errors) {
+				Integer categoryId;
+				if (byName) {
+					String category = field(record, "categoria");
+					categoryId = category == null ? null : categoryIds.get(SpanishCollation.key(category));
+					if (category != null && categoryId == null) {
+						errors.put("categoria", "Categoría no encontrada: " + category);
+					}
+				} else {
+					categoryId = intField(record, "id_categoria", errors);
+					if (categoryId != null && categoryId > 0 && !knownIds.contains(categoryId)) {
+						errors.put("id_categoria", "Categoría no encontrada");
+					}
+				}
+				return new ProductRequestDTO(field(record, "nombre"), intField(record, "stock_actual", errors),
+						intField(record, "stock_minimo", errors), categoryId);
+			}
+
+			@Override
+			String columnOf(String property) {
+				return byName && property.equals("id_categoria") ? "categoria" : property;
+			}
+
+			@Override
+			String nameOf(ProductRequestDTO row) {
+				return row.getNombre();
+			}
+
+			@Override
+			List<String> findExistingNames(List<String> names) {
+				return productRepository.findExistingNames(names);
+			}
+
+			@Override
+			int[] insert(List<ProductRequestDTO> rows) {
+				int[] counts = productRepository.insertProducts(rows);
+				// El stock inicial queda en el registro, como en un alta individual, para
+				// que el historial de cada producto cuadre con su stock
+				Map<String, Integer> initialStock = new LinkedHashMap<>();
+				for (ProductRequestDTO row : rows) {
+					if (row.getStock_actual() > 0) {
+						initialStock.put(row.getNombre(), row.getStock_actual());
+					}
+				}
+				stockLedgerRepository.insertByName(initialStock, LEDGER_REASON_IMPORTED);
+				return counts;
+			}
+		}.run(in);
+
+		if (result.importados() > 0) {
+			tableVersionService.markChanged(Table.PRODUCTOS);
+			secondLevelCacheService.productsInserted();
+		}
+		return result;
+	}
+
+	/**
+	 * Importar categorías desde un CSV
+	 * <p>
+	 * Columnas: {@code nombre} (obligatoria) y {@code descripcion}.
+	 * </p>
+	 * 
+	 * @param in Contenido del fichero CSV en UTF-8
+	 * @return {@link ImportResultDTO} con el resultado de la importación
+	 * @throws IOException     si falla la lectura del fichero
+	 * @throws CustomException si el fichero no tiene las columnas necesarias o
+	 *                         está mal formado
+	 */
+	@Transactional(rollbackFor = { IOException.class, CustomException.class })
+	@CacheEvict(cacheNames = CacheConfig.CATEGORY_PAGES, allEntries = true)
+	public ImportResultDTO importCategories(InputStream in) throws IOException, CustomException {
+		ImportResultDTO result = new CsvImport<CategoryRequestDTO>("Ya existe una categoría con este nombre",
+				"nombre") {
+
+			@Override
+			CategoryRequestDTO parse(List<String> record, Map<String, String> errors) {
+				return new CategoryRequestDTO(field(record, "nombre"), field(record, "descripcion"));
+			}
+
+			@Override
+			String nameOf(CategoryRequestDTO row) {
+				return row.getNombre();
+			}
+
+			@Override
+			List<String> findExistingNames(List<String> names) {
+				return categoryRepository.findExistingNames(names);
+			}
+
+			@Override
+			int[] insert(List<CategoryRequestDTO> rows) {
+				return categoryRepository.insertCategories(rows);
+			}
+		}.run(in);
+
+		if (result.importados() > 0) {
+			tableVersionService.markChanged(Table.CATEGORIAS);
+		}
+		return result;
+	}
+
+	/**
+	 * Recorrido común de una importación: lectura de la cabecera, validación de
+	 * cada fila, comprobación de duplicados e inserción por lotes. Cada tipo de
+	 * importación indica cómo se convierte una fila y cómo se guarda.
+	 * 
+	 * @param <T> DTO de petición de la API que representa una fila
+	 */
+	private abstract class CsvImport<T> {
+
+		// Mensaje para las filas cuyo nombre ya existe en la base de datos
+		private final String duplicateMessage;
+		private final String[] requiredColumns;
+		// Posición de cada columna de la cabecera
+		protected Map<String, Integer> columns;
+
+		private final List<T> batch = new ArrayList<>(AppConstants.IMPORT_BATCH_SIZE);
+		private final List<Integer> batchRows = new ArrayList<>(AppConstants.IMPORT_BATCH_SIZE);
+		private final Set<String> batchNames = new HashSet<>();
+		private final List<ImportErrorDTO> errors = new ArrayList<>();
+		private int imported;
+		private int rejected;
+
+		CsvImport(String duplicateMessage, String... requiredColumns) {
+			this.duplicateMessage = duplicateMessage;
+			this.requiredColumns = requiredColumns;
+		}
+
+		/**
+		 * Convertir un registro al DTO, anotando en {@code errors} los campos que no
+		 * se han podido interpretar
+		 */
+		abstract T parse(List<String> record, Map<String, String> errors);
+
+		abstract String nameOf(T row);
+
+		abstract List<String> findExistingNames(List<String> names);
+
+		abstract int[] insert(List<T> rows);
+
+		/**
+		 * Comprobaciones adicionales de la cabecera
+		 */
+		void checkColumns() throws CustomException {
+		}
+
+		/**
+		 * Columna del CSV en la que se informa el error de una propiedad del DTO
+		 */
+		String columnOf(String property) {
+			return property;
+		}
+
+		ImportResultDTO run(InputStream in) throws IOException, CustomException {
+			try (CsvReader csv = new CsvReader(in)) {
+				List<String> header = csv.next();
+				if (header == null) {
+					throw new CustomException("El fichero CSV está vacío", HttpStatus.BAD_REQUEST.value());
+				}
+				columns = new HashMap<>();
+				for (int i = 0; i < header.size(); i++) {
+					columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+				}
+				for (String column : requiredColumns) {
+					requireColumn(column);
+				}
+				checkColumns();
+
+				List<String> record;
+				while ((record = csv.next()) != null) {
+					addRow(csv.getRecordNumber(), record);
+				}
+				flush();
+			}
+
+			errors.sort(Comparator.comparingInt(ImportErrorDTO::fila));
+			return new ImportResultDTO(imported, rejected, errors);
+		}
+
+		void requireColumn(String column) throws CustomException {
+			if (!columns.containsKey(column)) {
+				throw new CustomException("Falta la columna " + column + " en la cabecera del CSV",
+						HttpStatus.BAD_REQUEST.value());
+			}
+		}
+
+		String field(List<String> record, String column) {
+			Integer index = columns.get(column);
+			if (index == null || index >= record.size()) {
+				return null;
+			}
+			String value = record.get(index).trim();
+			return value.isEmpty() ? null : value;
+		}
+
+		Integer intField(List<String> record, String column, Map<String, String> errors) {
+			String value = field(record, column);
+			if (value == null) {
+				return null;
+			}
+			try {
+				return Integer.valueOf(value);
+			} catch (NumberFormatException e) {
+				errors.putIfAbsent(column, "Debe ser un número entero");
+				return null;
+			}
+		}
+
+		private void addRow(int row, List<String> record) {
+			Map<String, String> rowErrors = new LinkedHashMap<>();
+			T dto = parse(record, rowErrors);
+			for (ConstraintViolation<T> violation : validator.validate(dto)) {
+				rowErrors.putIfAbsent(columnOf(violation.getPropertyPath().toString()), violation.getMessage());
+			}
+			if (rowErrors.isEmpty() && !batchNames.add(SpanishCollation.key(nameOf(dto)))) {
+				rowErrors.put("nombre", "Nombre repetido en el fichero");
+			}
+			if (!rowErrors.isEmpty()) {
+				reject(row, rowErrors);
+				return;
+			}
+
+			batch.add(dto);
+			batchRows.add(row);
+			if (batch.size() == AppConstants.IMPORT_BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		/**
+		 * Insertar el lote actual, descartando los nombres que ya existen en la base
+		 * de datos (incluidos los insertados por lotes anteriores)
+		 */
+		private void flush() {
+			if (batch.isEmpty()) {
+				return;
+			}
+			Set<String> existing = new HashSet<>();
+			for (String name : findExistingNames(batch.stream().map(this::nameOf).toList())) {
+				existing.add(SpanishCollation.key(name));
+			}
+
+			List<T> rows = new ArrayList<>(batch.size());
+			for (int i = 0; i < batch.size(); i++) {
+				if (existing.contains(SpanishCollation.key(nameOf(batch.get(i))))) {
+					reject(batchRows.get(i), Map.of("nombre", duplicateMessage));
+				} else {
+					rows.add(batch.get(i));
+				}
+			}
+			if (!rows.isEmpty()) {
+				for (int count : insert(rows)) {
+					// SUCCESS_NO_INFO (-2) también indica una fila insertada
+					if (count != 0) {
+						imported++;
+					}
+				}
+			}
+
+			batch.clear();
+			batchRows.clear();
+			batchNames.clear();
+		}
+
+		private void reject(int row, Map<String, String> rowErrors) {
+			rejected++;
+			if (errors.size() < AppConstants.MAX_IMPORT_ERRORS) {
+				errors.add(new ImportErrorDTO(row, rowErrors));
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import birt.smoreno.inventarioAPI.dto.LowStockEventDTO;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * {@code LowStockNotifier} es un servicio que difunde a los clientes
+ * suscritos, mediante Server-Sent Events, los cambios de estado de los
+ * productos respecto a su stock mínimo.
+ * <p>
+ * {@link ProductService} publica un {@link LowStockEventDTO} cuando detecta que
+ * un producto cruza su mínimo. Este servicio lo recibe solo tras el commit de
+ * la transacción, de modo que nunca se notifica un cambio que se haya deshecho,
+ * y lo envía a todos los suscriptores desde un único hilo. Entre cambios, los
+ * clientes conectados no generan consultas ni trabajo en el servidor.
+ * </p>
+ */
+@Service
+public class LowStockNotifier {
+
+	// Nombre del evento SSE que reciben los clientes
+	private static final String EVENT_NAME = "low-stock";
+
+	// Suscriptores activos. Se recorren en cada envío y cambian poco
+	private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+	// Hilo único de difusión: el hilo que hace commit no espera a los clientes
+	private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "low-stock-notifier");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Registrar un nuevo suscriptor
+	 * 
+	 * @return {@link SseEmitter} asociado a la conexión del cliente
+	 */
+	public SseEmitter subscribe() {
+		SseEmitter emitter = new SseEmitter(AppConstants.SSE_TIMEOUT_MS);
+		emitter.onCompletion(() -> emitters.remove(emitter));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(error -> emitters.remove(emitter));
+		emitters.add(emitter);
+		return emitter;
+	}
+
+	/**
+	 * Difundir un cambio de estado a todos los suscriptores una vez confirmada la
+	 * transacción que lo ha producido
+	 * 
+	 * @param event {@link LowStockEventDTO} con el producto que ha cruzado su
+	 *              mínimo
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLowStockEvent(LowStockEventDTO event) {
+		dispatcher.execute(() -> broadcast(event));
+	}
+
+	/**
+	 * Enviar el evento a cada suscriptor, descartando los que ya no están
+	 * conectados
+	 * 
+	 * @param event {@link LowStockEventDTO} a enviar
+	 */
+	private void broadcast(LowStockEventDTO event) {
+		for (SseEmitter emitter : emitters) {
+			try {
+				emitter.send(SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+			} catch (IOException | IllegalStateException e) {
+				emitters.remove(emitter);
+				emitter.completeWithError(e);
+			}
+		}
+	}
+
+	/**
+	 * Cerrar las conexiones abiertas y detener el hilo de difusión al parar la
+	 * aplicación
+	 */
+	@PreDestroy
+	public void shutdown() {
+		dispatcher.shutdown();
+		emitters.forEach(SseEmitter::complete);
+		emitters.clear();
+	}
+}
@@ -0,0 +1,140 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.entities.ProductEntity;
+import birt.smoreno.inventarioAPI.mappers.ProductMapper;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.ExportFormat;
+import jakarta.persistence.EntityManager;
+
+/**
+ * {@code ProductExportService} exporta el inventario completo escribiendo los
+ * productos en la salida a medida que se leen de la base de datos.
+ * <p>
+ * A diferencia del listado paginado, no se construye ninguna lista ni
+ * envoltorio {@code ApiResponseDTO}: cada fila se convierte y se escribe en
+ * cuanto llega, y el contexto de persistencia se vacía cada
+ * {@link AppConstants#EXPORT_FETCH_SIZE} filas. La memoria usada es constante
+ * sea cual sea el tamaño del inventario.
+ * </p>
+ */
+@Service
+public class ProductExportService {
+
+	// Cabecera de la exportación CSV, con los mismos nombres que el JSON
+	private static final String CSV_HEADER = "id,nombre,stock_actual,stock_minimo,id_categoria";
+
+	private final ProductRepository productRepository;
+	private final ProductMapper productMapper;
+	private final EntityManager entityManager;
+	private final ObjectWriter jsonWriter;
+
+	/**
+	 * Constructor que inyecta las dependencias del servicio
+	 * 
+	 * @param productRepository Repositorio de productos
+	 * @param productMapper     Mapper para convertir entre entidades y DTOs
+	 * @param entityManager     Contexto de persistencia de la transacción actual
+	 * @param objectMapper      Serializador JSON de la aplicación
+	 */
+	public ProductExportService(ProductRepository productRepository, ProductMapper productMapper,
+			EntityManager entityManager, ObjectMapper objectMapper) {
+		this.productRepository = productRepository;
+		this.productMapper = productMapper;
+		this.entityManager = entityManager;
+		this.jsonWriter = objectMapper.writerFor(ProductResponseDTO.class);
+	}
+
+	/**
+	 * Escribir todos los productos, ordenados por ID, en el formato indicado
+	 * 
+	 * @param format Formato de exportación
+	 * @param out    Salida de la respuesta; no se cierra
+	 * @throws IOException si falla la escritura, por ejemplo porque el cliente ha
+	 *                     cerrado la conexión
+	 */
+	@Transactional(readOnly = true)
+	public void exportProducts(ExportFormat format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		if (format == ExportFormat.CSV) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+
+		try (Stream<ProductEntity> products = productRepository.streamAllByOrderByIdAsc()) {
+			int[] rows = { 0 };
+			products.forEach(product -> {
+				try {
+					writeRow(format, productMapper.toResponseDTO(product), writer);
+					// Soltar las entidades ya escritas y enviar lo acumulado al cliente
+					if (++rows[0] % AppConstants.EXPORT_FETCH_SIZE == 0) {
+						entityManager.clear();
+						writer.flush();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Escribir un producto como una línea en el formato indicado
+	 * 
+	 * @param format  Formato de exportación
+	 * @param product Producto a escribir
+	 * @param writer  Salida
+	 * @throws IOException si falla la escritura
+	 */
+	private void writeRow(ExportFormat format, ProductResponseDTO product, Writer writer) throws IOException {
+		switch (format) {
+		case NDJSON -> writer.write(jsonWriter.writeValueAsString(product));
+		case CSV -> {
+			writer.write(Integer.toString(product.id()));
+			writer.write(',');
+			writer.write(csvField(product.nombre()));
+			writer.write(',');
+			writer.write(Integer.toString(product.stock_actual()));
+			writer.write(',');
+			writer.write(Integer.toString(product.stock_minimo()));
+			writer.write(',');
+			writer.write(Integer.toString(product.id_categoria()));
+		}
+		}
+		writer.write('\n');
+	}
+
+	/**
+	 * Escapar un campo de texto CSV (RFC 4180): se entrecomilla si contiene comas,
+	 * comillas o saltos de línea, duplicando las comillas internas.
+	 * 
+	 * @param value Valor del campo
+	 * @return Campo listo para escribir
+	 */
+	private static String csvField(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,426 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductSearchResultDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.utils.AfterCommit;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.ReplicaRoutingDataSource;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import birt.smoreno.inventarioAPI.utils.SpanishCollation;
+
+/**
+ * {@code ProductSearchService} busca productos por nombre en un índice de
+ * trigramas en memoria, sin consultar la base de datos.
+ * <p>
+ * Los nombres se normalizan sin tildes ni mayúsculas y se separan en palabras.
+ * Cada palabra de la búsqueda debe aparecer en el nombre: las de tres o más
+ * letras en cualquier posición ("eringa" encuentra "Jeringa") y las más cortas
+ * al principio de una palabra ("cateter 20" encuentra "Catéter 20G"). Los
+ * resultados se ordenan por relevancia: nombre exacto, nombre que empieza por
+ * la búsqueda, palabras completas o iniciales y, por último, nombres más
+ * cortos.
+ * </p>
+ * <p>
+ * El índice se construye al arrancar la aplicación y se actualiza tras el
+ * commit de cada alta, modificación o baja de {@link ProductService}; tras una
+ * importación se cargan los productos nuevos. Es local a cada instancia, por lo
+ * que no ve los cambios hechos en otras hasta que se reinicia. Mientras se
+ * construye, las búsquedas se rechazan con 503 en lugar de devolver resultados
+ * incompletos.
+ * </p>
+ * <p>
+ * Las cargas por lotes leen del primario y pueden solaparse con los cambios
+ * confirmados mientras tanto. Cada cambio recibe un número de orden y una fila
+ * cargada no sustituye a un producto cambiado después de leer su lote: así una
+ * página leída antes de un cambio no recupera el nombre anterior ni devuelve al
+ * índice un producto eliminado.
+ * </p>
+ * <p>
+ * Las lecturas no se bloquean: cada trigrama apunta a un array ordenado de IDs
+ * que las escrituras sustituyen entero.
+ * </p>
+ */
+@Service
+public class ProductSearchService {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+	// Productos leídos por consulta al cargar el índice
+	private static final int LOAD_BATCH_SIZE = 1_000;
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final int[] NO_IDS = {};
+
+	/**
+	 * Producto indexado.
+	 *
+	 * @param id         ID del producto.
+	 * @param nombre     Nombre tal como está guardado.
+	 * @param categoryId ID de su categoría.
+	 * @param text       Nombre normalizado, con un espacio al principio y al
+	 *                   final para reconocer el inicio de cada palabra.
+	 */
+	private record Entry(int id, String nombre, int categoryId, String text) {
+	}
+
+	/**
+	 * Producto que cumple la búsqueda, con su puntuación.
+	 */
+	private record Match(Entry entry, int score) {
+	}
+
+	// Mejor resultado primero; a igual puntuación, nombre más corto y alfabético
+	private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+			.thenComparingInt(match -> match.entry().nombre().length())
+			.thenComparing(match -> match.entry().text()).thenComparingInt(match -> match.entry().id());
+
+	private final ProductRepository productRepository;
+
+	private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<String, int[]> postings = new ConcurrentHashMap<>();
+
+	// Si el índice inicial ya está construido
+	private volatile boolean ready;
+	// Número de orden del último cambio confirmado. Protegido por this, como el
+	// resto de campos de esta sección
+	private long changes;
+	// Cargas en curso. Mientras haya alguna, se guarda el número de orden del
+	// último cambio de cada producto
+	private int runningLoads;
+	private final Map<Integer, Long> changedAt = new HashMap<>();
+
+	public ProductSearchService(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	/**
+	 * Buscar productos por nombre
+	 *
+	 * @param query Texto a buscar
+	 * @param limit Número máximo de resultados
+	 * @return Lista de {@link ProductSearchResultDTO}, de más a menos relevante
+	 * @throws CustomException si el índice todavía se está construyendo (503)
+	 */
+	public List<ProductSearchResultDTO> search(String query, int limit) throws CustomException {
+		if (!ready) {
+			throw new CustomException("El índice de búsqueda se está construyendo; inténtelo de nuevo en unos segundos",
+					HttpStatus.SERVICE_UNAVAILABLE.value());
+		}
+		String text = normalize(query);
+		if (text.isEmpty()) {
+			return List.of();
+		}
+		String[] words = text.split(" ");
+
+		// Basta recorrer la lista de trigramas más corta: el resto de condiciones se
+		// comprueban sobre el nombre de cada candidato
+		int[] candidates = null;
+		for (String word : words) {
+			for (String gram : queryGrams(word)) {
+				int[] ids = postings.getOrDefault(gram, NO_IDS);
+				if (candidates == null || ids.length < candidates.length) {
+					candidates = ids;
+				}
+			}
+		}
+
+		// La peor coincidencia encontrada hasta ahora queda en la cabeza
+		PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+		if (candidates == null) {
+			// Solo palabras de una letra, que no tienen trigrama
+			entries.values().forEach(entry -> offer(best, entry, text, words, limit));
+		} else {
+			for (int id : candidates) {
+				Entry entry = entries.get(id);
+				if (entry != null) {
+					offer(best, entry, text, words, limit);
+				}
+			}
+		}
+
+		List<Match> matches = new ArrayList<>(best);
+		matches.sort(RANKING);
+		return matches.stream().map(match -> new ProductSearchResultDTO(match.entry().id(),
+				match.entry().nombre(), match.entry().categoryId())).toList();
+	}
+
+	/**
+	 * Registrar el alta o modificación de un producto. Si hay una transacción
+	 * activa, el índice se actualiza cuando se confirma.
+	 *
+	 * @param product Producto con sus datos actuales
+	 */
+	public void productSaved(ProductResponseDTO product) {
+		AfterCommit.run(() -> saved(product));
+	}
+
+	/**
+	 * Registrar la baja de un producto. Si hay una transacción activa, el índice
+	 * se actualiza cuando se confirma.
+	 *
+	 * @param id ID del producto eliminado
+	 */
+	public void productDeleted(int id) {
+		AfterCommit.run(() -> remove(id));
+	}
+
+	/**
+	 * Registrar una importación de productos. Tras el commit se cargan, en segundo
+	 * plano, los productos con ID mayor que el último indexado en el momento de la
+	 * llamada, por lo que debe llamarse antes de insertar.
+	 */
+	public void productsImported() {
+		int after = entries.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+		AfterCommit.run(() -> CompletableFuture.runAsync(() -> load(after)).exceptionally(error -> {
+			log.warn("No se han podido indexar los productos importados", error);
+			return null;
+		}));
+	}
+
+	/**
+	 * Construir el índice al arrancar la aplicación.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		long start = System.nanoTime();
+		load(0);
+		ready = true;
+		log.info("Índice de búsqueda de productos: {} productos, {} trigramas en {} ms", entries.size(),
+				postings.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Cargar en el índice los productos con ID mayor que {@code after}, por lotes.
+	 * Se lee del primario: la réplica podría devolver filas anteriores a cambios ya
+	 * indexados.
+	 */
+	private void load(int after) {
+		synchronized (this) {
+			runningLoads++;
+		}
+		ReplicaRoutingDataSource.pinToPrimary(true);
+		try {
+			List<ProductResponseDTO> batch;
+			do {
+				long readAt = changeCount();
+				batch = productRepository
+						.findPage(SortField.ID, new Cursor<>(after, null), false, Limit.of(LOAD_BATCH_SIZE)).stream()
+						.map(KeysetRowDTO::item).toList();
+				loaded(batch, readAt);
+				if (!batch.isEmpty()) {
+					after = batch.get(batch.size() - 1).id();
+				}
+			} while (batch.size() == LOAD_BATCH_SIZE);
+		} finally {
+			ReplicaRoutingDataSource.pinToPrimary(false);
+			synchronized (this) {
+				if (--runningLoads == 0) {
+					changedAt.clear();
+				}
+			}
+		}
+	}
+
+	private synchronized long changeCount() {
+		return changes;
+	}
+
+	/**
+	 * Indexar un lote cargado, salvo los productos cambiados después de leerlo,
+	 * que ya tienen en el índice sus datos más recientes o han sido eliminados.
+	 *
+	 * @param batch  Productos leídos
+	 * @param readAt Número de orden del último cambio antes de leer el lote
+	 */
+	private synchronized void loaded(List<ProductResponseDTO> batch, long readAt) {
+		index(batch.stream().filter(product -> changedAt.getOrDefault(product.id(), 0L) <= readAt).toList());
+	}
+
+	private synchronized void saved(ProductResponseDTO product) {
+		recordChange(product.id());
+		index(List.of(product));
+	}
+
+	private synchronized void recordChange(int id) {
+		changes++;
+		if (runningLoads > 0) {
+			changedAt.put(id, changes);
+		}
+	}
+
+	/**
+	 * Añadir o sustituir productos. Cada trigrama afectado se reescribe una sola
+	 * vez por llamada.
+	 */
+	private synchronized void index(Collection<ProductResponseDTO> products) {
+		Map<String, Set<Integer>> added = new HashMap<>();
+		Map<String, Set<Integer>> removed = new HashMap<>();
+		for (ProductResponseDTO product : products) {
+			Entry entry = new Entry(product.id(), product.nombre(), product.id_categoria(),
+					" " + normalize(product.nombre()) + " ");
+			Entry previous = entries.put(entry.id(), entry);
+			if (previous != null && previous.text().equals(entry.text())) {
+				continue;
+			}
+			if (previous != null) {
+				nameGrams(previous.text()).forEach(gram -> removed.computeIfAbsent(gram, k -> new HashSet<>())
+						.add(entry.id()));
+			}
+			nameGrams(entry.text()).forEach(gram -> {
+				added.computeIfAbsent(gram, k -> new HashSet<>()).add(entry.id());
+				Set<Integer> stale = removed.get(gram);
+				if (stale != null) {
+					stale.remove(entry.id());
+				}
+			});
+		}
+		removed.forEach((gram, ids) -> update(gram, ids, Set.of()));
+		added.forEach((gram, ids) -> update(gram, Set.of(), ids));
+	}
+
+	private synchronized void remove(int id) {
+		recordChange(id);
+		Entry previous = entries.remove(id);
+		if (previous != null) {
+			nameGrams(previous.text()).forEach(gram -> update(gram, Set.of(id), Set.of()));
+		}
+	}
+
+	/**
+	 * Sustituir la lista de IDs de un trigrama por una copia sin {@code remove} y
+	 * con {@code add}, ordenada.
+	 */
+	private void update(String gram, Set<Integer> remove, Set<Integer> add) {
+		int[] current = postings.getOrDefault(gram, NO_IDS);
+		int[] next = new int[current.length + add.size()];
+		int size = 0;
+		for (int id : current) {
+			if (!remove.contains(id) && !add.contains(id)) {
+				next[size++] = id;
+			}
+		}
+		for (int id : add) {
+			next[size++] = id;
+		}
+		if (size == 0) {
+			postings.remove(gram);
+			return;
+		}
+		next = Arrays.copyOf(next, size);
+		Arrays.sort(next);
+		postings.put(gram, next);
+	}
+
+	/**
+	 * Comprobar si un producto cumple la búsqueda y, si está entre los
+	 * {@code limit} mejores, guardarlo.
+	 */
+	private static void offer(PriorityQueue<Match> best, Entry entry, String query, String[] words, int limit) {
+		int score = score(entry.text(), query, words);
+		if (score < 0) {
+			return;
+		}
+		Match match = new Match(entry, score);
+		if (best.size() < limit) {
+			best.add(match);
+		} else if (RANKING.compare(match, best.peek()) < 0) {
+			best.poll();
+			best.add(match);
+		}
+	}
+
+	/**
+	 * Puntuación de un nombre normalizado para una búsqueda, o {@code -1} si no la
+	 * cumple.
+	 */
+	private static int score(String text, String query, String[] words) {
+		int score = 0;
+		for (String word : words) {
+			if (text.contains(" " + word + " ")) {
+				score += 4;
+			} else if (text.contains(" " + word)) {
+				score += 2;
+			} else if (word.length() >= 3 && text.contains(word)) {
+				score += 1;
+			} else {
+				return -1;
+			}
+		}
+		// text lleva un espacio antes y después del nombre
+		if (text.length() == query.length() + 2 && text.startsWith(query, 1)) {
+			score += 100;
+		} else if (text.startsWith(query, 1)) {
+			score += 50;
+		} else if (text.contains(query)) {
+			score += 10;
+		}
+		return score;
+	}
+
+	/**
+	 * Trigramas de un nombre normalizado, incluidos los que empiezan por el espacio
+	 * previo a cada palabra.
+	 */
+	private static Set<String> nameGrams(String text) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			String gram = text.substring(i, i + 3);
+			if (gram.charAt(1) != ' ' && gram.charAt(2) != ' ') {
+				grams.add(gram);
+			}
+		}
+		return grams;
+	}
+
+	/**
+	 * Trigramas que debe contener un nombre para cumplir una palabra de la
+	 * búsqueda. Las palabras de dos letras deben empezar una palabra del nombre;
+	 * las de una no usan el índice.
+	 */
+	private static List<String> queryGrams(String word) {
+		if (word.length() < 3) {
+			return word.length() == 2 ? List.of(" " + word) : List.of();
+		}
+		List<String> grams = new ArrayList<>(word.length() - 2);
+		for (int i = 0; i + 3 <= word.length(); i++) {
+			grams.add(word.substring(i, i + 3));
+		}
+		return grams;
+	}
+
+	/**
+	 * Pasar un texto a minúsculas, sin tildes ni signos, con las palabras
+	 * separadas por un espacio. La ñ se conserva: en español es una letra
+	 * distinta de la n.
+	 */
+	static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		return SEPARATORS.matcher(SpanishCollation.key(text)).replaceAll(" ").trim();
+	}
+}
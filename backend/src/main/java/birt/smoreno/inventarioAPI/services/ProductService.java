@@ -1,16 +1,44 @@
 package birt.smoreno.inventarioAPI.services;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.KeysetRowDTO;
+import birt.smoreno.inventarioAPI.dto.LowStockEventDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
 import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResultDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.dto.VersionedDTO;
 import birt.smoreno.inventarioAPI.entities.ProductEntity;
 import birt.smoreno.inventarioAPI.exceptions.CustomException;
 import birt.smoreno.inventarioAPI.mappers.ProductMapper;
 import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository.Movement;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.IfMatch;
+import birt.smoreno.inventarioAPI.utils.MergePatch;
+import birt.smoreno.inventarioAPI.utils.SortField;
 
 /**
  * {@code ProductService} es una clase de servicio que gestiona la lógica de
@@ -34,16 +62,50 @@ import birt.smoreno.inventarioAPI.repositories.ProductRepository;
  * manejados correctamente antes de ser enviados a la base de datos o al
  * cliente.
  * </p>
+ * <p>
+ * Las modificaciones y bajas usan bloqueo optimista: se aplican sobre la
+ * versión leída y fallan si otra petición ha cambiado el producto entretanto,
+ * sin bloquear la fila. Con {@link IfMatch} el cliente indica además la
+ * versión sobre la que ha trabajado.
+ * </p>
+ * <p>
+ * Cada cambio de stock (alta, modificación y movimientos) se anota en el
+ * registro de movimientos ({@link StockLedgerRepository}) dentro de la misma
+ * transacción.
+ * </p>
+ * <p>
+ * Si está activa la escritura diferida de salidas
+ * ({@link StockWriteBehindService}), el stock de un producto incluye las
+ * salidas reservadas que aún no se han escrito.
+ * </p>
  */
 @Service
 public class ProductService {
 
+	// Motivos de los movimientos que no registra el cliente
+	private static final String LEDGER_REASON_CREATED = "Alta del producto";
+	private static final String LEDGER_REASON_UPDATED = "Modificación del producto";
+
 	// Instanciar el repositorio de productos para ser utilizado en los métodos de
 	// la clase
 	private final ProductRepository productRepository;
 	// Instanciar el mapper de productos para ser utilizado en los métodos de la
 	// clase
 	private final ProductMapper productMapper;
+	// Publicador de eventos para notificar los cambios de estado de bajo stock
+	private final ApplicationEventPublisher eventPublisher;
+	// Versión de la tabla de productos, para los ETag de las respuestas GET
+	private final TableVersionService tableVersionService;
+	// Invalidación de la caché de segundo nivel tras las escrituras JDBC
+	private final SecondLevelCacheService secondLevelCacheService;
+	// Índice de búsqueda por nombre, actualizado tras cada alta, cambio o baja
+	private final ProductSearchService productSearchService;
+	// Registro de movimientos de stock
+	private final StockLedgerRepository stockLedgerRepository;
+	// Salidas de stock reservadas y pendientes de escribir
+	private final StockWriteBehindService stockWriteBehindService;
+	// Consumo diario de cada producto, actualizado tras cada movimiento
+	private final StockForecastService stockForecastService;
 
 	/**
 	 * Constructor que inyecta el repositorio de productos y el mapper Se podría
@@ -51,35 +113,90 @@ public class ProductService {
 	 *
 	 * @param productRepository Repositorio de productos
 	 * @param productMapper     Mapper para convertir entre entidades y DTOs
+	 * @param eventPublisher      Publicador de eventos de la aplicación
+	 * @param tableVersionService Registro de cambios para los ETag
+	 * @param secondLevelCacheService Invalidación de la caché de segundo nivel
+	 * @param productSearchService    Índice de búsqueda de productos
+	 * @param stockLedgerRepository   Registro de movimientos de stock
+	 * @param stockWriteBehindService Salidas de stock pendientes de escribir
+	 * @param stockForecastService    Previsión de roturas de stock
 	 */
-	public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+	public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+			ApplicationEventPublisher eventPublisher, TableVersionService tableVersionService,
+			SecondLevelCacheService secondLevelCacheService, ProductSearchService productSearchService,
+			StockLedgerRepository stockLedgerRepository, StockWriteBehindService stockWriteBehindService,
+			StockForecastService stockForecastService) {
 		this.productRepository = productRepository;
 		this.productMapper = productMapper;
+		this.eventPublisher = eventPublisher;
+		this.tableVersionService = tableVersionService;
+		this.secondLevelCacheService = secondLevelCacheService;
+		this.productSearchService = productSearchService;
+		this.stockLedgerRepository = stockLedgerRepository;
+		this.stockWriteBehindService = stockWriteBehindService;
+		this.stockForecastService = stockForecastService;
 	}
 
 	/**
-	 * Obtener todos los productos
+	 * Obtener una página de productos mediante paginación por cursor
 	 * 
-	 * @return Lista de {@link ProductResponseDTO}
+	 * @param after Cursor de la página anterior ({@code nextCursor}), o
+	 *              {@code null} para la primera página
+	 * @param limit Tamaño de página solicitado (se limita a
+	 *              {@link AppConstants#MAX_PAGE_SIZE})
+	 * @param sort  Criterio de ordenación
+	 * @param expandCategory {@code true} para incluir los datos de la categoría en
+	 *                       cada producto
+	 * @return {@link CursorPageDTO} con los {@link ProductResponseDTO} de la página
+	 *         y el cursor de la siguiente. El stock incluye las salidas
+	 *         pendientes de escribir
+	 * @throws CustomException si el cursor no es válido para el orden pedido (400)
 	 */
-	public List<ProductResponseDTO> getAllProducts() {
-		List<ProductEntity> products = productRepository.findAll();
-		return products.stream().map(productMapper::toResponseDTO).toList();
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ProductResponseDTO> getAllProducts(String after, Integer limit, SortField sort,
+			boolean expandCategory) throws CustomException {
+		int pageSize = CursorPagination.pageSize(limit);
+		Limit queryLimit = CursorPagination.queryLimit(pageSize);
+
+		// Las filas se leen directamente como DTO, sin entidades que convertir
+		Cursor<?> cursor = CursorPagination.decode(after, sort.keyParser());
+		List<KeysetRowDTO<ProductResponseDTO>> rows = productRepository.findPage(sort, cursor, expandCategory,
+				queryLimit);
+		return CursorPagination.page(rows, pageSize,
+				row -> CursorPagination.encode(row.item().id(), cursorKey(sort, row)),
+				row -> withPendingStock(row.item()));
+	}
+
+	/**
+	 * Clave de ordenación de una fila que lleva su cursor
+	 */
+	private static Object cursorKey(SortField sort, KeysetRowDTO<ProductResponseDTO> row) {
+		return switch (sort) {
+		case ID -> null;
+		case NOMBRE -> row.item().nombre();
+		case UPDATED_AT -> row.updated_at();
+		};
 	}
 
 	/**
 	 * Obtener un producto por su ID
 	 * 
 	 * @param id ID del producto a buscar
-	 * @return {@link ProductResponseDTO} con los datos del producto
+	 * @return {@link VersionedDTO} con los datos del producto y su versión. El
+	 *         stock incluye las salidas pendientes de escribir
 	 * @throws CustomException si el producto no se encuentra
 	 */
-	public ProductResponseDTO getProductById(int id) throws CustomException {
+	// Se sigue cargando la entidad (y no una proyección) porque se sirve desde la
+	// caché de segundo nivel sin consultar la base de datos. En una transacción de
+	// solo lectura Hibernate no guarda copia para detectar cambios, y la categoría
+	// no se carga: basta su ID
+	@Transactional(readOnly = true)
+	public VersionedDTO<ProductResponseDTO> getProductById(int id) throws CustomException {
 		Optional<ProductEntity> productOptional = productRepository.findById(id);
 
 		if (productOptional.isPresent()) {
 			ProductEntity product = productOptional.get();
-			return productMapper.toResponseDTO(product);
+			return withPendingStock(productMapper.toResponseDTO(product), product.getVersion());
 		} else {
 			throw new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value());
 		}
@@ -92,9 +209,19 @@ public class ProductService {
 	 * @param product Producto a crear
 	 * @return {@link ProductResponseDTO} con los datos del producto creado
 	 */
+	@Transactional
 	public ProductResponseDTO createProduct(ProductEntity product) {
 		ProductEntity createdProduct = productRepository.save(product);
-		return productMapper.toResponseDTO(createdProduct);
+		if (createdProduct.getCurrentStock() > 0) {
+			stockLedgerRepository.insert(List.of(
+					new Movement(createdProduct.getId(), createdProduct.getCurrentStock(), LEDGER_REASON_CREATED)));
+		}
+		tableVersionService.markProductsChanged(List.of(createdProduct.getId()),
+				List.of(createdProduct.getCategory().getId()));
+		publishIfCrossed(createdProduct.getId(), false, createdProduct.getCurrentStock(), createdProduct.getMinStock());
+		ProductResponseDTO response = productMapper.toResponseDTO(createdProduct);
+		productSearchService.productSaved(response);
+		return response;
 	}
 
 	/**
@@ -102,32 +229,205 @@ public class ProductService {
 	 * 
 	 * @param id      ID del producto a actualizar
 	 * @param product Producto con los nuevos datos
-	 * @return {@link ProductResponseDTO} con los datos del producto actualizado
-	 * @throws CustomException si el producto no se encuentra
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link VersionedDTO} con los datos del producto actualizado y su
+	 *         nueva versión
+	 * @throws CustomException si el producto no se encuentra (404), su versión no
+	 *                         es la esperada (412) o lo ha modificado otra
+	 *                         petición a la vez (409)
 	 */
-	public ProductResponseDTO updateProduct(int id, ProductEntity product) throws CustomException {
-		if (productRepository.existsById(id)) {
-			product.setId(id);
-			ProductEntity updatedProduct = productRepository.save(product);
-			return productMapper.toResponseDTO(updatedProduct);
-		} else {
-			throw new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value());
+	@Transactional(rollbackFor = CustomException.class)
+	public VersionedDTO<ProductResponseDTO> updateProduct(int id, ProductEntity product, IfMatch ifMatch)
+			throws CustomException {
+		ProductEntity current = findForUpdate(id, ifMatch);
+		int previousStock = current.getCurrentStock();
+		boolean wasUnderStock = previousStock < current.getMinStock();
+		int previousCategoryId = current.getCategory().getId();
+
+		current.setName(product.getName());
+		current.setCurrentStock(storedStock(id, product.getCurrentStock()));
+		current.setMinStock(product.getMinStock());
+		current.setCategory(product.getCategory());
+		return saveChanges(current, previousStock, wasUnderStock, previousCategoryId, ifMatch);
+	}
+
+	/**
+	 * Modificar solo los campos enviados de un producto (JSON Merge Patch)
+	 * <p>
+	 * Los campos ya se han validado. Como la entidad usa {@code @DynamicUpdate},
+	 * el UPDATE solo incluye las columnas que cambian.
+	 * </p>
+	 * 
+	 * @param id      ID del producto a modificar
+	 * @param patch   Campos enviados y sus valores
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link VersionedDTO} con los datos del producto modificado y su
+	 *         nueva versión
+	 * @throws CustomException si el producto no se encuentra (404), su versión no
+	 *                         es la esperada (412) o lo ha modificado otra
+	 *                         petición a la vez (409)
+	 */
+	@Transactional(rollbackFor = CustomException.class)
+	public VersionedDTO<ProductResponseDTO> patchProduct(int id, MergePatch<ProductRequestDTO> patch,
+			IfMatch ifMatch) throws CustomException {
+		ProductEntity current = findForUpdate(id, ifMatch);
+		int previousStock = current.getCurrentStock();
+		boolean wasUnderStock = previousStock < current.getMinStock();
+		int previousCategoryId = current.getCategory().getId();
+
+		ProductRequestDTO values = patch.values();
+		if (patch.has("nombre")) {
+			current.setName(values.getNombre());
+		}
+		if (patch.has("stock_actual")) {
+			current.setCurrentStock(storedStock(id, values.getStock_actual()));
+		}
+		if (patch.has("stock_minimo")) {
+			current.setMinStock(values.getStock_minimo());
+		}
+		if (patch.has("id_categoria") && values.getId_categoria() != current.getCategory().getId()) {
+			current.setCategory(productMapper.toCategory(values.getId_categoria()));
+		}
+		return saveChanges(current, previousStock, wasUnderStock, previousCategoryId, ifMatch);
+	}
+
+	/**
+	 * Obtener el producto que se va a modificar y comprobar su versión
+	 * 
+	 * @param id      ID del producto
+	 * @param ifMatch Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link ProductEntity} gestionada por el contexto de persistencia
+	 * @throws CustomException si no se encuentra (404) o su versión no es la
+	 *                         esperada (412)
+	 */
+	private ProductEntity findForUpdate(int id, IfMatch ifMatch) throws CustomException {
+		// La entidad se obtiene de la caché de segundo nivel y se modifica en lugar de
+		// fusionar una copia, que obligaría a leerla otra vez
+		ProductEntity current = productRepository.findById(id)
+				.orElseThrow(() -> new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value()));
+		ifMatch.require(current.getVersion());
+		return current;
+	}
+
+	/**
+	 * Guardar los cambios de un producto y notificarlos
+	 * 
+	 * @param current            Producto modificado
+	 * @param previousStock      Stock antes del cambio
+	 * @param wasUnderStock      Si estaba por debajo de su mínimo antes del cambio
+	 * @param previousCategoryId Categoría antes del cambio
+	 * @param ifMatch            Versiones sobre las que el cliente acepta el cambio
+	 * @return {@link VersionedDTO} con los datos del producto y su nueva versión
+	 * @throws CustomException si lo ha modificado otra petición a la vez o el
+	 *                         stock no cubre las unidades reservadas (409)
+	 */
+	private VersionedDTO<ProductResponseDTO> saveChanges(ProductEntity current, int previousStock,
+			boolean wasUnderStock, int previousCategoryId, IfMatch ifMatch) throws CustomException {
+		int id = current.getId();
+		// El UPDATE se ejecuta ya, condicionado a la versión leída, para detectar aquí
+		// una modificación concurrente y devolver la versión nueva
+		ProductEntity updatedProduct;
+		try {
+			updatedProduct = productRepository.saveAndFlush(current);
+		} catch (ObjectOptimisticLockingFailureException e) {
+			throw ifMatch.conflict();
+		}
+		int delta = updatedProduct.getCurrentStock() - previousStock;
+		if (delta < 0) {
+			// La fila ya está bloqueada: no se pueden quitar unidades reservadas para
+			// salidas ya confirmadas
+			stockWriteBehindService.requireUnreserved(id, updatedProduct.getCurrentStock());
+		}
+		int categoryId = updatedProduct.getCategory().getId();
+		tableVersionService.markProductsChanged(List.of(id),
+				categoryId == previousCategoryId ? List.of() : List.of(previousCategoryId, categoryId));
+		if (delta != 0) {
+			List<Movement> movements = List.of(new Movement(id, delta, LEDGER_REASON_UPDATED));
+			stockLedgerRepository.insert(movements);
+			stockForecastService.movementsApplied(movements);
+			stockWriteBehindService.stockChanged(List.of(id));
+		}
+		publishIfCrossed(id, wasUnderStock, updatedProduct.getCurrentStock(), updatedProduct.getMinStock());
+		ProductResponseDTO response = productMapper.toResponseDTO(updatedProduct);
+		productSearchService.productSaved(response);
+		return withPendingStock(response, updatedProduct.getVersion());
+	}
+
+	/**
+	 * Stock que se guarda para que, una vez escritas las salidas pendientes, quede
+	 * el indicado por el cliente, que ya las ha visto descontadas
+	 * 
+	 * @param id    ID del producto
+	 * @param stock Stock indicado por el cliente
+	 * @return Stock a guardar en la fila
+	 */
+	private int storedStock(int id, int stock) {
+		return stock - stockWriteBehindService.pendingStock(id);
+	}
+
+	/**
+	 * Descontar del stock leído las salidas pendientes de escribir
+	 * 
+	 * @param product Datos del producto leídos de la base de datos
+	 * @param version Versión de la fila
+	 * @return {@link VersionedDTO} con el stock visible para los clientes
+	 */
+	private VersionedDTO<ProductResponseDTO> withPendingStock(ProductResponseDTO product, int version) {
+		int pendingStock = stockWriteBehindService.pendingStock(product.id());
+		return new VersionedDTO<>(addPendingStock(product, pendingStock), version, pendingStock);
+	}
+
+	/**
+	 * Descontar del stock leído de un listado las salidas pendientes de escribir
+	 * 
+	 * @param product Datos del producto leídos de la base de datos
+	 * @return {@link ProductResponseDTO} con el stock visible para los clientes
+	 */
+	private ProductResponseDTO withPendingStock(ProductResponseDTO product) {
+		return addPendingStock(product, stockWriteBehindService.pendingStock(product.id()));
+	}
+
+	private static ProductResponseDTO addPendingStock(ProductResponseDTO product, int pendingStock) {
+		if (pendingStock == 0) {
+			return product;
 		}
+		return new ProductResponseDTO(product.id(), product.nombre(),
+				Math.max(product.stock_actual() + pendingStock, 0), product.stock_minimo(), product.id_categoria(),
+				product.categoria());
 	}
 
 	/**
 	 * Eliminar un producto por su ID
 	 * 
-	 * @param id ID del producto a eliminar
+	 * @param id      ID del producto a eliminar
+	 * @param ifMatch Versiones sobre las que el cliente acepta la baja
 	 * @return {@link ProductResponseDTO} con los datos del producto eliminado
-	 * @throws CustomException si el producto no se encuentra
+	 * @throws CustomException si el producto no se encuentra (404), su versión no
+	 *                         es la esperada (412) o lo ha modificado otra
+	 *                         petición a la vez (409)
 	 */
-	public ProductResponseDTO deleteProduct(int id) throws CustomException {
+	@Transactional(rollbackFor = CustomException.class)
+	public ProductResponseDTO deleteProduct(int id, IfMatch ifMatch) throws CustomException {
 		Optional<ProductEntity> productOptional = productRepository.findById(id);
 
 		if (productOptional.isPresent()) {
 			ProductEntity product = productOptional.get();
-			productRepository.delete(product);
+			ifMatch.require(product.getVersion());
+			try {
+				productRepository.delete(product);
+				productRepository.flush();
+			} catch (ObjectOptimisticLockingFailureException e) {
+				throw ifMatch.conflict();
+			}
+			tableVersionService.markProductsChanged(List.of(id), List.of(product.getCategory().getId()));
+			productSearchService.productDeleted(id);
+			stockForecastService.productDeleted(id);
+			stockWriteBehindService.stockChanged(List.of(id));
+			// Un producto eliminado sale de la lista de bajo stock
+			if (product.getCurrentStock() < product.getMinStock()) {
+				eventPublisher.publishEvent(
+						new LowStockEventDTO(id, product.getCurrentStock(), product.getMinStock(), false));
+			}
 			return productMapper.toResponseDTO(product);
 		} else {
 			throw new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value());
@@ -137,10 +437,152 @@ public class ProductService {
 	/**
 	 * Obtener productos con stock bajo
 	 * 
-	 * @return Lista de {@link ProductResponseDTO} con productos con stock bajo
+	 * @param expandCategory {@code true} para incluir los datos de la categoría en
+	 *                       cada producto
+	 * @return Lista de {@link ProductResponseDTO} con productos con stock bajo. El
+	 *         stock incluye las salidas pendientes de escribir, pero la lista se
+	 *         filtra con el de la base de datos
+	 */
+	@Transactional(readOnly = true)
+	public List<ProductResponseDTO> getProductsUnderStock(boolean expandCategory) {
+		List<ProductResponseDTO> products = expandCategory ? productRepository.findExpandedProductUnderStock()
+				: productRepository.findProductUnderStock();
+		return products.stream().map(this::withPendingStock).toList();
+	}
+
+	/**
+	 * Registrar un movimiento de stock de forma atómica
+	 * <p>
+	 * La variación se aplica con un único {@code UPDATE} condicional en la base de
+	 * datos, por lo que movimientos concurrentes sobre el mismo producto no se
+	 * pisan entre sí y no es necesario cargar la entidad.
+	 * </p>
+	 * 
+	 * @param id     ID del producto
+	 * @param delta  Variación de unidades (negativa para una salida)
+	 * @param reason Motivo del movimiento, o {@code null}
+	 * @return {@link StockMovementResponseDTO} con el stock resultante
+	 * @throws CustomException si el producto no se encuentra o si el stock quedaría
+	 *                         negativo
 	 */
-	public List<ProductResponseDTO> getProductsUnderStock() {
-		return productRepository.findProductUnderStock().stream().map(productMapper::toResponseDTO).toList();
+	@Transactional
+	public StockMovementResponseDTO applyStockMovement(int id, int delta, String reason) throws CustomException {
+		int updated = productRepository.applyStockDelta(id, delta);
+		StockMovementResponseDTO stockLevel = productRepository.findStockLevel(id)
+				.orElseThrow(() -> new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value()));
+
+		if (updated == 0) {
+			throw new CustomException("Stock insuficiente: quedan " + stockLevel.stock_actual() + " unidades",
+					HttpStatus.CONFLICT.value());
+		}
+		List<Movement> movements = List.of(new Movement(id, delta, reason));
+		stockLedgerRepository.insert(movements);
+		stockForecastService.movementsApplied(movements);
+		tableVersionService.markChanged(Table.PRODUCTOS, List.of(id));
+		secondLevelCacheService.productsChanged(List.of(id));
+		stockWriteBehindService.stockChanged(List.of(id));
+		publishIfCrossed(id, stockLevel.stock_actual() - delta < stockLevel.stock_minimo(), stockLevel.stock_actual(),
+				stockLevel.stock_minimo());
+		return stockLevel;
+	}
+
+	/**
+	 * Registrar varios movimientos de stock en una sola transacción
+	 * <p>
+	 * Los movimientos se envían a la base de datos como un lote JDBC y se aplican
+	 * en el orden recibido. Los que dejarían el stock negativo o hacen referencia a
+	 * un producto inexistente se rechazan sin afectar al resto. Después se lee el
+	 * stock de todos los productos implicados en una única consulta, y los
+	 * movimientos aplicados se anotan en el registro en un segundo lote.
+	 * </p>
+	 * <p>
+	 * El resultado de cada movimiento lleva el stock que dejó (o el que había al
+	 * rechazarse), calculado recorriendo el lote desde el stock previo. Requiere
+	 * que el driver devuelva las filas afectadas por cada sentencia: con
+	 * cualquier otro valor (por ejemplo {@code Statement.SUCCESS_NO_INFO} de las
+	 * sentencias bulk de MariaDB) no se sabe qué se ha aplicado y el lote entero
+	 * se deshace.
+	 * </p>
+	 * 
+	 * @param items Movimientos a aplicar
+	 * @return {@link StockBatchResponseDTO} con el resultado de cada movimiento
+	 * @throws IllegalStateException si el driver no informa de las filas
+	 *                               afectadas por cada movimiento
+	 */
+	@Transactional
+	public StockBatchResponseDTO applyStockMovements(List<StockBatchItemDTO> items) {
+		int[] updated = productRepository.applyStockDeltas(items);
+
+		// Variación neta aplicada a cada producto, para conocer su stock previo
+		Map<Integer, Integer> appliedDeltas = new HashMap<>();
+		for (int i = 0; i < items.size(); i++) {
+			if (updated[i] == 1) {
+				appliedDeltas.merge(items.get(i).getId_producto(), items.get(i).getDelta(), Integer::sum);
+			} else if (updated[i] != 0) {
+				throw new IllegalStateException("El driver JDBC no ha devuelto las filas afectadas por el movimiento "
+						+ i + " del lote (" + updated[i] + "); se deshace el lote");
+			}
+		}
+
+		Set<Integer> ids = items.stream().map(StockBatchItemDTO::getId_producto).collect(Collectors.toSet());
+		Map<Integer, StockMovementResponseDTO> stockLevels = productRepository.findStockLevels(ids).stream()
+				.collect(Collectors.toMap(StockMovementResponseDTO::id, Function.identity()));
+		// Stock de cada producto a medida que se recorre el lote, desde el previo
+		Map<Integer, Integer> stocks = new HashMap<>();
+		stockLevels.values().forEach(stockLevel -> stocks.put(stockLevel.id(),
+				stockLevel.stock_actual() - appliedDeltas.getOrDefault(stockLevel.id(), 0)));
+
+		List<StockBatchResultDTO> results = new ArrayList<>(items.size());
+		List<Movement> movements = new ArrayList<>(items.size());
+		int applied = 0;
+		for (int i = 0; i < items.size(); i++) {
+			StockBatchItemDTO item = items.get(i);
+			StockMovementResponseDTO stockLevel = stockLevels.get(item.getId_producto());
+			if (stockLevel == null) {
+				results.add(new StockBatchResultDTO(item.getId_producto(), item.getDelta(), false, null, null,
+						"Producto no encontrado"));
+				continue;
+			}
+			boolean isApplied = updated[i] == 1;
+			int stock = isApplied ? stocks.merge(item.getId_producto(), item.getDelta(), Integer::sum)
+					: stocks.get(item.getId_producto());
+			if (isApplied) {
+				applied++;
+				movements.add(new Movement(item.getId_producto(), item.getDelta(), item.getReason()));
+			}
+			results.add(new StockBatchResultDTO(item.getId_producto(), item.getDelta(), isApplied, stock,
+					stock < stockLevel.stock_minimo(), isApplied ? null : "Stock insuficiente"));
+		}
+
+		if (applied > 0) {
+			stockLedgerRepository.insert(movements);
+			stockForecastService.movementsApplied(movements);
+			tableVersionService.markChanged(Table.PRODUCTOS, appliedDeltas.keySet());
+			secondLevelCacheService.productsChanged(appliedDeltas.keySet());
+			stockWriteBehindService.stockChanged(appliedDeltas.keySet());
+		}
+		appliedDeltas.forEach((id, delta) -> {
+			StockMovementResponseDTO stockLevel = stockLevels.get(id);
+			publishIfCrossed(id, stockLevel.stock_actual() - delta < stockLevel.stock_minimo(),
+					stockLevel.stock_actual(), stockLevel.stock_minimo());
+		});
+		return new StockBatchResponseDTO(applied, items.size() - applied, results);
+	}
+
+	/**
+	 * Publicar un {@link LowStockEventDTO} si el producto ha cruzado su stock
+	 * mínimo. El evento se entrega a {@link LowStockNotifier} tras el commit.
+	 * 
+	 * @param id       ID del producto
+	 * @param wasLow   {@code true} si el producto estaba por debajo del mínimo
+	 * @param stock    Stock actual del producto tras el cambio
+	 * @param minStock Stock mínimo del producto tras el cambio
+	 */
+	private void publishIfCrossed(int id, boolean wasLow, int stock, int minStock) {
+		boolean isLow = stock < minStock;
+		if (wasLow != isLow) {
+			eventPublisher.publishEvent(new LowStockEventDTO(id, stock, minStock, isLow));
+		}
 	}
 
 }
@@ -0,0 +1,100 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import birt.smoreno.inventarioAPI.dto.ReplicaCaughtUpEventDTO;
+import birt.smoreno.inventarioAPI.entities.CategoryEntity;
+import birt.smoreno.inventarioAPI.entities.ProductEntity;
+import birt.smoreno.inventarioAPI.utils.AfterCommit;
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * {@code SecondLevelCacheService} invalida la caché de segundo nivel de
+ * Hibernate tras las escrituras que no pasan por Hibernate.
+ * <p>
+ * Los movimientos de stock y las importaciones se ejecutan directamente con
+ * JDBC, por lo que Hibernate no sabe qué filas han cambiado. Igual que
+ * {@link TableVersionService}, las entradas se eliminan <b>después del
+ * commit</b>: si se eliminaran antes, otra transacción podría volver a cachear
+ * los datos anteriores mientras la escritura sigue sin confirmar.
+ * </p>
+ */
+@Service
+public class SecondLevelCacheService {
+
+	// Rol de la colección de productos de una categoría
+	private static final String CATEGORY_PRODUCTS_ROLE = CategoryEntity.class.getName() + ".products";
+
+	private final Cache cache;
+
+	public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+
+	/**
+	 * Registrar que ha cambiado el stock de varios productos. Se eliminan sus
+	 * entradas y la consulta de bajo stock cacheada.
+	 *
+	 * @param ids IDs de los productos modificados
+	 */
+	public void productsChanged(Collection<Integer> ids) {
+		List<Integer> evicted = List.copyOf(ids);
+		AfterCommit.run(() -> {
+			evicted.forEach(id -> cache.evictEntityData(ProductEntity.class, id));
+			cache.evictQueryRegion(CacheConfig.PRODUCTS_UNDER_STOCK_REGION);
+		});
+	}
+
+	/**
+	 * Registrar que se han insertado productos. Se eliminan las colecciones de
+	 * productos de las categorías y la consulta de bajo stock cacheada.
+	 */
+	public void productsInserted() {
+		AfterCommit.run(() -> {
+			cache.evictCollectionData(CATEGORY_PRODUCTS_ROLE);
+			cache.evictQueryRegion(CacheConfig.PRODUCTS_UNDER_STOCK_REGION);
+		});
+	}
+
+	/**
+	 * Eliminar las entradas de las filas modificadas cuando la réplica ya refleja
+	 * sus cambios. Mientras tanto, una lectura desde la réplica puede haber
+	 * guardado en la caché los datos anteriores. Si no se conocen las filas, se
+	 * vacía la región completa.
+	 *
+	 * @param event {@link ReplicaCaughtUpEventDTO}
+	 */
+	@EventListener
+	public void onReplicaCaughtUp(ReplicaCaughtUpEventDTO event) {
+		switch (event.table()) {
+		case PRODUCTOS -> {
+			evictEntities(ProductEntity.class, event.ids());
+			if (event.categoryIds() == null) {
+				cache.evictCollectionData(CATEGORY_PRODUCTS_ROLE);
+			} else {
+				event.categoryIds().forEach(id -> cache.evictCollectionData(CATEGORY_PRODUCTS_ROLE, id));
+			}
+		}
+		case CATEGORIAS -> evictEntities(CategoryEntity.class, event.ids());
+		}
+		// La consulta de bajo stock depende del stock de cualquier producto y, con la
+		// categoría expandida, de las categorías: no se puede invalidar por filas
+		cache.evictQueryRegion(CacheConfig.PRODUCTS_UNDER_STOCK_REGION);
+	}
+
+	private void evictEntities(Class<?> entityClass, Set<Integer> ids) {
+		if (ids == null) {
+			cache.evictEntityData(entityClass);
+		} else {
+			ids.forEach(id -> cache.evictEntityData(entityClass, id));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+
+/**
+ * {@code StockCounters} guarda, para {@link StockWriteBehindService}, el stock
+ * de cada producto con salidas recientes visto por esta instancia.
+ * <p>
+ * Un contador se crea con la primera salida del producto y se retira cuando
+ * lleva un intervalo de volcado sin ellas, para que la siguiente vuelva a leer
+ * el stock, o cuando el producto se elimina.
+ * </p>
+ */
+final class StockCounters {
+
+	/** Stock de un producto visto por esta instancia. */
+	static final class Counter {
+
+		// Stock leído de la base de datos en el último volcado. Solo lo escribe el
+		// hilo de volcado
+		volatile int stock;
+		volatile int minStock;
+		// Salidas reservadas que aún no se han escrito
+		final LongAdder pending = new LongAdder();
+		// Con durabilidad async, protege la reserva de unidades. No se usa
+		// synchronized porque se mantiene durante una consulta y fijaría el hilo
+		// virtual a su portador
+		final ReentrantLock lock = new ReentrantLock();
+		// Unidades reservadas en reservas_stock que aún no se han concedido a
+		// ninguna salida. Se lee y escribe con lock tomado
+		int lease;
+		// Última reserva, para descartar los productos sin actividad
+		volatile long lastUsed = System.nanoTime();
+		// Se ha quitado del mapa: quien reserve en él debe deshacerlo y reintentar
+		volatile boolean retired;
+
+		Counter(StockMovementResponseDTO stockLevel) {
+			this.stock = stockLevel.stock_actual();
+			this.minStock = stockLevel.stock_minimo();
+		}
+
+		int available() {
+			return stock + (int) pending.sum();
+		}
+	}
+
+	private final ProductRepository productRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+	StockCounters(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+		this.productRepository = productRepository;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	Counter get(int id) {
+		return counters.get(id);
+	}
+
+	boolean contains(int id) {
+		return counters.containsKey(id);
+	}
+
+	/**
+	 * Obtener el contador de un producto, leyendo su stock si no lo tiene
+	 *
+	 * @throws CustomException si el producto no se encuentra (404)
+	 */
+	Counter getOrLoad(int id) throws CustomException {
+		Counter counter = counters.get(id);
+		if (counter != null) {
+			return counter;
+		}
+		// Transacción de escritura: se lee del primario aunque haya réplica
+		Optional<StockMovementResponseDTO> stockLevel = transactionTemplate
+				.execute(status -> productRepository.findStockLevel(id));
+		if (stockLevel.isEmpty()) {
+			throw new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value());
+		}
+		return counters.computeIfAbsent(id, key -> new Counter(stockLevel.get()));
+	}
+
+	/**
+	 * Quitar un contador del mapa. Las reservas que se hagan en él a la vez se
+	 * deshacen y se repiten en uno nuevo
+	 */
+	void retire(int id, Counter counter) {
+		counter.retired = true;
+		counters.remove(id, counter);
+	}
+
+	/**
+	 * Retirar los contadores sin salidas pendientes ni reservas desde un instante.
+	 * Los que tienen el bloqueo tomado se dejan para el siguiente volcado
+	 *
+	 * @param idleSince Instante de {@link System#nanoTime()}
+	 * @param released  Recibe las unidades reservadas y sin conceder de cada
+	 *                  contador retirado
+	 */
+	void evictIdle(long idleSince, BiConsumer<Integer, Integer> released) {
+		counters.forEach((id, counter) -> {
+			if (counter.pending.sum() != 0 || counter.lastUsed - idleSince >= 0 || !counter.lock.tryLock()) {
+				return;
+			}
+			try {
+				// Se marca antes de comprobar otra vez: una reserva simultánea sin bloqueo ve
+				// la marca o deja aquí su suma
+				counter.retired = true;
+				if (counter.pending.sum() != 0) {
+					counter.retired = false;
+					return;
+				}
+				counters.remove(id, counter);
+				if (counter.lease > 0) {
+					released.accept(id, counter.lease);
+					counter.lease = 0;
+				}
+			} finally {
+				counter.lock.unlock();
+			}
+		});
+	}
+}
@@ -0,0 +1,273 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockForecastDTO;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository.Movement;
+import birt.smoreno.inventarioAPI.utils.AfterCommit;
+
+/**
+ * {@code StockForecastService} estima el consumo diario de cada producto y
+ * prevé cuándo quedará por debajo de su mínimo o sin stock.
+ * <p>
+ * El consumo es una media móvil exponencial de las unidades que salen cada día,
+ * con peso {@code inventario.forecast.alpha} para el último día cerrado. Se
+ * cuentan solo las salidas: una entrada el mismo día no oculta lo consumido. El
+ * día en curso se tiene en cuenta si ya supera la media, para que un pico de
+ * consumo aparezca en la previsión sin esperar al día siguiente.
+ * </p>
+ * <p>
+ * Cada producto ocupa unos pocos campos en memoria, que se actualizan tras el
+ * commit de cada movimiento de {@link ProductService} y de cada volcado de
+ * {@link StockWriteBehindService}. Al arrancar se reconstruyen con una única
+ * consulta que suma las salidas por producto y día de los últimos
+ * {@code inventario.forecast.history}, por lo que el tiempo de arranque depende
+ * del número de productos y días, no del de movimientos. El historial no debe
+ * superar la retención del registro ({@code inventario.ledger.retention}): los
+ * movimientos compactados no tienen fecha.
+ * </p>
+ * <p>
+ * Es local a cada instancia, como el índice de búsqueda: no ve las salidas
+ * registradas por otras hasta que se reinicia. Los días se cuentan en la zona
+ * horaria de la aplicación, que debe coincidir con la de la base de datos.
+ * </p>
+ */
+@Service
+public class StockForecastService {
+
+	/** Peso del último día en la media del consumo diario, entre 0 y 1. */
+	public static final String ALPHA = "inventario.forecast.alpha";
+	/** Días de historial que se leen al arrancar. */
+	public static final String HISTORY = "inventario.forecast.history";
+
+	private static final double DEFAULT_ALPHA = 0.3;
+	private static final Duration DEFAULT_HISTORY = Duration.ofDays(28);
+
+	// Por debajo de este consumo (unidades al día) el producto se da por inactivo
+	// y se descarta
+	private static final double MIN_RATE = 0.01;
+	// Productos leídos por consulta al calcular la previsión
+	private static final int LOAD_BATCH_SIZE = 1_000;
+
+	// Antes se agota, antes se queda bajo mínimo y, por último, por ID
+	private static final Comparator<StockForecastDTO> URGENCY = Comparator
+			.comparingDouble(StockForecastDTO::dias_hasta_agotar)
+			.thenComparingDouble(StockForecastDTO::dias_hasta_minimo).thenComparingInt(StockForecastDTO::id);
+
+	private static final Logger log = LoggerFactory.getLogger(StockForecastService.class);
+
+	/**
+	 * Consumo de un producto. Solo se lee y se modifica dentro de las funciones
+	 * {@code compute} del mapa, que lo protegen.
+	 */
+	private static final class Consumption {
+		// Día en curso, como días desde 1970-01-01
+		private long day;
+		// Unidades que han salido en el día en curso
+		private int dayUnits;
+		// Media de los días cerrados
+		private double rate;
+		// Si se ha cerrado algún día: el primero se toma como media inicial
+		private boolean warm;
+
+		private Consumption(long day) {
+			this.day = day;
+		}
+
+		/**
+		 * Sumar salidas a un día. Las de un día anterior al en curso, que solo llegan
+		 * con transacciones que cruzan la medianoche, se suman al día en curso.
+		 */
+		private void add(long day, int units, double alpha) {
+			advance(day, alpha);
+			dayUnits += units;
+		}
+
+		/**
+		 * Cerrar el día en curso y los días sin salidas hasta {@code today}.
+		 */
+		private void advance(long today, double alpha) {
+			if (today <= day) {
+				return;
+			}
+			rate = warm ? alpha * dayUnits + (1 - alpha) * rate : dayUnits;
+			warm = true;
+			rate *= Math.pow(1 - alpha, today - day - 1);
+			day = today;
+			dayUnits = 0;
+		}
+
+		/**
+		 * Consumo diario estimado en {@code today}.
+		 */
+		private double rate(long today, double alpha) {
+			advance(today, alpha);
+			double withToday = warm ? alpha * dayUnits + (1 - alpha) * rate : dayUnits;
+			return Math.max(rate, withToday);
+		}
+	}
+
+	private final ProductRepository productRepository;
+	private final StockLedgerRepository stockLedgerRepository;
+	private final double alpha;
+	private final Duration history;
+
+	private final Map<Integer, Consumption> consumption = new ConcurrentHashMap<>();
+
+	public StockForecastService(ProductRepository productRepository, StockLedgerRepository stockLedgerRepository,
+			Environment environment) {
+		this.productRepository = productRepository;
+		this.stockLedgerRepository = stockLedgerRepository;
+		this.alpha = environment.getProperty(ALPHA, Double.class, DEFAULT_ALPHA);
+		this.history = environment.getProperty(HISTORY, Duration.class, DEFAULT_HISTORY);
+		if (!(alpha > 0 && alpha <= 1)) {
+			throw new IllegalStateException(ALPHA + " debe estar entre 0 (excluido) y 1");
+		}
+	}
+
+	/**
+	 * Obtener los productos que, al ritmo de consumo actual, quedarán por debajo
+	 * de su mínimo o sin stock en los próximos días. Los que ya están por debajo
+	 * del mínimo se incluyen si siguen teniendo salidas.
+	 *
+	 * @param horizonDays  Días que abarca la previsión
+	 * @param pendingStock Salidas pendientes de escribir de cada producto
+	 *                     ({@link StockWriteBehindService#pendingStock(int)}),
+	 *                     que se descuentan del stock leído
+	 * @return Lista de {@link StockForecastDTO}, del que antes se agotará al que
+	 *         más tardará
+	 */
+	@Transactional(readOnly = true)
+	public List<StockForecastDTO> forecast(int horizonDays, IntUnaryOperator pendingStock) {
+		Map<Integer, Double> rates = currentRates();
+		List<Integer> ids = new ArrayList<>(rates.keySet());
+		List<StockForecastDTO> forecast = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+			List<Integer> batch = ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size()));
+			for (ProductResponseDTO product : productRepository.findRowsByIds(batch)) {
+				double rate = rates.get(product.id());
+				int stock = Math.max(product.stock_actual() + pendingStock.applyAsInt(product.id()), 0);
+				int minStock = product.stock_minimo();
+				double daysToMin = stock < minStock ? 0 : (stock - minStock) / rate;
+				double daysToZero = stock / rate;
+				// El mínimo nunca es negativo: se cruza antes que el cero
+				if (daysToMin <= horizonDays) {
+					forecast.add(new StockForecastDTO(product.id(), product.nombre(), stock, minStock,
+							round(rate, 100), round(daysToMin, 10), round(daysToZero, 10)));
+				}
+			}
+		}
+		forecast.sort(URGENCY);
+		return forecast;
+	}
+
+	/**
+	 * Registrar movimientos de stock aplicados. Si hay una transacción activa, el
+	 * consumo se actualiza cuando se confirma.
+	 *
+	 * @param movements Movimientos anotados en el registro
+	 */
+	public void movementsApplied(List<Movement> movements) {
+		if (movements.stream().noneMatch(movement -> movement.delta() < 0)) {
+			return;
+		}
+		AfterCommit.run(() -> {
+			long today = LocalDate.now().toEpochDay();
+			for (Movement movement : movements) {
+				if (movement.delta() < 0) {
+					addOutflow(movement.productId(), today, -movement.delta());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Registrar la baja de un producto. Si hay una transacción activa, su consumo
+	 * se descarta cuando se confirma.
+	 *
+	 * @param id ID del producto eliminado
+	 */
+	public void productDeleted(int id) {
+		AfterCommit.run(() -> consumption.remove(id));
+	}
+
+	/**
+	 * Reconstruir el consumo de cada producto al arrancar la aplicación.
+	 * <p>
+	 * Se calcula aparte y después se combina con lo registrado mientras tanto, de
+	 * modo que los movimientos confirmados durante la reconstrucción no se
+	 * pierden.
+	 * </p>
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		long start = System.nanoTime();
+		Instant to = Instant.now();
+		Map<Integer, Consumption> built = new HashMap<>();
+		int[] rows = { 0 };
+		stockLedgerRepository.forEachDailyOutflow(to.minus(history), to, outflow -> {
+			long day = outflow.day().toEpochDay();
+			built.computeIfAbsent(outflow.productId(), id -> new Consumption(day)).add(day, outflow.units(), alpha);
+			rows[0]++;
+		});
+
+		built.forEach((id, rebuilt) -> consumption.merge(id, rebuilt, (live, loaded) -> {
+			loaded.add(live.day, live.dayUnits, alpha);
+			return loaded;
+		}));
+		log.info("Previsión de stock: {} productos con consumo, {} días con salidas en {} ms", built.size(), rows[0],
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Consumo actual de los productos activos. Los que han dejado de consumir se
+	 * descartan del mapa.
+	 */
+	private Map<Integer, Double> currentRates() {
+		long today = LocalDate.now().toEpochDay();
+		Map<Integer, Double> rates = new HashMap<>();
+		for (Integer id : consumption.keySet()) {
+			consumption.computeIfPresent(id, (key, product) -> {
+				double rate = product.rate(today, alpha);
+				if (rate < MIN_RATE) {
+					return null;
+				}
+				rates.put(key, rate);
+				return product;
+			});
+		}
+		return rates;
+	}
+
+	private void addOutflow(int id, long day, int units) {
+		consumption.compute(id, (key, product) -> {
+			Consumption updated = product != null ? product : new Consumption(day);
+			updated.add(day, units, alpha);
+			return updated;
+		});
+	}
+
+	private static double round(double value, int scale) {
+		return Math.round(value * scale) / (double) scale;
+	}
+}
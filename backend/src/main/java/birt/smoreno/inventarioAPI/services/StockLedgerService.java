@@ -0,0 +1,152 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.StockLedgerEntryDTO;
+import birt.smoreno.inventarioAPI.dto.StockSnapshotDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+
+/**
+ * {@code StockLedgerService} consulta y compacta el registro de movimientos de
+ * stock.
+ * <p>
+ * {@code ProductService} añade un movimiento por cada cambio de stock, en la
+ * misma transacción. Este servicio sirve el historial de un producto por fechas
+ * y, periódicamente, agrupa los movimientos más antiguos que
+ * {@code inventario.ledger.retention} en un único saldo por producto, para que
+ * el registro no crezca sin límite.
+ * </p>
+ * <p>
+ * La compactación debe ejecutarse en una sola instancia: en el resto se
+ * desactiva con {@code inventario.ledger.compaction-cron=-}.
+ * </p>
+ */
+@Service
+public class StockLedgerService {
+
+	/** Antigüedad a partir de la cual se compactan los movimientos. */
+	public static final String RETENTION = "inventario.ledger.retention";
+
+	private static final Duration DEFAULT_RETENTION = Duration.ofDays(90);
+
+	private static final Logger log = LoggerFactory.getLogger(StockLedgerService.class);
+
+	private final StockLedgerRepository stockLedgerRepository;
+	private final ProductRepository productRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration retention;
+
+	public StockLedgerService(StockLedgerRepository stockLedgerRepository, ProductRepository productRepository,
+			PlatformTransactionManager transactionManager, Environment environment) {
+		this.stockLedgerRepository = stockLedgerRepository;
+		this.productRepository = productRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.retention = environment.getProperty(RETENTION, Duration.class, DEFAULT_RETENTION);
+	}
+
+	/**
+	 * Obtener una página de los movimientos de un producto entre dos fechas
+	 *
+	 * @param id    ID del producto
+	 * @param from  Inicio del intervalo (incluido), o {@code null} para desde el
+	 *              primero
+	 * @param to    Fin del intervalo (excluido), o {@code null} para hasta ahora
+	 * @param after Cursor de la página anterior ({@code nextCursor}), o
+	 *              {@code null}
+	 * @param limit Tamaño de página pedido
+	 * @return {@link CursorPageDTO} con los movimientos, del más antiguo al más
+	 *         reciente
+	 * @throws CustomException si el producto no existe (404) o el intervalo o el
+	 *                         cursor no son válidos (400)
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDTO<StockLedgerEntryDTO> getMovements(int id, Instant from, Instant to, String after,
+			Integer limit) throws CustomException {
+		Instant start = from != null ? from : Instant.EPOCH;
+		// Los movimientos se registran con la hora de la base de datos: se deja margen
+		// para la diferencia entre relojes
+		Instant end = to != null ? to : Instant.now().plus(Duration.ofDays(1));
+		if (!start.isBefore(end)) {
+			throw new CustomException("El intervalo de fechas no es válido", HttpStatus.BAD_REQUEST.value());
+		}
+		Cursor<Instant> cursor = CursorPagination.decode(after, Instant::parse);
+		if (!productRepository.existsById(id)) {
+			throw new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value());
+		}
+
+		int afterId = 0;
+		if (cursor != null) {
+			// Continuar desde la fecha del cursor para recorrer solo el tramo del índice
+			// que queda por devolver. La fecha viaja en el cursor: el movimiento puede
+			// haberse compactado entre dos páginas
+			afterId = cursor.id();
+			if (cursor.key().isAfter(start)) {
+				start = cursor.key();
+			}
+		}
+
+		int pageSize = CursorPagination.pageSize(limit);
+		List<StockLedgerEntryDTO> movements = stockLedgerRepository.findMovements(id, start, end, afterId,
+				pageSize + 1);
+		return CursorPagination.page(movements, pageSize,
+				movement -> CursorPagination.encode(movement.id(), movement.fecha()), movement -> movement);
+	}
+
+	/**
+	 * Obtener los movimientos compactados de un producto
+	 *
+	 * @param id ID del producto
+	 * @return {@link StockSnapshotDTO}, o {@code null} si no se ha compactado
+	 *         ninguno
+	 */
+	@Transactional(readOnly = true)
+	public StockSnapshotDTO getSnapshot(int id) {
+		return stockLedgerRepository.findSnapshot(id).orElse(null);
+	}
+
+	/**
+	 * Compactar los movimientos anteriores al periodo de retención
+	 * <p>
+	 * Se procesan en tramos de {@link AppConstants#LEDGER_COMPACTION_CHUNK}
+	 * movimientos, cada uno en su propia transacción, para no bloquear el registro
+	 * mucho tiempo. Las filas que se borran tienen más antigüedad que cualquier
+	 * transacción en curso, así que ninguna escritura pendiente cae en el tramo.
+	 * </p>
+	 *
+	 * @return Número de movimientos compactados
+	 */
+	@Scheduled(cron = "${inventario.ledger.compaction-cron:0 30 3 * * *}")
+	public int compact() {
+		Instant before = Instant.now().minus(retention);
+		int total = 0;
+		int compacted;
+		do {
+			compacted = transactionTemplate.execute(
+					status -> stockLedgerRepository.compactOldest(before, AppConstants.LEDGER_COMPACTION_CHUNK));
+			total += compacted;
+		} while (compacted == AppConstants.LEDGER_COMPACTION_CHUNK);
+
+		if (total > 0) {
+			log.info("Compactados {} movimientos de stock anteriores a {}", total, before);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,124 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository.Movement;
+import birt.smoreno.inventarioAPI.services.StockCounters.Counter;
+
+/**
+ * {@code StockReservationQueue} guarda, para {@link StockWriteBehindService},
+ * las salidas reservadas que aún no se han escrito, en orden de llegada.
+ * <p>
+ * Las peticiones añaden salidas desde cualquier hilo; solo el hilo de volcado
+ * las saca y devuelve las de un volcado fallido para reintentarlas. Cada vez
+ * que entra o sale una salida cambia la generación, que los listados incluyen
+ * en su ETag porque muestran el stock con lo pendiente descontado.
+ * </p>
+ */
+final class StockReservationQueue {
+
+	/** Salida reservada y pendiente de escribir. */
+	static final class Reservation {
+
+		final Movement movement;
+		// Contador en el que se ha reservado, que puede haberse retirado después
+		final Counter counter;
+		// Con durabilidad sync, se completa al escribirla o rechazarla
+		final CompletableFuture<Void> written;
+
+		Reservation(Movement movement, Counter counter, CompletableFuture<Void> written) {
+			this.movement = movement;
+			this.counter = counter;
+			this.written = written;
+		}
+
+		void complete(CustomException rejection) {
+			if (written == null) {
+				return;
+			}
+			if (rejection == null) {
+				written.complete(null);
+			} else {
+				written.completeExceptionally(rejection);
+			}
+		}
+	}
+
+	private final ConcurrentLinkedQueue<Reservation> queue = new ConcurrentLinkedQueue<>();
+	// Salidas reservadas y aún no escritas, incluidas las de un volcado fallido
+	private final AtomicInteger buffered = new AtomicInteger();
+	// Salidas de un volcado fallido, que se reintentan en el siguiente
+	private final List<Reservation> retry = new ArrayList<>();
+	// Cambia al añadir salidas y al escribirlas o descartarlas
+	private final AtomicLong generation = new AtomicLong();
+	// Se completa con el commit del próximo volcado
+	private final AtomicReference<CompletableFuture<Void>> nextFlush = new AtomicReference<>(
+			new CompletableFuture<>());
+
+	/**
+	 * Añadir una salida reservada
+	 *
+	 * @return Salidas reservadas y aún no escritas, incluida esta
+	 */
+	int add(Reservation reservation) {
+		queue.add(reservation);
+		generation.incrementAndGet();
+		return buffered.incrementAndGet();
+	}
+
+	int buffered() {
+		return buffered.get();
+	}
+
+	/** Futuro que se completa con el commit del próximo volcado */
+	CompletableFuture<Void> nextFlush() {
+		return nextFlush.get();
+	}
+
+	/** Empezar un volcado: su futuro deja de ser el del próximo */
+	CompletableFuture<Void> startFlush() {
+		return nextFlush.getAndSet(new CompletableFuture<>());
+	}
+
+	/**
+	 * Sacar las salidas a reintentar y después las nuevas, en orden. Solo desde el
+	 * hilo de volcado
+	 */
+	List<Reservation> drain() {
+		List<Reservation> batch = new ArrayList<>(retry);
+		retry.clear();
+		Reservation polled;
+		while ((polled = queue.poll()) != null) {
+			batch.add(polled);
+		}
+		return batch;
+	}
+
+	/** Devolver las salidas de un volcado fallido para el siguiente */
+	void retry(Collection<Reservation> reservations) {
+		retry.addAll(reservations);
+	}
+
+	/**
+	 * Descontar salidas escritas o descartadas, después de quitarlas de lo
+	 * pendiente de su contador
+	 */
+	void removed(int count) {
+		if (count > 0) {
+			buffered.addAndGet(-count);
+			generation.incrementAndGet();
+		}
+	}
+
+	long generation() {
+		return generation.get();
+	}
+}
@@ -0,0 +1,567 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.LowStockEventDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchItemDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLeaseRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository.Movement;
+import birt.smoreno.inventarioAPI.services.StockCounters.Counter;
+import birt.smoreno.inventarioAPI.services.StockReservationQueue.Reservation;
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService.Durability;
+import birt.smoreno.inventarioAPI.services.TableVersionService.Table;
+
+/**
+ * {@code StockWriteBehindFlusher} escribe en la base de datos, desde un único
+ * hilo, las salidas que {@link StockWriteBehindService} ha reservado en
+ * memoria.
+ * <p>
+ * Cada volcado aplica en una transacción la variación neta de cada producto,
+ * anota cada salida con su motivo en el registro de movimientos, descuenta de
+ * {@code reservas_stock} lo escrito y relee el stock. Un volcado fallido se
+ * reintenta entero en el siguiente con durabilidad async, y con sync sus
+ * clientes reciben el error.
+ * </p>
+ * <p>
+ * Con async las salidas ya se han confirmado y sus unidades están reservadas,
+ * así que un volcado no las rechaza. Si aun así una no cabe, porque se ha
+ * cambiado el stock sin pasar por la aplicación, se anota en el registro sin
+ * variación y con la salida en el motivo. Las que no se han podido escribir al
+ * parar la aplicación se guardan en un fichero, que se aplica al arrancar con
+ * las reservas que las cubrían.
+ * </p>
+ */
+final class StockWriteBehindFlusher {
+
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+	// Motivo de las salidas confirmadas que no se han podido aplicar
+	private static final String NOT_APPLIED_REASON = "Salida no aplicada: %d (%s)";
+	private static final int MAX_REASON_LENGTH = 255;
+	private static final String DEAD_LETTER_HEADER = "# id_producto\tdelta\tmotivo";
+
+	private static final Logger log = LoggerFactory.getLogger(StockWriteBehindFlusher.class);
+
+	/**
+	 * Resultado de la transacción de un volcado.
+	 *
+	 * @param stockLevels Stock de cada producto escrito o releído; faltan los
+	 *                    eliminados
+	 * @param rejected    Salidas que no cabían en el stock
+	 */
+	private record Written(Map<Integer, StockMovementResponseDTO> stockLevels, List<Reservation> rejected) {
+	}
+
+	private final StockCounters counters;
+	private final StockReservationQueue queue;
+	private final ProductRepository productRepository;
+	private final StockLedgerRepository stockLedgerRepository;
+	private final StockLeaseRepository stockLeaseRepository;
+	private final StockForecastService stockForecastService;
+	private final TableVersionService tableVersionService;
+	private final SecondLevelCacheService secondLevelCacheService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration flushInterval;
+	private final Durability durability;
+	private final String instanceId;
+	private final Path deadLetterFile;
+
+	// Productos cuyo stock ha cambiado fuera del servicio y se releen en el
+	// próximo volcado
+	private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+	// Unidades reservadas de contadores retirados, que se liberan en el próximo
+	// volcado. Solo las usa el hilo de volcado
+	private final Map<Integer, Integer> releases = new TreeMap<>();
+	// El volcado toma la escritura entre su commit y la liberación de las
+	// reservas escritas, para que lo pendiente no cuente también lo ya escrito
+	private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "stock-write-behind");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	StockWriteBehindFlusher(StockCounters counters, StockReservationQueue queue, ProductRepository productRepository,
+			StockLedgerRepository stockLedgerRepository, StockLeaseRepository stockLeaseRepository,
+			StockForecastService stockForecastService, TableVersionService tableVersionService,
+			SecondLevelCacheService secondLevelCacheService, ApplicationEventPublisher eventPublisher,
+			TransactionTemplate transactionTemplate, Duration flushInterval, Durability durability,
+			String instanceId, Path deadLetterFile) {
+		this.counters = counters;
+		this.queue = queue;
+		this.productRepository = productRepository;
+		this.stockLedgerRepository = stockLedgerRepository;
+		this.stockLeaseRepository = stockLeaseRepository;
+		this.stockForecastService = stockForecastService;
+		this.tableVersionService = tableVersionService;
+		this.secondLevelCacheService = secondLevelCacheService;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = transactionTemplate;
+		this.flushInterval = flushInterval;
+		this.durability = durability;
+		this.instanceId = instanceId;
+		this.deadLetterFile = deadLetterFile;
+	}
+
+	/**
+	 * Programar el volcado periódico
+	 */
+	void start() {
+		executor.scheduleWithFixedDelay(this::flush, flushInterval.toNanos(), flushInterval.toNanos(),
+				TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Bloqueo que se toma para leer lo pendiente de un contador sin contar a la
+	 * vez lo que un volcado acaba de escribir
+	 */
+	Lock readLock() {
+		return flushLock.readLock();
+	}
+
+	/**
+	 * Releer el stock de un producto en el próximo volcado
+	 */
+	void markStale(int id) {
+		stale.add(id);
+	}
+
+	/**
+	 * Adelantar el volcado. Las peticiones que llegan mientras hay uno en curso se
+	 * agrupan en el siguiente
+	 */
+	void requestFlush() {
+		if (flushRequested.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::flush);
+			} catch (RejectedExecutionException e) {
+				// La aplicación se está parando: lo recoge el volcado final
+			}
+		}
+	}
+
+	/**
+	 * Escribir las salidas pendientes en una transacción y actualizar el stock
+	 * visto por esta instancia
+	 */
+	synchronized void flush() {
+		flushRequested.set(false);
+		CompletableFuture<Void> flushed = queue.startFlush();
+		List<Reservation> batch = queue.drain();
+		Set<Integer> reread = new TreeSet<>();
+		for (Integer id : stale) {
+			stale.remove(id);
+			reread.add(id);
+		}
+		Map<Integer, Integer> released = new TreeMap<>(releases);
+		releases.clear();
+		// Las salidas de un producto eliminado ya no se escriben
+		dropRetired(batch);
+
+		if (batch.isEmpty() && reread.isEmpty() && released.isEmpty()) {
+			flushed.complete(null);
+		} else {
+			Written written = null;
+			try {
+				written = transactionTemplate.execute(status -> write(batch, reread, released));
+				// Primero el stock nuevo y después se descuenta lo escrito: entre ambos pasos
+				// el disponible se cuenta de menos, nunca de más
+				Set<Integer> ids = new TreeSet<>(reread);
+				batch.forEach(reservation -> ids.add(reservation.movement.productId()));
+				for (Integer id : ids) {
+					Counter counter = counters.get(id);
+					StockMovementResponseDTO stockLevel = written.stockLevels().get(id);
+					if (counter == null) {
+						continue;
+					}
+					if (stockLevel == null) {
+						counters.retire(id, counter);
+					} else {
+						counter.stock = stockLevel.stock_actual();
+						counter.minStock = stockLevel.stock_minimo();
+					}
+				}
+				batch.forEach(reservation -> reservation.counter.pending.add(-reservation.movement.delta()));
+			} catch (RuntimeException e) {
+				failed(batch, reread, released, e);
+				flushed.completeExceptionally(e);
+			} finally {
+				// write() lo toma justo antes del commit
+				if (flushLock.isWriteLockedByCurrentThread()) {
+					flushLock.writeLock().unlock();
+				}
+			}
+			if (written != null) {
+				queue.removed(batch.size());
+				complete(batch, written);
+				flushed.complete(null);
+			}
+		}
+
+		// Sin reservas desde el último intervalo, el stock se vuelve a leer en la
+		// próxima salida por si lo ha cambiado otra petición, y se liberan sus unidades
+		counters.evictIdle(System.nanoTime() - flushInterval.toNanos(),
+				(id, units) -> releases.merge(id, units, Integer::sum));
+	}
+
+	/**
+	 * Descartar las salidas cuyo contador se ha retirado porque el producto se ha
+	 * eliminado
+	 */
+	private void dropRetired(List<Reservation> batch) {
+		int dropped = 0;
+		for (var iterator = batch.iterator(); iterator.hasNext();) {
+			Reservation reservation = iterator.next();
+			if (reservation.counter.retired) {
+				iterator.remove();
+				reservation.counter.pending.add(-reservation.movement.delta());
+				reservation.complete(new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value()));
+				dropped++;
+			}
+		}
+		if (dropped > 0) {
+			queue.removed(dropped);
+			log.warn("Se descartan {} salidas de stock de productos eliminados", dropped);
+		}
+	}
+
+	/**
+	 * Confirmar a cada cliente en espera si su salida se ha escrito
+	 */
+	private void complete(List<Reservation> batch, Written written) {
+		Set<Reservation> rejected = new HashSet<>(written.rejected());
+		int notFound = 0;
+		for (Reservation reservation : batch) {
+			int id = reservation.movement.productId();
+			StockMovementResponseDTO stockLevel = written.stockLevels().get(id);
+			if (stockLevel == null) {
+				notFound++;
+				reservation.complete(new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value()));
+			} else if (rejected.contains(reservation)) {
+				reservation.complete(new CustomException(
+						"Stock insuficiente: quedan " + stockLevel.stock_actual() + " unidades",
+						HttpStatus.CONFLICT.value()));
+			} else {
+				reservation.complete(null);
+			}
+		}
+		if (!rejected.isEmpty()) {
+			log.warn("Se han rechazado {} salidas de stock reservadas sin unidades suficientes", rejected.size());
+		}
+		if (notFound > 0) {
+			log.warn("Se descartan {} salidas de stock de productos eliminados", notFound);
+		}
+	}
+
+	/**
+	 * Tratar un volcado fallido. Con durabilidad async las salidas ya están
+	 * confirmadas y se reintentan en el siguiente; con sync se descartan, se
+	 * liberan sus reservas y sus clientes reciben el error
+	 */
+	private void failed(List<Reservation> batch, Set<Integer> reread, Map<Integer, Integer> released,
+			RuntimeException e) {
+		stale.addAll(reread);
+		released.forEach((id, units) -> releases.merge(id, units, Integer::sum));
+		if (durability == Durability.ASYNC) {
+			queue.retry(batch);
+			log.warn("No se han podido guardar {} salidas de stock; se reintentará", batch.size(), e);
+			return;
+		}
+		for (Reservation reservation : batch) {
+			reservation.counter.pending.add(-reservation.movement.delta());
+			reservation.complete(new CustomException("No se ha podido guardar el movimiento de stock",
+					HttpStatus.SERVICE_UNAVAILABLE.value()));
+		}
+		queue.removed(batch.size());
+		log.error("No se han podido guardar {} salidas de stock", batch.size(), e);
+	}
+
+	/**
+	 * Aplicar la variación neta de cada producto, anotar las salidas en el
+	 * registro de movimientos y descontar de las reservas lo escrito y lo liberado
+	 * <p>
+	 * Con durabilidad sync, si un producto no tiene unidades para todas sus
+	 * salidas, se escriben las que caben por orden de llegada y se rechazan las
+	 * demás. Antes de confirmar se toma {@link #flushLock}, que el volcado suelta
+	 * tras liberar las reservas.
+	 * </p>
+	 *
+	 * @param batch    Salidas a escribir, en orden
+	 * @param reread   Productos cuyo stock se vuelve a leer aunque no tengan
+	 *                 salidas
+	 * @param released Unidades reservadas que se liberan, por producto
+	 * @return Stock de cada producto tras el volcado y salidas rechazadas
+	 */
+	private Written write(List<Reservation> batch, Set<Integer> reread, Map<Integer, Integer> released) {
+		// Ordenadas por ID para que dos instancias bloqueen las filas en el mismo
+		// orden
+		Map<Integer, List<Reservation>> byProduct = new TreeMap<>();
+		for (Reservation reservation : batch) {
+			byProduct.computeIfAbsent(reservation.movement.productId(), id -> new ArrayList<>()).add(reservation);
+		}
+		List<StockBatchItemDTO> items = byProduct.entrySet().stream()
+				.map(entry -> new StockBatchItemDTO(entry.getKey(),
+						entry.getValue().stream().mapToInt(reservation -> reservation.movement.delta()).sum(), null))
+				.toList();
+		boolean leased = durability == Durability.ASYNC;
+		int[] updated = leased ? productRepository.applyLeasedStockDeltas(items)
+				: productRepository.applyStockDeltas(items);
+		Set<Integer> ids = new TreeSet<>(reread);
+		ids.addAll(byProduct.keySet());
+		Map<Integer, StockMovementResponseDTO> stockLevels = findStockLevels(ids);
+
+		Map<Reservation, Movement> movements = new LinkedHashMap<>();
+		List<Reservation> rejected = new ArrayList<>();
+		Set<Integer> changed = new TreeSet<>();
+		Map<Integer, Integer> leaseUnits = new TreeMap<>(released);
+		for (int i = 0; i < items.size(); i++) {
+			int id = items.get(i).getId_producto();
+			int delta = items.get(i).getDelta();
+			StockMovementResponseDTO stockLevel = stockLevels.get(id);
+			if (stockLevel == null) {
+				continue;
+			}
+			List<Reservation> reservations = byProduct.get(id);
+			int previousStock;
+			if (leased) {
+				// Las unidades escritas o no dejan de estar reservadas
+				leaseUnits.merge(id, -delta, Integer::sum);
+			}
+			if (updated[i] != 0) {
+				previousStock = stockLevel.stock_actual() - delta;
+				reservations.forEach(reservation -> movements.put(reservation, reservation.movement));
+			} else if (leased) {
+				// Solo si se ha cambiado el stock sin respetar las reservas: las salidas ya
+				// confirmadas quedan anotadas, sin variación
+				reservations.forEach(reservation -> movements.put(reservation, notApplied(reservation.movement)));
+				log.error("No caben {} unidades de salidas confirmadas del producto {}; se anotan sin aplicar",
+						-delta, id);
+				continue;
+			} else {
+				// No quedan tantas unidades: se escriben las salidas que caben
+				previousStock = stockLevel.stock_actual();
+				List<Reservation> accepted = new ArrayList<>();
+				int remaining = previousStock;
+				for (Reservation reservation : reservations) {
+					if (remaining + reservation.movement.delta() >= 0) {
+						remaining += reservation.movement.delta();
+						accepted.add(reservation);
+					} else {
+						rejected.add(reservation);
+					}
+				}
+				int acceptedDelta = remaining - previousStock;
+				if (acceptedDelta != 0 && productRepository.applyStockDelta(id, acceptedDelta) == 0) {
+					// Otra transacción ha vuelto a cambiar el stock: se rechazan todas
+					rejected.addAll(accepted);
+					accepted.clear();
+					remaining = previousStock;
+				}
+				accepted.forEach(reservation -> movements.put(reservation, reservation.movement));
+				stockLevel = new StockMovementResponseDTO(id, remaining, stockLevel.stock_minimo());
+				stockLevels.put(id, stockLevel);
+				if (accepted.isEmpty()) {
+					continue;
+				}
+			}
+			changed.add(id);
+			publishIfCrossed(id, previousStock < stockLevel.stock_minimo(), stockLevel.stock_actual(),
+					stockLevel.stock_minimo());
+		}
+
+		ledgerWritten(List.copyOf(movements.values()), changed);
+		stockLeaseRepository.subtract(leaseUnits, instanceId);
+		flushLock.writeLock().lock();
+		return new Written(stockLevels, rejected);
+	}
+
+	private Map<Integer, StockMovementResponseDTO> findStockLevels(Set<Integer> ids) {
+		return productRepository.findStockLevels(ids).stream().collect(
+				Collectors.toMap(StockMovementResponseDTO::id, Function.identity(), (a, b) -> a, HashMap::new));
+	}
+
+	/**
+	 * Anotar los movimientos escritos y avisar de los productos cambiados
+	 */
+	private void ledgerWritten(List<Movement> movements, Set<Integer> changed) {
+		stockLedgerRepository.insert(movements);
+		stockForecastService.movementsApplied(movements);
+		if (!changed.isEmpty()) {
+			tableVersionService.markChanged(Table.PRODUCTOS, changed);
+			secondLevelCacheService.productsChanged(changed);
+		}
+	}
+
+	/**
+	 * Movimiento que deja constancia de una salida confirmada que no se ha podido
+	 * aplicar
+	 */
+	private static Movement notApplied(Movement movement) {
+		String reason = NOT_APPLIED_REASON.formatted(movement.delta(),
+				movement.reason() == null ? "sin motivo" : movement.reason());
+		return new Movement(movement.productId(), 0,
+				reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason);
+	}
+
+	/**
+	 * Publicar un {@link LowStockEventDTO} si el producto ha cruzado su stock
+	 * mínimo. El evento se entrega tras el commit del volcado.
+	 */
+	private void publishIfCrossed(int id, boolean wasLow, int stock, int minStock) {
+		boolean isLow = stock < minStock;
+		if (wasLow != isLow) {
+			eventPublisher.publishEvent(new LowStockEventDTO(id, stock, minStock, isLow));
+		}
+	}
+
+	/**
+	 * Volcar lo pendiente al parar la aplicación. Las salidas confirmadas que no
+	 * se pueden escribir se guardan en el fichero de salidas no escritas, y se
+	 * conservan las reservas que las cubren; si no queda ninguna, se liberan
+	 */
+	void shutdown() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		// Las de volcados fallidos y las reservadas mientras se paraba
+		List<Reservation> unwritten = queue.drain();
+		if (durability == Durability.SYNC) {
+			unwritten.forEach(reservation -> reservation.complete(new CustomException(
+					"No se ha podido guardar el movimiento de stock", HttpStatus.SERVICE_UNAVAILABLE.value())));
+		} else if (!unwritten.isEmpty()) {
+			saveDeadLetter(unwritten.stream().map(reservation -> reservation.movement).toList());
+			return;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> stockLeaseRepository.deleteByInstance(instanceId));
+		} catch (RuntimeException e) {
+			// Se borran al volver a arrancar
+			log.warn("No se han podido liberar las reservas de stock de la instancia {}", instanceId, e);
+		}
+	}
+
+	/**
+	 * Guardar en el fichero de salidas no escritas las salidas confirmadas que no
+	 * se han podido escribir
+	 */
+	private void saveDeadLetter(List<Movement> movements) {
+		List<String> lines = new ArrayList<>();
+		try {
+			if (Files.notExists(deadLetterFile)) {
+				lines.add(DEAD_LETTER_HEADER);
+			}
+			for (Movement movement : movements) {
+				String reason = movement.reason() == null ? "" : movement.reason().replaceAll("[\t\r\n]", " ");
+				lines.add(movement.productId() + "\t" + movement.delta() + "\t" + reason);
+			}
+			Files.write(deadLetterFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+			log.error("No se han podido guardar {} salidas de stock confirmadas; se aplicarán al arrancar desde {}",
+					movements.size(), deadLetterFile.toAbsolutePath());
+		} catch (IOException e) {
+			log.error("Se han perdido {} salidas de stock confirmadas: {}", movements.size(), movements, e);
+		}
+	}
+
+	/**
+	 * Aplicar al arrancar las salidas del fichero de salidas no escritas y borrar
+	 * las reservas que esta instancia dejó en la ejecución anterior, que las
+	 * cubren, en una única transacción. El fichero se borra tras el commit
+	 *
+	 * @throws UncheckedIOException si no se puede leer o borrar el fichero
+	 */
+	void recover() {
+		List<Movement> movements = readDeadLetter();
+		transactionTemplate.executeWithoutResult(status -> {
+			if (!movements.isEmpty()) {
+				Map<Integer, Integer> deltas = new TreeMap<>();
+				movements.forEach(movement -> deltas.merge(movement.productId(), movement.delta(), Integer::sum));
+				List<StockBatchItemDTO> items = deltas.entrySet().stream()
+						.map(entry -> new StockBatchItemDTO(entry.getKey(), entry.getValue(), null)).toList();
+				int[] updated = productRepository.applyLeasedStockDeltas(items);
+				Set<Integer> applied = new TreeSet<>();
+				for (int i = 0; i < items.size(); i++) {
+					if (updated[i] != 0) {
+						applied.add(items.get(i).getId_producto());
+					}
+				}
+				// Las de productos eliminados no se anotan
+				Set<Integer> existing = findStockLevels(deltas.keySet()).keySet();
+				ledgerWritten(movements.stream().filter(movement -> existing.contains(movement.productId()))
+						.map(movement -> applied.contains(movement.productId()) ? movement : notApplied(movement))
+						.toList(), applied);
+			}
+			stockLeaseRepository.deleteByInstance(instanceId);
+		});
+		try {
+			Files.deleteIfExists(deadLetterFile);
+		} catch (IOException e) {
+			// Si se volviera a aplicar, se duplicarían las salidas
+			throw new UncheckedIOException(e);
+		}
+		if (!movements.isEmpty()) {
+			log.warn("Se han aplicado {} salidas de stock no escritas en la ejecución anterior", movements.size());
+		}
+	}
+
+	private List<Movement> readDeadLetter() {
+		if (Files.notExists(deadLetterFile)) {
+			return List.of();
+		}
+		try {
+			List<Movement> movements = new ArrayList<>();
+			for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8)) {
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\t", 3);
+				String reason = fields.length < 3 || fields[2].isEmpty() ? null : fields[2];
+				movements.add(new Movement(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), reason));
+			}
+			return movements;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.repositories.ProductRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLeaseRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLeaseRepository.Grant;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository.Movement;
+import birt.smoreno.inventarioAPI.services.StockCounters.Counter;
+import birt.smoreno.inventarioAPI.services.StockReservationQueue.Reservation;
+import birt.smoreno.inventarioAPI.utils.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * {@code StockWriteBehindService} es el modo de escritura diferida de las
+ * salidas de stock: las agrupa en memoria y las escribe en la base de datos
+ * cada pocos milisegundos, con un único {@code UPDATE} neto por producto.
+ * <p>
+ * Con {@link ProductService#applyStockMovement} cada salida bloquea la fila del
+ * producto hasta el commit, y cientos de terminales que dispensan el mismo
+ * producto esperan unos a otros. Aquí la salida se reserva en memoria
+ * ({@link StockCounters}), se encola ({@link StockReservationQueue}) y un único
+ * hilo la escribe ({@link StockWriteBehindFlusher}) cada
+ * {@code flush-interval}, o antes si se acumulan {@code max-pending} salidas.
+ * Cuando {@link ProductService} modifica el stock por otra vía, avisa con
+ * {@link #stockChanged(Collection)} y el siguiente volcado, que se adelanta,
+ * vuelve a leerlo.
+ * </p>
+ * <p>
+ * Con {@code durability=sync}, el valor por defecto, cada petición espera al
+ * commit del volcado que la incluye, que sigue agrupando las de todos los
+ * clientes. La salida se reserva en un {@code LongAdder} por producto sin
+ * bloquear y se comprueba contra el stock leído de la base de datos; si otra
+ * instancia u otra petición ha dejado menos unidades, el volcado escribe las
+ * que caben por orden de llegada y el resto recibe un 409.
+ * </p>
+ * <p>
+ * Con {@code async} se responde antes de escribir, así que solo se confirma una
+ * salida si sus unidades están reservadas en la base de datos
+ * ({@code reservas_stock}). Cada instancia reserva de una vez
+ * {@code lease-size} unidades o las que falten, las va concediendo en memoria y
+ * libera las sobrantes cuando el producto deja de tener salidas. El resto de
+ * escrituras de stock no pueden bajar de lo reservado, así que el volcado no
+ * rechaza ninguna salida confirmada; si falla, se reintenta, y lo que no se ha
+ * escrito al parar se guarda en un fichero que se aplica al arrancar. Una caída
+ * pierde como mucho un intervalo de salidas.
+ * </p>
+ * <p>
+ * {@link ProductService} suma lo pendiente al stock de los productos que
+ * devuelve, también en los listados, cuyo ETag incluye {@link #generation()}, y
+ * {@link StockForecastService} lo tiene en cuenta en la previsión. Qué
+ * productos están bajo mínimo y el resumen por categoría se calculan en la base
+ * de datos, así que reflejan las salidas tras el volcado. Si las salidas llegan
+ * más deprisa de lo que se escriben, las peticiones esperan al volcado en lugar
+ * de acumular memoria.
+ * </p>
+ */
+@Service
+public class StockWriteBehindService {
+
+	/** Activa la escritura diferida de las salidas de stock. */
+	public static final String ENABLED = "inventario.stock.write-behind.enabled";
+	/** Tiempo máximo entre volcados. */
+	public static final String FLUSH_INTERVAL = "inventario.stock.write-behind.flush-interval";
+	/** Salidas pendientes que adelantan el volcado. */
+	public static final String MAX_PENDING = "inventario.stock.write-behind.max-pending";
+	/** Momento en que se responde al cliente ({@link Durability}). */
+	public static final String DURABILITY = "inventario.stock.write-behind.durability";
+	/** Unidades que se reservan de una vez con durabilidad async. */
+	public static final String LEASE_SIZE = "inventario.stock.write-behind.lease-size";
+	/** Identificador de la instancia en {@code reservas_stock}. */
+	public static final String INSTANCE_ID = "inventario.stock.write-behind.instance-id";
+	/** Fichero de las salidas confirmadas que no se han podido escribir al parar. */
+	public static final String DEAD_LETTER_FILE = "inventario.stock.write-behind.dead-letter-file";
+
+	/** Momento en que se confirma una salida al cliente. */
+	public enum Durability {
+		/** Al reservar sus unidades en la base de datos. */
+		ASYNC,
+		/** Tras el commit del volcado que la incluye. */
+		SYNC
+	}
+
+	private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50);
+	private static final int DEFAULT_MAX_PENDING = 500;
+	private static final int DEFAULT_LEASE_SIZE = 10;
+	private static final String DEFAULT_DEAD_LETTER_FILE = "stock-write-behind.dead-letter.tsv";
+	// Al acumular este múltiplo de max-pending, las salidas esperan al volcado
+	// aunque la durabilidad sea async
+	private static final int MAX_BACKLOG_FACTOR = 20;
+
+	/**
+	 * Salida reservada en un contador.
+	 *
+	 * @param counter Contador del producto
+	 * @param stock   Stock resultante, incluidas las salidas pendientes
+	 */
+	private record Reserved(Counter counter, int stock) {
+	}
+
+	private final StockLeaseRepository stockLeaseRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final int maxPending;
+	private final Durability durability;
+	private final int leaseSize;
+	private final String instanceId;
+	private final StockCounters counters;
+	private final StockReservationQueue queue = new StockReservationQueue();
+	private final StockWriteBehindFlusher flusher;
+	private volatile boolean closed;
+
+	public StockWriteBehindService(ProductRepository productRepository, StockLedgerRepository stockLedgerRepository,
+			StockLeaseRepository stockLeaseRepository, StockForecastService stockForecastService,
+			TableVersionService tableVersionService, SecondLevelCacheService secondLevelCacheService,
+			ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+			Environment environment) {
+		this.stockLeaseRepository = stockLeaseRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = environment.getProperty(ENABLED, Boolean.class, false);
+		this.maxPending = environment.getProperty(MAX_PENDING, Integer.class, DEFAULT_MAX_PENDING);
+		this.durability = environment.getProperty(DURABILITY, Durability.class, Durability.SYNC);
+		this.leaseSize = environment.getProperty(LEASE_SIZE, Integer.class, DEFAULT_LEASE_SIZE);
+		this.instanceId = environment.getProperty(INSTANCE_ID, environment.getProperty("HOSTNAME", "local"));
+		this.counters = new StockCounters(productRepository, transactionTemplate);
+		this.flusher = new StockWriteBehindFlusher(counters, queue, productRepository, stockLedgerRepository,
+				stockLeaseRepository, stockForecastService, tableVersionService, secondLevelCacheService,
+				eventPublisher, transactionTemplate,
+				environment.getProperty(FLUSH_INTERVAL, Duration.class, DEFAULT_FLUSH_INTERVAL), durability,
+				instanceId, Path.of(environment.getProperty(DEAD_LETTER_FILE, DEFAULT_DEAD_LETTER_FILE)));
+	}
+
+	/**
+	 * Aplicar las salidas que no se escribieron en la ejecución anterior y
+	 * programar el volcado periódico si el modo está activo
+	 */
+	@PostConstruct
+	public void start() {
+		// También si el modo se ha desactivado desde la ejecución anterior
+		flusher.recover();
+		if (enabled) {
+			flusher.start();
+		}
+	}
+
+	/**
+	 * Comprobar si un movimiento se registra en diferido
+	 *
+	 * @param delta Variación de unidades
+	 * @return {@code true} si el modo está activo y es una salida
+	 */
+	public boolean accepts(int delta) {
+		return enabled && !closed && delta < 0;
+	}
+
+	/**
+	 * Reservar una salida de stock para escribirla en el próximo volcado. Solo se
+	 * usa si {@link #accepts(int)} lo admite
+	 *
+	 * @param id     ID del producto
+	 * @param delta  Variación de unidades, negativa
+	 * @param reason Motivo del movimiento, o {@code null}
+	 * @return {@link StockMovementResponseDTO} con el stock resultante, incluidas
+	 *         las salidas pendientes
+	 * @throws CustomException si el producto no se encuentra (404), el stock
+	 *                         quedaría negativo (409) o falla el volcado que se
+	 *                         espera (503)
+	 */
+	public StockMovementResponseDTO decrement(int id, int delta, String reason) throws CustomException {
+		if (queue.buffered() >= maxPending * MAX_BACKLOG_FACTOR) {
+			// La base de datos no da abasto: se frena a los clientes hasta el volcado
+			CompletableFuture<Void> flushed = queue.nextFlush();
+			flusher.requestFlush();
+			awaitFlush(flushed);
+		}
+
+		Reserved reserved = durability == Durability.ASYNC ? reserveLeased(id, delta) : reserve(id, delta);
+		Reservation reservation = new Reservation(new Movement(id, delta, reason), reserved.counter(),
+				durability == Durability.SYNC ? new CompletableFuture<>() : null);
+		if (queue.add(reservation) >= maxPending || durability == Durability.SYNC) {
+			flusher.requestFlush();
+		}
+		if (durability == Durability.SYNC) {
+			awaitFlush(reservation.written);
+		}
+		return new StockMovementResponseDTO(id, reserved.stock(), reserved.counter().minStock);
+	}
+
+	/**
+	 * Reservar una salida contra el stock visto por esta instancia, sin bloquear.
+	 * El volcado la rechaza si al escribirla ya no cabe
+	 */
+	private Reserved reserve(int id, int delta) throws CustomException {
+		// Reservar primero y comprobar después: la suma incluye esta salida y las
+		// concurrentes, así que el stock nunca se sobrepasa
+		Counter counter;
+		while (true) {
+			counter = counters.getOrLoad(id);
+			counter.lastUsed = System.nanoTime();
+			counter.pending.add(delta);
+			if (!counter.retired) {
+				break;
+			}
+			// El volcado lo ha retirado a la vez: la reserva no contaría en el
+			// contador que lo sustituye
+			counter.pending.add(-delta);
+		}
+		int stock = counter.available();
+		if (stock < 0) {
+			counter.pending.add(-delta);
+			throw new CustomException("Stock insuficiente: quedan " + Math.max(stock - delta, 0) + " unidades",
+					HttpStatus.CONFLICT.value());
+		}
+		return new Reserved(counter, stock);
+	}
+
+	/**
+	 * Conceder una salida con unidades reservadas en la base de datos por esta
+	 * instancia, reservando más si no quedan. El volcado siempre puede escribirla
+	 */
+	private Reserved reserveLeased(int id, int delta) throws CustomException {
+		int units = -delta;
+		while (true) {
+			Counter counter = counters.getOrLoad(id);
+			counter.lock.lock();
+			try {
+				if (counter.retired) {
+					continue;
+				}
+				counter.lastUsed = System.nanoTime();
+				if (counter.lease < units) {
+					int needed = units - counter.lease;
+					Grant grant = transactionTemplate
+							.execute(status -> stockLeaseRepository.grant(id, instanceId, needed,
+									Math.max(needed, leaseSize)))
+							.orElseThrow(() -> new CustomException("Producto no encontrado",
+									HttpStatus.NOT_FOUND.value()));
+					if (grant.granted() == 0) {
+						throw new CustomException(
+								"Stock insuficiente: quedan " + (counter.lease + Math.max(grant.free(), 0))
+										+ " unidades",
+								HttpStatus.CONFLICT.value());
+					}
+					counter.lease += grant.granted();
+				}
+				counter.lease -= units;
+				counter.pending.add(delta);
+				return new Reserved(counter, Math.max(counter.available(), 0));
+			} finally {
+				counter.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Esperar al commit de un volcado
+	 *
+	 * @param flushed Futuro del volcado o de una salida
+	 * @throws CustomException si la salida se ha rechazado (404 o 409) o el
+	 *                         volcado falla (503)
+	 */
+	private void awaitFlush(CompletableFuture<Void> flushed) throws CustomException {
+		try {
+			flushed.join();
+		} catch (CompletionException | CancellationException e) {
+			if (e.getCause() instanceof CustomException rejection) {
+				throw rejection;
+			}
+			throw new CustomException("No se ha podido guardar el movimiento de stock",
+					HttpStatus.SERVICE_UNAVAILABLE.value());
+		}
+	}
+
+	/**
+	 * Obtener las salidas de un producto pendientes de escribir
+	 * <p>
+	 * Si hay un volcado confirmándose, se espera a que libere lo escrito. Leída
+	 * la fila antes que este valor, una misma salida no se cuenta a la vez en el
+	 * stock de la fila y en lo pendiente.
+	 * </p>
+	 *
+	 * @param id ID del producto
+	 * @return Variación pendiente (0 o negativa)
+	 */
+	public int pendingStock(int id) {
+		Counter counter = counters.get(id);
+		if (counter == null) {
+			return 0;
+		}
+		Lock lock = flusher.readLock();
+		lock.lock();
+		try {
+			return (int) counter.pending.sum();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Obtener la generación de las salidas pendientes, que cambia cada vez que se
+	 * reserva, escribe o descarta una
+	 *
+	 * @return Generación actual
+	 */
+	public long generation() {
+		return queue.generation();
+	}
+
+	/**
+	 * Comprobar, en la transacción que modifica el stock de un producto, que
+	 * cubre las unidades reservadas para salidas confirmadas
+	 *
+	 * @param id    ID del producto
+	 * @param stock Stock guardado en la fila
+	 * @throws CustomException si el stock no cubre lo reservado (409)
+	 */
+	public void requireUnreserved(int id, int stock) throws CustomException {
+		if (!enabled || durability != Durability.ASYNC) {
+			return;
+		}
+		int reserved = stockLeaseRepository.reserved(id);
+		if (stock < reserved) {
+			throw new CustomException("Stock insuficiente: hay " + reserved + " unidades reservadas para salidas",
+					HttpStatus.CONFLICT.value());
+		}
+	}
+
+	/**
+	 * Avisar de que el stock de unos productos ha cambiado fuera de este servicio.
+	 * Si hay una transacción activa, se avisa cuando se confirma
+	 *
+	 * @param ids IDs de los productos modificados o eliminados
+	 */
+	public void stockChanged(Collection<Integer> ids) {
+		if (!enabled) {
+			return;
+		}
+		AfterCommit.run(() -> {
+			boolean cached = false;
+			for (Integer id : ids) {
+				if (counters.contains(id)) {
+					flusher.markStale(id);
+					cached = true;
+				}
+			}
+			// Se adelanta el volcado para reservar cuanto antes sobre el stock nuevo
+			if (cached) {
+				flusher.requestFlush();
+			}
+		});
+	}
+
+	/**
+	 * Volcar las salidas pendientes al parar la aplicación
+	 */
+	@PreDestroy
+	public void shutdown() {
+		closed = true;
+		flusher.shutdown();
+	}
+}
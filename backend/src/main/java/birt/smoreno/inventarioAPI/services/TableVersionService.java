@@ -0,0 +1,145 @@
+package birt.smoreno.inventarioAPI.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import birt.smoreno.inventarioAPI.dto.ReplicaCaughtUpEventDTO;
+import birt.smoreno.inventarioAPI.utils.AfterCommit;
+import birt.smoreno.inventarioAPI.utils.ReplicaDataSourceConfig;
+
+/**
+ * {@code TableVersionService} mantiene un contador de cambios en memoria por
+ * cada tabla, que sirve como fuente barata para calcular los ETag de las
+ * respuestas GET.
+ * <p>
+ * Los métodos de escritura de {@link ProductService} y {@link CategoryService}
+ * incrementan el contador de su tabla <b>después del commit</b>. Los
+ * controladores leen la versión <b>antes</b> de consultar los datos. Así una
+ * respuesta nunca lleva una versión más nueva que sus datos: en el peor caso el
+ * cliente recibe de nuevo un cuerpo idéntico, pero nunca se queda con datos
+ * obsoletos tras un {@code 304 Not Modified}.
+ * </p>
+ * <p>
+ * Los ETag incluyen un identificador del arranque de la aplicación, de modo que
+ * tras un reinicio o en otra instancia no coinciden con los anteriores aunque
+ * los contadores vuelvan a empezar.
+ * </p>
+ * <p>
+ * Con réplica de lectura ({@link ReplicaDataSourceConfig}), otro cliente puede
+ * leer de la réplica datos anteriores a un cambio ya confirmado y recibir la
+ * versión nueva. Por eso, pasada la ventana de lectura de las propias
+ * escrituras, el contador se incrementa de nuevo y se publica un
+ * {@link ReplicaCaughtUpEventDTO} para que las cachés se vuelvan a invalidar.
+ * </p>
+ */
+@Service
+public class TableVersionService {
+
+	/**
+	 * Tablas cuyos cambios se registran.
+	 */
+	public enum Table {
+		PRODUCTOS, CATEGORIAS
+	}
+
+	// Identificador del arranque de la aplicación
+	private final String instanceId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	private final AtomicLong productsVersion = new AtomicLong();
+	private final AtomicLong categoriesVersion = new AtomicLong();
+
+	private final ApplicationEventPublisher eventPublisher;
+	// Retraso admitido de la réplica, o null si no hay réplica
+	private final Duration replicaLag;
+
+	public TableVersionService(Environment environment, ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+		this.replicaLag = ReplicaDataSourceConfig.isEnabled(environment)
+				? ReplicaDataSourceConfig.readYourWritesWindow(environment)
+				: null;
+	}
+
+	/**
+	 * Registrar un cambio en filas no determinadas de una tabla, como una
+	 * importación. Si hay una transacción activa, el contador se incrementa cuando
+	 * se confirma; si se deshace, no cambia.
+	 * 
+	 * @param table Tabla modificada
+	 */
+	public void markChanged(Table table) {
+		register(new ReplicaCaughtUpEventDTO(table, null, null));
+	}
+
+	/**
+	 * Registrar un cambio en unas filas de una tabla que no cambia qué productos
+	 * tiene cada categoría, como un movimiento de stock
+	 * 
+	 * @param table Tabla modificada
+	 * @param ids   IDs de las filas modificadas
+	 */
+	public void markChanged(Table table, Collection<Integer> ids) {
+		register(new ReplicaCaughtUpEventDTO(table, Set.copyOf(ids), Set.of()));
+	}
+
+	/**
+	 * Registrar el alta, la baja o el cambio de categoría de productos
+	 * 
+	 * @param ids         IDs de los productos
+	 * @param categoryIds IDs de las categorías cuya lista de productos ha cambiado
+	 */
+	public void markProductsChanged(Collection<Integer> ids, Collection<Integer> categoryIds) {
+		register(new ReplicaCaughtUpEventDTO(Table.PRODUCTOS, Set.copyOf(ids), Set.copyOf(categoryIds)));
+	}
+
+	private void register(ReplicaCaughtUpEventDTO change) {
+		AtomicLong version = counter(change.table());
+		AfterCommit.run(() -> {
+			version.incrementAndGet();
+			afterReplicaLag(change);
+		});
+	}
+
+	/**
+	 * Volver a registrar el cambio cuando la réplica ya debería reflejarlo
+	 * 
+	 * @param change Tabla y filas modificadas
+	 */
+	private void afterReplicaLag(ReplicaCaughtUpEventDTO change) {
+		if (replicaLag != null) {
+			CompletableFuture.delayedExecutor(replicaLag.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+				counter(change.table()).incrementAndGet();
+				eventPublisher.publishEvent(change);
+			});
+		}
+	}
+
+	/**
+	 * Calcular un ETag fuerte a partir de la versión actual de las tablas de las
+	 * que depende una respuesta
+	 * 
+	 * @param tables Tablas de las que dependen los datos de la respuesta
+	 * @return ETag entre comillas, por ejemplo {@code "lq2x1k-14-3"}
+	 */
+	public String etag(Table... tables) {
+		StringBuilder etag = new StringBuilder("\"").append(instanceId);
+		for (Table table : tables) {
+			etag.append('-').append(counter(table).get());
+		}
+		return etag.append('"').toString();
+	}
+
+	private AtomicLong counter(Table table) {
+		return switch (table) {
+		case PRODUCTOS -> productsVersion;
+		case CATEGORIAS -> categoriesVersion;
+		};
+	}
+}
@@ -0,0 +1,38 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@code AfterCommit} aplaza al commit de la transacción en curso los cambios
+ * de estado en memoria (cachés, índices, contadores) que dependen de lo escrito
+ * en la base de datos.
+ * <p>
+ * Si la transacción se deshace, el cambio no se aplica. Sin transacción activa
+ * se aplica en el momento.
+ * </p>
+ */
+public final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	/**
+	 * Ejecutar una acción tras el commit de la transacción en curso, o ya si no
+	 * hay ninguna
+	 *
+	 * @param action Acción a ejecutar
+	 */
+	public static void run(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+}
@@ -19,6 +19,67 @@ public class AppConstants {
 	/** Representa el estado de error en una respuesta API. */
 	public static final String STATUS_ERROR = "error";
 
+	/** Tamaño de página por defecto en los listados paginados por cursor. */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	/**
+	 * Tamaño de página máximo; evita que un cliente descargue la tabla completa en
+	 * una sola petición.
+	 */
+	public static final int MAX_PAGE_SIZE = 500;
+
+	/** Número de resultados por defecto de la búsqueda de productos. */
+	public static final int DEFAULT_SEARCH_LIMIT = 10;
+	/** Número máximo de resultados de la búsqueda de productos. */
+	public static final int MAX_SEARCH_LIMIT = 100;
+
+	/**
+	 * Variación máxima, en valor absoluto, de un movimiento de stock. Mantiene la
+	 * suma con el stock actual dentro del rango de un {@code INT}.
+	 */
+	public static final int MAX_STOCK_DELTA = 1_000_000;
+
+	/** Número máximo de movimientos de stock admitidos en un lote. */
+	public static final int MAX_BATCH_SIZE = 1000;
+
+	/**
+	 * Tiempo máximo de una conexión SSE (30 minutos). Al expirar, el navegador se
+	 * vuelve a conectar automáticamente.
+	 */
+	public static final long SSE_TIMEOUT_MS = 30L * 60 * 1000;
+
+	/**
+	 * Filas que el driver JDBC lee de cada vez al exportar el inventario. La
+	 * exportación nunca tiene en memoria más de este número de filas.
+	 */
+	public static final int EXPORT_FETCH_SIZE = 500;
+
+	/** Tipo de contenido de los ficheros CSV. */
+	public static final String TEXT_CSV_VALUE = "text/csv";
+
+	/**
+	 * Filas de un CSV importado que se validan y se insertan en cada lote JDBC.
+	 */
+	public static final int IMPORT_BATCH_SIZE = 1000;
+
+	/**
+	 * Número máximo de filas rechazadas que se detallan en la respuesta de una
+	 * importación. El resto solo se cuentan.
+	 */
+	public static final int MAX_IMPORT_ERRORS = 1000;
+
+	/**
+	 * Movimientos de stock que la compactación agrupa en cada transacción.
+	 */
+	public static final int LEDGER_COMPACTION_CHUNK = 10_000;
+
+	/** Días que abarca por defecto la previsión de roturas de stock. */
+	public static final int DEFAULT_FORECAST_HORIZON_DAYS = 7;
+	/** Número máximo de días que puede abarcar la previsión de roturas de stock. */
+	public static final int MAX_FORECAST_HORIZON_DAYS = 90;
+
+	/** Valor del parámetro {@code expand} que incluye la categoría en cada producto. */
+	public static final String EXPAND_CATEGORY = "category";
+
 	/**
 	 * Constructor privado para evitar la instanciación de la clase
 	 * {@code AppConstants}.
@@ -0,0 +1,100 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * {@code CacheConfig} habilita la caché de Spring en la aplicación y centraliza
+ * los nombres de las cachés.
+ * <p>
+ * El proveedor (Caffeine), el tamaño máximo y la caducidad se configuran en
+ * {@code application.properties} ({@code spring.cache.*}). Las cachés deben
+ * declararse también en {@code spring.cache.cache-names}.
+ * </p>
+ * <p>
+ * Dentro de una transacción, los {@code @CacheEvict} y {@code @CachePut} se
+ * aplican al confirmarla y se descartan si se deshace. Así una lectura
+ * concurrente no puede volver a guardar en caché el valor anterior entre el
+ * vaciado y la confirmación.
+ * </p>
+ * <p>
+ * También crea el {@link CacheManager} JCache (Caffeine) que Hibernate usa como
+ * caché de segundo nivel de las entidades y de la consulta de bajo stock. El
+ * tamaño y la caducidad de cada región se configuran en
+ * {@code application.conf}.
+ * </p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	/** Caché de {@code CategoryResponseDTO} por ID de categoría. */
+	public static final String CATEGORIES = "categories";
+	/** Caché de páginas del listado de categorías. */
+	public static final String CATEGORY_PAGES = "categoryPages";
+	/** Caché del resumen por categoría, por versión de productos y categorías. */
+	public static final String CATEGORY_SUMMARY = "categorySummary";
+
+	/** Región de segundo nivel de {@code ProductEntity}. */
+	public static final String PRODUCT_REGION = "hibernate-products";
+	/** Región de segundo nivel de {@code CategoryEntity}. */
+	public static final String CATEGORY_REGION = "hibernate-categories";
+	/** Región de segundo nivel de la colección {@code CategoryEntity.products}. */
+	public static final String CATEGORY_PRODUCTS_REGION = "hibernate-category-products";
+	/** Región de la caché de consultas para los productos con stock bajo. */
+	public static final String PRODUCTS_UNDER_STOCK_REGION = "hibernate-products-under-stock";
+
+	/**
+	 * {@link CacheManager} JCache de Caffeine para la caché de segundo nivel. Lee
+	 * la configuración de las regiones de {@code application.conf}.
+	 *
+	 * @return {@link CacheManager} JCache
+	 */
+	@Bean(destroyMethod = "close")
+	CacheManager hibernateCacheManager() {
+		return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+	}
+
+	/**
+	 * Entrega a Hibernate el {@link CacheManager} JCache de la aplicación, en lugar
+	 * de que cree uno propio, para poder consultar sus estadísticas.
+	 *
+	 * @param hibernateCacheManager {@link CacheManager} JCache
+	 * @return {@link HibernatePropertiesCustomizer}
+	 */
+	@Bean
+	HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+
+	/**
+	 * Envolver el {@code CacheManager} de Spring para que sus cachés apliquen los
+	 * cambios al confirmar la transacción
+	 * 
+	 * @return {@link BeanPostProcessor}
+	 */
+	@Bean
+	static BeanPostProcessor transactionAwareCaches() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+				if (bean instanceof org.springframework.cache.CacheManager cacheManager
+						&& !(bean instanceof TransactionAwareCacheManagerProxy)) {
+					return new TransactionAwareCacheManagerProxy(cacheManager);
+				}
+				return bean;
+			}
+		};
+	}
+}
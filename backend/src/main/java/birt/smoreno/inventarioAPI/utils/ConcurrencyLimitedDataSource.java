@@ -0,0 +1,129 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+/**
+ * {@code ConcurrencyLimitedDataSource} limita con un {@link Semaphore} el número
+ * de conexiones que pueden estar en uso a la vez.
+ * <p>
+ * Con hilos virtuales cada petición tiene su propio hilo y nada limita cuántas
+ * llegan a la vez a la base de datos. Sin este límite, cientos de hilos
+ * esperarían dentro del pool de conexiones hasta agotar su tiempo de espera;
+ * con él, esperan en una cola justa (FIFO) que no retiene ningún recurso y el
+ * pool solo recibe tantas peticiones como conexiones tiene.
+ * </p>
+ * <p>
+ * El permiso se obtiene al pedir la conexión y se devuelve al cerrarla. Si no
+ * se obtiene en el tiempo indicado se lanza
+ * {@link SQLTransientConnectionException}, igual que cuando el pool se agota.
+ * </p>
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+	private final Semaphore permits;
+	private final int maxConcurrency;
+	private final long timeoutMs;
+
+	/**
+	 * @param target         {@link DataSource} del pool de conexiones
+	 * @param maxConcurrency Número máximo de conexiones en uso a la vez
+	 * @param timeoutMs      Tiempo máximo de espera de un permiso, en milisegundos
+	 */
+	public ConcurrencyLimitedDataSource(DataSource target, int maxConcurrency, long timeoutMs) {
+		super(target);
+		this.permits = new Semaphore(maxConcurrency, true);
+		this.maxConcurrency = maxConcurrency;
+		this.timeoutMs = timeoutMs;
+	}
+
+	@Override
+	@NonNull
+	public Connection getConnection() throws SQLException {
+		acquire();
+		try {
+			return limited(obtainTargetDataSource().getConnection());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	@NonNull
+	public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+		acquire();
+		try {
+			return limited(obtainTargetDataSource().getConnection(username, password));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Número máximo de conexiones en uso a la vez
+	 * 
+	 * @return Número de permisos
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Hilos que esperan un permiso
+	 * 
+	 * @return Longitud estimada de la cola
+	 */
+	public int getWaiting() {
+		return permits.getQueueLength();
+	}
+
+	private void acquire() throws SQLException {
+		try {
+			if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException(
+						"Límite de " + maxConcurrency + " conexiones simultáneas alcanzado tras " + timeoutMs + " ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+		}
+	}
+
+	/**
+	 * Envolver la conexión para devolver el permiso al cerrarla (una sola vez)
+	 */
+	private Connection limited(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+		InvocationHandler handler = (proxy, method, args) -> invoke(connection, released, method, args);
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, handler);
+	}
+
+	private Object invoke(Connection connection, AtomicBoolean released, Method method, Object[] args)
+			throws Throwable {
+		try {
+			return method.invoke(connection, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		} finally {
+			if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+				permits.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+
+/**
+ * {@code CsvReader} lee un fichero CSV (RFC 4180) registro a registro.
+ * <p>
+ * Solo mantiene en memoria el registro en curso y un búfer de lectura fijo, por
+ * lo que sirve para ficheros de cualquier tamaño recibidos como flujo. Admite
+ * campos entre comillas con comas, comillas dobladas y saltos de línea, finales
+ * de línea {@code \n} o {@code \r\n} y la marca BOM de UTF-8. Las líneas vacías
+ * se ignoran.
+ * </p>
+ */
+public final class CsvReader implements Closeable {
+
+	/**
+	 * Longitud máxima de un registro; evita que unas comillas sin cerrar lleven a
+	 * cargar el resto del fichero en memoria.
+	 */
+	private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private final StringBuilder field = new StringBuilder();
+	private int position;
+	private int limit;
+	private int recordNumber;
+
+	/**
+	 * @param in flujo de entrada codificado en UTF-8.
+	 */
+	public CsvReader(InputStream in) {
+		this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Lee el siguiente registro.
+	 *
+	 * @return campos del registro, o {@code null} al llegar al final del fichero.
+	 * @throws IOException     si falla la lectura.
+	 * @throws CustomException si el registro está mal formado.
+	 */
+	public List<String> next() throws IOException, CustomException {
+		List<String> fields;
+		do {
+			fields = readRecord();
+		} while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+		if (fields != null) {
+			recordNumber++;
+		}
+		return fields;
+	}
+
+	/**
+	 * @return número del último registro leído (el primero es el 1), sin contar
+	 *         las líneas vacías.
+	 */
+	public int getRecordNumber() {
+		return recordNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private List<String> readRecord() throws IOException, CustomException {
+		List<String> fields = new ArrayList<>();
+		field.setLength(0);
+		boolean quoted = false;
+		boolean fieldStart = true;
+		int length = 0;
+		int c = read();
+		if (c == -1) {
+			return null;
+		}
+		if (recordNumber == 0 && c == '\uFEFF') {
+			c = read();
+		}
+
+		while (c != -1) {
+			if (++length > MAX_RECORD_LENGTH) {
+				throw malformed("supera los " + MAX_RECORD_LENGTH + " caracteres");
+			}
+			if (quoted) {
+				if (c == '"') {
+					if (peek() == '"') {
+						read();
+						field.append('"');
+					} else {
+						quoted = false;
+					}
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"' && fieldStart) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+				fieldStart = true;
+				c = read();
+				continue;
+			} else if (c == '\n' || c == '\r') {
+				if (c == '\r' && peek() == '\n') {
+					read();
+				}
+				break;
+			} else {
+				field.append((char) c);
+			}
+			fieldStart = false;
+			c = read();
+		}
+
+		if (quoted) {
+			throw malformed("tiene unas comillas sin cerrar");
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private CustomException malformed(String reason) {
+		return new CustomException("El registro " + (recordNumber + 1) + " del CSV " + reason,
+				HttpStatus.BAD_REQUEST.value());
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private boolean fill() throws IOException {
+		int read = reader.read(buffer, 0, buffer.length);
+		if (read <= 0) {
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+}
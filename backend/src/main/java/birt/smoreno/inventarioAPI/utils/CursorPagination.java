@@ -0,0 +1,134 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+
+/**
+ * {@code CursorPagination} agrupa las utilidades comunes de la paginación por
+ * cursor (keyset) usadas por los servicios.
+ * <p>
+ * Las consultas piden siempre un elemento más del tamaño solicitado: si llega,
+ * hay página siguiente y su cursor apunta al último elemento devuelto. Así
+ * nunca se devuelve un cursor que lleve a una página vacía.
+ * </p>
+ * <p>
+ * El cursor es opaco para el cliente: lleva, en Base64 URL, el ID del último
+ * elemento y su clave de ordenación ({@code 7:Martillo}). La página siguiente
+ * se busca directamente a partir de esos valores, sin consultar la fila del
+ * cursor, de modo que la paginación continúa aunque se haya eliminado.
+ * </p>
+ */
+public final class CursorPagination {
+
+	/**
+	 * Posición decodificada de un cursor.
+	 *
+	 * @param <K> Tipo de la clave de ordenación.
+	 * @param id  ID del último elemento devuelto.
+	 * @param key Clave de ordenación del último elemento, o {@code null} en el
+	 *            orden por ID.
+	 */
+	public record Cursor<K>(int id, K key) {
+	}
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private CursorPagination() {
+		throw new UnsupportedOperationException("No se puede instanciar la clase CursorPagination.");
+	}
+
+	/**
+	 * Normaliza el tamaño de página solicitado.
+	 *
+	 * @param limit tamaño pedido por el cliente; {@code null} o no positivo usa
+	 *              {@link AppConstants#DEFAULT_PAGE_SIZE}.
+	 * @return tamaño de página entre 1 y {@link AppConstants#MAX_PAGE_SIZE}.
+	 */
+	public static int pageSize(Integer limit) {
+		if (limit == null || limit < 1) {
+			return AppConstants.DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(limit, AppConstants.MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * Límite a aplicar en la consulta: un elemento más que el tamaño de página.
+	 *
+	 * @param pageSize tamaño de página normalizado.
+	 * @return {@link Limit} para el repositorio.
+	 */
+	public static Limit queryLimit(int pageSize) {
+		return Limit.of(pageSize + 1);
+	}
+
+	/**
+	 * Construye la página a partir de las filas devueltas por la consulta.
+	 *
+	 * @param rows     filas obtenidas con {@link #queryLimit(int)}.
+	 * @param pageSize tamaño de página normalizado.
+	 * @param cursorOf función que obtiene el cursor de una fila, normalmente con
+	 *                 {@link #encode(int, Object)}.
+	 * @param mapper   función que convierte cada fila al DTO de respuesta.
+	 * @return {@link CursorPageDTO} con los elementos y el cursor siguiente.
+	 */
+	public static <E, T> CursorPageDTO<T> page(List<E> rows, int pageSize, Function<E, String> cursorOf,
+			Function<E, T> mapper) {
+		boolean hasNext = rows.size() > pageSize;
+		List<E> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+		String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageSize - 1)) : null;
+		return new CursorPageDTO<>(pageRows.stream().map(mapper).toList(), nextCursor);
+	}
+
+	/**
+	 * Codifica el cursor de un elemento.
+	 *
+	 * @param id  ID del elemento.
+	 * @param key clave de ordenación del elemento, o {@code null} en el orden por
+	 *            ID. Se guarda con {@code toString()}.
+	 * @return cursor opaco.
+	 */
+	public static String encode(int id, Object key) {
+		String position = key == null ? Integer.toString(id) : id + ":" + key;
+		return ENCODER.encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodifica un cursor recibido en el parámetro {@code after}.
+	 *
+	 * @param <K>       tipo de la clave de ordenación.
+	 * @param cursor    cursor recibido, o {@code null} para la primera página.
+	 * @param keyParser función que convierte la clave a su tipo, o {@code null} si
+	 *                  el orden es por ID y la clave no se usa.
+	 * @return {@link Cursor}, o {@code null} si no se ha recibido.
+	 * @throws CustomException si el cursor no es válido para el orden pedido
+	 *                         (400).
+	 */
+	public static <K> Cursor<K> decode(String cursor, Function<String, K> keyParser) throws CustomException {
+		if (cursor == null || cursor.isEmpty()) {
+			return null;
+		}
+		try {
+			String position = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+			int separator = position.indexOf(':');
+			int id = Integer.parseInt(separator < 0 ? position : position.substring(0, separator));
+			if (keyParser == null) {
+				return new Cursor<>(id, null);
+			}
+			if (separator < 0) {
+				throw new IllegalArgumentException("Cursor sin clave de ordenación");
+			}
+			return new Cursor<>(id, keyParser.apply(position.substring(separator + 1)));
+		} catch (RuntimeException e) {
+			throw new CustomException("Cursor no válido: " + cursor, HttpStatus.BAD_REQUEST.value());
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+
+/**
+ * {@code ExportFormat} enumera los formatos admitidos por la exportación del
+ * inventario.
+ * <p>
+ * Ambos formatos se escriben fila a fila, por lo que el cliente puede procesar
+ * la respuesta a medida que llega.
+ * </p>
+ */
+public enum ExportFormat {
+	/** Un objeto JSON por línea (JSON Lines). */
+	NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+	/** Valores separados por comas con una fila de cabecera. */
+	CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+	private final String param;
+	private final MediaType mediaType;
+
+	ExportFormat(String param, MediaType mediaType) {
+		this.param = param;
+		this.mediaType = mediaType;
+	}
+
+	/**
+	 * @return tipo de contenido de la respuesta.
+	 */
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * @return extensión del fichero descargado.
+	 */
+	public String getExtension() {
+		return param;
+	}
+
+	/**
+	 * Obtiene el formato correspondiente al parámetro {@code format} de la URL.
+	 *
+	 * @param param valor recibido; {@code null} o vacío equivale a {@link #NDJSON}.
+	 * @return {@link ExportFormat} correspondiente.
+	 * @throws CustomException si el valor no corresponde a ningún formato.
+	 */
+	public static ExportFormat fromParam(String param) throws CustomException {
+		if (param == null || param.isBlank()) {
+			return NDJSON;
+		}
+		for (ExportFormat format : values()) {
+			if (format.param.equalsIgnoreCase(param)) {
+				return format;
+			}
+		}
+		throw new CustomException("Formato de exportación no válido: " + param, HttpStatus.BAD_REQUEST.value());
+	}
+}
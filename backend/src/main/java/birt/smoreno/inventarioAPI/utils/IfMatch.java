@@ -0,0 +1,126 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+
+/**
+ * {@code IfMatch} representa la cabecera {@code If-Match} de una petición
+ * {@code PUT} o {@code DELETE}: las versiones del recurso sobre las que el
+ * cliente quiere aplicar el cambio.
+ * <p>
+ * El ETag de un producto o una categoría es su versión de bloqueo optimista
+ * entre comillas ({@link #etag(int)}). Si el cliente envía otra versión, el
+ * servicio responde {@code 412 Precondition Failed} en lugar de sobrescribir
+ * un cambio que no ha visto. Sin cabecera, o con {@code *}, no se exige
+ * ninguna versión.
+ * </p>
+ *
+ * @param versions Versiones aceptadas, o {@code null} si no se exige ninguna.
+ */
+public record IfMatch(Set<Integer> versions) {
+
+	/** Sin condición: la cabecera no se ha enviado o vale {@code *}. */
+	public static final IfMatch ANY = new IfMatch(null);
+
+	/**
+	 * Interpretar la cabecera {@code If-Match}. Los ETag débiles o que no son una
+	 * versión no coinciden nunca, como exige la comparación fuerte.
+	 *
+	 * @param header Valor de la cabecera, o {@code null} si no se ha enviado.
+	 * @return {@link IfMatch} con las versiones aceptadas.
+	 */
+	public static IfMatch parse(String header) {
+		if (header == null || header.isBlank() || header.trim().equals("*")) {
+			return ANY;
+		}
+		Set<Integer> versions = new HashSet<>();
+		for (String tag : header.split(",")) {
+			tag = tag.trim();
+			if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+				try {
+					versions.add(Integer.parseInt(tag.substring(1, tag.length() - 1)));
+				} catch (NumberFormatException e) {
+					// ETag que no es de este servicio: no coincide con ninguna versión
+				}
+			}
+		}
+		return new IfMatch(Set.copyOf(versions));
+	}
+
+	/**
+	 * ETag de una versión.
+	 *
+	 * @param version Versión de la fila.
+	 * @return ETag fuerte, por ejemplo {@code "3"}.
+	 */
+	public static String etag(int version) {
+		return "\"" + version + "\"";
+	}
+
+	/**
+	 * ETag de una versión con salidas de stock pendientes de escribir.
+	 * <p>
+	 * Los datos ya incluyen esas salidas, pero la versión todavía no ha cambiado:
+	 * el ETag es débil, de modo que sirve para {@code If-None-Match} pero no
+	 * coincide en {@code If-Match} hasta que se escriben.
+	 * </p>
+	 *
+	 * @param version      Versión de la fila.
+	 * @param pendingStock Variación de stock pendiente.
+	 * @return ETag fuerte si no hay nada pendiente o débil, por ejemplo
+	 *         {@code W/"3-5"}, si lo hay.
+	 */
+	public static String etag(int version, int pendingStock) {
+		return pendingStock == 0 ? etag(version) : "W/\"" + version + "-" + -pendingStock + "\"";
+	}
+
+	/**
+	 * @return {@code true} si el cliente ha indicado la versión esperada.
+	 */
+	public boolean isConditional() {
+		return versions != null;
+	}
+
+	/**
+	 * Comprobar si el cambio puede aplicarse sobre una versión.
+	 *
+	 * @param version Versión actual de la fila.
+	 * @return {@code true} si no se exige versión o coincide con una de las
+	 *         indicadas.
+	 */
+	public boolean matches(int version) {
+		return versions == null || versions.contains(version);
+	}
+
+	/**
+	 * Exigir que la versión actual sea una de las indicadas
+	 *
+	 * @param version Versión actual de la fila.
+	 * @throws CustomException {@code 412 Precondition Failed} si no coincide.
+	 */
+	public void require(int version) throws CustomException {
+		if (!matches(version)) {
+			throw new CustomException("El recurso ha cambiado: su versión actual es " + etag(version),
+					HttpStatus.PRECONDITION_FAILED.value());
+		}
+	}
+
+	/**
+	 * Error a devolver cuando otra petición modifica la fila entre la lectura y la
+	 * escritura.
+	 *
+	 * @return {@link CustomException} con {@code 412 Precondition Failed} si el
+	 *         cliente indicó la versión, o {@code 409 Conflict} si no.
+	 */
+	public CustomException conflict() {
+		return isConditional()
+				? new CustomException("El recurso ha cambiado mientras se modificaba",
+						HttpStatus.PRECONDITION_FAILED.value())
+				: new CustomException("El recurso se ha modificado a la vez en otra petición; vuelva a intentarlo",
+						HttpStatus.CONFLICT.value());
+	}
+}
@@ -0,0 +1,97 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * {@code MergePatch} representa el cuerpo de una petición {@code PATCH} en
+ * formato JSON Merge Patch (RFC 7396) sobre un DTO de petición.
+ * <p>
+ * Solo se modifican los campos presentes en el documento; un {@code null}
+ * explícito quita el valor, por lo que en los campos obligatorios lo rechaza la
+ * validación. Los campos que el DTO no tiene se ignoran, igual que en
+ * {@code PUT}.
+ * </p>
+ *
+ * @param <T>    Tipo del DTO de petición.
+ * @param values DTO con los valores enviados; el resto de campos queda vacío.
+ * @param fields Nombres JSON de los campos enviados.
+ */
+public record MergePatch<T>(T values, Set<String> fields) {
+
+	/** Tipo de contenido de JSON Merge Patch. */
+	public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+	/**
+	 * Leer el documento sobre el tipo del DTO de petición.
+	 *
+	 * @param <T>          Tipo del DTO de petición.
+	 * @param patch        Documento JSON Merge Patch.
+	 * @param type         Clase del DTO de petición.
+	 * @param objectMapper {@link ObjectMapper} de la aplicación.
+	 * @return {@link MergePatch} con los campos enviados.
+	 * @throws CustomException si un valor no es del tipo del campo (400).
+	 */
+	public static <T> MergePatch<T> read(ObjectNode patch, Class<T> type, ObjectMapper objectMapper)
+			throws CustomException {
+		Set<String> properties = objectMapper.getDeserializationConfig()
+				.introspect(objectMapper.constructType(type)).findProperties().stream()
+				.map(BeanPropertyDefinition::getName).collect(Collectors.toSet());
+		Set<String> fields = new HashSet<>();
+		patch.fieldNames().forEachRemaining(field -> {
+			if (properties.contains(field)) {
+				fields.add(field);
+			}
+		});
+
+		try {
+			return new MergePatch<>(objectMapper.treeToValue(patch, type), Set.copyOf(fields));
+		} catch (JsonProcessingException e) {
+			String field = e instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()
+					? mapping.getPath().get(0).getFieldName()
+					: null;
+			throw new CustomException(field != null ? "Valor no válido para " + field : "Cambio no válido",
+					HttpStatus.BAD_REQUEST.value());
+		}
+	}
+
+	/**
+	 * Comprobar si el documento incluye un campo.
+	 *
+	 * @param field Nombre JSON del campo.
+	 * @return {@code true} si se ha enviado, aunque sea {@code null}.
+	 */
+	public boolean has(String field) {
+		return fields.contains(field);
+	}
+
+	/**
+	 * Validar las restricciones del DTO solo en los campos enviados.
+	 *
+	 * @param validator {@link Validator} de la aplicación.
+	 * @throws ConstraintViolationException con los errores de cada campo.
+	 */
+	public void validate(Validator validator) {
+		Set<ConstraintViolation<T>> violations = new HashSet<>();
+		for (String field : fields) {
+			violations.addAll(validator.validateProperty(values, field));
+		}
+		if (!violations.isEmpty()) {
+			throw new ConstraintViolationException(violations);
+		}
+	}
+}
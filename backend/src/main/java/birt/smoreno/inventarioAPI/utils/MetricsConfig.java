@@ -0,0 +1,56 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * {@code MetricsConfig} completa las métricas que Spring Boot Actuator publica
+ * por defecto ({@code http.server.requests} por ruta, {@code hikaricp.*} y,
+ * con {@code HIBERNATE_STATISTICS=true}, {@code hibernate.*}) con las propias
+ * de la aplicación.
+ * <p>
+ * La exposición (puerto de gestión, endpoint {@code /actuator/prometheus} e
+ * histogramas de percentiles) se configura en {@code application.properties}
+ * ({@code management.*}).
+ * </p>
+ */
+@Configuration
+public class MetricsConfig {
+
+	/** Sentencias SQL (Hibernate y {@code JdbcTemplate}) por petición, por ruta. */
+	public static final String REQUEST_STATEMENTS = "inventario.requests.statements";
+	/** Respuestas 404 de los controladores (recurso no encontrado), por ruta. */
+	public static final String NOT_FOUND = "inventario.requests.not_found";
+	/** Peticiones rechazadas por {@code ValidationHandler}, por ruta. */
+	public static final String VALIDATION_FAILURES = "inventario.requests.validation_failures";
+
+	/**
+	 * Envolver cada pool de conexiones en un {@link StatementCountingDataSource}
+	 * para que {@link StatementCounter} vea todas las sentencias
+	 * <p>
+	 * Se envuelve el pool (o el {@link ConcurrencyLimitedDataSource} que ya lo
+	 * envuelve), no el {@code DataSource} de enrutado a la réplica, para contar
+	 * cada sentencia una sola vez.
+	 * </p>
+	 * 
+	 * @return {@link BeanPostProcessor}
+	 */
+	@Bean
+	static BeanPostProcessor statementCounting() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+				if (bean instanceof HikariDataSource || bean instanceof ConcurrencyLimitedDataSource) {
+					return new StatementCountingDataSource((DataSource) bean);
+				}
+				return bean;
+			}
+		};
+	}
+}
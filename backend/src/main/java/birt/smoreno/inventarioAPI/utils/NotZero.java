@@ -0,0 +1,40 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+/**
+ * {@code NotZero} valida que un número entero sea distinto de cero. El valor
+ * {@code null} se considera válido; para exigirlo se combina con
+ * {@code @NotNull}.
+ */
+@Documented
+@Constraint(validatedBy = NotZero.Validator.class)
+@Target({ ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE_USE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NotZero {
+
+	String message() default "El valor no puede ser cero";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+	/**
+	 * Validador de {@link NotZero} para {@link Integer}.
+	 */
+	class Validator implements ConstraintValidator<NotZero, Integer> {
+		@Override
+		public boolean isValid(Integer value, ConstraintValidatorContext context) {
+			return value == null || value != 0;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.time.Duration;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * {@code ReadYourWritesInterceptor} garantiza que un cliente lee sus propias
+ * escrituras aunque la réplica vaya con retraso.
+ * <p>
+ * Cada petición que modifica datos ({@code POST}, {@code PUT}, {@code PATCH},
+ * {@code DELETE}) registra a su cliente durante una ventana configurable. Las
+ * lecturas de ese cliente dentro de la ventana se sirven desde el primario
+ * ({@link ReplicaRoutingDataSource#pinToPrimary(boolean)}); pasado ese tiempo,
+ * vuelven a la réplica. La ventana empieza al recibir la escritura y se
+ * renueva al terminarla, de modo que cubre también escrituras lentas.
+ * </p>
+ * <p>
+ * El cliente se identifica por la cabecera {@value #CLIENT_ID_HEADER}, que el
+ * frontend genera para cada pestaña, o, si no la envía, por su dirección IP.
+ * Detrás del proxy, esa dirección es la de {@code X-Forwarded-For}
+ * ({@code server.forward-headers-strategy=native}); sin ella, todos los
+ * clientes compartirían la del proxy. El registro es local a cada instancia.
+ * </p>
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+	/** Cabecera opcional con la que un cliente se identifica. */
+	public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+	// Clientes con una escritura reciente; caducan al cerrarse su ventana
+	private final Cache<String, Boolean> recentWriters;
+
+	/**
+	 * @param window Tiempo durante el que un cliente lee del primario tras
+	 *               escribir. Debe superar el retraso habitual de la réplica
+	 */
+	public ReadYourWritesInterceptor(Duration window) {
+		this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(100_000).build();
+	}
+
+	@Override
+	public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler) {
+		String client = clientOf(request);
+		if (isWrite(request)) {
+			recentWriters.put(client, Boolean.TRUE);
+		}
+		ReplicaRoutingDataSource.pinToPrimary(recentWriters.getIfPresent(client) != null);
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler, @Nullable Exception ex) {
+		if (isWrite(request)) {
+			// La ventana se cuenta desde el commit, no desde el inicio de la escritura
+			recentWriters.put(clientOf(request), Boolean.TRUE);
+		}
+		ReplicaRoutingDataSource.pinToPrimary(false);
+	}
+
+	private static boolean isWrite(HttpServletRequest request) {
+		return switch (request.getMethod()) {
+		case "GET", "HEAD", "OPTIONS" -> false;
+		default -> true;
+		};
+	}
+
+	private static String clientOf(HttpServletRequest request) {
+		String clientId = request.getHeader(CLIENT_ID_HEADER);
+		return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+	}
+}
@@ -0,0 +1,131 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * {@code ReplicaDataSourceConfig} reparte las conexiones entre el primario y
+ * una réplica de lectura de MariaDB. Solo se carga si se indica la URL de la
+ * réplica ({@code DATABASE_REPLICA_URL}); sin ella, toda la aplicación usa
+ * {@code spring.datasource} como hasta ahora.
+ * <p>
+ * Cada base de datos tiene su propio pool de Hikari ({@code primary} y
+ * {@code replica}), con su tamaño y sus métricas. Las transacciones de solo
+ * lectura (los métodos {@code get*} de los servicios y la exportación) van a la
+ * réplica mediante {@link ReplicaRoutingDataSource}; las escrituras, y las
+ * lecturas de un cliente que acaba de escribir
+ * ({@link ReadYourWritesInterceptor}), van al primario.
+ * </p>
+ */
+@Configuration
+@ConditionalOnExpression("!'${" + ReplicaDataSourceConfig.REPLICA_URL + ":}'.isBlank()")
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+	/** URL JDBC de la réplica. Vacía, no se usa réplica. */
+	public static final String REPLICA_URL = "inventario.datasource.replica.url";
+	/** Tiempo durante el que un cliente lee del primario tras escribir. */
+	public static final String READ_YOUR_WRITES_WINDOW = "inventario.datasource.replica.read-your-writes-window";
+
+	private static final Duration DEFAULT_READ_YOUR_WRITES_WINDOW = Duration.ofSeconds(5);
+
+	private final Environment environment;
+
+	public ReplicaDataSourceConfig(Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Comprobar si hay réplica configurada
+	 *
+	 * @param environment Entorno de la aplicación
+	 * @return {@code true} si se ha indicado la URL de la réplica
+	 */
+	public static boolean isEnabled(Environment environment) {
+		return !environment.getProperty(REPLICA_URL, "").isBlank();
+	}
+
+	/**
+	 * Ventana de lectura de las propias escrituras, que debe superar el retraso
+	 * habitual de la réplica
+	 *
+	 * @param environment Entorno de la aplicación
+	 * @return Duración de la ventana
+	 */
+	public static Duration readYourWritesWindow(Environment environment) {
+		return environment.getProperty(READ_YOUR_WRITES_WINDOW, Duration.class, DEFAULT_READ_YOUR_WRITES_WINDOW);
+	}
+
+	/**
+	 * Pool del primario, configurado con {@code spring.datasource.*}
+	 *
+	 * @param properties Propiedades {@code spring.datasource}
+	 * @return {@link HikariDataSource} del primario
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	/**
+	 * Pool de la réplica. Usa el mismo driver y, si no se indican otras, las
+	 * mismas credenciales que el primario
+	 *
+	 * @param properties Propiedades {@code spring.datasource}
+	 * @return {@link HikariDataSource} de la réplica
+	 */
+	@Bean
+	@ConfigurationProperties("inventario.datasource.replica.hikari")
+	HikariDataSource replicaDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+				.driverClassName(properties.determineDriverClassName())
+				.url(environment.getRequiredProperty(REPLICA_URL))
+				.username(environment.getProperty("inventario.datasource.replica.username",
+						properties.determineUsername()))
+				.password(environment.getProperty("inventario.datasource.replica.password",
+						properties.determinePassword()))
+				.build();
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+
+	/**
+	 * {@link DataSource} de la aplicación: elige el pool al ejecutar la primera
+	 * sentencia de cada transacción
+	 *
+	 * @param primary Pool del primario
+	 * @param replica Pool de la réplica
+	 * @return {@link DataSource} con enrutado de lectura y escritura
+	 */
+	@Bean
+	@Primary
+	DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+	}
+
+	@Override
+	public void addInterceptors(@NonNull InterceptorRegistry registry) {
+		registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow(environment)))
+				.addPathPatterns("/api/**");
+	}
+}
@@ -0,0 +1,70 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@code ReplicaRoutingDataSource} envía las transacciones de solo lectura
+ * ({@code @Transactional(readOnly = true)}) a la réplica de MariaDB y el resto
+ * de conexiones al primario.
+ * <p>
+ * La decisión se toma al pedir la conexión, por lo que debe envolverse en un
+ * {@link LazyConnectionDataSourceProxy}: así la conexión real se obtiene en la
+ * primera sentencia, cuando la transacción ya está marcada como de solo
+ * lectura, y no al empezarla.
+ * </p>
+ * <p>
+ * Las peticiones de un cliente que acaba de escribir se fijan al primario con
+ * {@link #pinToPrimary(boolean)} ({@link ReadYourWritesInterceptor}), para que
+ * no lean de la réplica datos anteriores a su propia escritura.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	/**
+	 * Destino de una conexión.
+	 */
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+
+	// Peticiones del hilo actual que deben leer del primario
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	/**
+	 * @param primary Pool de conexiones del primario
+	 * @param replica Pool de conexiones de la réplica
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+		setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	/**
+	 * Fijar (o liberar) las lecturas del hilo actual al primario
+	 *
+	 * @param pinned {@code true} para leer del primario aunque la transacción sea
+	 *               de solo lectura
+	 */
+	public static void pinToPrimary(boolean pinned) {
+		if (pinned) {
+			PINNED.set(Boolean.TRUE);
+		} else {
+			PINNED.remove();
+		}
+	}
+
+	@Override
+	protected Route determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null
+				? Route.REPLICA
+				: Route.PRIMARY;
+	}
+}
@@ -0,0 +1,72 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * {@code RequestMetricsInterceptor} registra, por cada petición atendida por un
+ * controlador, el número de sentencias SQL que ha costado
+ * ({@link MetricsConfig#REQUEST_STATEMENTS}) y cuenta las respuestas 404
+ * ({@link MetricsConfig#NOT_FOUND}).
+ * <p>
+ * Las métricas llevan las mismas etiquetas {@code method} y {@code uri} (la
+ * plantilla de la ruta, p. ej. {@code /api/products/{id}}) que
+ * {@code http.server.requests}, de modo que se pueden cruzar con los tiempos de
+ * cada ruta.
+ * </p>
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+	private final StatementCounter statementCounter;
+	private final MeterRegistry meterRegistry;
+
+	public RequestMetricsInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+		this.statementCounter = statementCounter;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler) {
+		statementCounter.reset();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler, @Nullable Exception ex) {
+		if (!(handler instanceof HandlerMethod)) {
+			return;
+		}
+		String uri = uri(request);
+		DistributionSummary.builder(MetricsConfig.REQUEST_STATEMENTS).baseUnit("statements")
+				.description("Sentencias SQL por petición").tag("method", request.getMethod())
+				.tag("uri", uri).register(meterRegistry).record(statementCounter.count());
+		if (response.getStatus() == 404) {
+			Counter.builder(MetricsConfig.NOT_FOUND).description("Respuestas 404 de recurso no encontrado")
+					.tag("method", request.getMethod()).tag("uri", uri).register(meterRegistry).increment();
+		}
+	}
+
+	/**
+	 * Plantilla de la ruta que ha atendido la petición
+	 * 
+	 * @param request Petición
+	 * @return Plantilla de la ruta, o {@code UNKNOWN} si no se ha resuelto
+	 */
+	public static String uri(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return pattern != null ? pattern.toString() : "UNKNOWN";
+	}
+}
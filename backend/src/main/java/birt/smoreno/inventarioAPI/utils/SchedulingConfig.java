@@ -0,0 +1,14 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * {@code SchedulingConfig} activa las tareas programadas con
+ * {@code @Scheduled}, como la compactación del registro de movimientos de
+ * stock ({@code StockLedgerService}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
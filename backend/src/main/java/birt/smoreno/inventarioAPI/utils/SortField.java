@@ -0,0 +1,66 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+
+/**
+ * {@code SortField} enumera los criterios de ordenación admitidos por los
+ * listados paginados por cursor.
+ * <p>
+ * Cada criterio se resuelve con una consulta que busca (seek) sobre un índice,
+ * desempatando siempre por el ID para que el orden sea total y el cursor
+ * estable.
+ * </p>
+ */
+public enum SortField {
+	/** Orden por clave primaria (por defecto). */
+	ID("id"),
+	/** Orden alfabético por nombre (índice UNIQUE de {@code nombre}). */
+	NOMBRE("nombre"),
+	/** Orden por fecha de última modificación. */
+	UPDATED_AT("updated_at");
+
+	private final String param;
+
+	SortField(String param) {
+		this.param = param;
+	}
+
+	/**
+	 * Obtiene la función que convierte la clave de ordenación de un cursor a su
+	 * tipo, para {@link CursorPagination#decode(String, Function)}.
+	 *
+	 * @return función de conversión, o {@code null} en el orden por ID, cuyo
+	 *         cursor no lleva clave.
+	 */
+	public Function<String, ?> keyParser() {
+		return switch (this) {
+		case ID -> null;
+		case NOMBRE -> Function.identity();
+		case UPDATED_AT -> LocalDateTime::parse;
+		};
+	}
+
+	/**
+	 * Obtiene el criterio correspondiente al parámetro {@code sort} de la URL.
+	 *
+	 * @param param valor recibido; {@code null} o vacío equivale a {@link #ID}.
+	 * @return {@link SortField} correspondiente.
+	 * @throws CustomException si el valor no corresponde a ningún criterio.
+	 */
+	public static SortField fromParam(String param) throws CustomException {
+		if (param == null || param.isBlank()) {
+			return ID;
+		}
+		for (SortField field : values()) {
+			if (field.param.equalsIgnoreCase(param)) {
+				return field;
+			}
+		}
+		throw new CustomException("Criterio de ordenación no válido: " + param, HttpStatus.BAD_REQUEST.value());
+	}
+}
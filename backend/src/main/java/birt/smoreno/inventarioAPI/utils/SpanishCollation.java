@@ -0,0 +1,37 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * {@code SpanishCollation} compara textos en memoria como la intercalación
+ * {@code utf8mb4_spanish_ci} de la base de datos: sin distinguir mayúsculas ni
+ * tildes, pero con la ñ como letra distinta de la n.
+ * <p>
+ * La usan la importación, para detectar nombres repetidos antes de insertarlos,
+ * y el índice de búsqueda de productos.
+ * </p>
+ */
+public final class SpanishCollation {
+
+	// Marcas diacríticas que se eliminan al comparar
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	// Ñ descompuesta (n + tilde), que no se elimina
+	private static final Pattern ENYE = Pattern.compile("n\u0303");
+
+	private SpanishCollation() {
+	}
+
+	/**
+	 * Clave de comparación de un texto: en minúsculas y sin tildes, conservando la
+	 * ñ
+	 *
+	 * @param text Texto a normalizar
+	 * @return Clave normalizada
+	 */
+	public static String key(String text) {
+		String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+		return DIACRITICS.matcher(ENYE.matcher(decomposed).replaceAll("ñ")).replaceAll("");
+	}
+}
@@ -0,0 +1,44 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code StatementCounter} cuenta las sentencias SQL que se crean en el hilo
+ * actual, para medir cuántas consultas cuesta cada petición.
+ * <p>
+ * {@link StatementCountingDataSource}, que {@link MetricsConfig} coloca sobre
+ * el pool de conexiones, suma cada sentencia de Hibernate o de
+ * {@code JdbcTemplate}; {@link RequestMetricsInterceptor} reinicia el contador
+ * al empezar cada petición y lo lee al terminar. Las sentencias que se ejecutan
+ * en otro hilo (escrituras diferidas, tareas programadas) no se atribuyen a la
+ * petición.
+ * </p>
+ */
+@Component
+public class StatementCounter {
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	/**
+	 * Sumar una sentencia al hilo actual
+	 */
+	static void increment() {
+		COUNT.get()[0]++;
+	}
+
+	/**
+	 * Poner a cero el contador del hilo actual
+	 */
+	public void reset() {
+		COUNT.get()[0] = 0;
+	}
+
+	/**
+	 * Sentencias preparadas en el hilo actual desde el último {@link #reset()}
+	 * 
+	 * @return Número de sentencias
+	 */
+	public int count() {
+		return COUNT.get()[0];
+	}
+}
@@ -0,0 +1,67 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+/**
+ * {@code StatementCountingDataSource} suma a {@link StatementCounter} cada
+ * sentencia que se crea en sus conexiones.
+ * <p>
+ * Se cuenta en JDBC, por debajo de Hibernate y de {@code JdbcTemplate}, para
+ * que las operaciones que no pasan por Hibernate (movimientos en lote,
+ * importación, registro de stock) también aparezcan en la métrica. Una
+ * sentencia en lote ({@code addBatch}/{@code executeBatch}) se prepara una vez
+ * y cuenta como una.
+ * </p>
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+	private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement",
+			"prepareCall");
+
+	/**
+	 * @param target {@link DataSource} del pool de conexiones
+	 */
+	public StatementCountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	@NonNull
+	public Connection getConnection() throws SQLException {
+		return counting(obtainTargetDataSource().getConnection());
+	}
+
+	@Override
+	@NonNull
+	public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+		return counting(obtainTargetDataSource().getConnection(username, password));
+	}
+
+	private Connection counting(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> invoke(connection, method, args));
+	}
+
+	private Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+		Object result;
+		try {
+			result = method.invoke(connection, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+		if (STATEMENT_FACTORIES.contains(method.getName())) {
+			StatementCounter.increment();
+		}
+		return result;
+	}
+}
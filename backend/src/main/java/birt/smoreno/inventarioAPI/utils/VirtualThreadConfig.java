@@ -0,0 +1,95 @@
+package birt.smoreno.inventarioAPI.utils;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * {@code VirtualThreadConfig} adapta el acceso a la base de datos al modo de
+ * hilos virtuales ({@code spring.threads.virtual.enabled=true}, variable
+ * {@code VIRTUAL_THREADS}).
+ * <p>
+ * En ese modo Tomcat atiende cada petición en un hilo virtual y deja de haber
+ * un máximo de peticiones simultáneas. El pool de Hikari conserva el tamaño
+ * que admite la base de datos ({@code DB_POOL_SIZE}) y el resto de peticiones
+ * esperan en {@link ConcurrencyLimitedDataSource}. Sin hilos virtuales esta
+ * configuración no se carga: el límite ya lo ponen los hilos de Tomcat.
+ * </p>
+ * <p>
+ * La prueba {@code ThreadModelPerfIT} (perfil {@code perf}) comprueba con JFR
+ * que ni Hibernate ni HikariCP fijan los hilos virtuales a su hilo portador
+ * durante las consultas. Se ejecuta sobre H2, así que no cubre el driver de
+ * MariaDB.
+ * </p>
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+	/**
+	 * Envolver el pool de conexiones en un {@link ConcurrencyLimitedDataSource}
+	 * con tantos permisos como conexiones y el mismo tiempo de espera
+	 * <p>
+	 * El pool puede llegar ya envuelto en el {@link StatementCountingDataSource}
+	 * de {@link MetricsConfig}; el límite se coloca igualmente una sola vez.
+	 * </p>
+	 * 
+	 * @return {@link BeanPostProcessor}
+	 */
+	@Bean
+	static BeanPostProcessor dbConcurrencyLimit() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+				if (bean instanceof HikariDataSource || bean instanceof StatementCountingDataSource) {
+					DataSource dataSource = (DataSource) bean;
+					HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+					if (hikari != null) {
+						return new ConcurrencyLimitedDataSource(dataSource, hikari.getMaximumPoolSize(),
+								hikari.getConnectionTimeout());
+					}
+				}
+				return bean;
+			}
+		};
+	}
+
+	/**
+	 * Métricas del límite: permisos y peticiones en espera
+	 * 
+	 * @param dataSource {@link DataSource} de la aplicación
+	 * @return {@link MeterBinder}
+	 */
+	@Bean
+	MeterBinder dbConcurrencyLimitMetrics(DataSource dataSource) {
+		return registry -> {
+			ConcurrencyLimitedDataSource limited = unwrap(dataSource, ConcurrencyLimitedDataSource.class);
+			if (limited != null) {
+				Gauge.builder("inventario.db.concurrency.limit", limited, ConcurrencyLimitedDataSource::getMaxConcurrency)
+						.description("Conexiones simultáneas permitidas").register(registry);
+				Gauge.builder("inventario.db.concurrency.waiting", limited, ConcurrencyLimitedDataSource::getWaiting)
+						.description("Peticiones esperando una conexión").register(registry);
+			}
+		};
+	}
+
+	private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+		try {
+			return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+}
@@ -3,15 +3,30 @@ package birt.smoreno.inventarioAPI.utils;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+	private final RequestMetricsInterceptor requestMetricsInterceptor;
+
+	public WebConfig(RequestMetricsInterceptor requestMetricsInterceptor) {
+		this.requestMetricsInterceptor = requestMetricsInterceptor;
+	}
+
 	@Override
 	public void addCorsMappings(@NonNull CorsRegistry registry) {
 		// Configura CORS globalmente para todas las rutas
 		registry.addMapping("/**").allowedOrigins("*")
-				.allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS").allowedHeaders("*").allowCredentials(false);
+				.allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS").allowedHeaders("*")
+				// Permite al navegador leer el ETag para las peticiones condicionales
+				.exposedHeaders("ETag").allowCredentials(false);
+	}
+
+	@Override
+	public void addInterceptors(@NonNull InterceptorRegistry registry) {
+		// Métricas por petición: sentencias SQL y respuestas 404
+		registry.addInterceptor(requestMetricsInterceptor).addPathPatterns("/api/**");
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+-- Actualización de una base de datos creada con una versión anterior de .initdb/init.sql.
+-- Los scripts de .initdb solo se ejecutan con el volumen vacío: sobre uno existente, la aplicación
+-- ejecuta este al arrancar (spring.sql.init) antes de que Hibernate valide el esquema.
+-- Cada sentencia es idempotente: sobre una base de datos ya actualizada no cambia nada.
+
+-- Paginación por cursor (updated_at, id)
+ALTER TABLE categorias ADD INDEX IF NOT EXISTS idx_categorias_updated_at (updated_at, id_categoria);
+ALTER TABLE productos ADD INDEX IF NOT EXISTS idx_productos_updated_at (updated_at, id_producto);
+
+-- Déficit generado e indexado para la consulta de bajo stock
+ALTER TABLE productos
+    ADD COLUMN IF NOT EXISTS deficit INT AS (CAST(stock_minimo AS SIGNED) - CAST(stock_actual AS SIGNED)) STORED AFTER stock_minimo,
+    ADD INDEX IF NOT EXISTS idx_productos_deficit (deficit);
+
+-- Versión para el bloqueo optimista (ETag / If-Match)
+ALTER TABLE categorias ADD COLUMN IF NOT EXISTS version INT UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS version INT UNSIGNED NOT NULL DEFAULT 0;
+
+-- Registro de movimientos de stock y movimientos compactados
+CREATE TABLE IF NOT EXISTS movimientos_stock (
+    id_movimiento INT AUTO_INCREMENT PRIMARY KEY,
+    id_producto INT NOT NULL,
+    delta INT NOT NULL,
+    motivo VARCHAR(255),
+    ts TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_movimientos_stock_producto_ts (id_producto, ts),
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+CREATE INDEX IF NOT EXISTS idx_movimientos_stock_ts ON movimientos_stock (ts, id_producto, delta);
+
+CREATE TABLE IF NOT EXISTS snapshots_stock (
+    id_producto INT PRIMARY KEY,
+    saldo INT NOT NULL,
+    movimientos INT UNSIGNED NOT NULL,
+    hasta TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+
+-- Reservas de la escritura diferida asíncrona
+CREATE TABLE IF NOT EXISTS reservas_stock (
+    id_producto INT NOT NULL,
+    instancia VARCHAR(64) NOT NULL,
+    unidades INT NOT NULL,
+    PRIMARY KEY (id_producto, instancia),
+    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_spanish_ci;
+
+-- El stock de los productos sin historial pasa a ser su primer movimiento, para que la suma del
+-- registro coincida con stock_actual. Los que ya tienen movimientos o snapshot no cambian
+INSERT INTO movimientos_stock (id_producto, delta, motivo)
+SELECT p.id_producto, p.stock_actual, 'Inventario inicial'
+FROM productos p
+WHERE p.stock_actual <> 0
+    AND NOT EXISTS (SELECT 1 FROM movimientos_stock m WHERE m.id_producto = p.id_producto)
+    AND NOT EXISTS (SELECT 1 FROM snapshots_stock s WHERE s.id_producto = p.id_producto);
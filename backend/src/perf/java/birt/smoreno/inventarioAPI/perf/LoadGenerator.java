@@ -0,0 +1,120 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import birt.smoreno.inventarioAPI.perf.TrafficMix.Route;
+
+/**
+ * Clientes HTTP concurrentes que lanzan el tráfico de un {@link TrafficMix}.
+ * <p>
+ * Cada cliente es un hilo virtual que envía una petición tras otra, de modo que
+ * el número de clientes no está limitado por los hilos de la propia prueba.
+ * </p>
+ */
+final class LoadGenerator {
+
+	private final TrafficMix mix;
+	private final int clients;
+	// Las respuestas también se procesan en hilos virtuales, para no sumar hilos
+	// de plataforma a los de la aplicación medida
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5)).executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+	/**
+	 * @param mix     Tráfico a lanzar
+	 * @param clients Número de clientes concurrentes
+	 */
+	LoadGenerator(TrafficMix mix, int clients) {
+		this.mix = mix;
+		this.clients = clients;
+	}
+
+	/**
+	 * Lanzar tráfico sin registrar nada (calentamiento)
+	 *
+	 * @param duration Duración
+	 */
+	void warmup(Duration duration) throws Exception {
+		run(duration, null);
+	}
+
+	/**
+	 * Lanzar tráfico registrando latencias y errores
+	 *
+	 * @param duration Duración
+	 * @return {@link Measurement} por ruta y total
+	 */
+	Measurement measure(Duration duration) throws Exception {
+		Map<String, RouteStats> routes = new HashMap<>();
+		mix.routes().forEach(route -> routes.put(route.key(), new RouteStats()));
+		Measurement measurement = new Measurement(routes, new RouteStats(), duration);
+		run(duration, measurement);
+		return measurement;
+	}
+
+	private void run(Duration duration, Measurement measurement) throws Exception {
+		long end = System.nanoTime() + duration.toNanos();
+		try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < clients; i++) {
+				long seed = i;
+				futures.add(workers.submit(() -> {
+					Random random = new Random(seed);
+					while (System.nanoTime() < end) {
+						Route route = mix.pick(random);
+						HttpRequest request = route.request().apply(random);
+						if (request != null) {
+							send(route, request, measurement);
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+	}
+
+	private void send(Route route, HttpRequest request, Measurement measurement) throws InterruptedException {
+		long start = System.nanoTime();
+		boolean ok;
+		try {
+			HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+			ok = route.expected().contains(response.statusCode());
+			if (ok) {
+				route.onSuccess().accept(request, response);
+			}
+		} catch (IOException e) {
+			ok = false;
+		}
+		if (measurement != null) {
+			long nanos = System.nanoTime() - start;
+			measurement.routes().get(route.key()).record(nanos, ok);
+			measurement.total().record(nanos, ok);
+		}
+	}
+
+	/**
+	 * Resultado de una medición.
+	 *
+	 * @param routes   Registro por clave de ruta
+	 * @param total    Registro de todas las peticiones
+	 * @param duration Duración de la medición
+	 */
+	record Measurement(Map<String, RouteStats> routes, RouteStats total, Duration duration) {
+	}
+}
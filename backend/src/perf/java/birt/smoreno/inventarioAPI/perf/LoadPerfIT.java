@@ -0,0 +1,146 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import birt.smoreno.inventarioAPI.perf.LoadGenerator.Measurement;
+import birt.smoreno.inventarioAPI.perf.RouteStats.Summary;
+import birt.smoreno.inventarioAPI.perf.TrafficMix.Route;
+
+/**
+ * Prueba de carga de extremo a extremo: arranca la aplicación con un servidor
+ * real sobre H2, lanza tráfico mixto desde {@code perf.concurrency} clientes
+ * durante {@code perf.durationSeconds} segundos (tras un calentamiento) y
+ * comprueba los percentiles de latencia y la tasa de error de cada ruta frente
+ * a {@code perf-budgets.properties}.
+ * <p>
+ * Se ejecuta con {@code mvn -Pperf verify}; el informe queda en
+ * {@code target/perf/perf-report.json}.
+ * </p>
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("perf")
+class LoadPerfIT {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void routesStayWithinLatencyBudgets() throws Exception {
+		int products = Integer.getInteger("perf.products", 20_000);
+		int concurrency = Integer.getInteger("perf.concurrency", 16);
+		Duration warmup = Duration.ofSeconds(Integer.getInteger("perf.warmupSeconds", 10));
+		Duration duration = Duration.ofSeconds(Integer.getInteger("perf.durationSeconds", 30));
+
+		PerfDatabase.seed(jdbcTemplate, Path.of(System.getProperty("perf.initSql", "../.initdb/init.sql")),
+				products);
+		int categories = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias", Integer.class);
+		TrafficMix mix = new TrafficMix("http://localhost:" + port, products, categories);
+
+		LoadGenerator load = new LoadGenerator(mix, concurrency);
+		load.warmup(warmup);
+		Measurement measurement = load.measure(duration);
+
+		List<Summary> summaries = new ArrayList<>();
+		for (Route route : mix.routes()) {
+			summaries.add(measurement.routes().get(route.key()).summarize(route.key(), route.label(),
+					duration.toSeconds()));
+		}
+		report(summaries, products, concurrency, duration);
+
+		List<String> violations = checkBudgets(summaries);
+		assertTrue(violations.isEmpty(), "Presupuestos de latencia superados:\n" + String.join("\n", violations));
+	}
+
+	/**
+	 * Mostrar el informe por consola y guardarlo en JSON
+	 */
+	private static void report(List<Summary> summaries, int products, int concurrency, Duration duration)
+			throws IOException {
+		StringBuilder table = new StringBuilder(String.format("%nPrueba de carga: %d productos, %d clientes, %d s%n",
+				products, concurrency, duration.toSeconds()));
+		table.append(String.format("%-40s %8s %8s %8s %9s %9s %9s %9s%n", "Ruta", "Peticion", "Error %", "Req/s",
+				"p50 ms", "p95 ms", "p99 ms", "max ms"));
+		for (Summary s : summaries) {
+			table.append(String.format("%-40s %8d %8.2f %8.1f %9.2f %9.2f %9.2f %9.2f%n", s.label(), s.requests(),
+					s.errorRate() * 100, s.throughput(), s.p50(), s.p95(), s.p99(), s.max()));
+		}
+		System.out.println(table);
+
+		Path dir = Path.of(System.getProperty("perf.reportDir", "target/perf"));
+		Files.createDirectories(dir);
+		Map<String, Object> report = new HashMap<>();
+		report.put("products", products);
+		report.put("concurrency", concurrency);
+		report.put("durationSeconds", duration.toSeconds());
+		report.put("routes", summaries);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(
+				dir.resolve("perf-report.json").toFile(), report);
+	}
+
+	/**
+	 * Comparar cada ruta con su presupuesto
+	 *
+	 * @return Descripción de cada presupuesto superado
+	 */
+	private static List<String> checkBudgets(List<Summary> summaries) throws IOException {
+		Properties budgets = new Properties();
+		try (InputStream in = LoadPerfIT.class.getResourceAsStream("/perf-budgets.properties")) {
+			budgets.load(in);
+		}
+		double maxErrorRate = budget(budgets, "maxErrorRate", null);
+
+		List<String> violations = new ArrayList<>();
+		for (Summary s : summaries) {
+			double p95 = budget(budgets, s.route() + ".p95", "default.p95");
+			double p99 = budget(budgets, s.route() + ".p99", "default.p99");
+			if (s.p95() > p95) {
+				violations.add(String.format("%s: p95 %.2f ms > %.0f ms", s.label(), s.p95(), p95));
+			}
+			if (s.p99() > p99) {
+				violations.add(String.format("%s: p99 %.2f ms > %.0f ms", s.label(), s.p99(), p99));
+			}
+			if (s.errorRate() > maxErrorRate) {
+				violations.add(String.format("%s: %.2f %% de errores > %.2f %%", s.label(), s.errorRate() * 100,
+						maxErrorRate * 100));
+			}
+		}
+		return violations;
+	}
+
+	/**
+	 * Valor de un presupuesto: {@code -Dperf.budget.<clave>}, o el del fichero, o
+	 * el de la clave por defecto
+	 */
+	private static double budget(Properties budgets, String key, String defaultKey) {
+		String value = System.getProperty("perf.budget." + key, budgets.getProperty(key));
+		if (value == null && defaultKey != null) {
+			return budget(budgets, defaultKey, null);
+		}
+		return Double.parseDouble(value);
+	}
+}
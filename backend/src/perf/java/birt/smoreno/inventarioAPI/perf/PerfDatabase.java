@@ -0,0 +1,51 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Carga de datos de la prueba de carga a partir de {@code .initdb/init.sql}.
+ * <p>
+ * Se ejecutan las sentencias {@code INSERT} del script (el esquema lo crea
+ * {@code schema-h2.sql}, ya que H2 no admite el DDL de MariaDB) y después se
+ * replican sus productos, con un sufijo en el nombre, hasta llegar al número
+ * de productos pedido. Así la distribución de stock y categorías es la del
+ * inventario real.
+ * </p>
+ */
+final class PerfDatabase {
+
+	private PerfDatabase() {
+	}
+
+	/**
+	 * Cargar los datos
+	 *
+	 * @param jdbcTemplate Acceso a la base de datos
+	 * @param initSql      Ruta de {@code init.sql}
+	 * @param products     Número total de productos
+	 * @throws IOException si no se puede leer el script
+	 */
+	static void seed(JdbcTemplate jdbcTemplate, Path initSql, int products) throws IOException {
+		String script = Files.readString(initSql, StandardCharsets.UTF_8);
+		for (String statement : script.split(";\\s*\\R")) {
+			String sql = statement.strip().replaceFirst(";$", "");
+			if (sql.regionMatches(true, 0, "INSERT INTO", 0, "INSERT INTO".length())) {
+				jdbcTemplate.execute(sql);
+			}
+		}
+
+		int base = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM productos", Integer.class);
+		for (int copy = 1, total = base; total < products; copy++) {
+			int rows = Math.min(base, products - total);
+			total += jdbcTemplate.update("""
+					INSERT INTO productos (nombre, stock_actual, stock_minimo, id_categoria)
+					SELECT CONCAT(nombre, ' #', ?), stock_actual, stock_minimo, id_categoria
+					FROM productos WHERE id_producto <= ? ORDER BY id_producto LIMIT ?""", copy, base, rows);
+		}
+	}
+}
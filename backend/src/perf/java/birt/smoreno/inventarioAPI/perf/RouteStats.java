@@ -0,0 +1,61 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import java.util.Arrays;
+
+/**
+ * Latencias y errores registrados para una ruta durante la medición.
+ */
+final class RouteStats {
+
+	private long[] latencies = new long[1024];
+	private int count;
+	private int errors;
+
+	/**
+	 * Registrar una petición
+	 *
+	 * @param nanos Latencia en nanosegundos
+	 * @param ok    {@code false} si la respuesta no es la esperada
+	 */
+	synchronized void record(long nanos, boolean ok) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = nanos;
+		if (!ok) {
+			errors++;
+		}
+	}
+
+	/**
+	 * Resumen de la ruta
+	 *
+	 * @param route   Clave de la ruta
+	 * @param label   Método y ruta HTTP
+	 * @param seconds Duración de la medición
+	 * @return {@link Summary} con percentiles en milisegundos
+	 */
+	synchronized Summary summarize(String route, String label, double seconds) {
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return new Summary(route, label, count, errors, count == 0 ? 0 : (double) errors / count, count / seconds,
+				percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+				count == 0 ? 0 : sorted[count - 1] / 1e6);
+	}
+
+	// Percentil por el método del rango más cercano
+	private static double percentile(long[] sorted, int p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1] / 1e6;
+	}
+
+	/**
+	 * Resumen de una ruta en el informe.
+	 */
+	record Summary(String route, String label, int requests, int errors, double errorRate, double throughput,
+			double p50, double p95, double p99, double max) {
+	}
+}
@@ -0,0 +1,290 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import birt.smoreno.inventarioAPI.InventarioAPIApplication;
+import birt.smoreno.inventarioAPI.perf.LoadGenerator.Measurement;
+import birt.smoreno.inventarioAPI.perf.RouteStats.Summary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Comparación entre el modo por defecto (un hilo de Tomcat por petición), el
+ * modo de hilos virtuales ({@code spring.threads.virtual.enabled=true}) y la
+ * pila reactiva (WebFlux sobre Netty y R2DBC). La pila reactiva solo se mide
+ * si se compila con ella: {@code mvn -Pperf,reactive verify}.
+ * <p>
+ * Arranca la aplicación una vez en cada modo, con su propia base de datos, y
+ * lanza el mismo tráfico desde {@code perf.threadModel.clients} clientes
+ * concurrentes, sin las rutas que solo tiene la pila servlet
+ * ({@link TrafficMix#SERVLET_ONLY_ROUTES}). El informe
+ * ({@code target/perf/thread-model-report.json}) recoge el rendimiento y los
+ * percentiles de latencia de cada modo, y su huella durante la medición: pico
+ * de hilos de plataforma, pico de heap y pico de conexiones a la base de datos
+ * en uso ({@code hikaricp.connections.active} o {@code r2dbc.pool.acquired}).
+ * Los clientes comparten la JVM con la aplicación, así que el heap incluye el
+ * suyo, igual en todos los modos.
+ * </p>
+ * <p>
+ * Durante la medición se registran con JFR los eventos
+ * {@code jdk.VirtualThreadPinned} (hilo virtual bloqueado sin poder liberar su
+ * hilo portador). La prueba falla si alguno se origina en Hibernate o HikariCP;
+ * los de H2 se muestran pero no cuentan. Como la base de datos es H2, no dice
+ * nada del driver de MariaDB.
+ * </p>
+ */
+class ThreadModelPerfIT {
+
+	private static final List<String> DATA_ACCESS_PACKAGES = List.of("org.hibernate.", "com.zaxxer.hikari.");
+
+	@Test
+	void compareThreadModels() throws Exception {
+		int products = Integer.getInteger("perf.products", 20_000);
+		int clients = Integer.getInteger("perf.threadModel.clients", 1000);
+		Duration warmup = Duration.ofSeconds(Integer.getInteger("perf.warmupSeconds", 10));
+		Duration duration = Duration.ofSeconds(Integer.getInteger("perf.durationSeconds", 30));
+
+		Map<String, ModeResult> results = new LinkedHashMap<>();
+		for (Mode mode : Mode.values()) {
+			Class<?> application = mode.application();
+			if (application == null) {
+				System.out.printf("Modo %s omitido: falta el perfil de Maven reactive%n", mode.key());
+				continue;
+			}
+			results.put(mode.key(), run(mode, application, products, clients, warmup, duration));
+		}
+		report(results, products, clients, duration);
+
+		List<String> dataAccessPins = results.get("virtual").pinned().keySet().stream()
+				.filter(frame -> DATA_ACCESS_PACKAGES.stream().anyMatch(frame::startsWith)).toList();
+		assertTrue(dataAccessPins.isEmpty(), "Hilos virtuales fijados en el acceso a datos: " + dataAccessPins);
+	}
+
+	/**
+	 * Arrancar la aplicación en un modo y medir
+	 */
+	private static ModeResult run(Mode mode, Class<?> application, int products, int clients, Duration warmup,
+			Duration duration) throws Exception {
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(application)
+				.profiles(mode.profiles()).properties("server.port=0", "management.server.port=-1",
+						"perf.database=threads-" + mode.key(), mode.property)
+				.run()) {
+			// La pila reactiva no tiene DataSource: los datos se cargan por JDBC en la
+			// misma base de datos en memoria
+			JdbcTemplate jdbcTemplate = app.getBeanProvider(JdbcTemplate.class)
+					.getIfAvailable(() -> new JdbcTemplate(new DriverManagerDataSource(
+							app.getEnvironment().getProperty("spring.datasource.url"), "sa", "")));
+			PerfDatabase.seed(jdbcTemplate, Path.of(System.getProperty("perf.initSql", "../.initdb/init.sql")),
+					products);
+			int categories = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias", Integer.class);
+			int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+			LoadGenerator load = new LoadGenerator(new TrafficMix("http://localhost:" + port, products, categories,
+					TrafficMix.SERVLET_ONLY_ROUTES), clients);
+			load.warmup(warmup);
+
+			Map<String, Integer> pinned = new ConcurrentHashMap<>();
+			try (RecordingStream recording = new RecordingStream();
+					FootprintSampler sampler = new FootprintSampler(app.getBean(MeterRegistry.class),
+							mode.connectionGauge)) {
+				recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+				recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.merge(origin(event), 1, Integer::sum));
+				recording.startAsync();
+				sampler.start();
+				Measurement measurement = load.measure(duration);
+				Footprint footprint = sampler.stop();
+				recording.stop();
+				return new ModeResult(measurement.total().summarize(mode.key(), mode.key(), duration.toSeconds()),
+						footprint, new TreeMap<>(pinned));
+			}
+		}
+	}
+
+	/**
+	 * Primer método fuera del JDK en la pila de un evento, donde se ha bloqueado
+	 * el hilo virtual
+	 */
+	private static String origin(RecordedEvent event) {
+		if (event.getStackTrace() == null) {
+			return "desconocido";
+		}
+		for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+			String type = frame.getMethod().getType().getName();
+			if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+				return type + "." + frame.getMethod().getName();
+			}
+		}
+		return "JDK";
+	}
+
+	private static void report(Map<String, ModeResult> results, int products, int clients, Duration duration)
+			throws IOException {
+		StringBuilder table = new StringBuilder(String.format(
+				"%nHilos de plataforma, hilos virtuales y pila reactiva: %d productos, %d clientes, %d s%n", products,
+				clients, duration.toSeconds()));
+		table.append(String.format("%-10s %9s %8s %9s %9s %9s %9s %9s %8s %7s %8s %8s%n", "Modo", "Peticion",
+				"Error %", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "Fijados", "Hilos", "Heap MB",
+				"Conex BD"));
+		for (ModeResult result : results.values()) {
+			Summary s = result.summary();
+			Footprint f = result.footprint();
+			table.append(String.format("%-10s %9d %8.2f %9.1f %9.2f %9.2f %9.2f %9.2f %8d %7d %8d %8d%n", s.route(),
+					s.requests(), s.errorRate() * 100, s.throughput(), s.p50(), s.p95(), s.p99(), s.max(),
+					result.pinned().values().stream().mapToInt(Integer::intValue).sum(), f.peakPlatformThreads(),
+					f.peakHeapMb(), f.peakDbConnections()));
+		}
+		for (Entry<String, ModeResult> result : results.entrySet()) {
+			result.getValue().pinned().forEach((frame, count) -> table
+					.append(String.format("  fijado (%s): %s x%d%n", result.getKey(), frame, count)));
+		}
+		System.out.println(table);
+
+		Path dir = Path.of(System.getProperty("perf.reportDir", "target/perf"));
+		Files.createDirectories(dir);
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("products", products);
+		report.put("clients", clients);
+		report.put("durationSeconds", duration.toSeconds());
+		report.put("modes", results);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(dir.resolve("thread-model-report.json").toFile(), report);
+	}
+
+	/**
+	 * Modo de ejecución de la aplicación.
+	 */
+	enum Mode {
+		PLATFORM(InventarioAPIApplication.class.getName(), "spring.threads.virtual.enabled=false",
+				"hikaricp.connections.active"),
+		VIRTUAL(InventarioAPIApplication.class.getName(), "spring.threads.virtual.enabled=true",
+				"hikaricp.connections.active"),
+		// SpringApplicationBuilder elige el tipo de servidor antes de leer el perfil;
+		// "perf" va después de "reactive" para usar su base de datos H2
+		REACTIVE("birt.smoreno.inventarioAPI.reactive.ReactiveInventarioAPIApplication",
+				"spring.main.web-application-type=reactive", "r2dbc.pool.acquired");
+
+		/** Clase de la aplicación, por nombre porque la reactiva puede no compilarse */
+		final String applicationClass;
+		/** Propiedad que activa el modo */
+		final String property;
+		/** Métrica con las conexiones a la base de datos en uso */
+		final String connectionGauge;
+
+		Mode(String applicationClass, String property, String connectionGauge) {
+			this.applicationClass = applicationClass;
+			this.property = property;
+			this.connectionGauge = connectionGauge;
+		}
+
+		/** Clase de la aplicación, o {@code null} si no está en el classpath */
+		Class<?> application() {
+			try {
+				return Class.forName(applicationClass);
+			} catch (ClassNotFoundException e) {
+				return null;
+			}
+		}
+
+		String key() {
+			return name().toLowerCase();
+		}
+
+		String[] profiles() {
+			return this == REACTIVE ? new String[] { "reactive", "perf" } : new String[] { "perf" };
+		}
+	}
+
+	/**
+	 * Muestreo periódico del heap y de las conexiones en uso. El pico de hilos de
+	 * plataforma lo lleva la propia JVM desde {@link #start()}.
+	 */
+	private static final class FootprintSampler implements AutoCloseable {
+
+		private static final long INTERVAL_MS = 50;
+
+		private final MeterRegistry registry;
+		private final String connectionGauge;
+		private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		private long peakHeap;
+		private double peakConnections = -1;
+
+		FootprintSampler(MeterRegistry registry, String connectionGauge) {
+			this.registry = registry;
+			this.connectionGauge = connectionGauge;
+		}
+
+		void start() {
+			ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+			scheduler.scheduleAtFixedRate(this::sample, 0, INTERVAL_MS, TimeUnit.MILLISECONDS);
+		}
+
+		Footprint stop() {
+			scheduler.shutdownNow();
+			sample();
+			return new Footprint(ManagementFactory.getThreadMXBean().getPeakThreadCount(), peakHeap / (1024 * 1024),
+					(int) peakConnections);
+		}
+
+		private synchronized void sample() {
+			peakHeap = Math.max(peakHeap, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+			Collection<Gauge> gauges = registry.find(connectionGauge).gauges();
+			if (!gauges.isEmpty()) {
+				peakConnections = Math.max(peakConnections, gauges.stream().mapToDouble(Gauge::value).sum());
+			}
+		}
+
+		@Override
+		public void close() {
+			scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Huella de un modo durante la medición.
+	 *
+	 * @param peakPlatformThreads Pico de hilos de plataforma de la JVM
+	 * @param peakHeapMb          Pico de heap en uso, en MB
+	 * @param peakDbConnections   Pico de conexiones a la base de datos en uso, o
+	 *                            -1 si no hay métrica
+	 */
+	record Footprint(int peakPlatformThreads, long peakHeapMb, int peakDbConnections) {
+	}
+
+	/**
+	 * Resultado de un modo.
+	 *
+	 * @param summary   Latencias y rendimiento de todas las peticiones
+	 * @param footprint Hilos, memoria y conexiones durante la medición
+	 * @param pinned    Eventos de hilo virtual fijado por método de origen
+	 */
+	record ModeResult(Summary summary, Footprint footprint, Map<String, Integer> pinned) {
+	}
+}
@@ -0,0 +1,247 @@
+package birt.smoreno.inventarioAPI.perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tráfico mixto de lectura y escritura sobre las rutas de
+ * {@code ProductController} y {@code CategoryController}. Queda fuera el flujo
+ * SSE de {@code /min/stream}, que no tiene tiempo de respuesta que medir.
+ * <p>
+ * Cada ruta tiene un peso que fija su proporción en el total. Las lecturas y
+ * los movimientos de stock usan los productos cargados; las actualizaciones y
+ * los borrados solo afectan a productos y categorías creados por la propia
+ * prueba, para que el resto de rutas encuentren siempre sus datos.
+ * </p>
+ * <p>
+ * Las rutas de {@link #SERVLET_ONLY_ROUTES} no existen en la pila reactiva;
+ * para comparar las dos pilas con el mismo tráfico se excluyen.
+ * </p>
+ */
+final class TrafficMix {
+
+	private static final Pattern CREATED_ID = Pattern.compile("\"data\":\\{\"id\":(\\d+)");
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+	private static final String[] SORTS = { "id", "nombre", "updated_at" };
+
+	/** Rutas que solo sirve la pila servlet. */
+	static final Set<String> SERVLET_ONLY_ROUTES = Set.of("products.export", "products.movements.batch",
+			"products.import", "categories.import");
+
+	private final String baseUrl;
+	private final int products;
+	private final int categories;
+	private final List<Route> routes = new ArrayList<>();
+	private final int totalWeight;
+
+	// Productos y categorías creados por la prueba, disponibles para PUT/DELETE
+	private final Queue<Integer> createdProducts = new ConcurrentLinkedQueue<>();
+	private final Queue<Integer> createdCategories = new ConcurrentLinkedQueue<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * @param baseUrl    URL base de la aplicación
+	 * @param products   Número de productos cargados (IDs 1..products)
+	 * @param categories Número de categorías cargadas (IDs 1..categories)
+	 */
+	TrafficMix(String baseUrl, int products, int categories) {
+		this(baseUrl, products, categories, Set.of());
+	}
+
+	/**
+	 * @param baseUrl        URL base de la aplicación
+	 * @param products       Número de productos cargados (IDs 1..products)
+	 * @param categories     Número de categorías cargadas (IDs 1..categories)
+	 * @param excludedRoutes Claves de las rutas que no se lanzan
+	 */
+	TrafficMix(String baseUrl, int products, int categories, Set<String> excludedRoutes) {
+		this.baseUrl = baseUrl;
+		this.products = products;
+		this.categories = categories;
+
+		// Productos: lecturas
+		route("products.list", "GET /api/products", 20, Set.of(200), r -> get("/api/products?limit=100&sort="
+				+ SORTS[r.nextInt(SORTS.length)] + (r.nextBoolean() ? "&after=" + productId(r) : "")));
+		route("products.list.expanded", "GET /api/products?expand=category", 8, Set.of(200),
+				r -> get("/api/products?limit=100&expand=category&after=" + productId(r)));
+		route("products.get", "GET /api/products/{id}", 20, Set.of(200), r -> get("/api/products/" + productId(r)));
+		route("products.min", "GET /api/products/min", 5, Set.of(200), r -> get("/api/products/min"));
+		route("products.export", "GET /api/products/export", 1, Set.of(200),
+				r -> get("/api/products/export?format=" + (r.nextBoolean() ? "ndjson" : "csv")));
+
+		// Productos: escrituras
+		route("products.create", "POST /api/products", 5, Set.of(201), r -> post("/api/products",
+				productJson("perf-" + sequence.incrementAndGet(), r)), (req, res) -> created(res, createdProducts));
+		route("products.update", "PUT /api/products/{id}", 3, Set.of(200),
+				r -> pollCreated(createdProducts, id -> newRequest("/api/products/" + id)
+						.header("Content-Type", "application/json")
+						.PUT(BodyPublishers.ofString(productJson("perf-" + sequence.incrementAndGet(), r))).build()),
+				(req, res) -> createdProducts.add(idOf(req)));
+		route("products.delete", "DELETE /api/products/{id}", 2, Set.of(200),
+				r -> pollCreated(createdProducts, id -> newRequest("/api/products/" + id).DELETE()
+						.build()));
+		route("products.movement", "POST /api/products/{id}/movements", 15, Set.of(200, 409),
+				r -> post("/api/products/" + productId(r) + "/movements",
+						"{\"delta\":" + (r.nextBoolean() ? 1 : -1) + "}"));
+		route("products.movements.batch", "POST /api/products/movements:batch", 3, Set.of(200), r -> {
+			StringBuilder body = new StringBuilder("[");
+			for (int i = 0; i < 20; i++) {
+				body.append(i == 0 ? "" : ",").append("{\"id_producto\":").append(productId(r)).append(",\"delta\":")
+						.append(r.nextBoolean() ? 1 : -1).append('}');
+			}
+			return post("/api/products/movements:batch", body.append(']').toString());
+		});
+		route("products.import", "POST /api/products/import", 1, Set.of(200), r -> {
+			StringBuilder csv = new StringBuilder("nombre,stock_actual,stock_minimo,id_categoria\n");
+			for (int i = 0; i < 10; i++) {
+				csv.append("perf-import-").append(sequence.incrementAndGet()).append(',').append(r.nextInt(100))
+						.append(",10,").append(categoryId(r)).append('\n');
+			}
+			return newRequest("/api/products/import").header("Content-Type", "text/csv")
+					.POST(BodyPublishers.ofString(csv.toString())).build();
+		});
+
+		// Categorías
+		route("categories.list", "GET /api/categories", 8, Set.of(200),
+				r -> get("/api/categories?sort=" + SORTS[r.nextInt(SORTS.length)]));
+		route("categories.get", "GET /api/categories/{id}", 8, Set.of(200),
+				r -> get("/api/categories/" + categoryId(r)));
+		route("categories.create", "POST /api/categories", 1, Set.of(201),
+				r -> post("/api/categories", categoryJson("perf-cat-" + sequence.incrementAndGet())),
+				(req, res) -> created(res, createdCategories));
+		route("categories.update", "PUT /api/categories/{id}", 1, Set.of(200),
+				r -> pollCreated(createdCategories, id -> newRequest("/api/categories/" + id)
+						.header("Content-Type", "application/json")
+						.PUT(BodyPublishers.ofString(categoryJson("perf-cat-" + sequence.incrementAndGet()))).build()),
+				(req, res) -> createdCategories.add(idOf(req)));
+		route("categories.delete", "DELETE /api/categories/{id}", 1, Set.of(200),
+				r -> pollCreated(createdCategories,
+						id -> newRequest("/api/categories/" + id).DELETE().build()));
+		route("categories.import", "POST /api/categories/import", 1, Set.of(200),
+				r -> newRequest("/api/categories/import").header("Content-Type", "text/csv")
+						.POST(BodyPublishers.ofString("nombre,descripcion\nperf-cat-import-" + sequence.incrementAndGet()
+								+ ",importada\n"))
+						.build());
+
+		routes.removeIf(route -> excludedRoutes.contains(route.key()));
+		totalWeight = routes.stream().mapToInt(Route::weight).sum();
+	}
+
+	/**
+	 * @return Rutas del tráfico
+	 */
+	List<Route> routes() {
+		return routes;
+	}
+
+	/**
+	 * Elegir una ruta al azar según los pesos
+	 *
+	 * @param random Generador aleatorio del hilo
+	 * @return Ruta elegida
+	 */
+	Route pick(Random random) {
+		int n = random.nextInt(totalWeight);
+		for (Route route : routes) {
+			n -= route.weight();
+			if (n < 0) {
+				return route;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private void route(String key, String label, int weight, Set<Integer> expected,
+			Function<Random, HttpRequest> request) {
+		route(key, label, weight, expected, request, (req, res) -> {
+		});
+	}
+
+	private void route(String key, String label, int weight, Set<Integer> expected,
+			Function<Random, HttpRequest> request, BiConsumer<HttpRequest, HttpResponse<String>> onSuccess) {
+		routes.add(new Route(key, label, weight, expected, request, onSuccess));
+	}
+
+	private int productId(Random random) {
+		return 1 + random.nextInt(products);
+	}
+
+	private int categoryId(Random random) {
+		return 1 + random.nextInt(categories);
+	}
+
+	private String productJson(String name, Random random) {
+		return "{\"nombre\":\"" + name + "\",\"stock_actual\":" + random.nextInt(100)
+				+ ",\"stock_minimo\":10,\"id_categoria\":" + categoryId(random) + "}";
+	}
+
+	private static String categoryJson(String name) {
+		return "{\"nombre\":\"" + name + "\",\"descripcion\":\"Creada por la prueba de carga\"}";
+	}
+
+	private HttpRequest.Builder newRequest(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+	}
+
+	private HttpRequest get(String path) {
+		return newRequest(path).GET().build();
+	}
+
+	private HttpRequest post(String path, String json) {
+		return newRequest(path).header("Content-Type", "application/json")
+				.POST(BodyPublishers.ofString(json)).build();
+	}
+
+	/**
+	 * Petición sobre un elemento creado por la prueba. El elemento se retira de
+	 * la cola para que ningún otro hilo lo use a la vez; las actualizaciones lo
+	 * devuelven al terminar y los borrados no.
+	 *
+	 * @return Petición, o {@code null} si todavía no hay elementos creados
+	 */
+	private static HttpRequest pollCreated(Queue<Integer> created, Function<Integer, HttpRequest> request) {
+		Integer id = created.poll();
+		return id == null ? null : request.apply(id);
+	}
+
+	private static void created(HttpResponse<String> response, Queue<Integer> created) {
+		Matcher matcher = CREATED_ID.matcher(response.body());
+		if (matcher.find()) {
+			created.add(Integer.valueOf(matcher.group(1)));
+		}
+	}
+
+	private static int idOf(HttpRequest request) {
+		String path = request.uri().getPath();
+		return Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+	}
+
+	/**
+	 * Ruta de la API incluida en el tráfico.
+	 *
+	 * @param key       Clave de la ruta en el informe y en los presupuestos
+	 * @param label     Método y ruta HTTP
+	 * @param weight    Peso relativo en el tráfico
+	 * @param expected  Códigos de estado que no cuentan como error
+	 * @param request   Construcción de la petición; {@code null} si no se puede
+	 *                  hacer en este momento
+	 * @param onSuccess Acción tras una respuesta esperada
+	 */
+	record Route(String key, String label, int weight, Set<Integer> expected,
+			Function<Random, HttpRequest> request, BiConsumer<HttpRequest, HttpResponse<String>> onSuccess) {
+	}
+}
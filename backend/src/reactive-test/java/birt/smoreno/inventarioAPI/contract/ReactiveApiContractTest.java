@@ -0,0 +1,45 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.reactive.ReactiveInventarioAPIApplication;
+
+/**
+ * Contrato de la API sobre la pila reactiva (WebFlux + R2DBC), que solo se
+ * compila y ejecuta con el perfil de Maven {@code reactive}.
+ * <p>
+ * {@code SpringBootTest} elige el tipo de servidor antes de leer
+ * {@code application-reactive.properties}, por eso se indica aquí. Además del
+ * contrato común, comprueba los listados en NDJSON, que solo ofrece esta pila.
+ * </p>
+ */
+@SpringBootTest(classes = ReactiveInventarioAPIApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles({ "reactive", "contract" })
+class ReactiveApiContractTest extends ApiContractTest {
+
+	@Test
+	void streamsProductsAsNdjson() {
+		List<ProductResponseDTO> products = client.get().uri("/api/products?expand=category")
+				.accept(MediaType.APPLICATION_NDJSON).exchange().expectStatus().isOk().expectHeader()
+				.contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON).returnResult(ProductResponseDTO.class)
+				.getResponseBody().collectList().block();
+
+		assertThat(products).isNotEmpty().extracting(ProductResponseDTO::id).isSorted();
+		assertThat(products).allSatisfy(product -> assertThat(product.categoria()).isNotNull());
+
+		List<ProductResponseDTO> productsUnderStock = client.get().uri("/api/products/min")
+				.accept(MediaType.APPLICATION_NDJSON).exchange().expectStatus().isOk()
+				.returnResult(ProductResponseDTO.class).getResponseBody().collectList().block();
+
+		assertThat(productsUnderStock).isNotEmpty()
+				.allSatisfy(product -> assertThat(product.stock_actual()).isLessThan(product.stock_minimo()));
+	}
+}
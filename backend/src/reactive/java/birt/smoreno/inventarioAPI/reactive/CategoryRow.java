@@ -0,0 +1,50 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code CategoryRow} representa una fila de la tabla {@code categorias} en la
+ * pila reactiva (R2DBC). Equivale a {@code CategoryEntity}, sin la lista de
+ * productos.
+ */
+@Table("categorias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRow {
+
+	@Id
+	@Column("id_categoria")
+	private Integer id;
+
+	@Column("nombre")
+	private String name;
+
+	@Column("descripcion")
+	private String description;
+
+	@CreatedDate
+	@Column("created_at")
+	private LocalDateTime createdAt;
+
+	@LastModifiedDate
+	@Column("updated_at")
+	private LocalDateTime updatedAt;
+
+	// Misma columna de bloqueo optimista que la entidad JPA; Spring Data la
+	// incrementa en cada UPDATE
+	@Version
+	@Column("version")
+	private Integer version;
+}
@@ -0,0 +1,60 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code ProductRow} representa una fila de la tabla {@code productos} en la
+ * pila reactiva (R2DBC). Equivale a {@code ProductEntity}, pero sin
+ * relaciones: la categoría se referencia por su ID.
+ * <p>
+ * La columna generada {@code deficit} no se mapea; solo se usa en las
+ * consultas. Las fechas las asigna la auditoría de Spring Data.
+ * </p>
+ */
+@Table("productos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRow {
+
+	@Id
+	@Column("id_producto")
+	private Integer id;
+
+	@Column("nombre")
+	private String name;
+
+	@Column("stock_actual")
+	private int currentStock;
+
+	@Column("stock_minimo")
+	private int minStock;
+
+	@Column("id_categoria")
+	private int categoryId;
+
+	@CreatedDate
+	@Column("created_at")
+	private LocalDateTime createdAt;
+
+	@LastModifiedDate
+	@Column("updated_at")
+	private LocalDateTime updatedAt;
+
+	// Misma columna de bloqueo optimista que la entidad JPA; Spring Data la
+	// incrementa en cada UPDATE
+	@Version
+	@Column("version")
+	private Integer version;
+}
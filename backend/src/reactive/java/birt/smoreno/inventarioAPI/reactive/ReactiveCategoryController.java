@@ -0,0 +1,152 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveCategoryController} sirve {@code /api/categories} en la pila
+ * reactiva, con las mismas rutas, mensajes y códigos de estado que
+ * {@code CategoryController}.
+ * <p>
+ * El listado admite además {@code Accept: application/x-ndjson}, igual que en
+ * {@link ReactiveProductController}. La importación CSV y los ETag solo los
+ * ofrece la pila servlet.
+ * </p>
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("/api/categories")
+public class ReactiveCategoryController {
+
+	private final ReactiveCategoryService categoryService;
+
+	public ReactiveCategoryController(ReactiveCategoryService categoryService) {
+		this.categoryService = categoryService;
+	}
+
+	/**
+	 * Obtiene una página de categorías mediante paginación por cursor.
+	 *
+	 * @param after cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit tamaño de página (opcional, máximo
+	 *              {@link AppConstants#MAX_PAGE_SIZE}).
+	 * @param sort  criterio de ordenación (opcional).
+	 * @return {@link ApiResponseDTO} con la lista de categorías y el cursor de la
+	 *         página siguiente.
+	 * @throws CustomException si {@code sort} no es válido.
+	 */
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<ApiResponseDTO<List<CategoryResponseDTO>>>> getAllCategories(
+			@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String sort) throws CustomException {
+		return categoryService.getAllCategories(after, limit, SortField.fromParam(sort))
+				.map(page -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+						"Categorías obtenidas correctamente", page.items(), page.nextCursor())));
+	}
+
+	/**
+	 * Envía las categorías en NDJSON a partir de un cursor, sin paginar.
+	 *
+	 * @param after cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit número máximo de categorías (opcional, sin límite por defecto).
+	 * @param sort  criterio de ordenación (opcional).
+	 * @return {@link Flux} de {@link CategoryResponseDTO}.
+	 * @throws CustomException si {@code sort} no es válido.
+	 */
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<CategoryResponseDTO> streamCategories(@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String sort)
+			throws CustomException {
+		return categoryService.streamCategories(after, limit, SortField.fromParam(sort));
+	}
+
+	/**
+	 * Obtiene una categoría por su ID.
+	 *
+	 * @param id ID de la categoría.
+	 * @return {@link ApiResponseDTO} con la categoría, o 404 si no existe.
+	 */
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<CategoryResponseDTO>>> getCategoryById(@PathVariable int id) {
+		return categoryService.getCategoryById(id)
+				.map(category -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Categoría encontrada", category)))
+				.defaultIfEmpty(notFound());
+	}
+
+	/**
+	 * Crea una nueva categoría.
+	 *
+	 * @param categoryRequest {@link CategoryRequestDTO} con los datos de la
+	 *                        categoría.
+	 * @return {@link ApiResponseDTO} con la categoría creada.
+	 */
+	@PostMapping
+	public Mono<ResponseEntity<ApiResponseDTO<CategoryResponseDTO>>> createCategory(
+			@Valid @RequestBody CategoryRequestDTO categoryRequest) {
+		return categoryService.createCategory(categoryRequest)
+				.map(category -> ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponseDTO<>(
+						AppConstants.STATUS_SUCCESS, HttpStatus.CREATED.value(), "Categoría creada correctamente",
+						category)));
+	}
+
+	/**
+	 * Actualiza una categoría existente.
+	 *
+	 * @param id              ID de la categoría.
+	 * @param categoryRequest {@link CategoryRequestDTO} con los nuevos datos.
+	 * @return {@link ApiResponseDTO} con la categoría actualizada, o 404 si no
+	 *         existe.
+	 */
+	@PutMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<CategoryResponseDTO>>> updateCategory(@PathVariable int id,
+			@RequestBody CategoryRequestDTO categoryRequest) {
+		return categoryService.updateCategory(id, categoryRequest)
+				.map(category -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Categoría actualizada correctamente", category)))
+				.defaultIfEmpty(notFound());
+	}
+
+	/**
+	 * Elimina una categoría por su ID.
+	 *
+	 * @param id ID de la categoría.
+	 * @return {@link ApiResponseDTO} con la categoría eliminada; 404 si no existe
+	 *         o 409 si tiene productos asociados.
+	 */
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<CategoryResponseDTO>>> deleteCategory(@PathVariable int id) {
+		return categoryService.deleteCategory(id)
+				.map(category -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Categoría eliminada correctamente", category)))
+				.defaultIfEmpty(notFound());
+	}
+
+	private static ResponseEntity<ApiResponseDTO<CategoryResponseDTO>> notFound() {
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
+				HttpStatus.NOT_FOUND.value(), "Categoría no encontrada", null));
+	}
+}
@@ -0,0 +1,72 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * {@code ReactiveCategoryRepository} es el repositorio R2DBC de
+ * {@link CategoryRow}, con las mismas consultas que {@code CategoryRepository}.
+ */
+public interface ReactiveCategoryRepository extends R2dbcRepository<CategoryRow, Integer> {
+
+	/**
+	 * Categorías ordenadas por ID a partir de un cursor.
+	 *
+	 * @param after ID de la última categoría de la página anterior (0 al empezar).
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return {@link Flux} de {@link CategoryRow}.
+	 */
+	@Query("SELECT * FROM categorias WHERE id_categoria > :after ORDER BY id_categoria LIMIT :limit")
+	Flux<CategoryRow> findAfterOrderById(int after, int limit);
+
+	/**
+	 * Primeras categorías ordenadas por nombre.
+	 *
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return {@link Flux} de {@link CategoryRow}.
+	 */
+	@Query("SELECT * FROM categorias ORDER BY nombre, id_categoria LIMIT :limit")
+	Flux<CategoryRow> findFirstOrderByName(int limit);
+
+	/**
+	 * Categorías ordenadas por nombre que siguen al cursor. El cursor
+	 * lleva el nombre, de modo que no hace falta leer la fila a la que apunta.
+	 *
+	 * @param afterName Nombre de la última categoría de la página anterior.
+	 * @param after     ID de la última categoría de la página anterior.
+	 * @param limit     Número máximo de categorías a devolver.
+	 * @return {@link Flux} de {@link CategoryRow}.
+	 */
+	@Query("""
+			SELECT * FROM categorias
+			WHERE nombre > :afterName OR (nombre = :afterName AND id_categoria > :after)
+			ORDER BY nombre, id_categoria LIMIT :limit""")
+	Flux<CategoryRow> findAfterOrderByName(String afterName, int after, int limit);
+
+	/**
+	 * Primeras categorías ordenadas por fecha de modificación.
+	 *
+	 * @param limit Número máximo de categorías a devolver.
+	 * @return {@link Flux} de {@link CategoryRow}.
+	 */
+	@Query("SELECT * FROM categorias ORDER BY updated_at, id_categoria LIMIT :limit")
+	Flux<CategoryRow> findFirstOrderByUpdatedAt(int limit);
+
+	/**
+	 * Categorías ordenadas por fecha de modificación que siguen al cursor.
+	 *
+	 * @param afterUpdatedAt Fecha de la última categoría de la página anterior.
+	 * @param after          ID de la última categoría de la página anterior.
+	 * @param limit          Número máximo de categorías a devolver.
+	 * @return {@link Flux} de {@link CategoryRow}.
+	 */
+	@Query("""
+			SELECT * FROM categorias
+			WHERE updated_at > :afterUpdatedAt OR (updated_at = :afterUpdatedAt AND id_categoria > :after)
+			ORDER BY updated_at, id_categoria LIMIT :limit""")
+	Flux<CategoryRow> findAfterOrderByUpdatedAt(LocalDateTime afterUpdatedAt, int after, int limit);
+}
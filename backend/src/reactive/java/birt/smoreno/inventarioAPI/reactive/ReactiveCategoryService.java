@@ -0,0 +1,155 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveCategoryService} implementa la lógica de negocio de las
+ * categorías en la pila reactiva, con las mismas reglas que
+ * {@code CategoryService}.
+ * <p>
+ * Igual que allí, las operaciones sobre una categoría que no existe terminan
+ * vacías ({@link Mono#empty()}) y es el controlador quien responde 404.
+ * </p>
+ */
+@Service
+public class ReactiveCategoryService {
+
+	private final ReactiveCategoryRepository categoryRepository;
+	private final ReactiveProductRepository productRepository;
+	private final ReactiveMapper mapper;
+
+	public ReactiveCategoryService(ReactiveCategoryRepository categoryRepository,
+			ReactiveProductRepository productRepository, ReactiveMapper mapper) {
+		this.categoryRepository = categoryRepository;
+		this.productRepository = productRepository;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Obtiene una página de categorías mediante paginación por cursor.
+	 *
+	 * @param after cursor de la página anterior, o {@code null}.
+	 * @param limit tamaño de página solicitado, o {@code null}.
+	 * @param sort  criterio de ordenación.
+	 * @return {@link Mono} con la página y el cursor de la siguiente.
+	 */
+	public Mono<CursorPageDTO<CategoryResponseDTO>> getAllCategories(String after, Integer limit, SortField sort) {
+		int pageSize = CursorPagination.pageSize(limit);
+		return findRows(after, CursorPagination.queryLimit(pageSize).max(), sort).collectList()
+				.map(categories -> CursorPagination.page(categories, pageSize, category -> cursorOf(category, sort),
+						mapper::toResponseDTO));
+	}
+
+	/**
+	 * Recorre las categorías a partir de un cursor sin agruparlas en páginas.
+	 *
+	 * @param after cursor de la página anterior, o {@code null}.
+	 * @param limit número máximo de categorías, o {@code null} para todas.
+	 * @param sort  criterio de ordenación.
+	 * @return {@link Flux} de {@link CategoryResponseDTO}.
+	 */
+	public Flux<CategoryResponseDTO> streamCategories(String after, Integer limit, SortField sort) {
+		int rowLimit = limit == null || limit < 1 ? Integer.MAX_VALUE : limit;
+		return findRows(after, rowLimit, sort).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Obtiene una categoría por su ID.
+	 *
+	 * @param id ID de la categoría.
+	 * @return {@link Mono} con la categoría, o vacío si no existe.
+	 */
+	public Mono<CategoryResponseDTO> getCategoryById(int id) {
+		return categoryRepository.findById(id).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Crea una nueva categoría.
+	 *
+	 * @param categoryRequest datos de la categoría.
+	 * @return {@link Mono} con la categoría creada.
+	 */
+	@Transactional
+	public Mono<CategoryResponseDTO> createCategory(CategoryRequestDTO categoryRequest) {
+		return categoryRepository.save(mapper.toRow(categoryRequest)).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Actualiza una categoría existente.
+	 *
+	 * @param id              ID de la categoría.
+	 * @param categoryRequest nuevos datos de la categoría.
+	 * @return {@link Mono} con la categoría actualizada, o vacío si no existe.
+	 */
+	@Transactional
+	public Mono<CategoryResponseDTO> updateCategory(int id, CategoryRequestDTO categoryRequest) {
+		return categoryRepository.findById(id).flatMap(existingCategory -> {
+			existingCategory.setName(categoryRequest.getNombre());
+			existingCategory.setDescription(categoryRequest.getDescripcion());
+			return categoryRepository.save(existingCategory);
+		}).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Elimina una categoría si no tiene productos asociados.
+	 *
+	 * @param id ID de la categoría.
+	 * @return {@link Mono} con la categoría eliminada, vacío si no existe o error
+	 *         409 si tiene productos.
+	 */
+	@Transactional
+	public Mono<CategoryResponseDTO> deleteCategory(int id) {
+		return categoryRepository.findById(id)
+				.flatMap(category -> productRepository.countByCategoryId(id).flatMap(productCount -> productCount > 0
+						? Mono.error(new CustomException(
+								"No se puede eliminar la categoría porque tiene productos asociados.",
+								HttpStatus.CONFLICT.value()))
+						: categoryRepository.delete(category).thenReturn(mapper.toResponseDTO(category))));
+	}
+
+	private Flux<CategoryRow> findRows(String after, int limit, SortField sort) {
+		try {
+			return switch (sort) {
+			case NOMBRE -> {
+				Cursor<String> cursor = CursorPagination.decode(after, Function.identity());
+				yield cursor == null ? categoryRepository.findFirstOrderByName(limit)
+						: categoryRepository.findAfterOrderByName(cursor.key(), cursor.id(), limit);
+			}
+			case UPDATED_AT -> {
+				Cursor<LocalDateTime> cursor = CursorPagination.decode(after, LocalDateTime::parse);
+				yield cursor == null ? categoryRepository.findFirstOrderByUpdatedAt(limit)
+						: categoryRepository.findAfterOrderByUpdatedAt(cursor.key(), cursor.id(), limit);
+			}
+			case ID -> {
+				Cursor<?> cursor = CursorPagination.decode(after, null);
+				yield categoryRepository.findAfterOrderById(cursor == null ? 0 : cursor.id(), limit);
+			}
+			};
+		} catch (CustomException e) {
+			return Flux.error(e);
+		}
+	}
+
+	private static String cursorOf(CategoryRow row, SortField sort) {
+		return CursorPagination.encode(row.getId(), switch (sort) {
+		case NOMBRE -> row.getName();
+		case UPDATED_AT -> row.getUpdatedAt();
+		case ID -> null;
+		});
+	}
+}
@@ -0,0 +1,43 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * {@code ReactiveConfig} configura la pila reactiva de la API, que arranca
+ * {@link ReactiveInventarioAPIApplication}.
+ * <p>
+ * La aplicación arranca sobre WebFlux (Netty) y accede a MariaDB con R2DBC
+ * ({@code r2dbc-mariadb}), sin JPA ni pool JDBC, con el perfil de Spring
+ * {@code reactive} ({@code application-reactive.properties}). Sirve el mismo
+ * contrato de {@code /api/products} y {@code /api/categories} con los
+ * componentes de este paquete, el único que escanea; los de la pila servlet
+ * (controladores, servicios y mappers JPA) no se cargan.
+ * </p>
+ * <p>
+ * Ninguna petición retiene un hilo mientras espera a la base de datos: unos
+ * pocos hilos de Netty atienden todas las conexiones y el pool R2DBC solo
+ * necesita tantas conexiones como consultas en curso.
+ * </p>
+ * <p>
+ * Con {@code spring-boot-starter-web} en el classpath, Spring Boot usaría
+ * Tomcat también en modo reactivo; {@link #nettyReactiveWebServerFactory()}
+ * fija Netty como servidor.
+ * </p>
+ */
+@Configuration
+@EnableR2dbcRepositories(basePackageClasses = ReactiveConfig.class)
+@EnableR2dbcAuditing
+public class ReactiveConfig {
+
+	/** Nombre del perfil de Spring con la configuración de la pila reactiva. */
+	public static final String PROFILE = "reactive";
+
+	@Bean
+	NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
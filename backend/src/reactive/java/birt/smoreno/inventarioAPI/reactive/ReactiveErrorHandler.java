@@ -0,0 +1,74 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.MetricsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@code ReactiveErrorHandler} traduce los errores de la pila reactiva a la
+ * misma respuesta {@link ApiResponseDTO} que devuelve la pila servlet.
+ * <p>
+ * En la pila servlet cada controlador captura {@link CustomException}; aquí los
+ * servicios emiten el error como señal del {@code Mono}/{@code Flux} y se
+ * gestiona en un único punto. Los errores de {@code @Valid} se devuelven con
+ * el mismo formato que {@code ValidationHandler} y se cuentan en la métrica
+ * {@link MetricsConfig#VALIDATION_FAILURES}.
+ * </p>
+ */
+@RestControllerAdvice(basePackageClasses = ReactiveConfig.class)
+public class ReactiveErrorHandler {
+
+	private final MeterRegistry meterRegistry;
+
+	public ReactiveErrorHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Responde con el código HTTP y el mensaje del {@link CustomException}.
+	 *
+	 * @param exception error emitido por un servicio o controlador.
+	 * @return {@link ResponseEntity} con el error.
+	 */
+	@ExceptionHandler(CustomException.class)
+	public ResponseEntity<ApiResponseDTO<Object>> handleCustomException(CustomException exception) {
+		return ResponseEntity.status(exception.getHttpStatusCode()).body(new ApiResponseDTO<>(
+				AppConstants.STATUS_ERROR, exception.getHttpStatusCode(), exception.getMessage(), null));
+	}
+
+	/**
+	 * Maneja los errores de un cuerpo anotado con {@code @Valid}.
+	 *
+	 * @param exception excepción lanzada por errores de validación.
+	 * @param exchange  petición en curso, con la ruta resuelta.
+	 * @return {@link ResponseEntity} con los errores de validación por campo.
+	 */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<ApiResponseDTO<Object>> handleValidation(WebExchangeBindException exception,
+			ServerWebExchange exchange) {
+
+		Object uri = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		Counter.builder(MetricsConfig.VALIDATION_FAILURES).description("Peticiones rechazadas por validación")
+				.tag("uri", uri != null ? uri.toString() : "UNKNOWN").register(meterRegistry).increment();
+
+		Map<String, String> errors = new HashMap<>();
+		exception.getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+
+		return ResponseEntity.badRequest().body(new ApiResponseDTO<>(AppConstants.STATUS_ERROR,
+				HttpStatus.BAD_REQUEST.value(), "Error de validación", errors));
+	}
+}
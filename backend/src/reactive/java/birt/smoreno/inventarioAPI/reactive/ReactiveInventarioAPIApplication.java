@@ -0,0 +1,24 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Aplicación de la pila reactiva (WebFlux y R2DBC), que solo se compila con el
+ * perfil de Maven {@code reactive}.
+ * <p>
+ * Escanea únicamente este paquete y activa el perfil de Spring
+ * {@link ReactiveConfig#PROFILE}. El tipo de servidor se fija al arrancar
+ * porque {@code spring-boot-starter-web} también está en el classpath.
+ * </p>
+ */
+@SpringBootApplication
+public class ReactiveInventarioAPIApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(ReactiveInventarioAPIApplication.class).web(WebApplicationType.REACTIVE)
+				.profiles(ReactiveConfig.PROFILE).run(args);
+	}
+
+}
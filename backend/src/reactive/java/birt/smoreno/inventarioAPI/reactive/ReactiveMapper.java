@@ -0,0 +1,41 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import org.springframework.stereotype.Component;
+
+import birt.smoreno.inventarioAPI.dto.CategoryRequestDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+
+/**
+ * {@code ReactiveMapper} convierte entre los DTO de la API y las filas de la
+ * pila reactiva ({@link ProductRow}, {@link CategoryRow}). Produce los mismos
+ * DTO que {@code ProductMapper} y {@code CategoryMapper}.
+ */
+@Component
+public class ReactiveMapper {
+
+	public ProductRow toRow(ProductRequestDTO productRequestDTO) {
+		return new ProductRow(null, // ID se asigna automáticamente
+				productRequestDTO.getNombre(), productRequestDTO.getStock_actual(), productRequestDTO.getStock_minimo(),
+				productRequestDTO.getId_categoria(), null, null, null);
+	}
+
+	public ProductResponseDTO toResponseDTO(ProductRow product) {
+		return new ProductResponseDTO(product.getId(), product.getName(), product.getCurrentStock(),
+				product.getMinStock(), product.getCategoryId());
+	}
+
+	public ProductResponseDTO toExpandedResponseDTO(ProductRow product, CategoryRow category) {
+		return new ProductResponseDTO(product.getId(), product.getName(), product.getCurrentStock(),
+				product.getMinStock(), product.getCategoryId(), toResponseDTO(category));
+	}
+
+	public CategoryRow toRow(CategoryRequestDTO categoryRequestDTO) {
+		return new CategoryRow(null, categoryRequestDTO.getNombre(), categoryRequestDTO.getDescripcion(), null, null, null);
+	}
+
+	public CategoryResponseDTO toResponseDTO(CategoryRow category) {
+		return new CategoryResponseDTO(category.getId(), category.getName(), category.getDescription());
+	}
+}
@@ -0,0 +1,207 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementRequestDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveProductController} sirve {@code /api/products} en la pila
+ * reactiva, con las mismas rutas, mensajes y códigos de estado que
+ * {@code ProductController}.
+ * <p>
+ * Los listados admiten además {@code Accept: application/x-ndjson}: en ese
+ * caso los productos se envían uno por línea a medida que se leen de la base
+ * de datos, sin paginar, y la lectura avanza al ritmo que el cliente consume
+ * la respuesta.
+ * </p>
+ * <p>
+ * No incluye la exportación, la importación CSV, los movimientos en lote, los
+ * eventos SSE ni los ETag, que solo ofrece la pila servlet.
+ * </p>
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("/api/products")
+public class ReactiveProductController {
+
+	private final ReactiveProductService productService;
+
+	public ReactiveProductController(ReactiveProductService productService) {
+		this.productService = productService;
+	}
+
+	/**
+	 * Obtiene una página de productos mediante paginación por cursor.
+	 *
+	 * @param after  cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit  tamaño de página (opcional, máximo
+	 *               {@link AppConstants#MAX_PAGE_SIZE}).
+	 * @param sort   criterio de ordenación (opcional).
+	 * @param expand {@code category} para incluir la categoría (opcional).
+	 * @return {@link ApiResponseDTO} con la lista de productos y el cursor de la
+	 *         página siguiente.
+	 * @throws CustomException si {@code sort} o {@code expand} no son válidos.
+	 */
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>>> getAllProducts(
+			@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String sort, @RequestParam(required = false) String expand)
+			throws CustomException {
+		return productService.getAllProducts(after, limit, SortField.fromParam(sort), isCategoryExpanded(expand))
+				.map(page -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(),
+						"Productos obtenidos correctamente", page.items(), page.nextCursor())));
+	}
+
+	/**
+	 * Envía los productos en NDJSON a partir de un cursor, sin paginar.
+	 *
+	 * @param after  cursor {@code nextCursor} de la página anterior (opcional).
+	 * @param limit  número máximo de productos (opcional, sin límite por
+	 *               defecto).
+	 * @param sort   criterio de ordenación (opcional).
+	 * @param expand {@code category} para incluir la categoría (opcional).
+	 * @return {@link Flux} de {@link ProductResponseDTO}.
+	 * @throws CustomException si {@code sort} o {@code expand} no son válidos.
+	 */
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<ProductResponseDTO> streamProducts(@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String sort,
+			@RequestParam(required = false) String expand) throws CustomException {
+		return productService.streamProducts(after, limit, SortField.fromParam(sort), isCategoryExpanded(expand));
+	}
+
+	/**
+	 * Obtiene un producto por su ID.
+	 *
+	 * @param id ID del producto.
+	 * @return {@link ApiResponseDTO} con el producto.
+	 */
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<ProductResponseDTO>>> getProductById(@PathVariable int id) {
+		return productService.getProductById(id).map(product -> ResponseEntity
+				.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS, HttpStatus.OK.value(), "Producto encontrado",
+						product)));
+	}
+
+	/**
+	 * Crea un nuevo producto.
+	 *
+	 * @param productRequest {@link ProductRequestDTO} con los datos del producto.
+	 * @return {@link ApiResponseDTO} con el producto creado.
+	 */
+	@PostMapping
+	public Mono<ResponseEntity<ApiResponseDTO<ProductResponseDTO>>> createProduct(
+			@Valid @RequestBody ProductRequestDTO productRequest) {
+		return productService.createProduct(productRequest)
+				.map(product -> ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponseDTO<>(
+						AppConstants.STATUS_SUCCESS, HttpStatus.CREATED.value(), "Producto creado correctamente",
+						product)));
+	}
+
+	/**
+	 * Actualiza un producto existente.
+	 *
+	 * @param id             ID del producto.
+	 * @param productRequest {@link ProductRequestDTO} con los nuevos datos.
+	 * @return {@link ApiResponseDTO} con el producto actualizado.
+	 */
+	@PutMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<ProductResponseDTO>>> updateProduct(@PathVariable int id,
+			@Valid @RequestBody ProductRequestDTO productRequest) {
+		return productService.updateProduct(id, productRequest)
+				.map(product -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Producto actualizado correctamente", product)));
+	}
+
+	/**
+	 * Elimina un producto por su ID.
+	 *
+	 * @param id ID del producto.
+	 * @return {@link ApiResponseDTO} con el producto eliminado.
+	 */
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<ApiResponseDTO<ProductResponseDTO>>> deleteProduct(@PathVariable int id) {
+		return productService.deleteProduct(id)
+				.map(product -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Producto eliminado correctamente", product)));
+	}
+
+	/**
+	 * Obtiene los productos cuyo stock está por debajo del mínimo.
+	 *
+	 * @param expand {@code category} para incluir la categoría (opcional).
+	 * @return {@link ApiResponseDTO} con los productos, de mayor a menor déficit.
+	 * @throws CustomException si {@code expand} no es válido.
+	 */
+	@GetMapping(path = "/min", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<ApiResponseDTO<List<ProductResponseDTO>>>> getProductsUnderStock(
+			@RequestParam(required = false) String expand) throws CustomException {
+		return productService.getProductsUnderStock(isCategoryExpanded(expand)).collectList()
+				.map(productsUnderStock -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Productos que están por debajo de su stock mínimo establecido",
+						productsUnderStock)));
+	}
+
+	/**
+	 * Envía en NDJSON los productos cuyo stock está por debajo del mínimo.
+	 *
+	 * @param expand {@code category} para incluir la categoría (opcional).
+	 * @return {@link Flux} de {@link ProductResponseDTO}, de mayor a menor
+	 *         déficit.
+	 * @throws CustomException si {@code expand} no es válido.
+	 */
+	@GetMapping(path = "/min", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<ProductResponseDTO> streamProductsUnderStock(@RequestParam(required = false) String expand)
+			throws CustomException {
+		return productService.getProductsUnderStock(isCategoryExpanded(expand));
+	}
+
+	/**
+	 * Registra un movimiento de stock de un producto.
+	 *
+	 * @param id       ID del producto.
+	 * @param movement {@link StockMovementRequestDTO} con la variación y el motivo.
+	 * @return {@link ApiResponseDTO} con el stock resultante.
+	 */
+	@PostMapping("/{id}/movements")
+	public Mono<ResponseEntity<ApiResponseDTO<StockMovementResponseDTO>>> createStockMovement(@PathVariable int id,
+			@Valid @RequestBody StockMovementRequestDTO movement) {
+		return productService.applyStockMovement(id, movement.getDelta())
+				.map(stockLevel -> ResponseEntity.ok(new ApiResponseDTO<>(AppConstants.STATUS_SUCCESS,
+						HttpStatus.OK.value(), "Movimiento de stock registrado correctamente", stockLevel)));
+	}
+
+	private boolean isCategoryExpanded(String expand) throws CustomException {
+		if (expand == null || expand.isBlank()) {
+			return false;
+		}
+		if (AppConstants.EXPAND_CATEGORY.equalsIgnoreCase(expand)) {
+			return true;
+		}
+		throw new CustomException("Valor de expand no válido: " + expand, HttpStatus.BAD_REQUEST.value());
+	}
+}
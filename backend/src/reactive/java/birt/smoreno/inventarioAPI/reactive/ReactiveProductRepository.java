@@ -0,0 +1,112 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveProductRepository} es el repositorio R2DBC de
+ * {@link ProductRow}, con las mismas consultas que {@code ProductRepository}.
+ * <p>
+ * Los listados se paginan por cursor igual que en la pila servlet. Los
+ * {@link Flux} devueltos leen las filas a medida que se consumen, de modo que
+ * un cliente lento frena la lectura en lugar de acumular filas en memoria.
+ * </p>
+ */
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRow, Integer> {
+
+	/**
+	 * Productos ordenados por ID a partir de un cursor.
+	 *
+	 * @param after ID del último producto de la página anterior (0 al empezar).
+	 * @param limit Número máximo de productos a devolver.
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("SELECT * FROM productos WHERE id_producto > :after ORDER BY id_producto LIMIT :limit")
+	Flux<ProductRow> findAfterOrderById(int after, int limit);
+
+	/**
+	 * Primeros productos ordenados por nombre.
+	 *
+	 * @param limit Número máximo de productos a devolver.
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("SELECT * FROM productos ORDER BY nombre, id_producto LIMIT :limit")
+	Flux<ProductRow> findFirstOrderByName(int limit);
+
+	/**
+	 * Productos ordenados por nombre que siguen al cursor. El cursor
+	 * lleva el nombre, de modo que no hace falta leer la fila a la que apunta.
+	 *
+	 * @param afterName Nombre del último producto de la página anterior.
+	 * @param after     ID del último producto de la página anterior.
+	 * @param limit     Número máximo de productos a devolver.
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("""
+			SELECT * FROM productos
+			WHERE nombre > :afterName OR (nombre = :afterName AND id_producto > :after)
+			ORDER BY nombre, id_producto LIMIT :limit""")
+	Flux<ProductRow> findAfterOrderByName(String afterName, int after, int limit);
+
+	/**
+	 * Primeros productos ordenados por fecha de modificación.
+	 *
+	 * @param limit Número máximo de productos a devolver.
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("SELECT * FROM productos ORDER BY updated_at, id_producto LIMIT :limit")
+	Flux<ProductRow> findFirstOrderByUpdatedAt(int limit);
+
+	/**
+	 * Productos ordenados por fecha de modificación que siguen al cursor.
+	 *
+	 * @param afterUpdatedAt Fecha del último producto de la página anterior.
+	 * @param after          ID del último producto de la página anterior.
+	 * @param limit          Número máximo de productos a devolver.
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("""
+			SELECT * FROM productos
+			WHERE updated_at > :afterUpdatedAt OR (updated_at = :afterUpdatedAt AND id_producto > :after)
+			ORDER BY updated_at, id_producto LIMIT :limit""")
+	Flux<ProductRow> findAfterOrderByUpdatedAt(LocalDateTime afterUpdatedAt, int after, int limit);
+
+	/**
+	 * Productos con stock inferior al mínimo, de mayor a menor déficit. Usa el
+	 * índice de la columna generada {@code deficit}.
+	 *
+	 * @return {@link Flux} de {@link ProductRow}.
+	 */
+	@Query("SELECT * FROM productos WHERE deficit > 0 ORDER BY deficit DESC, id_producto")
+	Flux<ProductRow> findUnderStock();
+
+	/**
+	 * Aplica una variación de stock con un único {@code UPDATE} condicional que
+	 * impide que el stock quede negativo.
+	 *
+	 * @param id    ID del producto.
+	 * @param delta Variación de unidades (negativa para una salida).
+	 * @return Número de filas actualizadas: 0 si el producto no existe o el stock
+	 *         quedaría negativo.
+	 */
+	@Modifying
+	@Query("""
+			UPDATE productos SET stock_actual = stock_actual + :delta, version = version + 1,
+			       updated_at = CURRENT_TIMESTAMP
+			WHERE id_producto = :id AND stock_actual >= -:delta""")
+	Mono<Integer> applyStockDelta(int id, int delta);
+
+	/**
+	 * Cuenta los productos de una categoría.
+	 *
+	 * @param categoryId ID de la categoría.
+	 * @return Número de productos.
+	 */
+	Mono<Long> countByCategoryId(int categoryId);
+}
@@ -0,0 +1,230 @@
+package birt.smoreno.inventarioAPI.reactive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import birt.smoreno.inventarioAPI.dto.CursorPageDTO;
+import birt.smoreno.inventarioAPI.dto.ProductRequestDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockMovementResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+import birt.smoreno.inventarioAPI.utils.CursorPagination;
+import birt.smoreno.inventarioAPI.utils.CursorPagination.Cursor;
+import birt.smoreno.inventarioAPI.utils.SortField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveProductService} implementa la lógica de negocio de los
+ * productos en la pila reactiva, con las mismas reglas que
+ * {@code ProductService}.
+ * <p>
+ * Los errores se emiten como señal ({@link Mono#error(Throwable)}) con un
+ * {@link CustomException} que lleva el código HTTP, y los traduce
+ * {@link ReactiveErrorHandler}.
+ * </p>
+ */
+@Service
+public class ReactiveProductService {
+
+	private final ReactiveProductRepository productRepository;
+	private final ReactiveCategoryRepository categoryRepository;
+	private final ReactiveMapper mapper;
+
+	public ReactiveProductService(ReactiveProductRepository productRepository,
+			ReactiveCategoryRepository categoryRepository, ReactiveMapper mapper) {
+		this.productRepository = productRepository;
+		this.categoryRepository = categoryRepository;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Obtiene una página de productos mediante paginación por cursor.
+	 *
+	 * @param after          cursor de la página anterior, o {@code null}.
+	 * @param limit          tamaño de página solicitado, o {@code null}.
+	 * @param sort           criterio de ordenación.
+	 * @param expandCategory si se incluye la categoría en cada producto.
+	 * @return {@link Mono} con la página y el cursor de la siguiente.
+	 */
+	public Mono<CursorPageDTO<ProductResponseDTO>> getAllProducts(String after, Integer limit, SortField sort,
+			boolean expandCategory) {
+		int pageSize = CursorPagination.pageSize(limit);
+		// El cursor se calcula sobre las filas, que tienen la fecha de modificación
+		return findRows(after, CursorPagination.queryLimit(pageSize).max(), sort).collectList()
+				.map(rows -> CursorPagination.page(rows, pageSize, row -> cursorOf(row, sort), Function.identity()))
+				.flatMap(page -> toResponseDTOs(Flux.fromIterable(page.items()), expandCategory).collectList()
+						.map(products -> new CursorPageDTO<>(products, page.nextCursor())));
+	}
+
+	/**
+	 * Recorre los productos a partir de un cursor sin agruparlos en páginas. Las
+	 * filas se leen según las pide el cliente, de modo que el listado no tiene
+	 * el límite de {@link AppConstants#MAX_PAGE_SIZE}.
+	 *
+	 * @param after          cursor de la página anterior, o {@code null}.
+	 * @param limit          número máximo de productos, o {@code null} para todos.
+	 * @param sort           criterio de ordenación.
+	 * @param expandCategory si se incluye la categoría en cada producto.
+	 * @return {@link Flux} de {@link ProductResponseDTO}.
+	 */
+	public Flux<ProductResponseDTO> streamProducts(String after, Integer limit, SortField sort,
+			boolean expandCategory) {
+		int rowLimit = limit == null || limit < 1 ? Integer.MAX_VALUE : limit;
+		return toResponseDTOs(findRows(after, rowLimit, sort), expandCategory);
+	}
+
+	/**
+	 * Obtiene un producto por su ID.
+	 *
+	 * @param id ID del producto.
+	 * @return {@link Mono} con el producto, o error 404 si no existe.
+	 */
+	public Mono<ProductResponseDTO> getProductById(int id) {
+		return findProduct(id).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Crea un nuevo producto en una categoría existente.
+	 *
+	 * @param productRequest datos del producto.
+	 * @return {@link Mono} con el producto creado.
+	 */
+	@Transactional
+	public Mono<ProductResponseDTO> createProduct(ProductRequestDTO productRequest) {
+		return requireCategory(productRequest.getId_categoria())
+				.then(Mono.defer(() -> productRepository.save(mapper.toRow(productRequest))))
+				.map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Actualiza un producto existente.
+	 *
+	 * @param id             ID del producto.
+	 * @param productRequest nuevos datos del producto.
+	 * @return {@link Mono} con el producto actualizado, o error 404 si no existe.
+	 */
+	@Transactional
+	public Mono<ProductResponseDTO> updateProduct(int id, ProductRequestDTO productRequest) {
+		return requireCategory(productRequest.getId_categoria()).then(findProduct(id)).flatMap(existingProduct -> {
+			existingProduct.setName(productRequest.getNombre());
+			existingProduct.setCurrentStock(productRequest.getStock_actual());
+			existingProduct.setMinStock(productRequest.getStock_minimo());
+			existingProduct.setCategoryId(productRequest.getId_categoria());
+			return productRepository.save(existingProduct);
+		}).map(mapper::toResponseDTO);
+	}
+
+	/**
+	 * Elimina un producto por su ID.
+	 *
+	 * @param id ID del producto.
+	 * @return {@link Mono} con el producto eliminado, o error 404 si no existe.
+	 */
+	@Transactional
+	public Mono<ProductResponseDTO> deleteProduct(int id) {
+		return findProduct(id)
+				.flatMap(product -> productRepository.delete(product).thenReturn(mapper.toResponseDTO(product)));
+	}
+
+	/**
+	 * Obtiene los productos cuyo stock está por debajo del mínimo, de mayor a
+	 * menor déficit.
+	 *
+	 * @param expandCategory si se incluye la categoría en cada producto.
+	 * @return {@link Flux} de {@link ProductResponseDTO}.
+	 */
+	public Flux<ProductResponseDTO> getProductsUnderStock(boolean expandCategory) {
+		return toResponseDTOs(productRepository.findUnderStock(), expandCategory);
+	}
+
+	/**
+	 * Registra un movimiento de stock con un {@code UPDATE} condicional, igual que
+	 * {@code ProductService#applyStockMovement}.
+	 *
+	 * @param id    ID del producto.
+	 * @param delta variación de unidades.
+	 * @return {@link Mono} con el stock resultante; error 404 si el producto no
+	 *         existe o 409 si el stock quedaría negativo.
+	 */
+	@Transactional
+	public Mono<StockMovementResponseDTO> applyStockMovement(int id, int delta) {
+		return productRepository.applyStockDelta(id, delta)
+				.flatMap(updatedRows -> findProduct(id).flatMap(product -> updatedRows == 0
+						? Mono.error(new CustomException(
+								"Stock insuficiente: quedan " + product.getCurrentStock() + " unidades",
+								HttpStatus.CONFLICT.value()))
+						: Mono.just(new StockMovementResponseDTO(product.getId(), product.getCurrentStock(),
+								product.getMinStock()))));
+	}
+
+	private Mono<ProductRow> findProduct(int id) {
+		return productRepository.findById(id).switchIfEmpty(
+				Mono.error(() -> new CustomException("Producto no encontrado", HttpStatus.NOT_FOUND.value())));
+	}
+
+	private Mono<Void> requireCategory(int categoryId) {
+		// Mismo comportamiento que ProductMapper#toEntity
+		return categoryRepository.existsById(categoryId).flatMap(
+				exists -> exists ? Mono.<Void>empty() : Mono.error(new RuntimeException("Categoría no encontrada")));
+	}
+
+	private Flux<ProductRow> findRows(String after, int limit, SortField sort) {
+		try {
+			return switch (sort) {
+			case NOMBRE -> {
+				Cursor<String> cursor = CursorPagination.decode(after, Function.identity());
+				yield cursor == null ? productRepository.findFirstOrderByName(limit)
+						: productRepository.findAfterOrderByName(cursor.key(), cursor.id(), limit);
+			}
+			case UPDATED_AT -> {
+				Cursor<LocalDateTime> cursor = CursorPagination.decode(after, LocalDateTime::parse);
+				yield cursor == null ? productRepository.findFirstOrderByUpdatedAt(limit)
+						: productRepository.findAfterOrderByUpdatedAt(cursor.key(), cursor.id(), limit);
+			}
+			case ID -> {
+				Cursor<?> cursor = CursorPagination.decode(after, null);
+				yield productRepository.findAfterOrderById(cursor == null ? 0 : cursor.id(), limit);
+			}
+			};
+		} catch (CustomException e) {
+			return Flux.error(e);
+		}
+	}
+
+	private static String cursorOf(ProductRow row, SortField sort) {
+		return CursorPagination.encode(row.getId(), switch (sort) {
+		case NOMBRE -> row.getName();
+		case UPDATED_AT -> row.getUpdatedAt();
+		case ID -> null;
+		});
+	}
+
+	/**
+	 * Convierte las filas en DTO. Con la categoría expandida, las filas se agrupan
+	 * en bloques de {@link AppConstants#EXPORT_FETCH_SIZE} y las categorías de
+	 * cada bloque se cargan con una sola consulta.
+	 */
+	private Flux<ProductResponseDTO> toResponseDTOs(Flux<ProductRow> rows, boolean expandCategory) {
+		if (!expandCategory) {
+			return rows.map(mapper::toResponseDTO);
+		}
+		return rows.buffer(AppConstants.EXPORT_FETCH_SIZE).concatMap(chunk -> {
+			List<Integer> categoryIds = chunk.stream().map(ProductRow::getCategoryId).distinct().toList();
+			return categoryRepository.findAllById(categoryIds).collectMap(CategoryRow::getId)
+					.flatMapMany(categories -> Flux.fromIterable(chunk).map(
+							product -> toExpandedResponseDTO(product, categories)));
+		});
+	}
+
+	private ProductResponseDTO toExpandedResponseDTO(ProductRow product, Map<Integer, CategoryRow> categories) {
+		return mapper.toExpandedResponseDTO(product, categories.get(product.getCategoryId()));
+	}
+}
@@ -0,0 +1,17 @@
+package birt.smoreno.inventarioAPI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@ActiveProfiles("contract")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:context-loads;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1")
+class InventarioAPIApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,265 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+
+/**
+ * Contrato de {@code /api/products} y {@code /api/categories} que deben
+ * cumplir la pila servlet ({@link ServletApiContractTest}) y la reactiva
+ * ({@code ReactiveApiContractTest}, con el perfil de Maven {@code reactive}).
+ * <p>
+ * Cada prueba crea los datos que modifica, de modo que el resultado no depende
+ * del orden de ejecución. Los datos de {@code data-contract.sql} solo se leen.
+ * </p>
+ */
+abstract class ApiContractTest extends ContractTestSupport {
+
+	@Test
+	void listsProductsByCursor() {
+		ApiResponseDTO<List<ProductResponseDTO>> firstPage = client.get().uri("/api/products?limit=2").exchange()
+				.expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody();
+
+		assertThat(firstPage.status()).isEqualTo("success");
+		assertThat(firstPage.message()).isEqualTo("Productos obtenidos correctamente");
+		assertThat(firstPage.data()).hasSize(2);
+		assertThat(firstPage.nextCursor()).isNotBlank();
+
+		ApiResponseDTO<List<ProductResponseDTO>> secondPage = client.get()
+				.uri("/api/products?limit=2&after=" + firstPage.nextCursor()).exchange().expectStatus().isOk()
+				.expectBody(PRODUCT_LIST).returnResult().getResponseBody();
+
+		assertThat(secondPage.data()).isNotEmpty()
+				.allSatisfy(product -> assertThat(product.id()).isGreaterThan(firstPage.data().get(1).id()));
+	}
+
+	@Test
+	void keepsPagingAfterCursorRowIsDeleted() {
+		String prefix = uniqueName("0 Cursor");
+		int first = createProduct(prefix + " 1", 1, 1, 3);
+		int second = createProduct(prefix + " 2", 1, 1, 3);
+		int third = createProduct(prefix + " 3", 1, 1, 3);
+
+		// Recorrer por nombre, de uno en uno, hasta el primero de los creados
+		String cursor = null;
+		ApiResponseDTO<List<ProductResponseDTO>> page;
+		do {
+			page = client.get().uri("/api/products?sort=nombre&limit=1" + (cursor != null ? "&after=" + cursor : ""))
+					.exchange().expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody();
+			cursor = page.nextCursor();
+		} while (page.data().get(0).id() != first);
+
+		client.delete().uri("/api/products/" + first).exchange().expectStatus().isOk();
+
+		List<ProductResponseDTO> next = client.get().uri("/api/products?sort=nombre&limit=2&after=" + cursor)
+				.exchange().expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody().data();
+		assertThat(next).extracting(ProductResponseDTO::id).containsExactly(second, third);
+
+		client.delete().uri("/api/products/" + second).exchange().expectStatus().isOk();
+		client.delete().uri("/api/products/" + third).exchange().expectStatus().isOk();
+	}
+
+	@Test
+	void pagesEverySortOrderLikeSinglePage() {
+		for (String sort : List.of("id", "nombre", "updated_at")) {
+			for (String expand : List.of("", "&expand=category")) {
+				String query = "/api/products?sort=" + sort + expand;
+				List<ProductResponseDTO> all = client.get().uri(query + "&limit=500").exchange().expectStatus().isOk()
+						.expectBody(PRODUCT_LIST).returnResult().getResponseBody().data();
+
+				List<ProductResponseDTO> paged = new ArrayList<>();
+				String cursor = null;
+				do {
+					ApiResponseDTO<List<ProductResponseDTO>> page = client.get()
+							.uri(query + "&limit=2" + (cursor != null ? "&after=" + cursor : "")).exchange()
+							.expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody();
+					paged.addAll(page.data());
+					cursor = page.nextCursor();
+				} while (cursor != null);
+
+				assertThat(paged).as(query).isEqualTo(all);
+			}
+		}
+	}
+
+	@Test
+	void rejectsInvalidCursor() {
+		client.get().uri("/api/products?after=x").exchange().expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.status").isEqualTo("error");
+		client.get().uri("/api/products?sort=nombre&after=MTI").exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	void sortsProductsByName() {
+		List<ProductResponseDTO> products = client.get().uri("/api/products?sort=nombre&limit=500").exchange()
+				.expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody().data();
+
+		assertThat(products).extracting(ProductResponseDTO::nombre).isSortedAccordingTo(String.CASE_INSENSITIVE_ORDER);
+	}
+
+	@Test
+	void expandsCategory() {
+		List<ProductResponseDTO> products = client.get().uri("/api/products?expand=category").exchange()
+				.expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody().data();
+
+		assertThat(products).isNotEmpty().allSatisfy(product -> {
+			assertThat(product.categoria()).isNotNull();
+			assertThat(product.categoria().id()).isEqualTo(product.id_categoria());
+		});
+		client.get().uri("/api/products").exchange().expectBody().jsonPath("$.data[0].categoria").doesNotExist();
+	}
+
+	@Test
+	void rejectsInvalidListParameters() {
+		client.get().uri("/api/products?sort=precio").exchange().expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.status").isEqualTo("error").jsonPath("$.code").isEqualTo(400).jsonPath("$.message")
+				.isEqualTo("Criterio de ordenación no válido: precio");
+		client.get().uri("/api/products?expand=proveedor").exchange().expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.message").isEqualTo("Valor de expand no válido: proveedor");
+		client.get().uri("/api/categories?sort=precio").exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	void getsProductById() {
+		client.get().uri("/api/products/1").exchange().expectStatus().isOk().expectBody().jsonPath("$.status")
+				.isEqualTo("success").jsonPath("$.code").isEqualTo(200).jsonPath("$.message")
+				.isEqualTo("Producto encontrado").jsonPath("$.data.id").isEqualTo(1).jsonPath("$.data.nombre")
+				.isEqualTo("Martillo").jsonPath("$.data.id_categoria").isEqualTo(1).jsonPath("$.nextCursor")
+				.doesNotExist();
+	}
+
+	@Test
+	void returnsNotFoundForMissingProduct() {
+		client.get().uri("/api/products/999999").exchange().expectStatus().isNotFound().expectBody()
+				.jsonPath("$.status").isEqualTo("error").jsonPath("$.code").isEqualTo(404).jsonPath("$.message")
+				.isEqualTo("Producto no encontrado").jsonPath("$.data").doesNotExist();
+		client.put().uri("/api/products/999999").bodyValue(product(uniqueName("Contrato"), 1, 1, 1)).exchange()
+				.expectStatus().isNotFound();
+		client.delete().uri("/api/products/999999").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void validatesProductBody() {
+		client.post().uri("/api/products").bodyValue(Map.of("nombre", "", "stock_minimo", 0)).exchange()
+				.expectStatus().isBadRequest().expectBody().jsonPath("$.status").isEqualTo("error")
+				.jsonPath("$.message").isEqualTo("Error de validación").jsonPath("$.data.nombre")
+				.isEqualTo("El nombre es obligatorio").jsonPath("$.data.stock_minimo")
+				.isEqualTo("El stock mínimo debe ser mayor que cero").jsonPath("$.data.id_categoria").exists();
+	}
+
+	@Test
+	void createsUpdatesAndDeletesProduct() {
+		String name = uniqueName("Contrato");
+		int id = createProduct(name, 7, 3, 2);
+
+		client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.nombre").isEqualTo(name).jsonPath("$.data.stock_actual").isEqualTo(7)
+				.jsonPath("$.data.id_categoria").isEqualTo(2);
+
+		client.put().uri("/api/products/" + id).bodyValue(product(name, 1, 4, 1)).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.message").isEqualTo("Producto actualizado correctamente")
+				.jsonPath("$.data.stock_actual").isEqualTo(1).jsonPath("$.data.stock_minimo").isEqualTo(4)
+				.jsonPath("$.data.id_categoria").isEqualTo(1);
+
+		client.delete().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.message").isEqualTo("Producto eliminado correctamente").jsonPath("$.data.id")
+				.isEqualTo(id);
+		client.get().uri("/api/products/" + id).exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void listsProductsUnderStockByDeficit() {
+		ApiResponseDTO<List<ProductResponseDTO>> response = client.get().uri("/api/products/min?expand=category")
+				.exchange().expectStatus().isOk().expectBody(PRODUCT_LIST).returnResult().getResponseBody();
+
+		assertThat(response.message()).isEqualTo("Productos que están por debajo de su stock mínimo establecido");
+		assertThat(response.data()).isNotEmpty()
+				.allSatisfy(product -> assertThat(product.stock_actual()).isLessThan(product.stock_minimo()))
+				.allSatisfy(product -> assertThat(product.categoria()).isNotNull())
+				.extracting(product -> product.stock_minimo() - product.stock_actual())
+				.isSortedAccordingTo((a, b) -> Integer.compare(b, a));
+	}
+
+	@Test
+	void registersStockMovements() {
+		int id = createProduct(uniqueName("Contrato"), 5, 2, 1);
+
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -4, "reason", "venta"))
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.message")
+				.isEqualTo("Movimiento de stock registrado correctamente").jsonPath("$.data.stock_actual")
+				.isEqualTo(1).jsonPath("$.data.bajo_minimo").isEqualTo(true);
+
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -5)).exchange()
+				.expectStatus().isEqualTo(409).expectBody().jsonPath("$.message")
+				.isEqualTo("Stock insuficiente: quedan 1 unidades");
+
+		client.post().uri("/api/products/999999/movements").bodyValue(Map.of("delta", 1)).exchange().expectStatus()
+				.isNotFound();
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of()).exchange().expectStatus()
+				.isBadRequest().expectBody().jsonPath("$.data.delta").exists();
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", 0)).exchange()
+				.expectStatus().isBadRequest().expectBody().jsonPath("$.data.delta")
+				.isEqualTo("La variación de stock no puede ser cero");
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", Integer.MIN_VALUE + 1))
+				.exchange().expectStatus().isBadRequest().expectBody().jsonPath("$.data.delta").exists();
+	}
+
+	@Test
+	void listsAndGetsCategories() {
+		client.get().uri("/api/categories?limit=2").exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.message").isEqualTo("Categorías obtenidas correctamente").jsonPath("$.data.length()")
+				.isEqualTo(2).jsonPath("$.nextCursor").value(cursor -> assertThat(cursor).isInstanceOf(String.class));
+
+		client.get().uri("/api/categories/1").exchange().expectStatus().isOk().expectBody().jsonPath("$.message")
+				.isEqualTo("Categoría encontrada").jsonPath("$.data.nombre").isEqualTo("Herramientas");
+
+		client.get().uri("/api/categories/999999").exchange().expectStatus().isNotFound().expectBody()
+				.jsonPath("$.status").isEqualTo("error").jsonPath("$.message").isEqualTo("Categoría no encontrada");
+	}
+
+	@Test
+	void createsUpdatesAndDeletesCategory() {
+		String name = uniqueName("Contrato");
+		int id = client.post().uri("/api/categories").bodyValue(Map.of("nombre", name, "descripcion", "Prueba"))
+				.exchange().expectStatus().isCreated()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<CategoryResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+
+		client.put().uri("/api/categories/" + id).bodyValue(Map.of("nombre", name, "descripcion", "Actualizada"))
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.message")
+				.isEqualTo("Categoría actualizada correctamente").jsonPath("$.data.descripcion")
+				.isEqualTo("Actualizada");
+		client.put().uri("/api/categories/999999").bodyValue(Map.of("nombre", name)).exchange().expectStatus()
+				.isNotFound();
+
+		client.delete().uri("/api/categories/" + id).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.message").isEqualTo("Categoría eliminada correctamente");
+		client.delete().uri("/api/categories/" + id).exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void validatesCategoryBodyAndRefusesToDeleteCategoryWithProducts() {
+		client.post().uri("/api/categories").bodyValue(Map.of("descripcion", "Sin nombre")).exchange().expectStatus()
+				.isBadRequest().expectBody().jsonPath("$.data.nombre").isEqualTo("El nombre es obligatorio");
+
+		client.delete().uri("/api/categories/1").exchange().expectStatus().isEqualTo(409).expectBody()
+				.jsonPath("$.status").isEqualTo("error").jsonPath("$.message")
+				.isEqualTo("No se puede eliminar la categoría porque tiene productos asociados.");
+	}
+
+	@Test
+	void servesJsonByDefault() {
+		client.get().uri("/api/products").accept(MediaType.ALL).exchange().expectStatus().isOk().expectHeader()
+				.contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+	}
+}
@@ -0,0 +1,50 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+
+/**
+ * Base de las pruebas de contrato: cliente HTTP contra la aplicación arrancada
+ * en un puerto aleatorio y creación de los productos que cada prueba modifica.
+ * <p>
+ * La aplicación y los perfiles los fija cada pila: {@link ServletContractTestSupport}
+ * para la servlet y {@code ReactiveApiContractTest} para la reactiva.
+ * </p>
+ */
+abstract class ContractTestSupport {
+
+	static final ParameterizedTypeReference<ApiResponseDTO<ProductResponseDTO>> PRODUCT = new ParameterizedTypeReference<>() {
+	};
+	static final ParameterizedTypeReference<ApiResponseDTO<List<ProductResponseDTO>>> PRODUCT_LIST = new ParameterizedTypeReference<>() {
+	};
+
+	@Autowired
+	WebTestClient client;
+
+	/**
+	 * Crear un producto
+	 *
+	 * @return ID del producto creado
+	 */
+	int createProduct(String name, int stock, int minStock, int categoryId) {
+		return client.post().uri("/api/products").bodyValue(product(name, stock, minStock, categoryId)).exchange()
+				.expectStatus().isCreated().expectBody(PRODUCT).returnResult().getResponseBody().data().id();
+	}
+
+	static Map<String, Object> product(String name, int stock, int minStock, int categoryId) {
+		return Map.of("nombre", name, "stock_actual", stock, "stock_minimo", minStock, "id_categoria", categoryId);
+	}
+
+	/** Nombre que no se repite entre pruebas ni ejecuciones */
+	static String uniqueName(String prefix) {
+		return prefix + " " + UUID.randomUUID();
+	}
+}
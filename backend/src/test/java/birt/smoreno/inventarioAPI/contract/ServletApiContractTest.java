@@ -0,0 +1,14 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import birt.smoreno.inventarioAPI.InventarioAPIApplication;
+
+/**
+ * Contrato de la API sobre la pila servlet (Spring MVC + JPA).
+ */
+@SpringBootTest(classes = InventarioAPIApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("contract")
+class ServletApiContractTest extends ApiContractTest {
+}
@@ -0,0 +1,213 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategorySummaryDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.entities.ProductEntity;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.services.CategoryService;
+import birt.smoreno.inventarioAPI.utils.CacheConfig;
+import birt.smoreno.inventarioAPI.utils.IfMatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caché de segundo nivel de Hibernate y cachés de categorías, solo en la pila
+ * servlet. Cada escritura, también las que se hacen con JDBC, debe verse en la
+ * lectura siguiente.
+ */
+class ServletCacheTest extends ServletContractTestSupport {
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	CategoryService categoryService;
+
+	@Test
+	void evictsProductAfterStockMovement() {
+		int id = createProduct(uniqueName("Caché"), 10, 1, 1);
+		assertThat(stock(id)).isEqualTo(10);
+		assertThat(isCached(id)).isTrue();
+
+		// El movimiento se escribe con JDBC, sin pasar por Hibernate
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -2)).exchange()
+				.expectStatus().isOk();
+		assertThat(isCached(id)).isFalse();
+		assertThat(stock(id)).isEqualTo(8);
+	}
+
+	@Test
+	void refreshesCachedUnderStockQuery() {
+		int categoryId = createCategory();
+		int id = createProduct(uniqueName("Caché"), 5, 3, categoryId);
+		assertThat(underStock()).extracting(ProductResponseDTO::id).doesNotContain(id);
+
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -3)).exchange()
+				.expectStatus().isOk();
+		assertThat(underStock()).filteredOn(product -> product.id() == id).singleElement()
+				.satisfies(product -> assertThat(product.stock_actual()).isEqualTo(2))
+				.satisfies(product -> assertThat(product.categoria()).isNotNull());
+
+		String name = uniqueName("Caché renombrada");
+		client.put().uri("/api/categories/" + categoryId).bodyValue(Map.of("nombre", name)).exchange()
+				.expectStatus().isOk();
+		assertThat(underStock()).filteredOn(product -> product.id() == id).singleElement()
+				.satisfies(product -> assertThat(product.categoria().nombre()).isEqualTo(name));
+		client.get().uri("/api/categories/" + categoryId).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.nombre").isEqualTo(name);
+	}
+
+	@Test
+	void refreshesCategorySummaryAfterProductChanges() {
+		int categoryId = createCategory();
+		createProduct(uniqueName("Caché"), 4, 1, categoryId);
+		assertThat(summary(categoryId).productos()).isEqualTo(1);
+		assertThat(summary(categoryId).unidades()).isEqualTo(4);
+
+		int id = createProduct(uniqueName("Caché"), 0, 2, categoryId);
+		CategorySummaryDTO summary = summary(categoryId);
+		assertThat(summary.productos()).isEqualTo(2);
+		assertThat(summary.bajo_minimo()).isEqualTo(1);
+		assertThat(summary.peor_deficit()).isEqualTo(2);
+
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", 5)).exchange()
+				.expectStatus().isOk();
+		summary = summary(categoryId);
+		assertThat(summary.unidades()).isEqualTo(9);
+		assertThat(summary.bajo_minimo()).isZero();
+	}
+
+	@Test
+	void changesListEtagAfterWrites() {
+		String etag = client.get().uri("/api/products/min").exchange().expectStatus().isOk().returnResult(String.class)
+				.getResponseHeaders().getETag();
+		assertThat(etag).isNotNull();
+		client.get().uri("/api/products/min").ifNoneMatch(etag).exchange().expectStatus().isNotModified();
+
+		int id = createProduct(uniqueName("Caché"), 3, 1, 1);
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -3)).exchange()
+				.expectStatus().isOk();
+		client.get().uri("/api/products/min").ifNoneMatch(etag).exchange().expectStatus().isOk();
+	}
+
+	@Test
+	void cachesGeneratedDeficit() {
+		int id = createProduct(uniqueName("Caché"), 2, 5, 1);
+		stock(id);
+		assertThat(cachedDeficit(id)).isEqualTo(3);
+
+		client.patch().uri("/api/products/" + id).bodyValue(Map.of("stock_actual", 10)).exchange().expectStatus()
+				.isOk();
+		stock(id);
+		assertThat(cachedDeficit(id)).isEqualTo(-5);
+	}
+
+	@Test
+	void describesDetachedProductWithoutLoadingCategory() {
+		int id = createProduct(uniqueName("Caché"), 1, 1, 2);
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		ProductEntity product;
+		try {
+			product = entityManager.find(ProductEntity.class, id);
+		} finally {
+			entityManager.close();
+		}
+		// La categoría es un proxy sin inicializar y la sesión está cerrada
+		assertThat(product.toString()).contains("id=" + id);
+		assertThat(product).isEqualTo(product).hasSameHashCodeAs(product);
+	}
+
+	@Test
+	void evictsCategoryOnlyAfterCommit() {
+		int id = createCategory();
+		client.get().uri("/api/categories/" + id).exchange().expectStatus().isOk();
+		Cache categories = cacheManager.getCache(CacheConfig.CATEGORIES);
+		assertThat(categories.get(id)).isNotNull();
+
+		// Una baja deshecha no vacía la caché; una confirmada, solo al confirmarse
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			deleteCategory(id);
+			assertThat(categories.get(id)).isNotNull();
+			status.setRollbackOnly();
+		});
+		assertThat(categories.get(id)).isNotNull();
+		transaction.executeWithoutResult(status -> {
+			deleteCategory(id);
+			assertThat(categories.get(id)).isNotNull();
+		});
+		assertThat(categories.get(id)).isNull();
+		client.get().uri("/api/categories/" + id).exchange().expectStatus().isNotFound();
+	}
+
+	/**
+	 * Déficit de la entidad leída sin consultar la base de datos: sale de la caché
+	 * de segundo nivel, que se rellena con la entidad guardada
+	 */
+	private int cachedDeficit(int id) {
+		assertThat(isCached(id)).isTrue();
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			return entityManager.find(ProductEntity.class, id).getDeficit();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private void deleteCategory(int id) {
+		try {
+			assertThat(categoryService.deleteCategory(id, IfMatch.ANY)).isPresent();
+		} catch (CustomException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private boolean isCached(int id) {
+		return entityManagerFactory.getCache().contains(ProductEntity.class, id);
+	}
+
+	private int stock(int id) {
+		return client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody(PRODUCT)
+				.returnResult().getResponseBody().data().stock_actual();
+	}
+
+	private List<ProductResponseDTO> underStock() {
+		return client.get().uri("/api/products/min?expand=category").exchange().expectStatus().isOk()
+				.expectBody(PRODUCT_LIST).returnResult().getResponseBody().data();
+	}
+
+	private CategorySummaryDTO summary(int categoryId) {
+		return client.get().uri("/api/categories/summary").exchange().expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<List<CategorySummaryDTO>>>() {
+				}).returnResult().getResponseBody().data().stream().filter(summary -> summary.id() == categoryId)
+				.findFirst().orElseThrow();
+	}
+
+	private int createCategory() {
+		return client.post().uri("/api/categories").bodyValue(Map.of("nombre", uniqueName("Caché")))
+				.exchange().expectStatus().isCreated()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<CategoryResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+	}
+}
@@ -0,0 +1,90 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+
+/**
+ * Peticiones GET condicionales ({@code If-None-Match}), solo en la pila
+ * servlet: con el ETag de la última respuesta se obtiene 304 sin cuerpo hasta
+ * que cambia lo que devuelve la ruta.
+ */
+class ServletConditionalGetTest extends ServletContractTestSupport {
+
+	@Test
+	void answersNotModifiedForUnchangedProduct() {
+		int id = createProduct(uniqueName("Condicional"), 5, 1, 1);
+		String uri = "/api/products/" + id;
+		String etag = etag(uri);
+
+		client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, etag).expectBody().isEmpty();
+		// Otro producto no cambia su ETag
+		createProduct(uniqueName("Condicional"), 5, 1, 1);
+		client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus().isNotModified();
+
+		client.post().uri(uri + "/movements").bodyValue(Map.of("delta", -1)).exchange().expectStatus().isOk();
+		String changed = client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus()
+				.isOk().expectBody().jsonPath("$.data.stock_actual").isEqualTo(4).returnResult().getResponseHeaders()
+				.getETag();
+		assertThat(changed).isNotNull().isNotEqualTo(etag);
+		client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, changed).exchange().expectStatus().isNotModified();
+
+		client.get().uri("/api/products/999999").header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus()
+				.isNotFound();
+	}
+
+	@Test
+	void answersNotModifiedForUnchangedCategory() {
+		String name = uniqueName("Condicional");
+		String uri = "/api/categories/" + createCategory(name);
+		String etag = etag(uri);
+
+		client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus().isNotModified();
+
+		client.put().uri(uri).bodyValue(Map.of("nombre", name, "descripcion", "Cambiada")).exchange().expectStatus()
+				.isOk();
+		client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.descripcion").isEqualTo("Cambiada");
+	}
+
+	@Test
+	void expandedListDependsOnCategories() {
+		String name = uniqueName("Condicional");
+		int categoryId = createCategory(name);
+		String list = etag("/api/products?limit=5");
+		String expanded = etag("/api/products?limit=5&expand=category");
+
+		client.put().uri("/api/categories/" + categoryId)
+				.bodyValue(Map.of("nombre", name, "descripcion", "Cambiada")).exchange().expectStatus().isOk();
+
+		client.get().uri("/api/products?limit=5").header(HttpHeaders.IF_NONE_MATCH, list).exchange().expectStatus()
+				.isNotModified();
+		client.get().uri("/api/products?limit=5&expand=category").header(HttpHeaders.IF_NONE_MATCH, expanded)
+				.exchange().expectStatus().isOk();
+
+		createProduct(uniqueName("Condicional"), 5, 1, 1);
+		client.get().uri("/api/products?limit=5").header(HttpHeaders.IF_NONE_MATCH, list).exchange().expectStatus()
+				.isOk();
+	}
+
+	private int createCategory(String name) {
+		return client.post().uri("/api/categories").bodyValue(Map.of("nombre", name)).exchange().expectStatus()
+				.isCreated().expectBody(new ParameterizedTypeReference<ApiResponseDTO<CategoryResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+	}
+
+	private String etag(String uri) {
+		String etag = client.get().uri(uri).exchange().expectStatus().isOk().returnResult(Void.class)
+				.getResponseHeaders().getETag();
+		assertThat(etag).isNotNull();
+		return etag;
+	}
+}
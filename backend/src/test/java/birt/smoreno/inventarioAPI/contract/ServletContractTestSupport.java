@@ -0,0 +1,19 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import birt.smoreno.inventarioAPI.InventarioAPIApplication;
+
+/**
+ * Base de las pruebas de la pila servlet: arranca {@link InventarioAPIApplication}
+ * en un puerto aleatorio con el perfil {@code contract} (H2 en memoria).
+ * <p>
+ * Las subclases que cambian propiedades con {@code @TestPropertySource} usan su
+ * propia base de datos H2, porque arrancan otro contexto.
+ * </p>
+ */
+@SpringBootTest(classes = InventarioAPIApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("contract")
+abstract class ServletContractTestSupport extends ContractTestSupport {
+}
@@ -0,0 +1,87 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.utils.AppConstants;
+
+/**
+ * Exportación del inventario completo ({@code /api/products/export}), solo en
+ * la pila servlet. Usa su propia base de datos porque añade más productos de
+ * los que caben en un tramo de la exportación
+ * ({@link AppConstants#EXPORT_FETCH_SIZE}).
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:contract-export;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1")
+class ServletExportTest extends ServletContractTestSupport {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	void exportsEveryProductAsNdjsonInIdOrder() {
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO productos (nombre, stock_actual, stock_minimo, id_categoria) VALUES (?, 1, 1, 1)",
+				IntStream.range(0, 2 * AppConstants.EXPORT_FETCH_SIZE + 1)
+						.mapToObj(i -> new Object[] { uniqueName("Exportación") }).toList());
+		int id = createProduct(uniqueName("Exportación"), 7, 3, 2);
+
+		String body = client.get().uri("/api/products/export").exchange().expectStatus().isOk().expectHeader()
+				.contentTypeCompatibleWith(MediaType.parseMediaType("application/x-ndjson")).expectHeader()
+				.valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos.ndjson\"")
+				.expectBody(String.class).returnResult().getResponseBody();
+
+		List<ProductResponseDTO> products = body.lines().map(this::readProduct).toList();
+		assertThat(products).extracting(ProductResponseDTO::id)
+				.isEqualTo(jdbcTemplate.queryForList("SELECT id_producto FROM productos ORDER BY id_producto",
+						Integer.class));
+		assertThat(products).filteredOn(product -> product.id() == id).singleElement().satisfies(product -> {
+			assertThat(product.stock_actual()).isEqualTo(7);
+			assertThat(product.stock_minimo()).isEqualTo(3);
+			assertThat(product.id_categoria()).isEqualTo(2);
+		});
+	}
+
+	@Test
+	void exportsCsvWithQuotedNames() {
+		String name = uniqueName("Pinza \"fina\", 3 mm");
+		int id = createProduct(name, 5, 1, 1);
+
+		List<String> lines = client.get().uri("/api/products/export?format=csv").exchange().expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("text/csv")).expectHeader()
+				.valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos.csv\"")
+				.expectBody(String.class).returnResult().getResponseBody().lines().toList();
+
+		assertThat(lines.get(0)).isEqualTo("id,nombre,stock_actual,stock_minimo,id_categoria");
+		assertThat(lines).contains(id + ",\"" + name.replace("\"", "\"\"") + "\",5,1,1");
+	}
+
+	@Test
+	void rejectsUnknownFormat() {
+		client.get().uri("/api/products/export?format=xml").exchange().expectStatus().isBadRequest().expectHeader()
+				.contentTypeCompatibleWith(MediaType.APPLICATION_JSON).expectBody().jsonPath("$.status")
+				.isEqualTo("error").jsonPath("$.message").isEqualTo("Formato de exportación no válido: xml");
+	}
+
+	private ProductResponseDTO readProduct(String line) {
+		try {
+			return objectMapper.readValue(line, ProductResponseDTO.class);
+		} catch (Exception e) {
+			throw new IllegalStateException(line, e);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockForecastDTO;
+
+/**
+ * Previsión de stock ({@code GET /api/products/forecast}), solo disponible en la
+ * pila servlet.
+ */
+class ServletForecastTest extends ServletContractTestSupport {
+
+	@Test
+	void forecastsFromTodaysOutflows() {
+		int id = createProduct(uniqueName("Previsión"), 100, 10, 3);
+		assertThat(forecast(7)).extracting(StockForecastDTO::id).doesNotContain(id);
+
+		// El primer día con salidas se toma como consumo diario
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -20)).exchange()
+				.expectStatus().isOk();
+		assertThat(forecast(7)).filteredOn(product -> product.id() == id).singleElement().satisfies(product -> {
+			assertThat(product.stock_actual()).isEqualTo(80);
+			assertThat(product.consumo_diario()).isEqualTo(20.0);
+			assertThat(product.dias_hasta_minimo()).isEqualTo(3.5);
+			assertThat(product.dias_hasta_agotar()).isEqualTo(4.0);
+		});
+		// Fuera del horizonte no aparece
+		assertThat(forecast(3)).extracting(StockForecastDTO::id).doesNotContain(id);
+
+		// Una entrada no reduce el consumo, pero sí aleja el mínimo
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", 20)).exchange()
+				.expectStatus().isOk();
+		assertThat(forecast(7)).filteredOn(product -> product.id() == id).singleElement().satisfies(product -> {
+			assertThat(product.consumo_diario()).isEqualTo(20.0);
+			assertThat(product.dias_hasta_minimo()).isEqualTo(4.5);
+		});
+	}
+
+	@Test
+	void dropsDeletedProducts() {
+		int id = createProduct(uniqueName("Previsión"), 10, 5, 3);
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", -5)).exchange()
+				.expectStatus().isOk();
+		assertThat(forecast(7)).extracting(StockForecastDTO::id).contains(id);
+
+		client.delete().uri("/api/products/" + id).exchange().expectStatus().is2xxSuccessful();
+		assertThat(forecast(7)).extracting(StockForecastDTO::id).doesNotContain(id);
+	}
+
+	@Test
+	void rejectsHorizonOutOfRange() {
+		client.get().uri("/api/products/forecast?horizonDays=0").exchange().expectStatus().isBadRequest();
+		client.get().uri("/api/products/forecast?horizonDays=91").exchange().expectStatus().isBadRequest();
+	}
+
+	private List<StockForecastDTO> forecast(int horizonDays) {
+		return client.get().uri("/api/products/forecast?horizonDays=" + horizonDays).exchange().expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<List<StockForecastDTO>>>() {
+				}).returnResult().getResponseBody().data();
+	}
+}
@@ -0,0 +1,65 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Importación de productos desde CSV ({@code POST /api/products/import}), solo
+ * disponible en la pila servlet.
+ */
+class ServletImportTest extends ServletContractTestSupport {
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void comparesNamesLikeSpanishCollation() {
+		String suffix = UUID.randomUUID().toString();
+		// Las tildes y las mayúsculas no distinguen nombres, pero la ñ sí
+		String csv = "nombre,stock_actual,stock_minimo,categoria\n" //
+				+ "Muñeca " + suffix + ",1,1,jardin\n" //
+				+ "Muneca " + suffix + ",1,1,Jardín\n" //
+				+ "MUÑECA " + suffix + ",1,1,JARDÍN\n" //
+				+ "Múneca " + suffix + ",1,1,Jardín\n";
+
+		client.post().uri("/api/products/import").contentType(TEXT_CSV).bodyValue(csv).exchange().expectStatus()
+				.isOk().expectBody().jsonPath("$.data.importados").isEqualTo(2).jsonPath("$.data.rechazados")
+				.isEqualTo(2).jsonPath("$.data.errores[0].fila").isEqualTo(4).jsonPath("$.data.errores[1].fila")
+				.isEqualTo(5);
+	}
+
+	@Test
+	void recordsInitialStockInLedger() {
+		String withStock = "Importado " + UUID.randomUUID();
+		String withoutStock = "Importado " + UUID.randomUUID();
+		String csv = "nombre,stock_actual,stock_minimo,id_categoria\n" //
+				+ withStock + ",7,1,1\n" //
+				+ withoutStock + ",0,1,1\n";
+
+		client.post().uri("/api/products/import").contentType(TEXT_CSV).bodyValue(csv).exchange().expectStatus()
+				.isOk().expectBody().jsonPath("$.data.importados").isEqualTo(2);
+
+		client.get().uri("/api/products/" + idOf(withStock) + "/movements").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.data.movimientos.length()").isEqualTo(1)
+				.jsonPath("$.data.movimientos[0].delta").isEqualTo(7).jsonPath("$.data.movimientos[0].motivo")
+				.isEqualTo("Importación del producto");
+		// Sin stock no hay movimiento, igual que en un alta individual
+		client.get().uri("/api/products/" + idOf(withoutStock) + "/movements").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.data.movimientos.length()").isEqualTo(0);
+	}
+
+	private int idOf(String name) {
+		Integer id = jdbcTemplate.queryForObject("SELECT id_producto FROM productos WHERE nombre = ?", Integer.class,
+				name);
+		assertThat(id).isNotNull();
+		return id;
+	}
+}
@@ -0,0 +1,71 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+
+import birt.smoreno.inventarioAPI.dto.LowStockEventDTO;
+import reactor.core.publisher.Flux;
+
+/**
+ * Avisos de bajo stock por Server-Sent Events ({@code /api/products/min/stream}),
+ * solo en la pila servlet. Cada producto genera un evento al entrar en la lista
+ * de bajo mínimo y otro al salir de ella, y ninguno mientras no la cruza.
+ */
+class ServletLowStockStreamTest extends ServletContractTestSupport {
+
+	private static final ParameterizedTypeReference<ServerSentEvent<LowStockEventDTO>> EVENT = new ParameterizedTypeReference<>() {
+	};
+
+	@Test
+	void streamsOnlyMinimumStockCrossings() throws Exception {
+		Flux<ServerSentEvent<LowStockEventDTO>> events = subscribe();
+		int id = createProduct(uniqueName("Aviso"), 5, 3, 1);
+
+		move(id, -1);
+		move(id, -2);
+		move(id, 1);
+		move(id, -1);
+		client.delete().uri("/api/products/" + id).exchange().expectStatus().isOk();
+
+		// Eventos de otras pruebas del mismo contexto se descartan por ID
+		List<ServerSentEvent<LowStockEventDTO>> received = events.filter(event -> event.data().id() == id).take(4)
+				.collectList().block(Duration.ofSeconds(10));
+
+		assertThat(received).extracting(ServerSentEvent::event).containsOnly("low-stock");
+		assertThat(received).extracting(ServerSentEvent::data).containsExactly(new LowStockEventDTO(id, 2, 3, true),
+				new LowStockEventDTO(id, 3, 3, false), new LowStockEventDTO(id, 2, 3, true),
+				new LowStockEventDTO(id, 2, 3, false));
+	}
+
+	/**
+	 * Suscribirse al flujo. La respuesta no empieza hasta el primer evento, así
+	 * que se espera en otro hilo mientras un producto auxiliar cruza su mínimo
+	 */
+	private Flux<ServerSentEvent<LowStockEventDTO>> subscribe() throws Exception {
+		CompletableFuture<Flux<ServerSentEvent<LowStockEventDTO>>> events = CompletableFuture
+				.supplyAsync(() -> client.get().uri("/api/products/min/stream").accept(MediaType.TEXT_EVENT_STREAM)
+						.exchange().expectStatus().isOk().expectHeader()
+						.contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM).returnResult(EVENT)
+						.getResponseBody());
+		int probe = createProduct(uniqueName("Aviso"), 1, 1, 1);
+		for (int delta = -1; !events.isDone(); delta = -delta) {
+			move(probe, delta);
+			Thread.sleep(20);
+		}
+		return events.get();
+	}
+
+	private void move(int id, int delta) {
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", delta)).exchange()
+				.expectStatus().isOk();
+	}
+}
@@ -0,0 +1,73 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import birt.smoreno.inventarioAPI.utils.MetricsConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas propias de la pila servlet: sentencias SQL por petición, incluidas
+ * las que se ejecutan con {@code JdbcTemplate}, y una sola por página de
+ * productos.
+ */
+class ServletMetricsTest extends ServletContractTestSupport {
+
+	private static final String MOVEMENTS_URI = "/api/products/{id}/movements";
+	private static final String PRODUCTS_URI = "/api/products";
+	private static final long RECORD_TIMEOUT_MS = 5_000;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void countsJdbcTemplateStatements() throws InterruptedException {
+		int id = createProduct(uniqueName("Métricas"), 10, 1, 1);
+		long requests = summary(MOVEMENTS_URI).map(DistributionSummary::count).orElse(0L);
+		double before = summary(MOVEMENTS_URI).map(DistributionSummary::totalAmount).orElse(0.0);
+
+		client.get().uri("/api/products/" + id + "/movements").exchange().expectStatus().isOk();
+
+		// existsById con Hibernate; movimientos y snapshot con JdbcTemplate
+		assertThat(awaitRecorded(MOVEMENTS_URI, requests).totalAmount() - before).isEqualTo(3);
+	}
+
+	@Test
+	void readsProductPagesInOneStatement() throws InterruptedException {
+		createProduct(uniqueName("Métricas"), 10, 1, 1);
+
+		for (String uri : new String[] { "/api/products?limit=5", "/api/products?limit=5&sort=nombre",
+				"/api/products?limit=5&expand=category" }) {
+			long requests = summary(PRODUCTS_URI).map(DistributionSummary::count).orElse(0L);
+			double before = summary(PRODUCTS_URI).map(DistributionSummary::totalAmount).orElse(0.0);
+
+			client.get().uri(uri).exchange().expectStatus().isOk();
+
+			// Proyección a DTO: ni consulta de la categoría ni una por producto
+			assertThat(awaitRecorded(PRODUCTS_URI, requests).totalAmount() - before).as(uri).isEqualTo(1);
+		}
+	}
+
+	private Optional<DistributionSummary> summary(String uri) {
+		return Optional.ofNullable(
+				meterRegistry.find(MetricsConfig.REQUEST_STATEMENTS).tag("method", "GET").tag("uri", uri).summary());
+	}
+
+	/**
+	 * La métrica se registra al terminar la petición, después de enviar la
+	 * respuesta
+	 */
+	private DistributionSummary awaitRecorded(String uri, long requests) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + RECORD_TIMEOUT_MS;
+		while (summary(uri).map(DistributionSummary::count).orElse(0L) <= requests) {
+			assertThat(System.currentTimeMillis()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+		return summary(uri).orElseThrow();
+	}
+}
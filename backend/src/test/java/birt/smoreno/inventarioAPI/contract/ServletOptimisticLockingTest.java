@@ -0,0 +1,132 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+
+/**
+ * Bloqueo optimista de la pila servlet: versión en el {@code ETag},
+ * {@code If-Match} en {@code PUT} y {@code DELETE}, y ninguna actualización
+ * perdida con varios clientes escribiendo a la vez.
+ */
+class ServletOptimisticLockingTest extends ServletContractTestSupport {
+
+	private static final int WRITERS = 8;
+	private static final int INCREMENTS_PER_WRITER = 10;
+	private static final int MOVEMENTS = 40;
+
+	@Test
+	void parallelWritersLoseNoUpdates() throws Exception {
+		String name = uniqueName("Concurrencia");
+		int id = createProduct(name, 0, 1, 1);
+		AtomicInteger preconditionFailures = new AtomicInteger();
+
+		List<Future<?>> tasks = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1)) {
+			// Cada cliente lee el producto y suma una unidad con PUT condicionado a la
+			// versión leída; si otro ha escrito antes, recibe 412 y vuelve a leer
+			for (int writer = 0; writer < WRITERS; writer++) {
+				tasks.add(executor.submit(() -> {
+					int done = 0;
+					while (done < INCREMENTS_PER_WRITER) {
+						EntityExchangeResult<ApiResponseDTO<ProductResponseDTO>> current = client.get()
+								.uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody(PRODUCT)
+								.returnResult();
+						int stock = current.getResponseBody().data().stock_actual();
+						int status = client.put().uri("/api/products/" + id)
+								.header(HttpHeaders.IF_MATCH, current.getResponseHeaders().getETag())
+								.bodyValue(product(name, stock + 1, 1, 1)).exchange().returnResult(Void.class)
+								.getStatus().value();
+						if (status == 200) {
+							done++;
+						} else {
+							assertThat(status).isEqualTo(412);
+							preconditionFailures.incrementAndGet();
+						}
+					}
+				}));
+			}
+			// Mientras tanto, los movimientos de stock también cambian la versión
+			tasks.add(executor.submit(() -> {
+				for (int i = 0; i < MOVEMENTS; i++) {
+					client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", 1)).exchange()
+							.expectStatus().isOk();
+				}
+			}));
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		}
+
+		client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.stock_actual").isEqualTo(WRITERS * INCREMENTS_PER_WRITER + MOVEMENTS);
+		assertThat(preconditionFailures.get()).isPositive();
+	}
+
+	@Test
+	void exposesVersionAsEtagAndRejectsStaleProductWrites() {
+		String name = uniqueName("Concurrencia");
+		int id = createProduct(name, 0, 1, 1);
+
+		String etag = client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectHeader()
+				.valueEquals(HttpHeaders.ETAG, "\"0\"").returnResult(Void.class).getResponseHeaders().getETag();
+		client.get().uri("/api/products/" + id).header(HttpHeaders.IF_NONE_MATCH, etag).exchange().expectStatus()
+				.isNotModified();
+
+		client.put().uri("/api/products/" + id).header(HttpHeaders.IF_MATCH, etag)
+				.bodyValue(product(name, 3, 1, 1)).exchange().expectStatus().isOk().expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", 1)).exchange()
+				.expectStatus().isOk();
+
+		// Tanto el PUT como el movimiento han cambiado la versión
+		client.put().uri("/api/products/" + id).header(HttpHeaders.IF_MATCH, "\"1\"")
+				.bodyValue(product(name, 9, 1, 1)).exchange().expectStatus().isEqualTo(412).expectBody().jsonPath("$.status").isEqualTo("error")
+				.jsonPath("$.code").isEqualTo(412);
+		client.delete().uri("/api/products/" + id).header(HttpHeaders.IF_MATCH, etag).exchange().expectStatus()
+				.isEqualTo(412);
+		client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectHeader()
+				.valueEquals(HttpHeaders.ETAG, "\"2\"").expectBody().jsonPath("$.data.stock_actual").isEqualTo(4);
+
+		client.delete().uri("/api/products/" + id).header(HttpHeaders.IF_MATCH, "\"2\"").exchange().expectStatus()
+				.isOk();
+	}
+
+	@Test
+	void rejectsStaleCategoryWrites() {
+		String name = uniqueName("Concurrencia");
+		int id = client.post().uri("/api/categories").bodyValue(Map.of("nombre", name)).exchange().expectStatus()
+				.isCreated().expectBody(new ParameterizedTypeReference<ApiResponseDTO<CategoryResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+
+		client.get().uri("/api/categories/" + id).exchange().expectStatus().isOk().expectHeader()
+				.valueEquals(HttpHeaders.ETAG, "\"0\"");
+		client.put().uri("/api/categories/" + id).header(HttpHeaders.IF_MATCH, "\"0\"")
+				.bodyValue(Map.of("nombre", name, "descripcion", "Primera")).exchange().expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+		client.put().uri("/api/categories/" + id).header(HttpHeaders.IF_MATCH, "\"0\"")
+				.bodyValue(Map.of("nombre", name, "descripcion", "Segunda")).exchange().expectStatus().isEqualTo(412);
+		client.delete().uri("/api/categories/" + id).header(HttpHeaders.IF_MATCH, "\"0\"").exchange()
+				.expectStatus().isEqualTo(412);
+		client.get().uri("/api/categories/" + id).exchange().expectBody().jsonPath("$.data.descripcion")
+				.isEqualTo("Primera");
+
+		client.delete().uri("/api/categories/" + id).header(HttpHeaders.IF_MATCH, "*").exchange().expectStatus()
+				.isOk();
+	}
+}
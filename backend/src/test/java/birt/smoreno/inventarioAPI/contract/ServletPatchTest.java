@@ -0,0 +1,86 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.CategoryResponseDTO;
+import birt.smoreno.inventarioAPI.utils.MergePatch;
+
+/**
+ * Modificaciones parciales con JSON Merge Patch ({@code PATCH}) de productos y
+ * categorías, solo en la pila servlet: los campos ausentes se conservan y un
+ * {@code null} explícito quita el valor.
+ */
+class ServletPatchTest extends ServletContractTestSupport {
+
+	private static final MediaType MERGE_PATCH = MediaType.parseMediaType(MergePatch.MEDIA_TYPE);
+
+	@Test
+	void keepsProductFieldsNotSent() {
+		String name = uniqueName("Parche");
+		int id = createProduct(name, 5, 1, 2);
+
+		client.patch().uri("/api/products/" + id).contentType(MERGE_PATCH).bodyValue(Map.of("stock_minimo", 8))
+				.exchange().expectStatus().isOk().expectHeader().exists("ETag").expectBody()
+				.jsonPath("$.data.stock_minimo").isEqualTo(8).jsonPath("$.data.nombre").isEqualTo(name)
+				.jsonPath("$.data.stock_actual").isEqualTo(5).jsonPath("$.data.id_categoria").isEqualTo(2);
+		// También se admite application/json
+		client.patch().uri("/api/products/" + id).contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("stock_actual", 6)).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.stock_actual").isEqualTo(6).jsonPath("$.data.stock_minimo").isEqualTo(8);
+	}
+
+	@Test
+	void rejectsInvalidProductPatch() {
+		int id = createProduct(uniqueName("Parche"), 5, 1, 2);
+
+		// El nombre es obligatorio: un null no lo puede quitar
+		client.patch().uri("/api/products/" + id).contentType(MERGE_PATCH).bodyValue("{\"nombre\":null}").exchange()
+				.expectStatus().isBadRequest();
+		client.patch().uri("/api/products/" + id).contentType(MERGE_PATCH).bodyValue("{\"stock_minimo\":\"ocho\"}")
+				.exchange().expectStatus().isBadRequest().expectBody().jsonPath("$.message")
+				.isEqualTo("Valor no válido para stock_minimo");
+		client.patch().uri("/api/products/" + id).contentType(MERGE_PATCH).bodyValue(Map.of("stock_minimo", 0))
+				.exchange().expectStatus().isBadRequest();
+		client.patch().uri("/api/products/999999").contentType(MERGE_PATCH).bodyValue(Map.of("stock_minimo", 2))
+				.exchange().expectStatus().isNotFound();
+
+		client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.data.stock_minimo").isEqualTo(1);
+	}
+
+	@Test
+	void removesCategoryDescriptionOnlyWithExplicitNull() {
+		int id = client.post().uri("/api/categories")
+				.bodyValue(Map.of("nombre", uniqueName("Parche"), "descripcion", "Prueba")).exchange()
+				.expectStatus().isCreated()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<CategoryResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+		String name = "Parche renombrada " + UUID.randomUUID();
+
+		client.patch().uri("/api/categories/" + id).contentType(MERGE_PATCH).bodyValue(Map.of("nombre", name))
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.data.nombre").isEqualTo(name)
+				.jsonPath("$.data.descripcion").isEqualTo("Prueba");
+		client.patch().uri("/api/categories/" + id).contentType(MERGE_PATCH).bodyValue("{\"descripcion\":null}")
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.data.nombre").isEqualTo(name)
+				.jsonPath("$.data.descripcion").doesNotExist();
+		client.patch().uri("/api/categories/" + id).contentType(MERGE_PATCH).bodyValue("{\"nombre\":null}")
+				.exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	void allowsCrossOriginPatch() {
+		client.options().uri("/api/products/1").header(HttpHeaders.ORIGIN, "http://localhost:8081")
+				.header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH").exchange().expectStatus().isOk()
+				.expectHeader().value(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS,
+						methods -> assertThat(methods).contains("PATCH"));
+	}
+}
@@ -0,0 +1,109 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.utils.ReadYourWritesInterceptor;
+import birt.smoreno.inventarioAPI.utils.ReplicaDataSourceConfig;
+
+/**
+ * Lecturas desde la réplica y lectura de las propias escrituras, solo en la
+ * pila servlet.
+ * <p>
+ * La réplica es otra base de datos H2 que no se sincroniza con el primario:
+ * lo que solo existe en una de las dos indica de dónde se ha leído. El
+ * historial de movimientos comprueba la existencia del producto con una
+ * consulta, sin pasar por la caché de segundo nivel.
+ * </p>
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contract-primary;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		ReplicaDataSourceConfig.REPLICA_URL + "=" + ServletReplicaRoutingTest.REPLICA_URL,
+		ReplicaDataSourceConfig.READ_YOUR_WRITES_WINDOW + "=1s" })
+class ServletReplicaRoutingTest extends ServletContractTestSupport {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:contract-replica;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+	// Producto que solo existe en la réplica
+	private static final int REPLICA_ONLY_ID = 900_000;
+
+	static {
+		// La réplica se crea antes que el contexto, que solo inicializa el primario
+		try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			ScriptUtils.executeSqlScript(connection,
+					new EncodedResource(new ClassPathResource("schema-h2.sql"), StandardCharsets.UTF_8));
+			ScriptUtils.executeSqlScript(connection,
+					new EncodedResource(new ClassPathResource("data-contract.sql"), StandardCharsets.UTF_8));
+			statement.executeUpdate(
+					"INSERT INTO productos (id_producto, nombre, stock_actual, stock_minimo, id_categoria) VALUES ("
+							+ REPLICA_ONLY_ID + ", 'Solo en la réplica', 1, 1, 1)");
+		} catch (SQLException e) {
+			throw new IllegalStateException("No se ha podido crear la réplica", e);
+		}
+	}
+
+	@Test
+	void readsFromReplicaWithoutRecentWrites() {
+		movements(REPLICA_ONLY_ID, "lector").expectStatus().isOk();
+	}
+
+	@Test
+	void readsOwnWritesFromPrimaryDuringWindow() throws InterruptedException {
+		String writer = "escritor-" + UUID.randomUUID();
+		Map<String, Object> product = Map.of("nombre", "Réplica " + UUID.randomUUID(), "stock_actual", 1,
+				"stock_minimo", 1, "id_categoria", 1);
+		int id = client.post().uri("/api/products").header(ReadYourWritesInterceptor.CLIENT_ID_HEADER, writer)
+				.bodyValue(product).exchange().expectStatus().isCreated()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<ProductResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+
+		// Quien ha escrito lee del primario; el resto, de la réplica, que no lo tiene
+		movements(id, writer).expectStatus().isOk();
+		movements(REPLICA_ONLY_ID, writer).expectStatus().isNotFound();
+		movements(id, "otro-" + UUID.randomUUID()).expectStatus().isNotFound();
+
+		// Cerrada la ventana, vuelve a la réplica
+		Thread.sleep(1_500);
+		movements(id, writer).expectStatus().isNotFound();
+		movements(REPLICA_ONLY_ID, writer).expectStatus().isOk();
+	}
+
+	@Test
+	void identifiesClientsBehindProxyByForwardedAddress() {
+		Map<String, Object> product = Map.of("nombre", "Réplica " + UUID.randomUUID(), "stock_actual", 1,
+				"stock_minimo", 1, "id_categoria", 1);
+		int id = client.post().uri("/api/products").header(FORWARDED_FOR, "203.0.113.10").bodyValue(product)
+				.exchange().expectStatus().isCreated()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<ProductResponseDTO>>() {
+				}).returnResult().getResponseBody().data().id();
+
+		// Las dos peticiones llegan desde la misma dirección (la del proxy)
+		client.get().uri("/api/products/" + id + "/movements").header(FORWARDED_FOR, "203.0.113.10").exchange()
+				.expectStatus().isOk();
+		client.get().uri("/api/products/" + id + "/movements").header(FORWARDED_FOR, "203.0.113.20").exchange()
+				.expectStatus().isNotFound();
+	}
+
+	private WebTestClient.ResponseSpec movements(int id, String clientId) {
+		return client.get().uri("/api/products/" + id + "/movements")
+				.header(ReadYourWritesInterceptor.CLIENT_ID_HEADER, clientId).exchange();
+	}
+}
@@ -0,0 +1,71 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductSearchResultDTO;
+
+/**
+ * Búsqueda de productos por nombre ({@code GET /api/products/search}), solo
+ * disponible en la pila servlet. El índice se actualiza al confirmarse cada
+ * escritura, antes de responder, por lo que los cambios se ven en la búsqueda
+ * siguiente.
+ */
+class ServletSearchTest extends ServletContractTestSupport {
+
+	private static final ParameterizedTypeReference<ApiResponseDTO<List<ProductSearchResultDTO>>> RESULTS = new ParameterizedTypeReference<>() {
+	};
+
+	@Test
+	void ignoresAccentsAndCaseButNotEnye() {
+		String tag = uniqueTag();
+		int enye = createProduct("Catéter Muñeca " + tag, 5, 1, 1);
+		int plain = createProduct("Cateter Muneca " + tag, 5, 1, 1);
+
+		assertThat(search("CATETER muñeca " + tag)).containsExactly(enye);
+		assertThat(search("catéter MUNECA " + tag)).containsExactly(plain);
+		assertThat(search("MUÑ " + tag)).containsExactly(enye);
+		assertThat(search("cat " + tag)).containsExactlyInAnyOrder(enye, plain);
+	}
+
+	@Test
+	void findsRenamedProductByNewNameOnly() {
+		String tag = uniqueTag();
+		int id = createProduct("Pinza " + tag, 5, 1, 1);
+		assertThat(search("pinza " + tag)).containsExactly(id);
+
+		client.put().uri("/api/products/" + id).bodyValue(product("Tijera " + tag, 5, 1, 1)).exchange()
+				.expectStatus().isOk();
+
+		assertThat(search("pinza " + tag)).isEmpty();
+		assertThat(search("tijera " + tag)).containsExactly(id);
+	}
+
+	@Test
+	void forgetsDeletedProduct() {
+		String tag = uniqueTag();
+		int id = createProduct("Bisturí " + tag, 5, 1, 1);
+		assertThat(search("bisturi " + tag)).containsExactly(id);
+
+		client.delete().uri("/api/products/" + id).exchange().expectStatus().isOk();
+
+		assertThat(search("bisturi " + tag)).isEmpty();
+	}
+
+	private List<Integer> search(String query) {
+		return client.get().uri(builder -> builder.path("/api/products/search").queryParam("q", query).build())
+				.exchange().expectStatus().isOk().expectBody(RESULTS).returnResult().getResponseBody().data().stream()
+				.map(ProductSearchResultDTO::id).toList();
+	}
+
+	// Palabra que solo aparece en los productos de una prueba
+	private static String uniqueTag() {
+		return "t" + UUID.randomUUID().toString().replace("-", "");
+	}
+}
@@ -0,0 +1,60 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockBatchResultDTO;
+
+/**
+ * Movimientos de stock en lote ({@code POST /api/products/movements:batch}),
+ * solo en la pila servlet.
+ */
+class ServletStockBatchTest extends ServletContractTestSupport {
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	void reportsStockAfterEachMovement() {
+		int id = createProduct(uniqueName("Lote"), 5, 3, 1);
+
+		StockBatchResponseDTO result = client.post().uri("/api/products/movements:batch")
+				.bodyValue(List.of(movement(id, -2), movement(id, -4), movement(id, -1), movement(id, 3),
+						movement(999_999, -1)))
+				.exchange().expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<StockBatchResponseDTO>>() {
+				}).returnResult().getResponseBody().data();
+
+		assertThat(result.aplicados()).isEqualTo(3);
+		assertThat(result.rechazados()).isEqualTo(2);
+		assertThat(result.resultados()).extracting(StockBatchResultDTO::aplicado, StockBatchResultDTO::stock_actual,
+				StockBatchResultDTO::bajo_minimo).containsExactly(tuple(true, 3, false), tuple(false, 3, false),
+						tuple(true, 2, true), tuple(true, 5, false), tuple(false, null, null));
+	}
+
+	@Test
+	void sendsBatchesWithPerStatementUpdateCounts() throws SQLException {
+		// Sin COM_STMT_BULK_EXECUTE el driver de MariaDB devuelve las filas de cada
+		// sentencia del lote
+		assertThat(dataSource.unwrap(HikariDataSource.class).getDataSourceProperties())
+				.containsEntry("useBulkStmts", "false");
+	}
+
+	private static Map<String, Object> movement(int id, int delta) {
+		return Map.of("id_producto", id, "delta", delta);
+	}
+}
@@ -0,0 +1,138 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.dto.StockHistoryDTO;
+import birt.smoreno.inventarioAPI.dto.StockLedgerEntryDTO;
+import birt.smoreno.inventarioAPI.repositories.StockLedgerRepository;
+
+/**
+ * Registro de movimientos de stock ({@code GET /api/products/{id}/movements}) y
+ * su compactación, solo disponibles en la pila servlet. La compactación se
+ * lanza desde el repositorio con una fecha límite propia, ya que la retención
+ * configurada es de días.
+ */
+class ServletStockLedgerTest extends ServletContractTestSupport {
+
+	private static final ParameterizedTypeReference<ApiResponseDTO<StockHistoryDTO>> HISTORY = new ParameterizedTypeReference<>() {
+	};
+
+	// Margen para que los movimientos queden a un lado u otro de la fecha límite
+	private static final long CLOCK_MARGIN_MS = 50;
+
+	@Autowired
+	StockLedgerRepository stockLedgerRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Test
+	void compactsOldMovementsIntoSnapshot() throws InterruptedException {
+		int id = createProduct(uniqueName("Registro"), 10, 1, 1);
+		move(id, -3);
+		move(id, 5);
+		move(id, -2);
+		Instant cutoff = cutoff();
+		move(id, -1);
+
+		compactBefore(cutoff);
+
+		StockHistoryDTO history = history(id, "").data();
+		assertThat(history.compactado()).isNotNull();
+		assertThat(history.compactado().saldo()).isEqualTo(10);
+		// El alta y las tres salidas y entradas anteriores a la fecha límite
+		assertThat(history.compactado().movimientos()).isEqualTo(4);
+		assertThat(history.movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(-1);
+
+		int stock = client.get().uri("/api/products/" + id).exchange().expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<ApiResponseDTO<ProductResponseDTO>>() {
+				}).returnResult().getResponseBody().data().stock_actual();
+		int tail = history.movimientos().stream().mapToInt(StockLedgerEntryDTO::delta).sum();
+		assertThat(history.compactado().saldo() + tail).isEqualTo(stock).isEqualTo(9);
+	}
+
+	@Test
+	void keepsHistoryCursorAcrossCompaction() throws InterruptedException {
+		// Sin stock inicial el alta no anota ningún movimiento
+		int id = createProduct(uniqueName("Registro"), 0, 1, 1);
+		move(id, 1);
+		move(id, 2);
+		Instant cutoff = cutoff();
+		move(id, 3);
+		move(id, 4);
+		move(id, 5);
+
+		ApiResponseDTO<StockHistoryDTO> first = history(id, "?limit=3");
+		assertThat(first.data().compactado()).isNull();
+		assertThat(first.data().movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(1, 2, 3);
+		assertThat(first.nextCursor()).isNotNull();
+
+		// El cursor apunta a un movimiento posterior a la fecha límite, pero las
+		// filas anteriores a él desaparecen entre las dos páginas
+		compactBefore(cutoff);
+
+		ApiResponseDTO<StockHistoryDTO> second = history(id, "?limit=3&after=" + first.nextCursor());
+		assertThat(second.data().compactado().saldo()).isEqualTo(3);
+		assertThat(second.data().movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(4, 5);
+		assertThat(second.nextCursor()).isNull();
+	}
+
+	@Test
+	void pagesMovementsInOrder() {
+		int id = createProduct(uniqueName("Registro"), 0, 1, 1);
+		for (int delta = 1; delta <= 5; delta++) {
+			move(id, delta);
+		}
+
+		ApiResponseDTO<StockHistoryDTO> first = history(id, "?limit=2");
+		ApiResponseDTO<StockHistoryDTO> second = history(id, "?limit=2&after=" + first.nextCursor());
+		ApiResponseDTO<StockHistoryDTO> third = history(id, "?limit=2&after=" + second.nextCursor());
+
+		assertThat(first.data().movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(1, 2);
+		assertThat(second.data().movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(3, 4);
+		assertThat(third.data().movimientos()).extracting(StockLedgerEntryDTO::delta).containsExactly(5);
+		assertThat(third.nextCursor()).isNull();
+		assertThat(List.of(first, second, third)).flatExtracting(page -> page.data().movimientos())
+				.extracting(StockLedgerEntryDTO::fecha).isSorted();
+
+		client.get().uri("/api/products/" + id + "/movements?after=x").exchange().expectStatus().isBadRequest();
+		client.get().uri("/api/products/999999/movements").exchange().expectStatus().isNotFound();
+	}
+
+	private void move(int id, int delta) {
+		client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", delta)).exchange()
+				.expectStatus().isOk();
+	}
+
+	private ApiResponseDTO<StockHistoryDTO> history(int id, String query) {
+		return client.get().uri("/api/products/" + id + "/movements" + query).exchange().expectStatus().isOk()
+				.expectBody(HISTORY).returnResult().getResponseBody();
+	}
+
+	private void compactBefore(Instant cutoff) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		int chunk = 3;
+		while (transaction.execute(status -> stockLedgerRepository.compactOldest(cutoff, chunk)) == chunk) {
+			// Se compacta por tramos, como la tarea programada
+		}
+	}
+
+	private static Instant cutoff() throws InterruptedException {
+		Thread.sleep(CLOCK_MARGIN_MS);
+		Instant cutoff = Instant.now();
+		Thread.sleep(CLOCK_MARGIN_MS);
+		return cutoff;
+	}
+}
@@ -0,0 +1,86 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.TestPropertySource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import birt.smoreno.inventarioAPI.utils.ConcurrencyLimitedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Modo de hilos virtuales ({@code spring.threads.virtual.enabled=true}), solo
+ * en la pila servlet: el pool se envuelve en un
+ * {@link ConcurrencyLimitedDataSource} con tantos permisos como conexiones, y
+ * las peticiones que no caben esperan su turno en lugar de fallar. Usa su
+ * propia base de datos y un pool de dos conexiones.
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contract-virtual-threads;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.threads.virtual.enabled=true", "spring.datasource.hikari.maximum-pool-size=2",
+		"spring.datasource.hikari.connection-timeout=500" })
+class ServletVirtualThreadsTest extends ServletContractTestSupport {
+
+	private static final int POOL_SIZE = 2;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void limitsConcurrencyToPoolSize() throws Exception {
+		ConcurrencyLimitedDataSource limited = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+
+		assertThat(limited.getMaxConcurrency()).isEqualTo(POOL_SIZE)
+				.isEqualTo(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+		assertThat(meterRegistry.get("inventario.db.concurrency.limit").gauge().value()).isEqualTo(POOL_SIZE);
+	}
+
+	@Test
+	void queuesRequestsBeyondPoolSize() throws Exception {
+		int id = createProduct(uniqueName("Virtual"), 5, 1, 1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<HttpStatusCode>> statuses = IntStream.range(0, 10 * POOL_SIZE)
+					.mapToObj(i -> executor.submit(() -> client.get().uri("/api/products/" + id).exchange()
+							.returnResult(Void.class).getStatus()))
+					.toList();
+			for (Future<HttpStatusCode> status : statuses) {
+				assertThat(status.get().value()).isEqualTo(200);
+			}
+		}
+	}
+
+	@Test
+	void timesOutWhenEveryPermitIsTaken() throws Exception {
+		Connection first = dataSource.getConnection();
+		try (Connection second = dataSource.getConnection()) {
+			assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class)
+					.hasMessageStartingWith("Límite de " + POOL_SIZE + " conexiones simultáneas");
+
+			// Cerrar dos veces la misma conexión devuelve un único permiso
+			first.close();
+			first.close();
+			try (Connection third = dataSource.getConnection()) {
+				assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+			}
+		}
+	}
+}
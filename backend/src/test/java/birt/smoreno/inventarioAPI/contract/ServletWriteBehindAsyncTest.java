@@ -0,0 +1,40 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService;
+
+/**
+ * Escritura diferida con durabilidad async: las mismas pruebas que
+ * {@link ServletWriteBehindTest}, y que una salida confirmada nunca se rechaza
+ * al volcarla porque sus unidades están reservadas
+ * ({@link StockWriteBehindService}).
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contract-write-behind-async;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"inventario.stock.write-behind.durability=async" })
+class ServletWriteBehindAsyncTest extends ServletWriteBehindTest {
+
+	@Test
+	void batchCannotTakeUnitsOfAcknowledgedDecrements() throws InterruptedException {
+		int id = createProduct(uniqueName("Diferido"), 5, 1, 1);
+		dispense(id, -3).expectStatus().isOk().expectBody().jsonPath("$.data.stock_actual").isEqualTo(2);
+		// Escrita o no la salida, sus 3 unidades no están disponibles para el lote
+		client.post().uri("/api/products/movements:batch")
+				.bodyValue(List.of(Map.of("id_producto", id, "delta", -4))).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.data.rechazados").isEqualTo(1);
+		awaitFlush(id);
+
+		assertThat(stock(id)).isEqualTo(2).isEqualTo(ledgerBalance(id));
+		// Ninguna salida confirmada se ha anotado sin aplicar
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM movimientos_stock WHERE id_producto = ? AND delta = 0", Integer.class, id))
+				.isZero();
+	}
+}
@@ -0,0 +1,178 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import birt.smoreno.inventarioAPI.dto.ApiResponseDTO;
+import birt.smoreno.inventarioAPI.dto.ProductResponseDTO;
+import birt.smoreno.inventarioAPI.exceptions.CustomException;
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService;
+
+/**
+ * Escritura diferida de las salidas de stock ({@link StockWriteBehindService}),
+ * solo disponible en la pila servlet, con la durabilidad por defecto (sync).
+ * Usa su propia base de datos porque el modo se activa al arrancar.
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contract-write-behind;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"inventario.stock.write-behind.enabled=true", "inventario.stock.write-behind.flush-interval=2ms" })
+class ServletWriteBehindTest extends ServletContractTestSupport {
+
+	// Tiempo máximo de espera a que se escriba lo pendiente
+	private static final long FLUSH_TIMEOUT_MS = 5_000;
+
+	@Autowired
+	StockWriteBehindService stockWriteBehindService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void neverDispensesMoreThanInStock() throws Exception {
+		int threads = 16;
+		int initialStock = threads / 2;
+		int[] ids = new int[100];
+		for (int round = 0; round < ids.length; round++) {
+			ids[round] = createProduct(uniqueName("Diferido"), initialStock, 1, 1);
+		}
+
+		// En cada ronda se reserva una unidad y, tras una pausa en torno al
+		// intervalo de volcado, todos los hilos reservan a la vez mientras el
+		// contador se retira por inactivo
+		AtomicInteger warmedUp = new AtomicInteger();
+		CyclicBarrier barrier = new CyclicBarrier(threads, () -> {
+			try {
+				stockWriteBehindService.decrement(ids[warmedUp.getAndIncrement()], -1, null);
+				Thread.sleep(ThreadLocalRandom.current().nextInt(1, 6));
+			} catch (CustomException | InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<int[]>> dispensed = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			dispensed.add(pool.submit(() -> {
+				int[] units = new int[ids.length];
+				for (int round = 0; round < ids.length; round++) {
+					barrier.await();
+					try {
+						stockWriteBehindService.decrement(ids[round], -1, null);
+						units[round]++;
+					} catch (CustomException e) {
+						assertThat(e.getHttpStatusCode()).isEqualTo(409);
+					}
+				}
+				return units;
+			}));
+		}
+		int[] total = new int[ids.length];
+		Arrays.fill(total, 1);
+		for (Future<int[]> units : dispensed) {
+			int[] threadUnits = units.get();
+			for (int round = 0; round < ids.length; round++) {
+				total[round] += threadUnits[round];
+			}
+		}
+		pool.shutdown();
+
+		for (int round = 0; round < ids.length; round++) {
+			awaitFlush(ids[round]);
+			assertThat(total[round]).isLessThanOrEqualTo(initialStock);
+			assertThat(stock(ids[round])).isEqualTo(initialStock - total[round]).isEqualTo(ledgerBalance(ids[round]));
+		}
+	}
+
+	@Test
+	void reservesAgainstStockLoweredByUpdate() throws InterruptedException {
+		int id = createProduct(uniqueName("Diferido"), 10, 1, 1);
+		dispense(id, -2).expectStatus().isOk().expectBody().jsonPath("$.data.stock_actual").isEqualTo(8);
+
+		// El cliente envía el stock que ve, con la salida pendiente ya descontada
+		assertThat(update(id, 3)).isEqualTo(3);
+		awaitFlush(id);
+
+		dispense(id, -4).expectStatus().isEqualTo(409).expectBody().jsonPath("$.message")
+				.isEqualTo("Stock insuficiente: quedan 3 unidades");
+		dispense(id, -3).expectStatus().isOk();
+		awaitFlush(id);
+		assertThat(stock(id)).isZero().isEqualTo(ledgerBalance(id));
+	}
+
+	@Test
+	void rejectsReservationsWithoutStockInsteadOfAdjusting() throws InterruptedException {
+		int id = createProduct(uniqueName("Diferido"), 5, 1, 1);
+		dispense(id, -3).expectStatus().isOk();
+		// El lote no pasa por las reservas: si se escribe antes que la salida
+		// diferida, esta ya no cabe al volcarla
+		client.post().uri("/api/products/movements:batch")
+				.bodyValue(List.of(Map.of("id_producto", id, "delta", -4))).exchange().expectStatus().isOk();
+		awaitFlush(id);
+
+		int stock = stock(id);
+		assertThat(stock).isIn(1, 2).isEqualTo(ledgerBalance(id));
+		// Solo el alta: no se anota ningún ajuste que compense una salida sin stock
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM movimientos_stock WHERE id_producto = ? AND delta > 0", Integer.class, id))
+				.isEqualTo(1);
+	}
+
+	/**
+	 * Modificar el stock del producto, repitiendo la petición si coincide con un
+	 * volcado (409), como haría un cliente.
+	 */
+	int update(int id, int stock) {
+		for (int attempt = 1;; attempt++) {
+			EntityExchangeResult<ApiResponseDTO<ProductResponseDTO>> result = client.put()
+					.uri("/api/products/" + id).bodyValue(product(uniqueName("Diferido"), stock, 1, 1)).exchange()
+					.expectBody(PRODUCT).returnResult();
+			if (result.getStatus().value() != 409 || attempt == 10) {
+				assertThat(result.getStatus().value()).isEqualTo(200);
+				return result.getResponseBody().data().stock_actual();
+			}
+		}
+	}
+
+	WebTestClient.ResponseSpec dispense(int id, int delta) {
+		return client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", delta)).exchange();
+	}
+
+	int stock(int id) {
+		return client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody(PRODUCT)
+				.returnResult().getResponseBody().data().stock_actual();
+	}
+
+	int ledgerBalance(int id) {
+		return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) FROM movimientos_stock WHERE id_producto = ?",
+				Integer.class, id);
+	}
+
+	/**
+	 * Esperar a que se escriban las salidas del producto y a un volcado más, que
+	 * relee el stock cambiado por otras vías.
+	 */
+	void awaitFlush(int id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+		while (stockWriteBehindService.pendingStock(id) != 0) {
+			assertThat(System.currentTimeMillis()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+		Thread.sleep(50);
+	}
+}
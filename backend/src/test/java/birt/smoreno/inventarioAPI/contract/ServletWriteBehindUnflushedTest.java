@@ -0,0 +1,101 @@
+package birt.smoreno.inventarioAPI.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import birt.smoreno.inventarioAPI.services.StockWriteBehindService;
+
+/**
+ * Escritura diferida async con un intervalo de volcado que no llega durante la
+ * prueba ({@link StockWriteBehindService}): las salidas confirmadas siguen
+ * pendientes y sus unidades reservadas. Arranca con un fichero de salidas no
+ * escritas en la ejecución anterior.
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contract-write-behind-unflushed;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"inventario.stock.write-behind.enabled=true", "inventario.stock.write-behind.flush-interval=1h",
+		"inventario.stock.write-behind.durability=async" })
+class ServletWriteBehindUnflushedTest extends ServletContractTestSupport {
+
+	// Taladro en data-contract.sql, con 20 unidades
+	private static final int RECOVERED_PRODUCT = 5;
+
+	private static Path deadLetterFile;
+
+	@Autowired
+	StockWriteBehindService stockWriteBehindService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void deadLetterFile(DynamicPropertyRegistry registry) throws IOException {
+		deadLetterFile = Files.createTempFile("stock-write-behind", ".tsv");
+		Files.writeString(deadLetterFile,
+				"# id_producto\tdelta\tmotivo\n" + RECOVERED_PRODUCT + "\t-2\tSalida sin escribir\n");
+		registry.add(StockWriteBehindService.DEAD_LETTER_FILE, deadLetterFile::toString);
+	}
+
+	@Test
+	void appliesDeadLetterOnStartup() {
+		assertThat(deadLetterFile).doesNotExist();
+		assertThat(stock(RECOVERED_PRODUCT)).isEqualTo(18);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM movimientos_stock WHERE id_producto = ? AND delta = -2 AND motivo = ?",
+				Integer.class, RECOVERED_PRODUCT, "Salida sin escribir")).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsUpdateBelowReservedUnits() {
+		int id = createProduct(uniqueName("Pendiente"), 10, 1, 1);
+		dispense(id, -1).expectStatus().isOk().expectBody().jsonPath("$.data.stock_actual").isEqualTo(9);
+		assertThat(stockWriteBehindService.pendingStock(id)).isEqualTo(-1);
+
+		// Se reservan las 10 unidades: la que ya ha salido y 9 para las siguientes
+		client.put().uri("/api/products/" + id).bodyValue(product(uniqueName("Pendiente"), 5, 1, 1)).exchange()
+				.expectStatus().isEqualTo(409).expectBody().jsonPath("$.message")
+				.isEqualTo("Stock insuficiente: hay 10 unidades reservadas para salidas");
+		assertThat(stock(id)).isEqualTo(9);
+	}
+
+	@Test
+	void listEtagsChangeWithPendingDecrements() {
+		int id = createProduct(uniqueName("Pendiente"), 10, 1, 1);
+		String listEtag = etag("/api/products");
+		String underStockEtag = etag("/api/products/min");
+
+		dispense(id, -1).expectStatus().isOk();
+		assertThat(stockWriteBehindService.pendingStock(id)).isEqualTo(-1);
+		client.get().uri("/api/products").header(HttpHeaders.IF_NONE_MATCH, listEtag).exchange().expectStatus()
+				.isOk();
+		client.get().uri("/api/products/min").header(HttpHeaders.IF_NONE_MATCH, underStockEtag).exchange()
+				.expectStatus().isOk();
+	}
+
+	private String etag(String uri) {
+		return client.get().uri(uri).exchange().expectStatus().isOk().returnResult(Void.class).getResponseHeaders()
+				.getETag();
+	}
+
+	private WebTestClient.ResponseSpec dispense(int id, int delta) {
+		return client.post().uri("/api/products/" + id + "/movements").bodyValue(Map.of("delta", delta)).exchange();
+	}
+
+	private int stock(int id) {
+		return client.get().uri("/api/products/" + id).exchange().expectStatus().isOk().expectBody(PRODUCT)
+				.returnResult().getResponseBody().data().stock_actual();
+	}
+}
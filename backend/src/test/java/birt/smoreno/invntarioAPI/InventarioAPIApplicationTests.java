@@ -1,13 +0,0 @@
-package birt.smoreno.invntarioAPI;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class InventarioAPIApplicationTests {
-
-	@Test
-	void contextLoads() {
-	}
-
-}
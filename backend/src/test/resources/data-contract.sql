@@ -0,0 +1,13 @@
+-- Datos iniciales de las pruebas de contrato (ApiContractTest)
+
+INSERT INTO categorias (nombre, descripcion) VALUES
+    ('Herramientas', 'Herramientas manuales y eléctricas'),
+    ('Electricidad', 'Material eléctrico'),
+    ('Jardín', 'Sin productos');
+
+INSERT INTO productos (nombre, stock_actual, stock_minimo, id_categoria) VALUES
+    ('Martillo', 10, 5, 1),
+    ('Destornillador', 2, 5, 1),
+    ('Cable', 0, 10, 2),
+    ('Bombilla', 4, 5, 2),
+    ('Taladro', 20, 2, 1);
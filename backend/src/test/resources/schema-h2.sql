@@ -0,0 +1,55 @@
+-- Esquema de .initdb/init.sql adaptado a H2 (modo MariaDB) para los benchmarks
+-- (perfil benchmark), la prueba de carga (perfil perf) y las pruebas de contrato.
+-- H2 no admite UNSIGNED ni la sintaxis AS (...) STORED de las columnas generadas.
+
+CREATE TABLE categorias (
+    id_categoria INT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL UNIQUE,
+    descripcion VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_categorias_updated_at ON categorias (updated_at, id_categoria);
+
+CREATE TABLE productos (
+    id_producto INT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL UNIQUE,
+    stock_actual INT NOT NULL CHECK (stock_actual >= 0),
+    stock_minimo INT NOT NULL CHECK (stock_minimo >= 1),
+    deficit INT GENERATED ALWAYS AS (stock_minimo - stock_actual),
+    id_categoria INT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (id_categoria) REFERENCES categorias (id_categoria) ON DELETE RESTRICT
+);
+CREATE INDEX idx_productos_updated_at ON productos (updated_at, id_producto);
+CREATE INDEX idx_productos_deficit ON productos (deficit);
+
+CREATE TABLE movimientos_stock (
+    id_movimiento INT AUTO_INCREMENT PRIMARY KEY,
+    id_producto INT NOT NULL,
+    delta INT NOT NULL,
+    motivo VARCHAR(255),
+    ts TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (id_producto) REFERENCES productos (id_producto) ON DELETE CASCADE
+);
+CREATE INDEX idx_movimientos_stock_producto_ts ON movimientos_stock (id_producto, ts);
+CREATE INDEX idx_movimientos_stock_ts ON movimientos_stock (ts, id_producto, delta);
+
+CREATE TABLE snapshots_stock (
+    id_producto INT PRIMARY KEY,
+    saldo INT NOT NULL,
+    movimientos INT NOT NULL,
+    hasta TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (id_producto) REFERENCES productos (id_producto) ON DELETE CASCADE
+);
+
+CREATE TABLE reservas_stock (
+    id_producto INT NOT NULL,
+    instancia VARCHAR(64) NOT NULL,
+    unidades INT NOT NULL,
+    PRIMARY KEY (id_producto, instancia),
+    FOREIGN KEY (id_producto) REFERENCES productos (id_producto) ON DELETE CASCADE
+);
@@ -0,0 +1,39 @@
+// api.js
+
+// Identificador de esta pestaña. El backend lo usa para servir desde el
+// primario las lecturas que siguen a una escritura propia (X-Client-Id);
+// sessionStorage es distinto en cada pestaña y sobrevive a las recargas.
+// crypto.randomUUID solo existe en contextos seguros (HTTPS o localhost)
+const CLIENT_ID_KEY = "inventario.clientId";
+const clientId =
+  sessionStorage.getItem(CLIENT_ID_KEY) ??
+  crypto.randomUUID?.() ??
+  `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+sessionStorage.setItem(CLIENT_ID_KEY, clientId);
+
+// fetch con la cabecera X-Client-Id de la pestaña
+export function apiFetch(url, options = {}) {
+  const headers = new Headers(options.headers);
+  headers.set("X-Client-Id", clientId);
+  return fetch(url, { ...options, headers });
+}
+
+// Obtiene todos los elementos de un listado paginado por cursor, siguiendo
+// el campo nextCursor de cada respuesta hasta llegar a la última página
+export async function fetchAllPages(url) {
+  const items = [];
+  const separator = url.includes("?") ? "&" : "?";
+  let after = null;
+
+  do {
+    const pageUrl = after === null ? url : `${url}${separator}after=${after}`;
+    const res = await apiFetch(pageUrl);
+    if (!res.ok) throw new Error(`Error al obtener ${url}`);
+    const json = await res.json();
+
+    items.push(...json.data);
+    after = json.nextCursor ?? null;
+  } while (after !== null);
+
+  return items;
+}
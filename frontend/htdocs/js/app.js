@@ -2,6 +2,7 @@
 
 import { loadCategories, showCategoryModal } from "./categories.js";
 import { loadProducts, showProductModal} from "./products.js";
+import { API_BASE_PRODUCTS } from "./config.js";
 
 // Cambia de sección
 function showSection(sectionId) {
@@ -33,6 +34,11 @@ document.addEventListener("DOMContentLoaded", () => {
     .getElementById("lowStockCheck")
     .addEventListener("change", () => loadProducts());
 
+  // Suscripción a los cambios de bajo stock (Server-Sent Events): el servidor
+  // avisa solo cuando un producto cruza su mínimo, sin necesidad de sondear
+  const lowStockEvents = new EventSource(`${API_BASE_PRODUCTS}/min/stream`);
+  lowStockEvents.addEventListener("low-stock", () => loadProducts());
+
   // Evento para mostrar el modal de Categoría (nuevo o editar)
   document
     .getElementById("btnCategoryModal")
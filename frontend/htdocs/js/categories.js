@@ -1,17 +1,16 @@
 import { API_BASE_CATEGORIES } from "./config.js";
+import { apiFetch, fetchAllPages } from "./api.js";
 let editingCategoryId = null;
 
 // Carga las categorías desde la API y las muestra en tabla
 export async function loadCategories() {
   try {
-    const res = await fetch(`${API_BASE_CATEGORIES}`);
-    if (!res.ok) throw new Error("Error al cargar categorías");
-    const json = await res.json();
+    const categories = await fetchAllPages(API_BASE_CATEGORIES);
 
     const tbody = document.getElementById("categoriesTable");
     tbody.innerHTML = "";
 
-    json.data.forEach((cat) => {
+    categories.forEach((cat) => {
       const row = document.createElement("tr");
 
       row.innerHTML = `
@@ -58,7 +57,7 @@ export function showCategoryModal(id = null) {
 // Edita una categoría existente
 async function editCategory(id) {
   try {
-    const res = await fetch(`${API_BASE_CATEGORIES}/${id}`);
+    const res = await apiFetch(`${API_BASE_CATEGORIES}/${id}`);
     if (!res.ok) throw new Error("Error al obtener la categoría");
     const json = await res.json();
 
@@ -89,7 +88,7 @@ async function deleteCategory(id) {
   // Añadimos un único listener limpio
   newBtn.addEventListener("click", async () => {
     try {
-      const res = await fetch(`${API_BASE_CATEGORIES}/${id}`, {
+      const res = await apiFetch(`${API_BASE_CATEGORIES}/${id}`, {
         method: "DELETE",
       });
 
@@ -135,7 +134,7 @@ document
     const method = editingCategoryId ? "PUT" : "POST";
 
     try {
-      const res = await fetch(url, {
+      const res = await apiFetch(url, {
         method,
         headers: { "Content-Type": "application/json" },
         body: JSON.stringify(payload),
@@ -1,5 +1,6 @@
 import { API_BASE_PRODUCTS } from "./config.js";
 import { API_BASE_CATEGORIES } from "./config.js";
+import { apiFetch, fetchAllPages } from "./api.js";
 
 let editingProductId = null;
 
@@ -7,35 +8,27 @@ let editingProductId = null;
 export async function loadProducts() {
   try {
     const lowStock = document.getElementById("lowStockCheck").checked;
-    let url = `${API_BASE_PRODUCTS}`;
-    if (lowStock) url += "/min";
-
-    const res = await fetch(url);
-    if (!res.ok) throw new Error("Error al cargar productos");
-    const json = await res.json();
+    let products;
+    if (lowStock) {
+      const res = await apiFetch(`${API_BASE_PRODUCTS}/min?expand=category`);
+      if (!res.ok) throw new Error("Error al cargar productos");
+      const json = await res.json();
+      products = json.data;
+    } else {
+      // El listado completo está paginado: se recorren todas las páginas
+      products = await fetchAllPages(`${API_BASE_PRODUCTS}?expand=category`);
+    }
 
     const tbody = document.getElementById("productsTable");
     tbody.innerHTML = "";
 
     // json.data.forEach((prod) => {
-    for (const prod of json.data) {
+    for (const prod of products) {
       const row = document.createElement("tr");
       if (prod.stock_actual < prod.stock_minimo) row.classList.add("low-stock");
 
-      // buscar nombre de categoría según el id
-      let nombreCat = "Sin categoría";
-      try {
-        const resCat = await fetch(
-          `${API_BASE_CATEGORIES}/${prod.id_categoria}`
-        );
-        if (resCat.ok) {
-          const jsonCat = await resCat.json();
-          nombreCat = jsonCat?.data.nombre || "Sin categoría";
-        }
-      } catch (err) {
-        console.error(err);
-        nombreCat = "No disponible";
-      }
+      // La categoría viene incluida en el producto (expand=category)
+      const nombreCat = prod.categoria?.nombre || "Sin categoría";
 
       row.innerHTML = `
         <td>${prod.id}</td>
@@ -85,7 +78,7 @@ export async function showProductModal(id = null) {
 // Editar un producto existente
 async function editProduct(id) {
   try {
-    const res = await fetch(`${API_BASE_PRODUCTS}/${id}`);
+    const res = await apiFetch(`${API_BASE_PRODUCTS}/${id}`);
     if (!res.ok) throw new Error("Error al obtener el producto");
     const json = await res.json();
 
@@ -124,7 +117,7 @@ async function deleteProduct(id) {
   // Añadimos un único listener limpio
   newBtn.addEventListener("click", async () => {
     try {
-      const res = await fetch(`${API_BASE_PRODUCTS}/${id}`, {
+      const res = await apiFetch(`${API_BASE_PRODUCTS}/${id}`, {
         method: "DELETE",
       });
 
@@ -144,15 +137,13 @@ export async function cargarCategorias() {
   
   const select = document.getElementById("productCategoryId");
   try {
-    const res = await fetch(`${API_BASE_CATEGORIES}`);
-    if (!res.ok) throw new Error("Error al obtener categorías");
-    const json = await res.json();
+    const categories = await fetchAllPages(`${API_BASE_CATEGORIES}?sort=nombre`);
 
     // Limpia opciones anteriores
     select.innerHTML = '<option value=""></option>';
 
     // Agrega cada categoría al select
-    json.data.forEach(cat => {
+    categories.forEach(cat => {
       const option = document.createElement("option");
       option.value = cat.id;
       option.textContent = cat.nombre;
@@ -197,7 +188,7 @@ document.getElementById("productForm").addEventListener("submit", async (e) => {
 
   try {
     // Enviar el payload a la API en función del método (POST o PUT)
-    const res = await fetch(url, {
+    const res = await apiFetch(url, {
       method,
       headers: {
         "Content-Type": "application/json",